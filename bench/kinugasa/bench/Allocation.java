@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 現在のスレッドが割り当てたヒープの量を取得します.
+ * <br>
+ * benchのソースはモジュールの外でコンパイルされるため、本体では使用できないcom.sun.managementのThreadMXBeanを使用します。
+ * GCの影響を受けないため、使用中のヒープを比較するよりも正確に1フレームの割り当て量を求められます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_23:40:00<br>
+ * @author Shinacho<br>
+ */
+public final class Allocation {
+
+	private Allocation() {
+	}
+
+	private static final com.sun.management.ThreadMXBean BEAN;
+
+	static {
+		BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		BEAN.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	/**
+	 * このJVMで割り当て量を取得できるかを返します。
+	 *
+	 * @return 取得できる場合はtrue。
+	 */
+	public static boolean isSupported() {
+		return BEAN.isThreadAllocatedMemorySupported() && BEAN.isThreadAllocatedMemoryEnabled();
+	}
+
+	/**
+	 * 現在のスレッドがこれまでに割り当てたバイト数を返します。
+	 *
+	 * @return バイト数。
+	 */
+	public static long current() {
+		return BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * 処理を指定した回数実行し、1回あたりの割り当て量を返します。
+	 *
+	 * @param r 計測する処理。
+	 * @param times 回数。
+	 * @return 1回あたりのバイト数。
+	 */
+	public static long perCall(Runnable r, int times) {
+		long before = current();
+		for (int i = 0; i < times; i++) {
+			r.run();
+		}
+		return (current() - before) / times;
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ScreenEffectsの各プリセットを960x540と1920x1080の画像に適用し、1フレームの時間とヒープ使用量を計測する開発用ツールです.
+ * <br>
+ * 色を変換する3つのエフェクトを1回の走査にまとめた場合と、個別に適用した場合も比較します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_16:20:00<br>
+ * @author Shinacho<br>
+ */
+public class ScreenEffectBenchmark {
+
+	private ScreenEffectBenchmark() {
+	}
+
+	private static BufferedImage screen(int w, int h) {
+		BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		for (int i = 0; i < 16; i++) {
+			g.setColor(Color.getHSBColor(i / 16f, 0.6f, 0.8f));
+			g.fillRect(i * w / 16, 0, w / 16 + 1, h);
+		}
+		g.dispose();
+		return image;
+	}
+
+	private static BufferedImage mask(int w, int h) {
+		BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillOval(w / 4, h / 4, w / 2, h / 2);
+		g.dispose();
+		return image;
+	}
+
+	private static long usedHeap() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	private static void run(String name, BufferedImage image, Supplier<List<ScreenEffect>> effects, int frames) {
+		ScreenEffectChain chain = new ScreenEffectChain();
+		List<ScreenEffect> list = effects.get();
+		//前半はウォームアップ
+		for (int i = 0; i < frames; i++) {
+			image = chain.apply(image, list);
+		}
+		long before = usedHeap();
+		long t = System.nanoTime();
+		for (int i = 0; i < frames; i++) {
+			image = chain.apply(image, list);
+		}
+		t = System.nanoTime() - t;
+		long after = usedHeap();
+		System.out.printf("%-28s %4dx%-4d frame=%.3f ms heap=%,d KB%n",
+				name, image.getWidth(), image.getHeight(), t / 1_000_000d / frames,
+				(after - before) / 1024);
+	}
+
+	public static void main(String[] args) {
+		int frames = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int time = frames * 2 + 1;
+		new GameOption("ScreenEffectBenchmark");
+		int[][] sizes = {{960, 540}, {1920, 1080}};
+		for (int[] s : sizes) {
+			BufferedImage image = screen(s[0], s[1]);
+			BufferedImage mask = mask(s[0], s[1]);
+			run("reverseColor", image, () -> List.of(ScreenEffects.reverseColor(time)), frames);
+			run("reverseColor(mask)", image, () -> List.of(ScreenEffects.reverseColor(mask, time)), frames);
+			run("horizontalReverseImage", image, () -> List.of(ScreenEffects.horizontalReverseImage(time)), frames);
+			run("verticalReverseImage", image, () -> List.of(ScreenEffects.verticalReverseImage(time)), frames);
+			run("reverseImage", image, () -> List.of(ScreenEffects.reverseImage(time)), frames);
+			run("monochrome", image, () -> List.of(ScreenEffects.monochrome(time)), frames);
+			run("mozaic(8)", image, () -> List.of(ScreenEffects.mozaic(8, time)), frames);
+			run("rotate(5)", image, () -> List.of(ScreenEffects.rotate(5, time)), frames);
+			run("shake(8)", image, () -> List.of(ScreenEffects.shake(8, time)), frames);
+			run("grayScale", image, () -> List.of(ScreenEffects.grayScale(time)), frames);
+			run("fused(gray,reverse,mono)", image, () -> List.of(
+					ScreenEffects.grayScale(time),
+					ScreenEffects.reverseColor(time),
+					ScreenEffects.monochrome(time)), frames);
+			//doItで個別に適用させるため、PixelScreenEffectでないエフェクトで包む
+			run("separate(gray,reverse,mono)", image, () -> List.of(
+					wrap(ScreenEffects.grayScale(time)),
+					wrap(ScreenEffects.reverseColor(time)),
+					wrap(ScreenEffects.monochrome(time))), frames);
+		}
+	}
+
+	private static ScreenEffect wrap(ScreenEffect e) {
+		return src -> e.doIt(src);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.field4;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import kinugasa.game.GameOption;
+import kinugasa.game.GraphicsContext;
+import kinugasa.graphics.ImageUtil;
+import kinugasa.resource.KImage;
+
+/**
+ * 生成した巨大マップで、レイヤー全体画像による描画とチャンク描画のヒープ使用量と描画時間を比較する開発用ツールです。
+ *
+ * @vesion 1.0.0 - 2026/10/18_10:40:00<br>
+ * @author Shinacho<br>
+ */
+public class FieldMapLayerBenchmark {
+
+	private FieldMapLayerBenchmark() {
+	}
+
+	private static MapChip[][] generate(int w, int h, int chipSize) {
+		MapChip[] chips = new MapChip[8];
+		MapChipAttribute attr = new MapChipAttribute("BENCH");
+		for (int i = 0; i < chips.length; i++) {
+			BufferedImage image = ImageUtil.newImage(chipSize, chipSize);
+			Graphics2D g = image.createGraphics();
+			g.setColor(Color.getHSBColor(i / (float) chips.length, 0.6f, 0.8f));
+			g.fillRect(0, 0, chipSize, chipSize);
+			g.dispose();
+			chips[i] = new MapChip("C" + i, attr, new KImage(image));
+		}
+		MapChip[][] data = new MapChip[h][w];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				data[y][x] = chips[(x * 7 + y * 13) % chips.length];
+			}
+		}
+		return data;
+	}
+
+	private static long usedHeap() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	private static void run(String name, MapChip[][] data, float mg, boolean whole, int frames, int screenW, int screenH) {
+		long before = usedHeap();
+		FieldMapLayerSprite layer = new FieldMapLayerSprite(null, screenW, screenH, mg, data);
+		BufferedImage screen = ImageUtil.newImage(screenW, screenH);
+		if (whole) {
+			layer.getImage();
+		}
+		float maxX = data[0].length * data[0][0].getImage().get().getWidth() * mg - screenW;
+		float maxY = data.length * data[0][0].getImage().get().getHeight() * mg - screenH;
+		long total = 0;
+		for (int i = 0; i < frames; i++) {
+			layer.setLocation(-maxX * i / frames, -maxY * i / frames);
+			Graphics2D g2 = ImageUtil.createGraphics2D(screen, null);
+			GraphicsContext g = new GraphicsContext(g2);
+			long t = System.nanoTime();
+			if (whole) {
+				g.drawImage(layer.getImage(), (int) layer.getX(), (int) layer.getY());
+			} else {
+				layer.draw(g);
+			}
+			total += System.nanoTime() - t;
+			g2.dispose();
+		}
+		long after = usedHeap();
+		System.out.printf("%-8s heap=%,d KB frame=%.3f ms chunks=%d%n",
+				name, (after - before) / 1024, total / 1_000_000d / frames, layer.getCachedChunkCount());
+		layer.dispose();
+	}
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+		float mg = args.length > 1 ? Float.parseFloat(args[1]) : 2f;
+		int frames = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+		int screenW = 960;
+		int screenH = 540;
+		new GameOption("FieldMapLayerBenchmark").setWindowSize(new Dimension(screenW, screenH));
+		MapChip[][] data = generate(size, size, 16);
+		System.out.println("map=" + size + "x" + size + " mg=" + mg + " frames=" + frames);
+		run("chunk", data, mg, false, frames, screenW, screenH);
+		run("whole", data, mg, true, frames, screenW, screenH);
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.field4;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import kinugasa.game.GameOption;
+import kinugasa.game.GraphicsContext;
+import kinugasa.graphics.ImageUtil;
+import kinugasa.graphics.RenderingQuality;
+import kinugasa.resource.KImage;
+
+/**
+ * チャンク描画のタイルの位置が、レイヤー全体を1枚の画像に描画していたときと一致することを確認します.
+ * <br>
+ * 拡大率が整数でない場合も含めて、いくつかの表示位置で画面の全ピクセルを比較し、
+ * 一致しない場合は終了コード1で終了します。<code>ant bench-check</code>から実行されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_16:20:00<br>
+ * @author Shinacho<br>
+ */
+public class FieldMapLayerPositionCheck {
+
+	private FieldMapLayerPositionCheck() {
+	}
+
+	private static final int SCREEN_W = 320;
+	private static final int SCREEN_H = 240;
+
+	private static MapChip[][] generate(int w, int h, int chipSize) {
+		MapChip[] chips = new MapChip[8];
+		MapChipAttribute attr = new MapChipAttribute("CHECK");
+		for (int i = 0; i < chips.length; i++) {
+			BufferedImage image = ImageUtil.newImage(chipSize, chipSize);
+			Graphics2D g = image.createGraphics();
+			g.setColor(Color.getHSBColor(i / (float) chips.length, 0.6f, 0.8f));
+			g.fillRect(0, 0, chipSize, chipSize);
+			g.dispose();
+			chips[i] = new MapChip("C" + i, attr, new KImage(image));
+		}
+		MapChip[][] data = new MapChip[h][w];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				data[y][x] = chips[(x * 7 + y * 13) % chips.length];
+			}
+		}
+		return data;
+	}
+
+	//チャンク描画を導入する前のFieldMapLayerSprite.buildと同じ方法でレイヤー全体を描画する
+	private static BufferedImage buildWhole(MapChip[][] data, float mg) {
+		BufferedImage image = ImageUtil.newImage(
+				(int) (data[0].length * data[0][0].getImage().getWidth() * mg),
+				(int) (data.length * data[0][0].getImage().getHeight() * mg));
+		Graphics2D g = ImageUtil.createGraphics2D(image, RenderingQuality.SPEED);
+		for (int y = 0; y < data.length; y++) {
+			for (int x = 0; x < data[y].length; x++) {
+				BufferedImage cellImage = data[y][x].getImage().get();
+				int lx = (int) (x * data[y][x].getImage().getWidth() * mg);
+				int ly = (int) (y * data[y][x].getImage().getHeight() * mg);
+				g.drawImage(cellImage, lx, ly, (int) (cellImage.getWidth() * mg), (int) (cellImage.getHeight() * mg), null);
+			}
+		}
+		g.dispose();
+		return image;
+	}
+
+	private static int check(MapChip[][] data, float mg) {
+		FieldMapLayerSprite layer = new FieldMapLayerSprite(null, SCREEN_W, SCREEN_H, mg, data);
+		BufferedImage whole = buildWhole(data, mg);
+		BufferedImage expected = ImageUtil.newImage(SCREEN_W, SCREEN_H);
+		BufferedImage actual = ImageUtil.newImage(SCREEN_W, SCREEN_H);
+		int failed = 0;
+		int[][] locations = {{0, 0}, {-1, -1}, {-333, -177}, {-517, -431}, {-(whole.getWidth() - SCREEN_W), -(whole.getHeight() - SCREEN_H)}};
+		for (int[] l : locations) {
+			layer.setLocation(l[0], l[1]);
+			Graphics2D g = expected.createGraphics();
+			g.setBackground(new Color(0, 0, 0, 0));
+			g.clearRect(0, 0, SCREEN_W, SCREEN_H);
+			g.drawImage(whole, l[0], l[1], null);
+			g.dispose();
+			g = actual.createGraphics();
+			g.setBackground(new Color(0, 0, 0, 0));
+			g.clearRect(0, 0, SCREEN_W, SCREEN_H);
+			layer.draw(new GraphicsContext(g));
+			g.dispose();
+			int diff = 0;
+			for (int y = 0; y < SCREEN_H; y++) {
+				for (int x = 0; x < SCREEN_W; x++) {
+					if (expected.getRGB(x, y) != actual.getRGB(x, y)) {
+						diff++;
+					}
+				}
+			}
+			System.out.printf("FieldMapLayerPositionCheck : mg=%s location=%d,%d diff=%d px%n", mg, l[0], l[1], diff);
+			if (diff > 0) {
+				failed++;
+			}
+		}
+		layer.dispose();
+		return failed;
+	}
+
+	public static void main(String[] args) {
+		new GameOption("FieldMapLayerPositionCheck").setWindowSize(new Dimension(SCREEN_W, SCREEN_H));
+		MapChip[][] data = generate(70, 60, 16);
+		int failed = 0;
+		for (float mg : new float[]{1f, 1.3f, 1.5f, 2f, 2.7f}) {
+			failed += check(data, mg);
+		}
+		if (failed > 0) {
+			System.err.println("FieldMapLayerPositionCheck : FAILED : " + failed + " location(s)");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import kinugasa.bench.Allocation;
+import kinugasa.game.GameOption;
+import kinugasa.game.GraphicsContext;
+
+/**
+ * 値の変わらない戦闘画面のBattleStatusWindowsの1フレームがメモリを割り当てないことを確認します.
+ * <br>
+ * 装備品を持つ4人のアクターでBattleStatusWindowsを作成し、戦闘中と同じようにupdateとdrawを毎フレーム呼び出します。
+ * updateで行われるメンバーごとのgetEffectedStatusも計測に含まれます。
+ * 十分にウォームアップした後の1フレームの割り当て量が上限を超えた場合は、終了コード1で終了します。
+ * <code>ant bench-check</code>から実行されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_11:20:00<br>
+ * @author Shinacho<br>
+ */
+public class BattleStatusWindowsAllocationCheck {
+
+	private BattleStatusWindowsAllocationCheck() {
+	}
+
+	private static final int PARTY = 4;
+	//JITのウォームアップ
+	private static final int WARMUP_FRAMES = 20_000;
+	private static final int FRAMES = 5_000;
+	//1フレームの割り当て量の上限
+	private static final long MAX_BYTES_PER_FRAME = 16;
+
+	private static Actor actor(String id) {
+		Actor a = new Actor(id, id, Race.人間, new PCSprite(0, 0, 16));
+		Status s = a.getStatus();
+		for (StatusKey k : new StatusKey[]{StatusKey.体力, StatusKey.魔力, StatusKey.正気度}) {
+			s.getBaseStatus().get(k).setMax(100);
+			s.getBaseStatus().get(k).setValue(80);
+		}
+		StatusValueSet vs = new StatusValueSet();
+		vs.add(new StatusValue(StatusKey.攻撃力, 10));
+		Item i = new Item(id + "_WEAPON", id).setSlot(EqipSlot.右手).setStatus(vs);
+		s.getItemBag().add(i);
+		s.eqip(i);
+		s.addCondition(ConditionKey.毒, 3);
+		return a;
+	}
+
+	public static void main(String[] args) {
+		if (!Allocation.isSupported()) {
+			System.out.println("BattleStatusWindowsAllocationCheck : thread allocation counter is not supported, skipped");
+			return;
+		}
+		new GameOption("BattleStatusWindowsAllocationCheck");
+		List<Actor> party = new ArrayList<>();
+		for (int i = 0; i < PARTY; i++) {
+			party.add(actor("PC" + i));
+		}
+		BattleStatusWindows bsw = new BattleStatusWindows(party);
+		BufferedImage screen = new BufferedImage(960, 540, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = screen.createGraphics();
+		GraphicsContext g = new GraphicsContext(g2);
+		Runnable frame = () -> {
+			bsw.update();
+			bsw.draw(g);
+		};
+		for (int i = 0; i < WARMUP_FRAMES; i++) {
+			frame.run();
+		}
+		long bytes = Allocation.perCall(frame, FRAMES);
+		g2.dispose();
+		System.out.printf("BattleStatusWindowsAllocationCheck : party=%d alloc=%,d bytes/frame (max %d)%n",
+				PARTY, bytes, MAX_BYTES_PER_FRAME);
+		if (bytes > MAX_BYTES_PER_FRAME) {
+			System.err.println("BattleStatusWindowsAllocationCheck : FAILED : an idle battle frame allocates " + bytes + " bytes");
+			System.exit(1);
+		}
+	}
+
+}
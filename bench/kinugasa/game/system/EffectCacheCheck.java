@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+/**
+ * 装備品を変更した後に、Statusの効果適用後の値のキャッシュが更新されることを確認します.
+ * <br>
+ * 装備中のアイテムを強化した場合と、アイテムの属性を入れ替えた場合に、キャッシュを破棄して計算し直した値と一致することを確認し、
+ * 一致しない場合は終了コード1で終了します。<code>ant bench-check</code>から実行されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_09:40:00<br>
+ * @author Shinacho<br>
+ */
+public class EffectCacheCheck {
+
+	private EffectCacheCheck() {
+	}
+
+	private static int failed = 0;
+
+	public static void main(String[] args) {
+		//強化の素材の消費を省略する
+		GameSystem.setDebugMode(true);
+		Status s = new Status("EffectCacheCheck", Race.人間);
+		s.getBaseStatus().get(StatusKey.攻撃力).setValue(5);
+
+		StatusValueSet vs = new StatusValueSet();
+		vs.add(new StatusValue(StatusKey.攻撃力, 10));
+		Item sword = new Item("EFFECT_CACHE_CHECK", "sword")
+				.setSlot(EqipSlot.右手)
+				.setStatus(vs);
+		s.getItemBag().add(sword);
+		s.eqip(sword);
+
+		//装備中のアイテムを強化した後の値
+		float before = s.getEffectedStatus().get(StatusKey.攻撃力).getValue();
+		sword.doUpgrade();
+		float cached = s.getEffectedStatus().get(StatusKey.攻撃力).getValue();
+		s.clearEffectCache();
+		check("upgrade", before, cached, s.getEffectedStatus().get(StatusKey.攻撃力).getValue());
+
+		//装備中のアイテムの属性を入れ替えた後の値
+		AttributeValueSet in = new AttributeValueSet();
+		in.init();
+		for (AttributeValue v : in) {
+			v.setValue(0.5f);
+		}
+		AttributeKey k = AttributeKey.values()[0];
+		before = s.getEffectedAttrIn().get(k).getValue();
+		sword.setAttrIn(in);
+		cached = s.getEffectedAttrIn().get(k).getValue();
+		s.clearEffectCache();
+		check("setAttrIn", before, cached, s.getEffectedAttrIn().get(k).getValue());
+
+		if (failed > 0) {
+			System.err.println("EffectCacheCheck : FAILED : " + failed + " stale value(s)");
+			System.exit(1);
+		}
+	}
+
+	private static void check(String name, float before, float cached, float expected) {
+		System.out.printf("EffectCacheCheck : %-9s before=%s cached=%s expected=%s%n", name, before, cached, expected);
+		if (Float.compare(cached, expected) != 0 || Float.compare(before, expected) == 0) {
+			failed++;
+		}
+	}
+
+}
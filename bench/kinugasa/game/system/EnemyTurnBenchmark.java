@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import kinugasa.game.GameOption;
+
+/**
+ * 敵の1ターンで発生するStatusの効果適用後の値の取得と、ダメージ計算の時間を計測する開発用ツールです.
+ * <br>
+ * EnemyAIImplのアタッカーと同じ順に、一番体力が高いPCを探し、候補の行動ごとに自分のステータスを参照し、
+ * DamageCalcSystemで1回の攻撃を計算します。EnemyAIImplは戦闘画面のスプライトの座標に依存するため、行動の選択は同じ回数の参照で置き換えています。<br>
+ * 変更前の版と比較できるように、このクラスは以前からある公開APIとパッケージのAPIだけを使用します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_10:10:00<br>
+ * @author Shinacho<br>
+ */
+public class EnemyTurnBenchmark {
+
+	private EnemyTurnBenchmark() {
+	}
+
+	//EnemyAIImplが比較する攻撃の候補の数
+	private static final int CANDIDATES = 8;
+	private static final int PARTY = 4;
+
+	private static Actor actor(String id) {
+		Actor a = new Actor(id, id, Race.人間, new PCSprite(0, 0, 16));
+		Status s = a.getStatus();
+		for (StatusKey k : new StatusKey[]{StatusKey.体力, StatusKey.魔力, StatusKey.正気度}) {
+			s.getBaseStatus().get(k).setMax(500);
+			s.getBaseStatus().get(k).setValue(500);
+		}
+		for (StatusKey k : new StatusKey[]{StatusKey.筋力, StatusKey.器用さ, StatusKey.素早さ}) {
+			s.getBaseStatus().get(k).setMax(100);
+			s.getBaseStatus().get(k).setValue(50);
+		}
+		for (AttributeValue v : s.getAttrIn()) {
+			v.setValue(1);
+		}
+		for (AttributeValue v : s.getAttrOut()) {
+			v.setValue(1);
+		}
+		eqip(s, id + "_WEAPON", EqipSlot.右手, StatusKey.攻撃力, 20);
+		eqip(s, id + "_ARMOR", EqipSlot.胴体, StatusKey.防御力, 10);
+		return a;
+	}
+
+	private static void eqip(Status s, String id, EqipSlot slot, StatusKey k, float v) {
+		StatusValueSet vs = new StatusValueSet();
+		vs.add(new StatusValue(k, v));
+		Item i = new Item(id, id).setSlot(slot).setStatus(vs);
+		s.getItemBag().add(i);
+		s.eqip(i);
+	}
+
+	private static float turn(Actor enemy, List<Actor> party) {
+		//一番体力が高いPC
+		Actor tgt = null;
+		float max = -1;
+		for (Actor a : party) {
+			float hp = a.getStatus().getEffectedStatus().get(StatusKey.体力).getValue();
+			if (max < hp) {
+				max = hp;
+				tgt = a;
+			}
+		}
+		//威力順の並べ替えと資源の確認で、候補ごとに自分のステータスを参照する
+		float sum = 0;
+		for (int i = 0; i < CANDIDATES; i++) {
+			sum += enemy.getStatus().getEffectedStatus().get(StatusKey.攻撃力).getValue();
+			sum += enemy.getStatus().getEffectedStatus().get(StatusKey.魔力).getValue();
+		}
+		DamageCalcSystem.Result r = DamageCalcSystem.calcDamage(new DamageCalcSystem.Param(
+				enemy, tgt, AttributeKey.斬撃, DamageCalcSystem.ActionType.物理攻撃, -20, StatusKey.体力, StatusKey.筋力));
+		//次のターンも同じ条件になるように戻す
+		tgt.getStatus().getBaseStatus().get(StatusKey.体力).setValue(500);
+		enemy.getStatus().getBaseStatus().get(StatusKey.体力).setValue(500);
+		return sum + r.finalValue;
+	}
+
+	public static void main(String[] args) {
+		int turns = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		new GameOption("EnemyTurnBenchmark");
+		Actor enemy = actor("EN");
+		List<Actor> party = new ArrayList<>();
+		for (int i = 0; i < PARTY; i++) {
+			party.add(actor("PC" + i));
+		}
+		float sink = 0;
+		for (int round = 0; round < 5; round++) {
+			long t = System.nanoTime();
+			for (int i = 0; i < turns; i++) {
+				sink += turn(enemy, party);
+			}
+			t = System.nanoTime() - t;
+			System.out.printf("EnemyTurnBenchmark : round=%d turn=%.2f us%n", round, t / 1000d / turns);
+		}
+		if (Float.isNaN(sink)) {
+			System.out.println(sink);
+		}
+	}
+
+}
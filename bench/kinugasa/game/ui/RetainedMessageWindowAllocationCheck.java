@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.ui;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import kinugasa.bench.Allocation;
+import kinugasa.game.GameOption;
+import kinugasa.game.GraphicsContext;
+
+/**
+ * 値の変わらないRetainedMessageWindowの描画がメモリを割り当てないことを確認します.
+ * <br>
+ * ValueWatcherで変化を検出するステータス表示と同じ使い方で、十分にウォームアップした後の1フレームの割り当て量が上限以下であることを確認し、
+ * 超えた場合は終了コード1で終了します。<code>ant bench-check</code>から実行されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_23:45:00<br>
+ * @author Shinacho<br>
+ */
+public class RetainedMessageWindowAllocationCheck {
+
+	private RetainedMessageWindowAllocationCheck() {
+	}
+
+	private static final int WINDOWS = 4;
+	//JITのウォームアップ
+	private static final int WARMUP_FRAMES = 20_000;
+	private static final int FRAMES = 5_000;
+	//1フレームの割り当て量の上限
+	private static final long MAX_BYTES_PER_FRAME = 16;
+
+	public static void main(String[] args) {
+		if (!Allocation.isSupported()) {
+			System.out.println("RetainedMessageWindowAllocationCheck : thread allocation counter is not supported, skipped");
+			return;
+		}
+		new GameOption("RetainedMessageWindowAllocationCheck");
+		BufferedImage screen = new BufferedImage(960, 540, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = screen.createGraphics();
+		GraphicsContext g = new GraphicsContext(g2);
+		MessageWindow[] mw = new MessageWindow[WINDOWS];
+		ValueWatcher[] vw = new ValueWatcher[WINDOWS];
+		for (int i = 0; i < WINDOWS; i++) {
+			mw[i] = new RetainedMessageWindow(3 + i * 238, 3, 238, 68, new SimpleMessageWindowModel(""));
+			vw[i] = new ValueWatcher(1);
+		}
+		Runnable frame = () -> RetainedMessageWindowBenchmark.retained(mw, vw, g);
+		for (int i = 0; i < WARMUP_FRAMES; i++) {
+			frame.run();
+		}
+		long bytes = Allocation.perCall(frame, FRAMES);
+		g2.dispose();
+		System.out.printf("RetainedMessageWindowAllocationCheck : windows=%d alloc=%,d bytes/frame (max %d)%n",
+				WINDOWS, bytes, MAX_BYTES_PER_FRAME);
+		if (bytes > MAX_BYTES_PER_FRAME) {
+			System.err.println("RetainedMessageWindowAllocationCheck : FAILED : unchanged windows allocate " + bytes + " bytes/frame");
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.ui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import kinugasa.bench.Allocation;
+import kinugasa.game.GameOption;
+import kinugasa.game.GraphicsContext;
+
+/**
+ * ステータス表示のような値の変わらないウインドウについて、1フレームのメモリ割り当て量と時間を計測する開発用ツールです.
+ * <br>
+ * 毎フレームテキストとモデルを作り直してMessageWindowで描画する場合と、
+ * ValueWatcherで変化を検出してRetainedMessageWindowで描画する場合を比較します。
+ * 割り当て量はAllocationでこのスレッドの割り当てバイト数から求めます。
+ * 割り当て量の上限の確認はRetainedMessageWindowAllocationCheckで行います。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_21:00:00<br>
+ * @author Shinacho<br>
+ */
+public class RetainedMessageWindowBenchmark {
+
+	private RetainedMessageWindowBenchmark() {
+	}
+
+	private static final int WINDOWS = 4;
+
+	static String text(int i, int hp) {
+		return "PC" + i + " | HP:" + hp + Text.getLineSep() + "    | MP:" + (hp / 2) + Text.getLineSep() + "    | SAN:" + (hp / 3);
+	}
+
+	//毎フレーム作り直す
+	private static void rebuild(MessageWindow[] mw, GraphicsContext g) {
+		for (int i = 0; i < mw.length; i++) {
+			Text t = Text.of(text(i, 100 + i));
+			t.allText();
+			mw[i].setText(t);
+			SimpleMessageWindowModel model = new SimpleMessageWindowModel("");
+			model.setFont(FontModel.DEFAULT.clone().setColor(Color.WHITE));
+			mw[i].setModel(model);
+			mw[i].draw(g);
+		}
+	}
+
+	//変化した場合だけ作り直す
+	static void retained(MessageWindow[] mw, ValueWatcher[] vw, GraphicsContext g) {
+		for (int i = 0; i < mw.length; i++) {
+			if (vw[i].watch(0, 100 + i).poll()) {
+				Text t = Text.of(text(i, 100 + i));
+				t.allText();
+				mw[i].setText(t);
+			}
+			mw[i].draw(g);
+		}
+	}
+
+	private static void run(String name, Runnable frame, int frames) {
+		for (int i = 0; i < frames; i++) {
+			frame.run();
+		}
+		long t = System.nanoTime();
+		long bytes = Allocation.perCall(frame, frames);
+		t = System.nanoTime() - t;
+		System.out.printf("%-10s windows=%d frame=%.3f ms alloc=%,d bytes/frame%n",
+				name, WINDOWS, t / 1_000_000d / frames, bytes);
+	}
+
+	public static void main(String[] args) {
+		int frames = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		new GameOption("RetainedMessageWindowBenchmark");
+		BufferedImage screen = new BufferedImage(960, 540, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = screen.createGraphics();
+		GraphicsContext g = new GraphicsContext(g2);
+
+		MessageWindow[] legacy = new MessageWindow[WINDOWS];
+		MessageWindow[] retained = new MessageWindow[WINDOWS];
+		ValueWatcher[] vw = new ValueWatcher[WINDOWS];
+		for (int i = 0; i < WINDOWS; i++) {
+			legacy[i] = new MessageWindow(3 + i * 238, 3, 238, 68);
+			retained[i] = new RetainedMessageWindow(3 + i * 238, 3, 238, 68, new SimpleMessageWindowModel(""));
+			vw[i] = new ValueWatcher(1);
+		}
+		run("rebuild", () -> rebuild(legacy, g), frames);
+		run("retained", () -> retained(retained, vw, g), frames);
+		g2.dispose();
+	}
+
+}
@@ -16,11 +16,21 @@
  */
 package kinugasa.game;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
 import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 import kinugasa.resource.Storage;
 
 /**
@@ -30,6 +40,16 @@ import kinugasa.resource.Storage;
  * <br>
  * グローバルログの設定がGameConfigによってなされていない場合は、すべてのログは標準出力に出力されます。<br>
  * ※GameConfigのグローバルログの設定がなされていない場合は、標準出力であってもログの出力を行うべきではありません。<br>
+ * <br>
+ * ログは固定長のリングバッファに記録され、バックグラウンドのスレッドがまとめて標準出力とファイルに書き込みます。
+ * 呼び出し元のスレッドはファイルへの書き込みを待ちません。<br>
+ * print(String, Object)、print(String, long)のような引数付きの形式では、"{}"の位置に引数を埋め込んだ文字列が書き込み時に作成されます。
+ * 引数付きの形式は1から3個のObject、またはlong、double、charを1個受け取るものがあります。
+ * 呼び出し元では文字列を連結しないため、メモリを確保しません。
+ * ただし引数のtoStringは書き込みスレッドから後で呼ばれるため、引数には変更されない値を渡してください。<br>
+ * バッファが一杯の場合は、OverflowPolicyに従ってログを破棄するか、空きができるまで待ちます。<br>
+ * ファイルは指定したサイズまたは時間でローテーションされます。<br>
+ * 異常終了の際はflushを呼び出して、記録済みのログを書き込んでください。JVMの終了時にも残りのログが書き込まれます。<br>
  *
  * @version 1.0.0 - 2015/01/03<br>
  * @author Shinacho<br>
@@ -39,29 +59,102 @@ public final class GameLog {
 
 	private GameLog() {
 	}
+
+	/**
+	 * バッファが一杯の場合の動作です.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * ログを破棄します。破棄した件数は次に書き込まれるログの前に記録されます。
+		 */
+		DROP,
+		/**
+		 * 空きができるまで待ちます。書き込みスレッドから呼び出された場合は破棄します。
+		 */
+		BLOCK,
+	}
+
+	//バッファの1件
+	private static final class Event {
+
+		long time;
+		String thread;
+		String text;
+		Object a0, a1, a2;
+		long l;
+		double d;
+		byte kind;
+		int argc;
+	}
+	private static final byte PLAIN = 0;
+	private static final byte OBJECTS = 1;
+	private static final byte LONG = 2;
+	private static final byte DOUBLE = 3;
+	private static final byte CHAR = 4;
+
+	private static final int CAPACITY = 8192;
+	private static final int MASK = CAPACITY - 1;
+	private static final Event[] RING = new Event[CAPACITY];
+	//各スロットの状態。i番目に書き込める位置または読み出せる位置+1
+	private static final AtomicLongArray SEQ = new AtomicLongArray(CAPACITY);
+	private static final AtomicLong TAIL = new AtomicLong();
+	private static final AtomicLong DROPPED = new AtomicLong();
+	private static volatile long head;
+	//書き込み済みの件数
+	private static volatile long written;
+
+	static {
+		for (int i = 0; i < CAPACITY; i++) {
+			RING[i] = new Event();
+			SEQ.set(i, i);
+		}
+	}
+
 	private static boolean using = false;
 	private static String logFilePath;
-	private static BufferedWriter writer;
+	private static FileChannel channel;
+	private static long fileBytes;
+	private static long fileOpenedTime;
+	private static long rotateBytes = 0;
+	private static long rotateMillis = 0;
+	private static int rotateBackups = 5;
+	private static volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+	private static volatile Thread writerThread;
+	private static volatile boolean closed = false;
+	private static final Object LOCK = new Object();
 
 	protected static void usingLog(String path) {
-		using = true;
-		logFilePath = path;
-
-		if (using) {
+		synchronized (LOCK) {
+			using = true;
+			logFilePath = path;
+			closed = false;
 			try {
-				writer = new BufferedWriter(new FileWriter(new File(path)));
+				if (channel != null) {
+					channel.close();
+				}
+				channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+				fileBytes = 0;
+				fileOpenedTime = System.currentTimeMillis();
 			} catch (IOException ex) {
+				channel = null;
 			}
 		}
+		startWriter();
 	}
 
 	protected static void close() {
-		if (writer == null) {
-			return;
-		}
-		try {
-			writer.close();
-		} catch (IOException ex) {
+		flush();
+		synchronized (LOCK) {
+			closed = true;
+			if (channel == null) {
+				return;
+			}
+			try {
+				channel.force(false);
+				channel.close();
+			} catch (IOException ex) {
+			}
+			channel = null;
 		}
 	}
 
@@ -74,7 +167,7 @@ public final class GameLog {
 	}
 
 	public static void print(String string) {
-		out(string);
+		offer(PLAIN, string, null, null, null, 0, 0, 0);
 	}
 
 	public static void print(Object string) {
@@ -87,20 +180,396 @@ public final class GameLog {
 				print(t);
 			}
 		} else {
-			out(string.toString());
+			print(string.toString());
 		}
 	}
 
-	private static void out(String s) {
-		try {
-			System.out.println(s);
-			if (writer == null) {
+	/**
+	 * 引数を埋め込んだログを出力します。
+	 *
+	 * @param format "{}"の位置に引数が埋め込まれる文字列。
+	 * @param a 引数。変更されない値を渡してください。
+	 */
+	public static void print(String format, Object a) {
+		offer(OBJECTS, format, a, null, null, 1, 0, 0);
+	}
+
+	public static void print(String format, Object a, Object b) {
+		offer(OBJECTS, format, a, b, null, 2, 0, 0);
+	}
+
+	public static void print(String format, Object a, Object b, Object c) {
+		offer(OBJECTS, format, a, b, c, 3, 0, 0);
+	}
+
+	/**
+	 * 整数を埋め込んだログを出力します。値はボクシングされません。
+	 *
+	 * @param format "{}"の位置に値が埋め込まれる文字列。
+	 * @param v 値。
+	 */
+	public static void print(String format, long v) {
+		offer(LONG, format, null, null, null, 1, v, 0);
+	}
+
+	public static void print(String format, double v) {
+		offer(DOUBLE, format, null, null, null, 1, 0, v);
+	}
+
+	/**
+	 * 文字を埋め込んだログを出力します。このメソッドがない場合、charはprint(String, long)が呼ばれて文字コードが出力されます。
+	 *
+	 * @param format "{}"の位置に文字が埋め込まれる文字列。
+	 * @param v 文字。
+	 */
+	public static void print(String format, char v) {
+		offer(CHAR, format, null, null, null, 1, v, 0);
+	}
+
+	private static void offer(byte kind, String text, Object a0, Object a1, Object a2, int argc, long l, double d) {
+		if (closed) {
+			//クローズ後は直接出力する
+			System.out.println(kind == PLAIN ? text : format(text, kind, a0, a1, a2, argc, l, d, new StringBuilder()));
+			return;
+		}
+		if (writerThread == null) {
+			startWriter();
+		}
+		long pos = TAIL.get();
+		while (true) {
+			int i = (int) (pos & MASK);
+			long dif = SEQ.get(i) - pos;
+			if (dif == 0) {
+				if (TAIL.compareAndSet(pos, pos + 1)) {
+					Event e = RING[i];
+					e.time = System.currentTimeMillis();
+					e.thread = Thread.currentThread().getName();
+					e.kind = kind;
+					e.text = text;
+					e.a0 = a0;
+					e.a1 = a1;
+					e.a2 = a2;
+					e.argc = argc;
+					e.l = l;
+					e.d = d;
+					SEQ.lazySet(i, pos + 1);
+					return;
+				}
+				pos = TAIL.get();
+			} else if (dif < 0) {
+				//一杯
+				if (overflowPolicy == OverflowPolicy.DROP || Thread.currentThread() == writerThread) {
+					DROPPED.incrementAndGet();
+					return;
+				}
+				LockSupport.unpark(writerThread);
+				LockSupport.parkNanos(100_000);
+				pos = TAIL.get();
+			} else {
+				pos = TAIL.get();
+			}
+		}
+	}
+
+	private static String format(String format, byte kind, Object a0, Object a1, Object a2, int argc, long l, double d, StringBuilder sb) {
+		int from = 0;
+		for (int n = 0; n < argc; n++) {
+			int idx = format.indexOf("{}", from);
+			if (idx < 0) {
+				break;
+			}
+			sb.append(format, from, idx);
+			switch (kind) {
+				case LONG:
+					sb.append(l);
+					break;
+				case DOUBLE:
+					sb.append(d);
+					break;
+				case CHAR:
+					sb.append((char) l);
+					break;
+				default:
+					Object o = n == 0 ? a0 : n == 1 ? a1 : a2;
+					try {
+						sb.append(o);
+					} catch (RuntimeException ex) {
+						sb.append("[").append(ex).append("]");
+					}
+					break;
+			}
+			from = idx + 2;
+		}
+		sb.append(format, from, format.length());
+		return sb.toString();
+	}
+
+	private static void startWriter() {
+		synchronized (LOCK) {
+			if (writerThread != null) {
 				return;
 			}
-			writer.append(s);
-			writer.newLine();
-			writer.flush();
+			Thread t = new Thread(GameLog::writeLoop, "kgf log writer");
+			t.setDaemon(true);
+			t.setPriority(Thread.MIN_PRIORITY);
+			writerThread = t;
+			t.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(1000), "kgf log flush"));
+		}
+	}
+
+	private static void writeLoop() {
+		StringBuilder out = new StringBuilder(8192);
+		StringBuilder file = new StringBuilder(8192);
+		StringBuilder msg = new StringBuilder(256);
+		DateCache date = new DateCache();
+		while (true) {
+			int n;
+			try {
+				n = drain(out, file, msg, date);
+			} catch (RuntimeException | Error ex) {
+				//書き込みスレッドを止めると以降のログがすべて失われるため、報告して続ける
+				System.err.println("GameLog : writer error : " + ex);
+				out.setLength(0);
+				file.setLength(0);
+				n = 0;
+			}
+			if (n == 0) {
+				LockSupport.parkNanos(5_000_000);
+			}
+		}
+	}
+
+	//読み出せるログをまとめて書き込む。書き込み処理は1つのスレッドだけが行う
+	private static int drain(StringBuilder out, StringBuilder file, StringBuilder msg, DateCache date) {
+		synchronized (LOCK) {
+			int n = 0;
+			long dropped = DROPPED.getAndSet(0);
+			if (dropped > 0) {
+				line(System.currentTimeMillis(), Thread.currentThread().getName(), "GameLog : " + dropped + " messages are dropped", out, file, date);
+			}
+			long pos = head;
+			try {
+				while (n < 1024) {
+					int i = (int) (pos & MASK);
+					if (SEQ.get(i) != pos + 1) {
+						break;
+					}
+					Event e = RING[i];
+					try {
+						String s;
+						if (e.kind == PLAIN) {
+							s = e.text;
+						} else {
+							try {
+								msg.setLength(0);
+								s = format(e.text, e.kind, e.a0, e.a1, e.a2, e.argc, e.l, e.d, msg);
+							} catch (RuntimeException | Error ex) {
+								s = e.text + " [GameLog : format error : " + ex + "]";
+							}
+						}
+						line(e.time, e.thread, s, out, file, date);
+					} finally {
+						//例外が発生しても、このスロットは解放して先に進む
+						e.text = null;
+						e.a0 = e.a1 = e.a2 = null;
+						e.thread = null;
+						SEQ.lazySet(i, pos + CAPACITY);
+						pos++;
+						n++;
+					}
+				}
+			} finally {
+				head = pos;
+				written += n;
+			}
+			if (out.length() > 0) {
+				System.out.print(out);
+				System.out.flush();
+				out.setLength(0);
+			}
+			if (file.length() > 0) {
+				write(file);
+				file.setLength(0);
+			}
+			return n + (dropped > 0 ? 1 : 0);
+		}
+	}
+
+	private static void line(long time, String thread, String s, StringBuilder out, StringBuilder file, DateCache date) {
+		out.append(s).append(System.lineSeparator());
+		if (channel != null) {
+			file.append(date.format(time)).append(" [").append(thread).append("] ").append(s).append(System.lineSeparator());
+		}
+	}
+
+	private static void write(StringBuilder file) {
+		if (channel == null) {
+			return;
+		}
+		try {
+			ByteBuffer buf = ByteBuffer.wrap(file.toString().getBytes(StandardCharsets.UTF_8));
+			while (buf.hasRemaining()) {
+				fileBytes += channel.write(buf);
+			}
+			if ((rotateBytes > 0 && fileBytes >= rotateBytes)
+					|| (rotateMillis > 0 && System.currentTimeMillis() - fileOpenedTime >= rotateMillis)) {
+				rotate();
+			}
 		} catch (IOException ex) {
 		}
 	}
+
+	//path.1が最も新しい古いファイルになるように名前を変更する
+	private static void rotate() throws IOException {
+		channel.close();
+		channel = null;
+		Path path = Paths.get(logFilePath);
+		boolean moved = true;
+		if (rotateBackups > 0) {
+			try {
+				Files.deleteIfExists(Paths.get(logFilePath + "." + rotateBackups));
+				for (int i = rotateBackups - 1; i >= 1; i--) {
+					Path p = Paths.get(logFilePath + "." + i);
+					if (Files.exists(p)) {
+						Files.move(p, Paths.get(logFilePath + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+					}
+				}
+				Files.move(path, Paths.get(logFilePath + ".1"), StandardCopyOption.REPLACE_EXISTING);
+			} catch (IOException ex) {
+				//名前を変更できなかった場合は、今のファイルに追記を続け、次の周期でもう一度ローテーションする
+				moved = false;
+				System.err.println("GameLog : rotation failed : " + ex);
+			}
+		}
+		channel = moved
+				? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+				: FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		fileBytes = 0;
+		fileOpenedTime = System.currentTimeMillis();
+	}
+
+	//秒が変わった場合だけ日時の文字列を作り直す
+	private static final class DateCache {
+
+		private final SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
+		private final Date date = new Date();
+		private final StringBuilder sb = new StringBuilder(32);
+		private long second = -1;
+		private String prefix;
+
+		CharSequence format(long time) {
+			long s = time / 1000;
+			if (s != second) {
+				second = s;
+				date.setTime(time);
+				prefix = format.format(date);
+			}
+			int ms = (int) (time % 1000);
+			sb.setLength(0);
+			sb.append(prefix).append('.');
+			if (ms < 100) {
+				sb.append('0');
+			}
+			if (ms < 10) {
+				sb.append('0');
+			}
+			return sb.append(ms);
+		}
+	}
+
+	/**
+	 * 記録済みのログがすべて書き込まれるまで、最大1秒待ちます。
+	 * 異常終了の処理などで、プロセスの終了前に呼び出してください。
+	 */
+	public static void flush() {
+		flush(1000);
+	}
+
+	/**
+	 * 記録済みのログがすべて書き込まれるまで待ちます。
+	 * 書き込みスレッドが動いていない場合は、呼び出したスレッドで書き込みます。
+	 *
+	 * @param timeoutMillis 待つ最大の時間（ミリ秒）。
+	 * @return すべて書き込まれた場合はtrue。
+	 */
+	public static boolean flush(long timeoutMillis) {
+		long target = TAIL.get();
+		long limit = System.nanoTime() + timeoutMillis * 1_000_000;
+		StringBuilder out = null;
+		while (written < target) {
+			Thread t = writerThread;
+			if (t == null || !t.isAlive() || t == Thread.currentThread()) {
+				//書き込みスレッドの代わりに書き込む
+				if (out == null) {
+					out = new StringBuilder();
+				}
+				if (drain(out, new StringBuilder(), new StringBuilder(), new DateCache()) == 0) {
+					break;
+				}
+				continue;
+			}
+			if (System.nanoTime() > limit) {
+				return false;
+			}
+			LockSupport.unpark(t);
+			LockSupport.parkNanos(200_000);
+		}
+		synchronized (LOCK) {
+			if (channel != null) {
+				try {
+					channel.force(false);
+				} catch (IOException ex) {
+				}
+			}
+		}
+		return written >= target;
+	}
+
+	/**
+	 * バッファが一杯の場合の動作を設定します。
+	 *
+	 * @param policy 動作。
+	 */
+	public static void setOverflowPolicy(OverflowPolicy policy) {
+		overflowPolicy = policy;
+	}
+
+	public static OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * ログファイルのローテーションを設定します。
+	 * ファイルはpath.1、path.2...の名前に変更され、backupsを超える古いファイルは削除されます。
+	 *
+	 * @param maxBytes ファイルのサイズの上限。0の場合はサイズでローテーションしません。
+	 * @param maxMillis ファイルを使用する時間の上限（ミリ秒）。0の場合は時間でローテーションしません。
+	 * @param backups 残す古いファイルの数。0の場合は古いファイルを残しません。
+	 */
+	public static void setRotation(long maxBytes, long maxMillis, int backups) {
+		synchronized (LOCK) {
+			rotateBytes = maxBytes;
+			rotateMillis = maxMillis;
+			rotateBackups = backups;
+		}
+	}
+
+	/**
+	 * 破棄されたまま、まだ記録されていないログの件数を返します。
+	 *
+	 * @return 件数。
+	 */
+	public static long getDroppedCount() {
+		return DROPPED.get();
+	}
+
+	/**
+	 * 書き込まれたログの件数を返します。
+	 *
+	 * @return 件数。
+	 */
+	public static long getWrittenCount() {
+		return written;
+	}
 }
@@ -30,6 +30,7 @@ public abstract class GameLogic implements Nameable, Disposable{
 	protected final  String name ;
 	protected final GameManager gm;
 	protected final GameLogicStorage gls = GameLogicStorage.getInstance();
+	private volatile float loadProgress;
 
 	protected GameLogic(String name, GameManager gm) {
 		this.name = name;
@@ -41,7 +42,24 @@ public abstract class GameLogic implements Nameable, Disposable{
 		return name;
 	}
 	
+	/**
+	 * ロジックを読み込みます。GameLogicStorageのchangeToAsyncで切り替える場合は、ワーカースレッドから呼ばれます。
+	 * その場合、ウインドウやゲームループのスレッドでのみ操作できるオブジェクトには触れないでください。
+	 */
 	public abstract void load();
+
+	/**
+	 * 読み込みの進捗を設定します。loadの中から呼び出すと、TransitionLogicの表示に使用されます。
+	 *
+	 * @param loadProgress 0から1の進捗。
+	 */
+	protected final void setLoadProgress(float loadProgress) {
+		this.loadProgress = loadProgress;
+	}
+
+	public final float getLoadProgress() {
+		return loadProgress;
+	}
 	
 	@Override
 	public abstract void dispose();
@@ -16,12 +16,26 @@
  */
 package kinugasa.game;
 
+import java.util.EnumMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import kinugasa.game.system.GameSystem;
-import kinugasa.resource.InputObjectStorage;
+import kinugasa.graphics.ImageCache;
 import kinugasa.resource.NameNotFoundException;
 import kinugasa.resource.Storage;
+import kinugasa.util.TimeHistogram;
 
 /**
+ * ゲームロジックを保持し、現在のロジックを切り替えます.
+ * <br>
+ * changeToはゲームループのスレッドで前のロジックを破棄し、次のロジックを読み込みます。<br>
+ * changeToAsyncは次のロジックをワーカースレッドで読み込み、その間は読み込み中のロジック（TransitionLogicなど）が描画を続けます。
+ * 読み込みが終わると、GameLoopが毎回の更新の前に呼び出すpollTransitionで現在のロジックが切り替わります。<br>
+ * 前のロジックを残して切り替える場合、前のロジックは次のロジックの読み込みが終わってから破棄されます。
+ * 読み込み中に使用された画像はImageCacheで次のロジックに固定されるため、共有する画像は読み直されずに引き継がれます。<br>
+ * 切り替えの所要時間はSceneTransitionとフェーズごとのヒストグラムに記録されます。<br>
  *
  * @vesion 1.0.0 - 2021/11/24_4:35:48<br>
  * @author Shinacho<br>
@@ -35,10 +49,17 @@ public class GameLogicStorage extends Storage<GameLogic> {
 	}
 
 	private GameLogicStorage() {
+		for (SceneTransition.Phase p : SceneTransition.Phase.values()) {
+			histograms.put(p, new TimeHistogram(1_000_000, 10_000));
+		}
 	}
 
 	private GameLogic current;
 	private GameLogic prev;
+	private SceneTransition transition;
+	private SceneTransition lastTransition;
+	private final EnumMap<SceneTransition.Phase, TimeHistogram> histograms = new EnumMap<>(SceneTransition.Phase.class);
+	private ThreadPoolExecutor executor;
 
 	/**
 	 * startUpで実行する場合はウインドウがまだ初期化されていない点に注意してください。
@@ -54,24 +75,181 @@ public class GameLogicStorage extends Storage<GameLogic> {
 	 *
 	 * @param name
 	 * @param load
+	 * @throws IllegalStateException 非同期の切り替えの途中の場合に投げられます。
 	 */
 
-	public void changeTo(String name, boolean load) {
+	public void changeTo(String name, boolean load) throws IllegalStateException {
 		if (GameSystem.isDebugMode()) {
-			kinugasa.game.GameLog.print("kinugasa.game.GameLogicStorage.changeTo():" + name);
+			kinugasa.game.GameLog.print("kinugasa.game.GameLogicStorage.changeTo():{}", name);
 		}
 		if (!contains(name)) {
 			throw new NameNotFoundException("logic " + name + " is not found");
 		}
+		if (transition != null) {
+			throw new IllegalStateException("logic transition is in progress : " + transition);
+		}
+		SceneTransition t = new SceneTransition(current, get(name), null, false, false);
 		if (current != null) {
+			long s = System.nanoTime();
 			current.dispose();
-			System.gc();
+			ImageCache.getInstance().unpinAll(current);
+			t.setNanos(SceneTransition.Phase.DISPOSE, System.nanoTime() - s);
 		}
 		prev = current;
-		this.current = get(name);
+		this.current = t.getTo();
 		if (load) {
+			long s = System.nanoTime();
 			current.load();
+			t.setNanos(SceneTransition.Phase.LOAD, System.nanoTime() - s);
+		}
+		end(t, null);
+	}
+
+	/**
+	 * 次のロジックをワーカースレッドで読み込み、読み込みが終わったら切り替えます。
+	 * 切り替えはゲームループのスレッドから呼ばれるpollTransitionで行われます。
+	 *
+	 * @param name 次のロジックの名前。
+	 * @param transitionName 読み込み中に使用するロジックの名前。このロジックはゲームループのスレッドで読み込まれます。
+	 * nullの場合、読み込み中は前のロジックが動作を続けます。
+	 * @param keepPrevious trueの場合、前のロジックを読み込みが終わるまで破棄しません。
+	 * 共有する資源を引き継げますが、読み込み中は両方のロジックの資源がメモリに残ります。
+	 * @return 切り替えの状態。
+	 * @throws NameNotFoundException ロジックが存在しない場合に投げられます。
+	 * @throws IllegalArgumentException transitionNameがnullで、前のロジックを残さない場合に投げられます。
+	 * @throws IllegalStateException 別の切り替えの途中の場合に投げられます。
+	 */
+	public SceneTransition changeToAsync(String name, String transitionName, boolean keepPrevious)
+			throws NameNotFoundException, IllegalArgumentException, IllegalStateException {
+		if (GameSystem.isDebugMode()) {
+			kinugasa.game.GameLog.print("kinugasa.game.GameLogicStorage.changeToAsync():{} via {}", name, transitionName);
+		}
+		if (!contains(name)) {
+			throw new NameNotFoundException("logic " + name + " is not found");
+		}
+		if (transitionName != null && !contains(transitionName)) {
+			throw new NameNotFoundException("logic " + transitionName + " is not found");
+		}
+		if (transitionName == null && (!keepPrevious || current == null)) {
+			throw new IllegalArgumentException("transition logic is required when the previous logic is not kept");
+		}
+		if (transition != null) {
+			throw new IllegalStateException("logic transition is in progress : " + transition);
+		}
+		GameLogic next = get(name);
+		GameLogic tl = transitionName == null ? null : get(transitionName);
+		SceneTransition t = new SceneTransition(current, next, tl, true, keepPrevious);
+		if (!keepPrevious && current != null) {
+			long s = System.nanoTime();
+			current.dispose();
+			ImageCache.getInstance().unpinAll(current);
+			t.setNanos(SceneTransition.Phase.DISPOSE, System.nanoTime() - s);
+		}
+		if (tl != null) {
+			tl.load();
+			prev = current;
+			current = tl;
+		}
+		transition = t;
+		next.setLoadProgress(0);
+		t.setFuture(executor().submit(() -> {
+			long s = System.nanoTime();
+			ImageCache.getInstance().beginPin(next);
+			try {
+				next.load();
+			} finally {
+				ImageCache.getInstance().endPin();
+				t.setNanos(SceneTransition.Phase.LOAD, System.nanoTime() - s);
+			}
+			return null;
+		}));
+		return t;
+	}
+
+	/**
+	 * 非同期の切り替えの読み込みが終わっていれば、現在のロジックを切り替えます。
+	 * GameLoopが毎回の更新の前に呼び出すため、通常は呼び出す必要はありません。
+	 *
+	 * @return このメソッドで切り替えた場合はtrue。
+	 * @throws RuntimeException 読み込みで発生した例外が投げられます。チェック例外はIllegalStateExceptionに包まれます。
+	 */
+	@LoopCall
+	public boolean pollTransition() throws RuntimeException {
+		SceneTransition t = transition;
+		if (t == null) {
+			return false;
+		}
+		if (!t.getFuture().isDone()) {
+			t.frame();
+			return false;
+		}
+		transition = null;
+		long s = System.nanoTime();
+		Throwable error = null;
+		try {
+			t.getFuture().get();
+		} catch (ExecutionException ex) {
+			error = ex.getCause();
+		} catch (InterruptedException ex) {
+			error = ex;
+		}
+		if (error != null) {
+			//前のロジックが残っていれば戻し、読み込み中のロジックを破棄する
+			//前のロジックがない場合は読み込み中のロジックが現在のロジックとして残り、次の切り替えで破棄される
+			if (t.isKeepPrevious() && t.getFrom() != null) {
+				current = t.getFrom();
+				if (t.getTransition() != null && t.getTransition() != t.getFrom()) {
+					t.getTransition().dispose();
+				}
+			}
+			end(t, error);
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			}
+			if (error instanceof Error) {
+				throw (Error) error;
+			}
+			throw new IllegalStateException("logic " + t.getTo().getName() + " load failed", error);
+		}
+		if (t.isKeepPrevious() && t.getFrom() != null && t.getFrom() != t.getTo()) {
+			t.getFrom().dispose();
+			ImageCache.getInstance().unpinAll(t.getFrom());
+		}
+		if (t.getTransition() != null && t.getTransition() != t.getTo()) {
+			t.getTransition().dispose();
 		}
+		prev = t.getFrom();
+		current = t.getTo();
+		t.setNanos(SceneTransition.Phase.HANDOFF, System.nanoTime() - s);
+		end(t, null);
+		return true;
+	}
+
+	private void end(SceneTransition t, Throwable error) {
+		t.end(error);
+		lastTransition = t;
+		if (error == null) {
+			//実行されなかったフェーズを0として記録すると分布が偏るため、実行されたフェーズだけを記録する
+			for (SceneTransition.Phase p : SceneTransition.Phase.values()) {
+				if (t.isExecuted(p)) {
+					histograms.get(p).record(t.getNanos(p));
+				}
+			}
+		}
+		if (GameSystem.isDebugMode()) {
+			kinugasa.game.GameLog.print("GameLogicStorage {}", t);
+		}
+	}
+
+	private ThreadPoolExecutor executor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+				Thread t = new Thread(r, "kgf logic loader");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return executor;
 	}
 
 	public GameLogic getCurrent() {
@@ -82,4 +260,41 @@ public class GameLogicStorage extends Storage<GameLogic> {
 		return prev;
 	}
 
+	/**
+	 * 非同期の切り替えの途中かを返します。
+	 *
+	 * @return 切り替えの途中の場合はtrue。
+	 */
+	public boolean isTransitioning() {
+		return transition != null;
+	}
+
+	/**
+	 * 途中の切り替えを返します。
+	 *
+	 * @return 切り替えの状態。切り替えの途中でない場合はnull。
+	 */
+	public SceneTransition getTransition() {
+		return transition;
+	}
+
+	/**
+	 * 最後に終わった切り替えを返します。
+	 *
+	 * @return 切り替えの状態。切り替えていない場合はnull。
+	 */
+	public SceneTransition getLastTransition() {
+		return lastTransition;
+	}
+
+	/**
+	 * フェーズの所要時間のヒストグラムを返します。区間の幅は1ミリ秒です。
+	 *
+	 * @param p フェーズ。
+	 * @return ヒストグラム。
+	 */
+	public TimeHistogram getHistogram(SceneTransition.Phase p) {
+		return histograms.get(p);
+	}
+
 }
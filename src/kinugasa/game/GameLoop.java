@@ -17,16 +17,20 @@
 package kinugasa.game;
 
 import static java.awt.SystemColor.text;
+import java.awt.DisplayMode;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
+import java.io.File;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import kinugasa.game.input.InputReplay;
 import kinugasa.game.input.InputState;
 import kinugasa.game.system.GameSystem;
 import kinugasa.game.ui.Dialog;
 import kinugasa.game.ui.DialogIcon;
 import kinugasa.game.ui.DialogOption;
+import kinugasa.resource.ContentsIOException;
 
 /**
  * ゲームの進行を行うスレッドの実装です.
@@ -57,6 +61,17 @@ public final class GameLoop implements Runnable {
 	 */
 	private volatile boolean exec = false;
 	private boolean updateIfNotActive;
+	/**
+	 * 更新と描画の進め方.
+	 */
+	private LoopMode mode = LoopMode.VARIABLE;
+	private RenderPacing pacing = RenderPacing.CAPPED;
+	private int renderFPS = 0;
+	private int maxUpdateSteps = 5;
+	/**
+	 * 入力のリプレイ. 使用しない場合はnull.
+	 */
+	private volatile InputReplay replay;
 
 	/**
 	 * 新しいゲーム用スレッドを作成します. 作成しただけでは、起動されません.<br>
@@ -80,6 +95,23 @@ public final class GameLoop implements Runnable {
 		this.game = game;
 		this.gtm = gtm;
 		this.updateIfNotActive = updateIfNotActive;
+		GameOption option = game.getOption();
+		if (option != null) {
+			this.mode = option.getLoopMode();
+			this.pacing = option.getRenderPacing();
+			this.renderFPS = option.getRenderFps();
+			this.maxUpdateSteps = option.getMaxUpdateSteps();
+			switch (option.getReplayMode()) {
+				case RECORD:
+					replay = InputReplay.record(new File(option.getReplayFile()), System.nanoTime());
+					break;
+				case PLAY:
+					replay = InputReplay.load(new File(option.getReplayFile()));
+					break;
+				default:
+					break;
+			}
+		}
 	}
 
 	/**
@@ -88,38 +120,20 @@ public final class GameLoop implements Runnable {
 	@Override
 	public void run() {
 		try {
-			long startTime;
-			if (updateIfNotActive) {
-				while (exec) {
-					startTime = System.nanoTime();
-					game.update(gtm, InputState.getInstance());
-					game.repaint();
-					gtm.sleep(startTime);
-				}
+			if (mode == LoopMode.FIXED_STEP) {
+				runFixedStep();
 			} else {
-				while (exec) {
-					if (game.getWindow().isActive() || GameSystem.isDebugMode()) {
-						startTime = System.nanoTime();
-						game.update(gtm, InputState.getInstance());
-						game.repaint();
-						game.clearEndedEffects();
-						gtm.sleep(startTime);
-					} else {
-						startTime = System.nanoTime();
-						try {//ダミー処理
-							Thread.sleep(1000 / gtm.getIdealFPS());
-						} catch (InterruptedException ex) {
-							Logger.getLogger(GameLoop.class.getName()).log(Level.SEVERE, null, ex);
-						}
-						gtm.sleep(startTime);
-					}
-				}
+				runVariable();
 			}
+			closeReplay();
 		} catch (Throwable ex) {
+			closeReplay();
 			//例外情報の収集と表示
 			Toolkit.getDefaultToolkit().beep();
 			String v = getExceptionMsg(ex);
 			GameLog.print(v);
+			//ダイアログを表示する前に記録済みのログを書き込む
+			GameLog.flush();
 			Dialog.error("Sorry", v);
 			if (Dialog.yesOrNo("Sorrt", DialogIcon.QUESTION, "copy to clipboard?") == DialogOption.YES) {
 				Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
@@ -132,6 +146,139 @@ public final class GameLoop implements Runnable {
 		}
 	}
 
+	//割り込まれた場合はwaitUntilが待機をやめて割り込み状態を戻すため、ループを終了する
+	private boolean isRunning() {
+		return exec && !Thread.currentThread().isInterrupted();
+	}
+
+	private boolean isActive() {
+		return updateIfNotActive || game.getWindow().isActive() || GameSystem.isDebugMode();
+	}
+
+	private void idle() {
+		long startTime = System.nanoTime();
+		try {//ダミー処理
+			Thread.sleep(1000 / gtm.getIdealFPS());
+		} catch (InterruptedException ex) {
+			Logger.getLogger(GameLoop.class.getName()).log(Level.SEVERE, null, ex);
+			Thread.currentThread().interrupt();
+			return;
+		}
+		gtm.sleep(startTime);
+	}
+
+	/**
+	 * 1回の更新と1回の描画を交互に行います.
+	 */
+	private void runVariable() {
+		long startTime;
+		while (isRunning()) {
+			if (!isActive()) {
+				idle();
+				continue;
+			}
+			startTime = System.nanoTime();
+			GameLogicStorage.getInstance().pollTransition();
+			game.update(gtm, input());
+			gtm.tick(System.nanoTime() - startTime);
+			game.repaint();
+			game.clearEndedEffects();
+			gtm.sleep(startTime);
+		}
+	}
+
+	/**
+	 * 一定の間隔で更新し、描画はRenderPacingに従って行います.
+	 */
+	private void runFixedStep() {
+		long renderWait = getRenderWait();
+		long prev = System.nanoTime();
+		//最初のフレームで1回更新する
+		long lag = gtm.getTickTime();
+		while (isRunning()) {
+			if (!isActive()) {
+				idle();
+				//非アクティブの間の時間は取り戻さない
+				prev = System.nanoTime();
+				lag = 0;
+				continue;
+			}
+			long startTime = System.nanoTime();
+			long step = gtm.getTickTime();
+			lag += startTime - prev;
+			prev = startTime;
+			for (int i = 0; i < maxUpdateSteps && lag >= step; i++) {
+				long t = System.nanoTime();
+				GameLogicStorage.getInstance().pollTransition();
+				game.update(gtm, input());
+				gtm.tick(System.nanoTime() - t);
+				lag -= step;
+			}
+			if (lag >= step) {
+				//追いつけない遅れは破棄する
+				gtm.drop(lag / step);
+				lag %= step;
+			}
+			gtm.setInterpolation((float) lag / step);
+			game.repaint();
+			game.clearEndedEffects();
+			if (pacing == RenderPacing.VSYNC) {
+				Toolkit.getDefaultToolkit().sync();
+			}
+			gtm.sleep(startTime, pacing == RenderPacing.UNCAPPED ? 0 : renderWait);
+		}
+	}
+
+	/**
+	 * このフレームの入力状態を取得します. リプレイを使用している場合は記録または再生されます。<br>
+	 */
+	private InputState input() {
+		InputReplay r = replay;
+		if (r == null) {
+			return InputState.getInstance();
+		}
+		InputState s = r.next();
+		if (s == null) {
+			GameLog.print("replay is ended : " + r);
+			closeReplay();
+			return InputState.getInstance();
+		}
+		return s;
+	}
+
+	private void closeReplay() {
+		InputReplay r = replay;
+		replay = null;
+		if (r != null) {
+			try {
+				r.close();
+			} catch (ContentsIOException ex) {
+				GameLog.print(ex);
+			}
+		}
+	}
+
+	private long getRenderWait() {
+		switch (pacing) {
+			case UNCAPPED:
+				return 0;
+			case VSYNC:
+				int rate = game.getAWTComponent().getGraphicsConfiguration().getDevice().getDisplayMode().getRefreshRate();
+				if (rate != DisplayMode.REFRESH_RATE_UNKNOWN) {
+					return 1_000_000_000L / rate;
+				}
+				//不明の場合はCAPPEDと同じ
+				return getCappedWait();
+			case CAPPED:
+			default:
+				return getCappedWait();
+		}
+	}
+
+	private long getCappedWait() {
+		return renderFPS > 0 ? 1_000_000_000L / renderFPS : gtm.getTickTime();
+	}
+
 	private String getExceptionMsg(Throwable t) {
 		StringBuilder sb = new StringBuilder();
 		sb.append("!> Sorry, the game was crashed!").append("\n");
@@ -165,6 +312,8 @@ public final class GameLoop implements Runnable {
 	 */
 	void end() {
 		exec = false;
+		//ループの終了を待たずにプロセスが終了するため、ここでリプレイを閉じる
+		closeReplay();
 	}
 
 	/**
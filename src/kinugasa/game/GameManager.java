@@ -17,11 +17,8 @@
 package kinugasa.game;
 
 import java.awt.Component;
-import java.awt.Dimension;
 import java.awt.EventQueue;
-import java.awt.Graphics2D;
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.event.WindowAdapter;
@@ -49,7 +46,6 @@ import kinugasa.game.input.MouseConnection;
 import kinugasa.game.system.Counts;
 import kinugasa.game.system.GameSystem;
 import kinugasa.graphics.ImageUtil;
-import kinugasa.graphics.RenderingQuality;
 import kinugasa.resource.TempFileStorage;
 import kinugasa.resource.db.DBConnection;
 import kinugasa.util.MathUtil;
@@ -74,13 +70,11 @@ public abstract class GameManager {
 	private GameTimeManager gameTimeManager;
 	private boolean updateIfNotActive;
 
-	private Graphics2D g;
 	private BufferStrategy graphicsBuffer;
-	private Rectangle clippingRectangle;
 	private RenderingHints renderingHints;
 	private int fps;
 	private float drawSize = 0;
-	private BufferedImage image;
+	private final RenderPipeline renderPipeline = new RenderPipeline();
 	private List<ScreenEffect> effects = new ArrayList<>();
 
 	protected GameManager(GameOption option) throws IllegalStateException {
@@ -213,13 +207,7 @@ public abstract class GameManager {
 	}
 
 	public void clearEndedEffects() {
-		List<ScreenEffect> remove = new ArrayList<>();
-		for (ScreenEffect e : effects) {
-			if (e.isEnded()) {
-				remove.add(e);
-			}
-		}
-		effects.removeAll(remove);
+		effects.removeIf(ScreenEffect::isEnded);
 	}
 //
 //	public void reloadInputListener() {
@@ -265,10 +253,9 @@ public abstract class GameManager {
 			window.setVisible(true);
 			window.createBufferStrategy(drawSize == 1 ? 2 : 1);
 			graphicsBuffer = window.getBufferStrategy();
-			clippingRectangle = window.getInternalBounds();
 			started = true;
 			loop.start();
-			image = ImageUtil.newImage((int) (window.getInternalBounds().getWidth() / drawSize), (int) (window.getInternalBounds().getHeight() / drawSize));
+			renderPipeline.setImage(ImageUtil.newImage((int) (window.getInternalBounds().getWidth() / drawSize), (int) (window.getInternalBounds().getHeight() / drawSize)));
 		});
 		GameLog.print(getWindow().getTitle() + " is start");
 	}
@@ -286,6 +273,7 @@ public abstract class GameManager {
 			int val = (int) gameTimeManager.get経過時間().toSeconds();
 			Counts.getInstance().updateOrInsert("総プレイ時間", val);
 		}
+		//書き込み待ちのカウントはcloseで保存される
 		DBConnection.getInstance().close();
 		try {
 			dispose();
@@ -336,41 +324,21 @@ public abstract class GameManager {
 	@LoopCall
 	protected abstract void draw(GraphicsContext gc);
 
+	/**
+	 * 画面描画の手順を取得します。描画モードの変更や、ステージごとの所要時間の取得に使用します。
+	 *
+	 * @return 描画の手順。
+	 */
+	public RenderPipeline getRenderPipeline() {
+		return renderPipeline;
+	}
+
 	/**
 	 * 画面をリペイントします. このメソッドは内部用です。呼び出さないでください。
 	 */
 	@LoopCall
 	final void repaint() {
-		g = ImageUtil.createGraphics2D(image, RenderingQuality.NOT_USE);
-		g.setBackground(window.getBackground());
-		g.setClip(clippingRectangle);
-		g.clearRect(clippingRectangle.x, clippingRectangle.y,
-				clippingRectangle.width, clippingRectangle.height);
-		if (renderingHints != null) {
-			g.setRenderingHints(renderingHints);
-		}
-		draw(new GraphicsContext(g));
-		g.dispose();
-
-		final Dimension imageSize = new Dimension(image.getWidth(), image.getHeight());
-		for (ScreenEffect e : effects) {
-			image = e.doIt(image);
-			if (!imageSize.equals(new Dimension(image.getWidth(), image.getHeight()))) {
-				throw new ScreenEffectException("screen effect " + e + " s size is missmatch");
-			}
-		}
-
-		Graphics2D g2 = (Graphics2D) graphicsBuffer.getDrawGraphics();
-		g2.drawImage(image, 0, 0, (int) (image.getWidth() * drawSize), (int) (image.getHeight() * drawSize), null);
-		g2.dispose();
-
-		if (graphicsBuffer.contentsRestored()) {
-			repaint();
-		}
-		graphicsBuffer.show();
-		if (graphicsBuffer.contentsLost()) {
-			repaint();
-		}
-
+		renderPipeline.render(this::draw, window.getBackground(), renderingHints, effects, graphicsBuffer, drawSize);
 	}
+
 }
@@ -57,6 +57,12 @@ public class GameOption {
 	private RenderingQuality rq;
 	private String lang;
 	private boolean updateIfNotActive;
+	private LoopMode loopMode = LoopMode.VARIABLE;
+	private RenderPacing renderPacing = RenderPacing.CAPPED;
+	private int renderFps = 0;
+	private int maxUpdateSteps = 5;
+	private ReplayMode replayMode = ReplayMode.OFF;
+	private String replayFile;
 	private String[] args = new String[]{};
 	private boolean debugMode = false;
 
@@ -85,6 +91,12 @@ public class GameOption {
 		public static final String RENDERING_M = "RENDERING_M";
 		public static final String LANG = "LANG";
 		public static final String UPDATE_IF_NOT_ACTIVE = "UPDATE_IF_NOT_ACTIVE";
+		public static final String LOOP_MODE = "LOOP_MODE";
+		public static final String RENDER_PACING = "RENDER_PACING";
+		public static final String RENDER_FPS = "RENDER_FPS";
+		public static final String MAX_UPDATE_STEPS = "MAX_UPDATE_STEPS";
+		public static final String REPLAY_MODE = "REPLAY_MODE";
+		public static final String REPLAY_FILE = "REPLAY_FILE";
 	}
 
 	public static GameOption fromIni(String filename) {
@@ -116,6 +128,22 @@ public class GameOption {
 		go.rq = RenderingQuality.valueOf(ini.get(Key.RENDERING_Q).get().value());
 		go.lang = ini.get(Key.LANG).get().value();
 		go.updateIfNotActive = ini.get(Key.UPDATE_IF_NOT_ACTIVE).get().isTrue();
+		//ゲームループの設定は省略できる
+		if (ini.containsKey(Key.LOOP_MODE)) {
+			go.loopMode = LoopMode.valueOf(ini.getValue(Key.LOOP_MODE).value());
+		}
+		if (ini.containsKey(Key.RENDER_PACING)) {
+			go.renderPacing = RenderPacing.valueOf(ini.getValue(Key.RENDER_PACING).value());
+		}
+		if (ini.containsKey(Key.RENDER_FPS)) {
+			go.renderFps = ini.getValue(Key.RENDER_FPS).asInt();
+		}
+		if (ini.containsKey(Key.MAX_UPDATE_STEPS)) {
+			go.setMaxUpdateSteps(ini.getValue(Key.MAX_UPDATE_STEPS).asInt());
+		}
+		if (ini.containsKey(Key.REPLAY_MODE)) {
+			go.setReplay(ReplayMode.valueOf(ini.getValue(Key.REPLAY_MODE).value()), ini.getValue(Key.REPLAY_FILE).value());
+		}
 
 		return go;
 	}
@@ -349,6 +377,73 @@ public class GameOption {
 		return this;
 	}
 
+	/**
+	 * ゲームループの進め方を設定します。デフォルトはVARIABLEです。
+	 *
+	 * @param loopMode ゲームループの進め方。
+	 * @return このオプション。
+	 */
+	public GameOption setLoopMode(LoopMode loopMode) {
+		this.loopMode = loopMode;
+		return this;
+	}
+
+	/**
+	 * LoopModeがFIXED_STEPの場合の描画の間隔を設定します。デフォルトはCAPPEDです。
+	 *
+	 * @param renderPacing 描画の間隔。
+	 * @return このオプション。
+	 */
+	public GameOption setRenderPacing(RenderPacing renderPacing) {
+		this.renderPacing = renderPacing;
+		return this;
+	}
+
+	/**
+	 * LoopModeがFIXED_STEPでRenderPacingがCAPPEDの場合の描画のFPSの上限を設定します。
+	 * 0以下の場合は更新と同じFPSで描画します。
+	 *
+	 * @param renderFps 描画のFPSの上限。
+	 * @return このオプション。
+	 */
+	public GameOption setRenderFps(int renderFps) {
+		this.renderFps = renderFps;
+		return this;
+	}
+
+	/**
+	 * LoopModeがFIXED_STEPの場合に、1回の描画の前に追いつくために行う更新の最大回数を設定します。
+	 * これを超える遅れは破棄されます。
+	 *
+	 * @param maxUpdateSteps 更新の最大回数。1以上。
+	 * @return このオプション。
+	 * @throws IllegalArgumentException 1未満の場合に投げられます。
+	 */
+	public GameOption setMaxUpdateSteps(int maxUpdateSteps) throws IllegalArgumentException {
+		if (maxUpdateSteps < 1) {
+			throw new IllegalArgumentException("maxUpdateSteps < 1 : " + maxUpdateSteps);
+		}
+		this.maxUpdateSteps = maxUpdateSteps;
+		return this;
+	}
+
+	/**
+	 * 入力のリプレイを設定します。デフォルトはOFFです。
+	 *
+	 * @param mode 記録するか、再生するか。
+	 * @param file リプレイファイルのパス。OFFの場合は使用されません。
+	 * @return このオプション。
+	 * @throws IllegalArgumentException OFF以外でfileがnullの場合に投げられます。
+	 */
+	public GameOption setReplay(ReplayMode mode, String file) throws IllegalArgumentException {
+		if (mode != ReplayMode.OFF && file == null) {
+			throw new IllegalArgumentException("replay file is null : " + mode);
+		}
+		this.replayMode = mode;
+		this.replayFile = file;
+		return this;
+	}
+
 	public GameOption setRenderingQuality(RenderingQuality rq) {
 		this.rq = rq;
 		return this;
@@ -417,6 +512,30 @@ public class GameOption {
 		return fps;
 	}
 
+	public LoopMode getLoopMode() {
+		return loopMode;
+	}
+
+	public RenderPacing getRenderPacing() {
+		return renderPacing;
+	}
+
+	public int getRenderFps() {
+		return renderFps;
+	}
+
+	public int getMaxUpdateSteps() {
+		return maxUpdateSteps;
+	}
+
+	public ReplayMode getReplayMode() {
+		return replayMode;
+	}
+
+	public String getReplayFile() {
+		return replayFile;
+	}
+
 	public float getDrawSize() {
 		return drawSize;
 	}
@@ -447,7 +566,7 @@ public class GameOption {
 
 	@Override
 	public String toString() {
-		return "GameOption{" + "title=" + title + ", backColor=" + backColor + ", windowSize=" + windowSize + ", windowLocation=" + windowLocation + ", lock=" + lock + ", useMouse=" + useMouse + ", useKeyboard=" + useKeyboard + ", useGamePad=" + useGamePad + ", useLog=" + useLog + ", logPath=" + logPath + ", fps=" + fps + ", rq=" + rq + ", lang=" + lang + ", updateIfNotActive=" + updateIfNotActive + ", logName=" + logName + ", icon=" + icon + ", closeEvent=" + closeEvent + '}';
+		return "GameOption{" + "title=" + title + ", backColor=" + backColor + ", windowSize=" + windowSize + ", windowLocation=" + windowLocation + ", lock=" + lock + ", useMouse=" + useMouse + ", useKeyboard=" + useKeyboard + ", useGamePad=" + useGamePad + ", useLog=" + useLog + ", logPath=" + logPath + ", fps=" + fps + ", rq=" + rq + ", lang=" + lang + ", updateIfNotActive=" + updateIfNotActive + ", loopMode=" + loopMode + ", renderPacing=" + renderPacing + ", renderFps=" + renderFps + ", maxUpdateSteps=" + maxUpdateSteps + ", replayMode=" + replayMode + ", replayFile=" + replayFile + ", logName=" + logName + ", icon=" + icon + ", closeEvent=" + closeEvent + '}';
 	}
 
 }
@@ -18,11 +18,14 @@ package kinugasa.game;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.locks.LockSupport;
+import kinugasa.util.TimeHistogram;
 
 /**
  * ゲームの進行時間を管理し、FPSを一定に保つための機能を提供します.
  * <br>
- *
+ * 待機は終了時刻の直前までスリープし、残りをスピンで待つことで、スリープの精度に依存せずに時刻を守ります。<br>
+ * 描画の間隔と更新の処理時間はヒストグラムとして記録されます。<br>
  * <br>
  *
  * @version 1.0.0 - 2013/01/14_12:33:16<br>
@@ -47,9 +50,37 @@ public final class GameTimeManager {
 	 */
 	private float fps;
 	/**
-	 * スリープでの待ち時間.
+	 * スリープでの待ち時間.LoopModeがFIXED_STEPの場合は更新の間隔.
 	 */
 	private long waitTime;
+	/**
+	 * 単位時間当たりの更新回数.
+	 */
+	private int tickNum;
+	private long prevTickTime;
+	/**
+	 * 現在の更新回数/秒.
+	 */
+	private float tps;
+	/**
+	 * 開始からの更新回数.
+	 */
+	private long totalTick = 0L;
+	/**
+	 * 遅れを取り戻せずに破棄した更新の回数.
+	 */
+	private long droppedTick = 0L;
+	/**
+	 * 前回の更新からの経過割合.
+	 */
+	private float interpolation = 0f;
+	/**
+	 * スリープせずにスピンで待つ時間.
+	 */
+	private long spinTime = 1_000_000L;
+	private long lastFrameTime;
+	private final TimeHistogram frameTimeHistogram = new TimeHistogram();
+	private final TimeHistogram tickTimeHistogram = new TimeHistogram();
 	/**
 	 * 開始からの経過フレーム.
 	 */
@@ -77,9 +108,11 @@ public final class GameTimeManager {
 	 * @param idealFPS FPSの最大値.<Br>
 	 */
 	GameTimeManager(int idealFPS) {
-		waitTime = 1000 / idealFPS * 1000000;
+		waitTime = 1_000_000_000L / idealFPS;
 		updateNum = idealFPS;
+		tickNum = idealFPS;
 		prevTime = System.nanoTime() - 1000000000;
+		prevTickTime = prevTime;
 		startDateTime = LocalDateTime.now();
 		instance = this;
 	}
@@ -110,12 +143,21 @@ public final class GameTimeManager {
 	}
 
 	/**
-	 * FPSの最大値を取得します. このメソッドの戻り値はミリ秒制度に丸められる.
+	 * FPSの最大値を取得します.
 	 *
 	 * @return FPSの最大値.<br>
 	 */
 	public long getIdealFPS() {
-		return 1000000000 / waitTime;
+		return Math.round(1_000_000_000d / waitTime);
+	}
+
+	/**
+	 * 1回の更新の間隔を取得します.
+	 *
+	 * @return 間隔（ナノ秒）.<br>
+	 */
+	public long getTickTime() {
+		return waitTime;
 	}
 
 	/**
@@ -124,7 +166,7 @@ public final class GameTimeManager {
 	 * @param idealFPS FPSの最大値.<br>
 	 */
 	public void setIdealFPS(int idealFPS) {
-		waitTime = 1000 / idealFPS * 1000000;
+		waitTime = 1_000_000_000L / idealFPS;
 		updateNum = idealFPS;
 	}
 
@@ -137,6 +179,79 @@ public final class GameTimeManager {
 		return fps;
 	}
 
+	/**
+	 * 現在の1秒あたりの更新回数を取得します. LoopModeがVARIABLEの場合はFPSとほぼ同じです.
+	 *
+	 * @return 1秒あたりの更新回数.<br>
+	 */
+	public float getTPS() {
+		return tps;
+	}
+
+	/**
+	 * 前回の更新から次の更新までの経過割合を取得します.
+	 * LoopModeがFIXED_STEPの場合、描画の際にこの値で前回と今回の位置を補間すると滑らかに描画できます.
+	 *
+	 * @return 0以上1未満の割合.VARIABLEの場合は常に0.<br>
+	 */
+	public float getInterpolation() {
+		return interpolation;
+	}
+
+	void setInterpolation(float interpolation) {
+		this.interpolation = interpolation;
+	}
+
+	/**
+	 * 開始からの更新回数を取得します.
+	 *
+	 * @return 開始からの更新回数.<br>
+	 */
+	public long getTotalTick() {
+		return totalTick;
+	}
+
+	/**
+	 * 遅れを取り戻せずに破棄した更新の回数を取得します.
+	 *
+	 * @return 破棄した更新の回数.<br>
+	 */
+	public long getDroppedTick() {
+		return droppedTick;
+	}
+
+	/**
+	 * 描画の間隔のヒストグラムを取得します.
+	 *
+	 * @return 描画の間隔のヒストグラム.<br>
+	 */
+	public TimeHistogram getFrameTimeHistogram() {
+		return frameTimeHistogram;
+	}
+
+	/**
+	 * 1回の更新の処理時間のヒストグラムを取得します.
+	 *
+	 * @return 更新の処理時間のヒストグラム.<br>
+	 */
+	public TimeHistogram getTickTimeHistogram() {
+		return tickTimeHistogram;
+	}
+
+	/**
+	 * 待機の最後にスリープせずにスピンで待つ時間を設定します.
+	 * 大きくするほど待機の精度は上がりますが、CPUの使用率も上がります.
+	 *
+	 * @param spinTime スピンで待つ時間（ナノ秒）.0の場合はスリープのみで待機します.<br>
+	 */
+	public void setSpinTime(long spinTime) {
+		this.spinTime = Math.max(0, spinTime);
+	}
+
+	public long getSpinTime() {
+		return spinTime;
+	}
+
 	/**
 	 * FPSのみ時列表記を取得します. このメソッドの戻り値は単精度です.<Br>
 	 *
@@ -196,16 +311,52 @@ public final class GameTimeManager {
 	 * @param startTime 処理開始前の時刻をnano秒精度で送信します。<br>
 	 */
 	void sleep(long startTime) {
-		nowTime = System.nanoTime();
-		endTime = nowTime + (waitTime - (nowTime - startTime));//終了時刻(ns
-		while (System.nanoTime() < endTime) {//System.nanoTimeがインクリメントされるのを利用している
-			try {
-				Thread.sleep(1);
-			} catch (InterruptedException ex) {
-				ex.printStackTrace();
+		sleep(startTime, waitTime);
+	}
+
+	/**
+	 * startTimeからwaitだけ経過するまで待機し、1フレームを記録します.
+	 *
+	 * @param startTime 処理開始前の時刻をnano秒精度で送信します。<br>
+	 * @param wait 待機する時間.0以下の場合は待機しません.<br>
+	 */
+	void sleep(long startTime, long wait) {
+		if (wait > 0) {
+			waitUntil(startTime + wait);
+		}
+		frame();
+	}
+
+	/**
+	 * 指定した時刻まで待機します.終了時刻の直前まではスリープし、残りはスピンで待ちます.
+	 *
+	 * @param endTime 終了時刻.System.nanoTimeの値です.<br>
+	 */
+	void waitUntil(long endTime) {
+		this.endTime = endTime;
+		long remain;
+		while ((remain = endTime - System.nanoTime()) > spinTime) {
+			LockSupport.parkNanos(remain - spinTime);
+			if (Thread.interrupted()) {
+				//割り込みを呼び出し元で検出できるように、状態を戻してから終了する
+				Thread.currentThread().interrupt();
+				return;
 			}
 		}
-		nowTime = System.nanoTime();//スリープしているので現在時刻を更新
+		while (endTime - System.nanoTime() > 0) {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * 1回の描画を記録します.
+	 */
+	void frame() {
+		nowTime = System.nanoTime();
+		if (lastFrameTime != 0) {
+			frameTimeHistogram.record(nowTime - lastFrameTime);
+		}
+		lastFrameTime = nowTime;
 		totalFrame++;
 		updateNum++;
 		if (nowTime - prevTime > 1000000000) {//1s
@@ -214,4 +365,30 @@ public final class GameTimeManager {
 			prevTime = nowTime;
 		}
 	}
+
+	/**
+	 * 1回の更新を記録します.
+	 *
+	 * @param time 更新の処理時間（ナノ秒）.<br>
+	 */
+	void tick(long time) {
+		tickTimeHistogram.record(time);
+		totalTick++;
+		tickNum++;
+		long now = System.nanoTime();
+		if (now - prevTickTime > 1000000000) {//1s
+			tps = (float) tickNum / ((now - prevTickTime) / 1000000000f);
+			tickNum = 0;
+			prevTickTime = now;
+		}
+	}
+
+	/**
+	 * 遅れを取り戻せずに破棄した更新を記録します.
+	 *
+	 * @param n 破棄した更新の回数.<br>
+	 */
+	void drop(long n) {
+		droppedTick += n;
+	}
 }
@@ -22,6 +22,7 @@ import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.List;
+import kinugasa.graphics.AtlasImage;
 import kinugasa.object.Drawable;
 import kinugasa.resource.KImage;
 
@@ -61,21 +62,39 @@ public class GraphicsContext {
 	}
 
 	public void drawImage(KImage image, int i, int i0) {
-		g.drawImage(image.asImage(), i, i0, null);
+		drawImage(image.asImage(), i, i0);
 	}
 
 	public void drawImage(Image image, int i, int i0) {
+		if (image instanceof AtlasImage) {
+			drawAtlasImage((AtlasImage) image, i, i0);
+			return;
+		}
 		g.drawImage(image, i, i0, null);
 	}
 
 	public void drawImage(KImage image, int i, int i0, int i1, int i2) {
-		g.drawImage(image.asImage(), i, i0, i1, i2, null);
+		drawImage(image.asImage(), i, i0, i1, i2);
 	}
 
 	public void drawImage(Image image, int i, int i0, int i1, int i2) {
+		//拡大縮小する場合は隣接する領域が補間に混ざらないよう、ページを使用しない
+		if (image instanceof AtlasImage && ((AtlasImage) image).getWidth() == i1 && ((AtlasImage) image).getHeight() == i2) {
+			drawAtlasImage((AtlasImage) image, i, i0);
+			return;
+		}
 		g.drawImage(image, i, i0, i1, i2, null);
 	}
 
+	//アトラスのページの領域を描画する
+	private void drawAtlasImage(AtlasImage image, int x, int y) {
+		int w = image.getWidth();
+		int h = image.getHeight();
+		int sx = image.getRegionX();
+		int sy = image.getRegionY();
+		g.drawImage(image.getPage(), x, y, x + w, y + h, sx, sy, sx + w, sy + h, null);
+	}
+
 	public void setColor(Color c) {
 		g.setColor(c);
 	}
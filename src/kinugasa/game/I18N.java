@@ -16,15 +16,26 @@
  */
 package kinugasa.game;
 
-import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import kinugasa.game.system.GameSystem;
 import kinugasa.resource.db.DBConnection;
 import kinugasa.resource.text.IniFile;
 
 /**
+ * 翻訳テキストを管理します.
+ * <br>
+ * 翻訳テーブルは、iniファイルのpreloadがtrue（デフォルト）の場合は最初の取得時に1回の検索ですべて読み込まれます。
+ * falseの場合はキーごとに検索し、結果を保持します。読み込んだテキストはハンドル（int）で管理されます。<br>
+ * パラメータ付きのテキストの!0、!1などの置換位置は、テキストごとに1度だけ解析されます。<br>
+ * 読み込んだテーブルは変更されず、追加のたびに新しいテーブルに差し替えられるため、複数のスレッドから取得できます。<br>
  *
  * @vesion 1.0.0 - 2021/08/17_6:55:53<br>
  * @author Shinacho<br>
@@ -32,11 +43,41 @@ import kinugasa.resource.text.IniFile;
 public class I18N {
 
 	private static IniFile ini;
-	private static Set<String> notFoundKeySet = new HashSet<>();
-	private static Set<String> nullValueKeySet = new HashSet<>();
-	//
-	private static Map<String, SoftReference<String>> cache = new HashMap<>();
+	private static final Set<String> notFoundKeySet = ConcurrentHashMap.newKeySet();
+	private static final Set<String> nullValueKeySet = ConcurrentHashMap.newKeySet();
 	private static String tableName;
+	private static volatile Table table = Table.EMPTY;
+	private static boolean preload = true;
+	private static volatile boolean loaded = false;
+
+	/**
+	 * テキストテーブルです. キー->ハンドル、ハンドル->テキスト。作成後は変更されません.
+	 */
+	private static final class Table {
+
+		static final Table EMPTY = new Table(Map.of(), new String[0], new Template[0]);
+		final Map<String, Integer> handles;
+		final String[] texts;
+		//解析済みのテンプレートのキャッシュ。複数のスレッドが同時に作成しても同じ内容が入るだけなので同期しない
+		final Template[] templates;
+
+		Table(Map<String, Integer> handles, String[] texts, Template[] templates) {
+			this.handles = handles;
+			this.texts = texts;
+			this.templates = templates;
+		}
+
+		//キーを追加したテーブルを作成する。既存のハンドルは変わらない
+		Table with(List<String> keys, List<String> values) {
+			Map<String, Integer> h = new HashMap<>(handles);
+			String[] t = Arrays.copyOf(texts, texts.length + keys.size());
+			for (int i = 0; i < keys.size(); i++) {
+				h.put(keys.get(i), texts.length + i);
+				t[texts.length + i] = values.get(i);
+			}
+			return new Table(Collections.unmodifiableMap(h), t, Arrays.copyOf(templates, t.length));
+		}
+	}
 
 	/**
 	 * I18Nマップを初期化します。gameStart時に自動で実行されるため、通常は呼び出す必要はありません。
@@ -46,6 +87,8 @@ public class I18N {
 	public static void init(String lang) {
 		ini = new IniFile("translate/" + lang + ".ini").load();
 		tableName = ini.get("tableName").get().value();
+		preload = !ini.containsKey("preload") || Boolean.parseBoolean(ini.getValue("preload").value());
+		clear();
 	}
 
 	public static String getTableName() {
@@ -56,6 +99,108 @@ public class I18N {
 		return notFoundKeySet;
 	}
 
+	public static boolean isPreload() {
+		return preload;
+	}
+
+	/**
+	 * 読み込んだテキストを破棄します。次の取得時に再度読み込まれます。
+	 */
+	public static synchronized void clear() {
+		table = Table.EMPTY;
+		loaded = false;
+		notFoundKeySet.clear();
+		nullValueKeySet.clear();
+	}
+
+	/**
+	 * 翻訳テーブルを全件読み込みます。DBに接続されていない場合は何もしません。
+	 * 通常は最初の取得時に自動で実行されます。
+	 */
+	@NoLoopCall
+	public static synchronized void load() {
+		if (loaded || !DBConnection.getInstance().isUsing()) {
+			return;
+		}
+		String sql = "select id, text from " + tableName;
+		Table t = table;
+		Set<String> added = new HashSet<>();
+		List<String> keys = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		int n = DBConnection.getInstance().forEachRow(sql, r -> {
+			String key = r.getString(0);
+			if (key != null && !t.handles.containsKey(key) && added.add(key)) {
+				keys.add(key);
+				values.add(r.getString(1));
+			}
+		});
+		//すべて読み込んでから差し替える
+		table = t.with(keys, values);
+		loaded = true;
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("I18N loaded : " + n);
+		}
+	}
+
+	//preloadがfalseの場合にキーを1件追加する
+	private static synchronized int put(String key, String text) {
+		Integer h = table.handles.get(key);
+		if (h != null) {
+			return h;
+		}
+		table = table.with(List.of(key), Collections.singletonList(text));
+		return table.handles.get(key);
+	}
+
+	//翻訳テーブルにないキーは-1
+	private static int find(String key) {
+		if (preload && !loaded) {
+			load();
+		}
+		Integer h = table.handles.get(key);
+		if (h != null) {
+			return h;
+		}
+		if (loaded || !DBConnection.getInstance().isUsing()) {
+			return -1;
+		}
+		String sql = "select text from " + tableName + " where id = ?";
+		var v = DBConnection.getInstance().execQuery(sql, key);
+		if (v.isEmpty()) {
+			return -1;
+		}
+		return put(key, v.cell(0, 0).get());
+	}
+
+	/**
+	 * キーに対応するハンドルを取得します。頻繁に使用するキーはハンドルを保持しておくと検索を省略できます。
+	 * ハンドルはclearまたはinitを実行するまで有効です。
+	 *
+	 * @param key キー。
+	 * @return ハンドル。翻訳テーブルにない場合は-1。
+	 */
+	public static int handle(String key) {
+		if (key == null || key.isEmpty()) {
+			return -1;
+		}
+		return find(key);
+	}
+
+	/**
+	 * ハンドルに対応するテキストを取得します。
+	 *
+	 * @param handle handleで取得したハンドル。
+	 * @return テキスト。値が空の場合は空文字。
+	 */
+	public static String get(int handle) {
+		String r = table.texts[handle];
+		return r == null ? "" : r;
+	}
+
+	public static String get(int handle, Object... param) {
+		return template(table, handle).format(param);
+	}
+
 	public static <T extends Enum<T>> String get(T t) {
 		return get(t.toString());
 	}
@@ -73,38 +218,41 @@ public class I18N {
 			GameLog.print("!> WARNING : I18N key,value is empty : " + key);
 			return "";
 		}
-		if (cache.containsKey(key)) {
-			var v = cache.get(key);
-			if (v != null && v.get() != null) {
-				return v.get();
-			}
+		if (!DBConnection.getInstance().isUsing() && !table.handles.containsKey(key)) {
+			notFoundKeySet.add(key);
+			GameLog.print("!> WARNING : I18N DB using=false : " + key);
+			return key;
 		}
-		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select text from " + tableName + " where id = '" + key + "';";
-			var v = DBConnection.getInstance().execDirect(sql);
-			if (v.isEmpty()) {
-				notFoundKeySet.add(key);
-				GameLog.print("!> WARNING : I18N is not found : " + key);
-				return key;
-			}
-			var res = v.cell(0, 0).get();
-			if (res == null) {
-				nullValueKeySet.add(key);
-				GameLog.print("!> WARNING : I18N value is empty : " + key);
-				return "";
-			}
-			cache.put(key, new SoftReference<>(res));
-			return res;
+		int h = find(key);
+		if (h < 0) {
+			notFoundKeySet.add(key);
+			GameLog.print("!> WARNING : I18N is not found : " + key);
+			return key;
 		}
-		notFoundKeySet.add(key);
-		GameLog.print("!> WARNING : I18N DB using=false : " + key);
-		return key;
+		String text = table.texts[h];
+		if (text == null) {
+			nullValueKeySet.add(key);
+			GameLog.print("!> WARNING : I18N value is empty : " + key);
+			return "";
+		}
+		return text;
 	}
 
 	@NoLoopCall
 	public static boolean contains(String key) {
-		String sql = "select count(*) from " + tableName + " where id = '" + key + "';";
-		return DBConnection.getInstance().execDirect(sql).cell(0, 0).asInt() != 0;
+		if (key == null || key.isEmpty()) {
+			return false;
+		}
+		if (preload && !loaded) {
+			load();
+		}
+		if (table.handles.containsKey(key)) {
+			return true;
+		}
+		if (loaded || !DBConnection.getInstance().isUsing()) {
+			return false;
+		}
+		return find(key) >= 0;
 	}
 
 	@NoLoopCall
@@ -123,10 +271,87 @@ public class I18N {
 	@NoLoopCall
 	public static String get(String key, Object... param) {
 		String res = getText(key);
-		for (int i = 0; i < param.length; i++) {
-			res = res.replaceAll("!" + i, param[i].toString());
+		if (param.length == 0) {
+			return res;
+		}
+		Table t = table;
+		Integer h = t.handles.get(key);
+		if (h != null && t.texts[h] != null) {
+			return template(t, h).format(param);
+		}
+		return Template.parse(res).format(param);
+	}
+
+	private static Template template(Table table, int handle) {
+		Template t = table.templates[handle];
+		if (t == null) {
+			String text = table.texts[handle];
+			t = table.templates[handle] = Template.parse(text == null ? "" : text);
+		}
+		return t;
+	}
+
+	/**
+	 * !0、!1などの置換位置を解析済みのテキストです.
+	 */
+	private static final class Template {
+
+		//固定部分と置換位置が交互に並ぶ。parts[i]の後にparams[index[i]]が入る。-1は置換なし
+		private final String[] parts;
+		private final int[] index;
+		private final int length;
+
+		private Template(String[] parts, int[] index, int length) {
+			this.parts = parts;
+			this.index = index;
+			this.length = length;
+		}
+
+		//!の後の連続したASCIIの数字を1つの番号として扱う。全角などの数字は置換位置にしない
+		static Template parse(String text) {
+			List<String> parts = new ArrayList<>();
+			List<Integer> index = new ArrayList<>();
+			int start = 0;
+			int i = text.indexOf('!');
+			while (i >= 0 && i + 1 < text.length()) {
+				int j = i + 1;
+				int n = 0;
+				while (j < text.length() && text.charAt(j) >= '0' && text.charAt(j) <= '9') {
+					n = n * 10 + (text.charAt(j) - '0');
+					j++;
+				}
+				if (j > i + 1) {
+					parts.add(text.substring(start, i));
+					index.add(n);
+					start = j;
+				}
+				i = text.indexOf('!', j);
+			}
+			parts.add(text.substring(start));
+			index.add(-1);
+			return new Template(parts.toArray(String[]::new), index.stream().mapToInt(p -> p).toArray(), text.length());
+		}
+
+		String format(Object... param) {
+			if (parts.length == 1) {
+				return parts[0];
+			}
+			StringBuilder sb = new StringBuilder(length + 16 * param.length);
+			for (int i = 0; i < parts.length; i++) {
+				sb.append(parts[i]);
+				int idx = index[i];
+				if (idx < 0) {
+					continue;
+				}
+				if (idx < param.length) {
+					sb.append(param[idx]);
+				} else {
+					//パラメータがない場合はそのまま残す
+					sb.append('!').append(idx);
+				}
+			}
+			return sb.toString();
 		}
-		return res;
 	}
 
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+/**
+ * ゲームループの更新と描画の進め方です.
+ * <br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_17:00:00<br>
+ * @author Shinacho<br>
+ */
+public enum LoopMode {
+	/**
+	 * 1回の更新と1回の描画を交互に行い、FPSを維持するように待機します。
+	 * 処理が遅れた場合はゲームの進行も遅くなります。
+	 */
+	VARIABLE,
+	/**
+	 * 一定の間隔で更新を行い、描画とは独立させます。
+	 * 描画が遅れた場合は、1回の描画の前に複数回の更新を行って追いつきます。
+	 * 描画の際はGameTimeManagerのgetInterpolationで、前回の更新からの経過割合を取得できます。
+	 */
+	FIXED_STEP,
+}
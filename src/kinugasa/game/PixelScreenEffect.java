@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+import java.awt.image.BufferedImage;
+import kinugasa.util.FrameTimeCounter;
+
+/**
+ * 画像のピクセル配列を直接書き換えるスクリーンエフェクトです.
+ * <br>
+ * エフェクトは新しい画像を作らず、ScreenEffectChainが渡すARGBのピクセル配列をその場で変更します。<br>
+ * ピクセルごとに独立した変換の場合はisPerPixelでtrueを返し、filterを実装してください。
+ * 連続するピクセル単位のエフェクトは、ScreenEffectChainによって画像の範囲ごとにまとめて適用されるため、
+ * 画像全体の走査は1回で済みます。<br>
+ * エフェクトは指定したフレーム数の間適用され、その後終了します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_16:00:00<br>
+ * @author Shinacho<br>
+ */
+public abstract class PixelScreenEffect implements ScreenEffect {
+
+	private final FrameTimeCounter tc;
+	private boolean ended = false;
+	private ScreenEffectChain chain;
+
+	/**
+	 * エフェクトを作成します。
+	 *
+	 * @param time エフェクトを適用するフレーム数。
+	 */
+	protected PixelScreenEffect(int time) {
+		this.tc = new FrameTimeCounter(time);
+	}
+
+	/**
+	 * 1フレーム進めます。
+	 *
+	 * @return このフレームにエフェクトを適用する場合はtrue。終了している場合はfalse。
+	 */
+	final boolean next() {
+		if (ended) {
+			return false;
+		}
+		if (tc.isReaching()) {
+			ended = true;
+		}
+		return true;
+	}
+
+	/**
+	 * このエフェクトがピクセルごとに独立した変換かどうかを返します。
+	 * trueを返す場合、applyは呼ばれずにfilterが範囲ごとに呼ばれることがあります。
+	 *
+	 * @return ピクセル単位の変換の場合はtrue。
+	 */
+	public boolean isPerPixel() {
+		return false;
+	}
+
+	/**
+	 * 画像を走査する前に1度呼ばれます。画像のサイズに依存する準備を行います。
+	 *
+	 * @param w 画像の幅。
+	 * @param h 画像の高さ。
+	 */
+	protected void prepare(int w, int h) {
+	}
+
+	/**
+	 * ピクセル配列の範囲を変換します。isPerPixelがtrueの場合に使用されます。
+	 * 複数のエフェクトをまとめる場合、ScreenEffectChainはキャッシュに収まる長さの範囲ごとに各エフェクトのfilterを呼び出します。
+	 *
+	 * @param pix ARGBのピクセル配列。位置iのピクセルは(i % 幅, i / 幅)です。
+	 * @param from 開始位置。
+	 * @param to 終了位置（この位置は含まない）。
+	 */
+	protected void filter(int[] pix, int from, int to) {
+	}
+
+	/**
+	 * ピクセル配列にエフェクトを適用します。デフォルトの実装はすべてのピクセルにfilterを適用します。
+	 *
+	 * @param pix ARGBのピクセル配列。行ごとに隙間なく並んでいます。
+	 * @param w 画像の幅。
+	 * @param h 画像の高さ。
+	 * @param chain 作業用の配列を取得するためのチェイン。
+	 */
+	protected void apply(int[] pix, int w, int h, ScreenEffectChain chain) {
+		filter(pix, 0, w * h);
+	}
+
+	/**
+	 * 単体でエフェクトを適用します。srcのピクセルは直接変更されます。
+	 *
+	 * @param src 画像。
+	 * @return src。
+	 */
+	@Override
+	public BufferedImage doIt(BufferedImage src) {
+		if (chain == null) {
+			chain = new ScreenEffectChain();
+		}
+		return chain.apply(src, this);
+	}
+
+	@Override
+	public boolean isEnded() {
+		return ended;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return !ended;
+	}
+
+}
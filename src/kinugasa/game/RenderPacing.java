@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+/**
+ * LoopModeがFIXED_STEPの場合の描画の間隔です.
+ * <br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_17:00:00<br>
+ * @author Shinacho<br>
+ */
+public enum RenderPacing {
+	/**
+	 * 描画のFPSの上限で描画します。上限が0以下の場合は更新と同じ間隔で描画します。
+	 */
+	CAPPED,
+	/**
+	 * 待機せずに描画を繰り返します。
+	 */
+	UNCAPPED,
+	/**
+	 * ディスプレイのリフレッシュレートを上限として描画し、描画のたびに表示を同期します。
+	 * リフレッシュレートが取得できない場合はCAPPEDと同じです。
+	 */
+	VSYNC,
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import kinugasa.graphics.ImageUtil;
+import kinugasa.graphics.RenderingQuality;
+import kinugasa.object.DirtyRegionSource;
+import kinugasa.object.Drawable;
+
+/**
+ * GameManagerの画面描画の手順です.
+ * <br>
+ * 描画はクリア、描画、スクリーンエフェクト、表示の4つのステージで行われ、ステージごとに時間が計測されます。<br>
+ * モードがDIRTY_REGIONの場合、markDirtyで指定された領域と登録されたDirtyRegionSourceが報告した領域の和だけを
+ * クリア、描画、表示します。変化がないフレームは何も行いません。
+ * スクリーンエフェクトの実行中や、バッファの内容が失われた場合は全画面を描画します。<br>
+ * デフォルトのモードはFULLで、毎フレーム全画面を描画します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_15:20:00<br>
+ * @author Shinacho<br>
+ */
+public final class RenderPipeline {
+
+	public enum Mode {
+		/**
+		 * 毎フレーム全画面を描画します。
+		 */
+		FULL,
+		/**
+		 * 変化した領域だけを描画します。
+		 */
+		DIRTY_REGION,
+	}
+
+	public enum Stage {
+		CLEAR,
+		DRAW,
+		SCREEN_EFFECT,
+		PRESENT,
+	}
+	private Mode mode = Mode.FULL;
+	private final List<DirtyRegionSource> sources = new ArrayList<>();
+	private final Rectangle dirty = new Rectangle();
+	private boolean hasDirty = false;
+	private boolean allDirty = true;
+	private boolean effectedLastFrame = false;
+	private BufferedImage image;
+	private final ScreenEffectChain effectChain = new ScreenEffectChain();
+	//計測値
+	private final long[] lastNanos = new long[Stage.values().length];
+	private final long[] totalNanos = new long[Stage.values().length];
+	private long frames;
+	private long skippedFrames;
+	private final Rectangle lastRegion = new Rectangle();
+
+	RenderPipeline() {
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(Mode mode) {
+		this.mode = mode;
+		allDirty = true;
+	}
+
+	/**
+	 * 変化を報告するオブジェクトを登録します。
+	 *
+	 * @param s 登録するオブジェクト。
+	 */
+	public void addSource(DirtyRegionSource s) {
+		sources.add(s);
+	}
+
+	public void removeSource(DirtyRegionSource s) {
+		sources.remove(s);
+		allDirty = true;
+	}
+
+	public void clearSources() {
+		sources.clear();
+		allDirty = true;
+	}
+
+	/**
+	 * 次のフレームで再描画する領域を追加します。座標は描画倍率適用前の画面座標です。
+	 *
+	 * @param x X座標。
+	 * @param y Y座標。
+	 * @param w 幅。
+	 * @param h 高さ。
+	 */
+	public void markDirty(int x, int y, int w, int h) {
+		if (w <= 0 || h <= 0) {
+			return;
+		}
+		if (hasDirty) {
+			dirty.add(new Rectangle(x, y, w, h));
+		} else {
+			dirty.setBounds(x, y, w, h);
+			hasDirty = true;
+		}
+	}
+
+	public void markDirty(Rectangle r) {
+		markDirty(r.x, r.y, r.width, r.height);
+	}
+
+	/**
+	 * 次のフレームで全画面を再描画します。
+	 */
+	public void markAllDirty() {
+		allDirty = true;
+	}
+
+	void setImage(BufferedImage image) {
+		this.image = image;
+		allDirty = true;
+	}
+
+	/**
+	 * 最後に描画したフレームの複製を作成します。座標は描画倍率適用前の画面座標です。
+	 *
+	 * @return フレームの複製。まだ画面が作成されていない場合はnull。
+	 */
+	public BufferedImage copyLastFrame() {
+		return image == null ? null : ImageUtil.copy(image);
+	}
+
+	private void collect() {
+		for (int i = 0, size = sources.size(); i < size; i++) {
+			Rectangle r = sources.get(i).pollDirtyRegion();
+			if (r != null) {
+				markDirty(r);
+			}
+		}
+	}
+
+	/**
+	 * 1フレームを描画します。
+	 *
+	 * @return 描画を行った場合はtrue、変化がなく省略した場合はfalse。
+	 */
+	boolean render(Drawable drawStage, Color background, RenderingHints hints, List<ScreenEffect> effects,
+			BufferStrategy buffer, float drawSize) {
+		collect();
+		boolean full = mode == Mode.FULL || allDirty || effectedLastFrame || !effects.isEmpty();
+		if (!full && !hasDirty) {
+			skippedFrames++;
+			return false;
+		}
+		Rectangle region = full
+				? new Rectangle(0, 0, image.getWidth(), image.getHeight())
+				: dirty.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+		hasDirty = false;
+		allDirty = false;
+		if (region.isEmpty()) {
+			skippedFrames++;
+			return false;
+		}
+		lastRegion.setBounds(region);
+		frames++;
+
+		//CLEAR
+		long t = System.nanoTime();
+		Graphics2D g = ImageUtil.createGraphics2D(image, RenderingQuality.NOT_USE);
+		g.setBackground(background);
+		g.setClip(region);
+		g.clearRect(region.x, region.y, region.width, region.height);
+		if (hints != null) {
+			g.setRenderingHints(hints);
+		}
+		t = record(Stage.CLEAR, t);
+
+		//DRAW
+		drawStage.draw(new GraphicsContext(g));
+		g.dispose();
+		t = record(Stage.DRAW, t);
+
+		//SCREEN_EFFECT
+		if (!effects.isEmpty()) {
+			image = effectChain.apply(image, effects);
+		}
+		effectedLastFrame = !effects.isEmpty();
+		t = record(Stage.SCREEN_EFFECT, t);
+
+		//PRESENT
+		//ページフリップの場合はバックバッファの内容が保証されないので全体を転送する
+		Rectangle bounds = new Rectangle(0, 0, image.getWidth(), image.getHeight());
+		Rectangle src;
+		if (full || buffer.getCapabilities().isPageFlipping()) {
+			src = bounds;
+		} else if (drawSize != 1) {
+			//拡大時の端数で継ぎ目が出ないように1ピクセル広げる
+			src = new Rectangle(region.x - 1, region.y - 1, region.width + 2, region.height + 2).intersection(bounds);
+		} else {
+			src = region;
+		}
+		Graphics2D g2 = (Graphics2D) buffer.getDrawGraphics();
+		int dx1 = (int) Math.floor(src.x * drawSize);
+		int dy1 = (int) Math.floor(src.y * drawSize);
+		int dx2 = (int) Math.ceil((src.x + src.width) * drawSize);
+		int dy2 = (int) Math.ceil((src.y + src.height) * drawSize);
+		g2.drawImage(image, dx1, dy1, dx2, dy2, src.x, src.y, src.x + src.width, src.y + src.height, null);
+		g2.dispose();
+		if (buffer.contentsRestored()) {
+			allDirty = true;
+		}
+		buffer.show();
+		if (buffer.contentsLost()) {
+			allDirty = true;
+		}
+		record(Stage.PRESENT, t);
+		return true;
+	}
+
+	private long record(Stage s, long start) {
+		long now = System.nanoTime();
+		lastNanos[s.ordinal()] = now - start;
+		totalNanos[s.ordinal()] += now - start;
+		return now;
+	}
+
+	/**
+	 * 最後に描画したフレームのステージの所要時間を返します。
+	 *
+	 * @param s ステージ。
+	 * @return 所要時間（ナノ秒）。
+	 */
+	public long getLastNanos(Stage s) {
+		return lastNanos[s.ordinal()];
+	}
+
+	/**
+	 * 描画したフレームのステージの平均所要時間を返します。
+	 *
+	 * @param s ステージ。
+	 * @return 平均所要時間（ナノ秒）。
+	 */
+	public long getAverageNanos(Stage s) {
+		return frames == 0 ? 0 : totalNanos[s.ordinal()] / frames;
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	public long getSkippedFrames() {
+		return skippedFrames;
+	}
+
+	/**
+	 * スクリーンエフェクトの適用に使用するチェインを返します。
+	 *
+	 * @return チェイン。
+	 */
+	public ScreenEffectChain getEffectChain() {
+		return effectChain;
+	}
+
+	/**
+	 * 最後に描画した領域を返します。
+	 *
+	 * @return 領域のコピー。
+	 */
+	public Rectangle getLastRegion() {
+		return new Rectangle(lastRegion);
+	}
+
+	public void resetMetrics() {
+		for (int i = 0; i < lastNanos.length; i++) {
+			lastNanos[i] = 0;
+			totalNanos[i] = 0;
+		}
+		frames = 0;
+		skippedFrames = 0;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("RenderPipeline{mode=").append(mode);
+		sb.append(", frames=").append(frames).append(", skipped=").append(skippedFrames);
+		for (Stage s : Stage.values()) {
+			sb.append(", ").append(s).append('=').append(getAverageNanos(s) / 1000).append("us");
+		}
+		return sb.append('}').toString();
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+/**
+ * ゲームループが使用する入力の取得方法です.
+ * <br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_19:30:00<br>
+ * @author Shinacho<br>
+ */
+public enum ReplayMode {
+	/**
+	 * 入力デバイスから取得し、記録しません。
+	 */
+	OFF,
+	/**
+	 * 入力デバイスから取得し、リプレイファイルに記録します。
+	 * 乱数はゲームループの開始時に新しいシードで初期化され、シードはファイルに保存されます。
+	 */
+	RECORD,
+	/**
+	 * リプレイファイルから取得します。
+	 * 乱数はファイルのシードで初期化されます。再生が終わると入力デバイスからの取得に戻ります。
+	 */
+	PLAY,
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+import java.util.concurrent.Future;
+
+/**
+ * GameLogicStorageによるロジックの切り替えの状態と所要時間です.
+ * <br>
+ * 切り替えはDISPOSE（前のロジックの破棄）、LOAD（次のロジックの読み込み）、HANDOFF（ゲームループでの切り替え）の順に行われます。
+ * 非同期の切り替えでは、LOADはワーカースレッドで実行され、その間はTransitionLogicなどのロジックが描画を続けます。<br>
+ * 所要時間はフェーズごとに記録され、GameLogicStorageのヒストグラムにも集計されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_23:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class SceneTransition {
+
+	/**
+	 * 切り替えのフェーズです.
+	 */
+	public enum Phase {
+		/**
+		 * 前のロジックの破棄です。
+		 */
+		DISPOSE,
+		/**
+		 * 次のロジックの読み込みです。
+		 */
+		LOAD,
+		/**
+		 * ゲームループでの切り替えと、前のロジックを残した場合の破棄です。
+		 */
+		HANDOFF,
+	}
+
+	private final GameLogic from;
+	private final GameLogic to;
+	private final GameLogic transition;
+	private final boolean async;
+	private final boolean keepPrevious;
+	private final long[] nanos = new long[Phase.values().length];
+	//実行されたフェーズ
+	private final boolean[] executed = new boolean[Phase.values().length];
+	private final long startTime = System.nanoTime();
+	private volatile long endTime;
+	private volatile Future<?> future;
+	private volatile Throwable error;
+	private volatile boolean done;
+	private int frames;
+
+	SceneTransition(GameLogic from, GameLogic to, GameLogic transition, boolean async, boolean keepPrevious) {
+		this.from = from;
+		this.to = to;
+		this.transition = transition;
+		this.async = async;
+		this.keepPrevious = keepPrevious;
+	}
+
+	void setNanos(Phase p, long nanos) {
+		this.nanos[p.ordinal()] = nanos;
+		this.executed[p.ordinal()] = true;
+	}
+
+	void setFuture(Future<?> future) {
+		this.future = future;
+	}
+
+	Future<?> getFuture() {
+		return future;
+	}
+
+	void frame() {
+		frames++;
+	}
+
+	void end(Throwable error) {
+		this.error = error;
+		this.endTime = System.nanoTime();
+		this.done = true;
+	}
+
+	/**
+	 * 切り替え前のロジックを返します。
+	 *
+	 * @return 切り替え前のロジック。最初の切り替えの場合はnull。
+	 */
+	public GameLogic getFrom() {
+		return from;
+	}
+
+	public GameLogic getTo() {
+		return to;
+	}
+
+	/**
+	 * 読み込み中に使用するロジックを返します。
+	 *
+	 * @return 読み込み中のロジック。使用しない場合はnull。
+	 */
+	public GameLogic getTransition() {
+		return transition;
+	}
+
+	public boolean isAsync() {
+		return async;
+	}
+
+	/**
+	 * 次のロジックの読み込みが終わるまで、前のロジックを破棄しないかを返します。
+	 *
+	 * @return 前のロジックを残す場合はtrue。
+	 */
+	public boolean isKeepPrevious() {
+		return keepPrevious;
+	}
+
+	/**
+	 * 次のロジックの読み込みが終わったかを返します。切り替えはまだ行われていないことがあります。
+	 *
+	 * @return 読み込みが終わった場合はtrue。
+	 */
+	public boolean isLoaded() {
+		return done || (future != null && future.isDone());
+	}
+
+	/**
+	 * 切り替えが終わったかを返します。
+	 *
+	 * @return 切り替えが終わった場合、または失敗した場合はtrue。
+	 */
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * 読み込みで発生した例外を返します。
+	 *
+	 * @return 例外。成功した場合や終わっていない場合はnull。
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * 次のロジックの読み込みの進捗を返します。
+	 *
+	 * @return 0から1の進捗。読み込みが終わった場合は1。
+	 */
+	public float getProgress() {
+		if (isLoaded()) {
+			return 1f;
+		}
+		return Math.max(0f, Math.min(1f, to.getLoadProgress()));
+	}
+
+	/**
+	 * フェーズの所要時間を返します。
+	 *
+	 * @param p フェーズ。
+	 * @return 所要時間（ナノ秒）。終わっていないフェーズは0。
+	 */
+	public long getNanos(Phase p) {
+		return nanos[p.ordinal()];
+	}
+
+	/**
+	 * フェーズが実行されたかを返します。前のロジックがない場合の破棄や、changeToの引き渡しなどは実行されません。
+	 *
+	 * @param p フェーズ。
+	 * @return 実行された場合はtrue。
+	 */
+	public boolean isExecuted(Phase p) {
+		return executed[p.ordinal()];
+	}
+
+	/**
+	 * 切り替えを開始してから終わるまでの時間を返します。
+	 *
+	 * @return 所要時間（ナノ秒）。終わっていない場合は現在までの時間。
+	 */
+	public long getTotalNanos() {
+		return (done ? endTime : System.nanoTime()) - startTime;
+	}
+
+	/**
+	 * 読み込みを待つ間にpollTransitionが呼ばれた回数を返します。
+	 *
+	 * @return フレーム数。
+	 */
+	public int getFrames() {
+		return frames;
+	}
+
+	@Override
+	public String toString() {
+		return "SceneTransition{" + "from=" + (from == null ? null : from.getName()) + ", to=" + to.getName()
+				+ ", async=" + async + ", keepPrevious=" + keepPrevious
+				+ ", dispose=" + getNanos(Phase.DISPOSE) / 1000 + "us"
+				+ ", load=" + getNanos(Phase.LOAD) / 1000 + "us"
+				+ ", handoff=" + getNanos(Phase.HANDOFF) / 1000 + "us"
+				+ ", total=" + getTotalNanos() / 1000 + "us"
+				+ ", frames=" + frames + ", done=" + done + ", error=" + error + '}';
+	}
+
+}
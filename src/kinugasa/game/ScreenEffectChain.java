@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.List;
+
+/**
+ * スクリーンエフェクトのリストを画像にその場で適用します.
+ * <br>
+ * PixelScreenEffectは画像のDataBufferIntを直接書き換えます。
+ * 連続するピクセル単位のエフェクトは、キャッシュに収まる範囲ごとに順番に適用することで1回の走査にまとめられます。作業用の配列はフレーム間で再利用されます。<br>
+ * 画像がINT_ARGBまたはINT_RGBでない場合は、再利用する配列にピクセルをコピーして処理し、最後に書き戻します。<br>
+ * PixelScreenEffectでないエフェクトは従来通りdoItで適用されます。<br>
+ * DataBufferIntを直接取得した画像は、Java2Dによるアクセラレーションの対象外になります。
+ * 毎フレームすべてのピクセルを書き換えるバックバッファでは、この影響はほとんどありません。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_16:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class ScreenEffectChain {
+
+	//まとめて適用する範囲のピクセル数
+	private static final int FUSE_BLOCK = 4096;
+
+	private int[] scratch = new int[0];
+	private int[] copy = new int[0];
+	private PixelScreenEffect[] fused = new PixelScreenEffect[4];
+	//ロック中の画像
+	private BufferedImage locked;
+	private boolean copied;
+	//計測値
+	private long passes;
+	private long fusedPasses;
+
+	public ScreenEffectChain() {
+	}
+
+	/**
+	 * 作業用の配列を返します。配列はエフェクトの間で共有されるため、applyの中でのみ使用できます。
+	 *
+	 * @param length 必要な長さ。
+	 * @return length以上の長さの配列。内容は不定です。
+	 */
+	public int[] scratch(int length) {
+		if (scratch.length < length) {
+			scratch = new int[length];
+		}
+		return scratch;
+	}
+
+	/**
+	 * エフェクトを順番に適用します。
+	 *
+	 * @param image 画像。
+	 * @param effects 適用するエフェクト。
+	 * @return 適用後の画像。PixelScreenEffectだけの場合はimageです。
+	 * @throws ScreenEffectException エフェクトが返した画像のサイズが異なる場合に投げられます。
+	 */
+	public BufferedImage apply(BufferedImage image, List<? extends ScreenEffect> effects) throws ScreenEffectException {
+		final int w = image.getWidth();
+		final int h = image.getHeight();
+		int[] pix = null;
+		for (int i = 0, size = effects.size(); i < size;) {
+			ScreenEffect e = effects.get(i);
+			if (!(e instanceof PixelScreenEffect)) {
+				if (pix != null) {
+					unlock();
+					pix = null;
+				}
+				image = e.doIt(image);
+				if (w != image.getWidth() || h != image.getHeight()) {
+					throw new ScreenEffectException("screen effect " + e + " s size is missmatch");
+				}
+				i++;
+				continue;
+			}
+			PixelScreenEffect p = (PixelScreenEffect) e;
+			if (!p.isPerPixel()) {
+				if (p.next()) {
+					if (pix == null) {
+						pix = lock(image);
+					}
+					p.prepare(w, h);
+					p.apply(pix, w, h, this);
+					passes++;
+				}
+				i++;
+				continue;
+			}
+			//連続するピクセル単位のエフェクトをまとめる
+			int n = 0;
+			for (; i < size; i++) {
+				ScreenEffect f = effects.get(i);
+				if (!(f instanceof PixelScreenEffect) || !((PixelScreenEffect) f).isPerPixel()) {
+					break;
+				}
+				if (((PixelScreenEffect) f).next()) {
+					if (n == fused.length) {
+						PixelScreenEffect[] tmp = new PixelScreenEffect[n * 2];
+						System.arraycopy(fused, 0, tmp, 0, n);
+						fused = tmp;
+					}
+					fused[n++] = (PixelScreenEffect) f;
+				}
+			}
+			if (n == 0) {
+				continue;
+			}
+			if (pix == null) {
+				pix = lock(image);
+			}
+			for (int j = 0; j < n; j++) {
+				fused[j].prepare(w, h);
+			}
+			if (n == 1) {
+				fused[0].apply(pix, w, h, this);
+			} else {
+				fuse(pix, w * h, n);
+				fusedPasses++;
+			}
+			passes++;
+			for (int j = 0; j < n; j++) {
+				fused[j] = null;
+			}
+		}
+		if (pix != null) {
+			unlock();
+		}
+		return image;
+	}
+
+	BufferedImage apply(BufferedImage image, PixelScreenEffect e) {
+		if (!e.next()) {
+			return image;
+		}
+		int[] pix = lock(image);
+		e.prepare(image.getWidth(), image.getHeight());
+		e.apply(pix, image.getWidth(), image.getHeight(), this);
+		passes++;
+		unlock();
+		return image;
+	}
+
+	private void fuse(int[] pix, int length, int n) {
+		//範囲をキャッシュに収まる長さに区切り、範囲ごとにすべてのエフェクトを適用する
+		for (int from = 0; from < length; from += FUSE_BLOCK) {
+			int to = Math.min(from + FUSE_BLOCK, length);
+			for (int j = 0; j < n; j++) {
+				fused[j].filter(pix, from, to);
+			}
+		}
+	}
+
+	private int[] lock(BufferedImage image) {
+		locked = image;
+		int w = image.getWidth();
+		int h = image.getHeight();
+		if (image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB) {
+			WritableRaster r = image.getRaster();
+			if (r.getSampleModel() instanceof SinglePixelPackedSampleModel
+					&& ((SinglePixelPackedSampleModel) r.getSampleModel()).getScanlineStride() == w
+					&& r.getSampleModelTranslateX() == 0 && r.getSampleModelTranslateY() == 0
+					&& r.getDataBuffer() instanceof DataBufferInt
+					&& r.getDataBuffer().getOffset() == 0) {
+				copied = false;
+				return ((DataBufferInt) r.getDataBuffer()).getData();
+			}
+		}
+		if (copy.length < w * h) {
+			copy = new int[w * h];
+		}
+		image.getRGB(0, 0, w, h, copy, 0, w);
+		copied = true;
+		return copy;
+	}
+
+	private void unlock() {
+		if (copied) {
+			locked.setRGB(0, 0, locked.getWidth(), locked.getHeight(), copy, 0, locked.getWidth());
+		}
+		locked = null;
+		copied = false;
+	}
+
+	/**
+	 * 画像を走査した回数を返します。
+	 *
+	 * @return 走査の回数。
+	 */
+	public long getPassCount() {
+		return passes;
+	}
+
+	/**
+	 * 複数のエフェクトを1回の走査にまとめた回数を返します。
+	 *
+	 * @return まとめた走査の回数。
+	 */
+	public long getFusedPassCount() {
+		return fusedPasses;
+	}
+
+	@Override
+	public String toString() {
+		return "ScreenEffectChain{" + "passes=" + passes + ", fusedPasses=" + fusedPasses + '}';
+	}
+
+}
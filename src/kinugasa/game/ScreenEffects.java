@@ -16,15 +16,18 @@
  */
 package kinugasa.game;
 
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.RasterFormatException;
+import java.util.Arrays;
+import kinugasa.graphics.ARGBColor;
 import kinugasa.graphics.ImageUtil;
-import kinugasa.graphics.RenderingQuality;
-import kinugasa.util.FrameTimeCounter;
 import kinugasa.util.Random;
 
 /**
  * スクリーンエフェクトのプリセットを構築するクラスです。 エフェクトは時間を持っており、その経過時間分のフレームが経過すると破棄されます。
+ * <br>
+ * プリセットはすべてPixelScreenEffectで、画像のピクセルをその場で書き換えます。
+ * 色を変換するエフェクトを連続して追加すると、ScreenEffectChainによって1回の走査で適用されます。<br>
  *
  * @vesion 1.0.0 - 2023/07/19_20:13:22<br>
  * @author Shinacho<br>
@@ -35,144 +38,84 @@ public final class ScreenEffects {
 	}
 
 	public static ScreenEffect reverseColor(int time) {
-
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
-			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-				BufferedImage res = src;
-				res = ImageUtil.reverseColor(res, null);
-
-				if (tc.isReaching()) {
-					ended = true;
-				}
-				return res;
-			}
-
+		return new PixelScreenEffect(time) {
 			@Override
-			public boolean isEnded() {
-				return ended;
+			public boolean isPerPixel() {
+				return true;
 			}
 
 			@Override
-			public boolean isRunning() {
-				return !ended;
+			protected void filter(int[] pix, int from, int to) {
+				for (int i = from; i < to; i++) {
+					pix[i] ^= 0x00FFFFFF;
+				}
 			}
 
 		};
 	}
 
 	public static ScreenEffect reverseColor(BufferedImage mask, int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-			private BufferedImage maskImage = null;
-			private int[][] pix2 = null;
+		return new PixelScreenEffect(time) {
+			//画面サイズに拡大したマスクの不透明なピクセル
+			private boolean[] area = null;
+			private int areaW, areaH;
 
 			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-				BufferedImage res = src;
-				res = ImageUtil.reverseColorByMaskedArea(res, mask);
-
-				if (tc.isReaching()) {
-					ended = true;
-					pix2 = null;
-					maskImage = null;
-				}
-				return res;
+			public boolean isPerPixel() {
+				return true;
 			}
 
 			@Override
-			public boolean isEnded() {
-				return ended;
+			protected void prepare(int w, int h) {
+				if (area != null && areaW == w && areaH == h) {
+					return;
+				}
+				BufferedImage m = mask.getWidth() == w && mask.getHeight() == h
+						? mask
+						: ImageUtil.resize(mask, w, h);
+				int[] pix = m.getRGB(0, 0, w, h, null, 0, w);
+				area = new boolean[w * h];
+				for (int i = 0; i < area.length; i++) {
+					area[i] = ARGBColor.getAlpha(pix[i]) != 0;
+				}
+				areaW = w;
+				areaH = h;
 			}
 
 			@Override
-			public boolean isRunning() {
-				return !ended;
+			protected void filter(int[] pix, int from, int to) {
+				for (int i = from; i < to; i++) {
+					if (area[i]) {
+						pix[i] ^= 0x00FFFFFF;
+					}
+				}
 			}
 
 		};
 	}
 
 	public static ScreenEffect horizontalReverseImage(int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
+		return new PixelScreenEffect(time) {
 			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-
-				BufferedImage res = src;
-				Graphics2D g2 = ImageUtil.createGraphics2D(res, RenderingQuality.NOT_USE);
-				g2.drawImage(res, res.getWidth(), 0, -res.getWidth(), res.getHeight(), null);
-				g2.dispose();
-
-				if (tc.isReaching()) {
-					ended = true;
+			protected void apply(int[] pix, int w, int h, ScreenEffectChain chain) {
+				for (int row = 0, n = w * h; row < n; row += w) {
+					reverse(pix, row, row + w - 1);
 				}
-				return res;
-			}
-
-			@Override
-			public boolean isEnded() {
-				return ended;
-			}
-
-			@Override
-			public boolean isRunning() {
-				return !ended;
 			}
 
 		};
 	}
 
 	public static ScreenEffect verticalReverseImage(int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
+		return new PixelScreenEffect(time) {
 			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-
-				BufferedImage res = src;
-				int[][] pix = ImageUtil.getPixel2D(res);
-				int[][] newPix = new int[pix.length][];
-
-				for (int y = pix.length - 1, yy = 0; y >= 0; y--, yy++) {
-					newPix[yy] = pix[y];
-				}
-
-				ImageUtil.setPixel2D(res, newPix);
-
-				if (tc.isReaching()) {
-					ended = true;
+			protected void apply(int[] pix, int w, int h, ScreenEffectChain chain) {
+				int[] tmp = chain.scratch(w);
+				for (int top = 0, bottom = (h - 1) * w; top < bottom; top += w, bottom -= w) {
+					System.arraycopy(pix, top, tmp, 0, w);
+					System.arraycopy(pix, bottom, pix, top, w);
+					System.arraycopy(tmp, 0, pix, bottom, w);
 				}
-				return res;
-			}
-
-			@Override
-			public boolean isEnded() {
-				return ended;
-			}
-
-			@Override
-			public boolean isRunning() {
-				return !ended;
 			}
 
 		};
@@ -180,74 +123,38 @@ public final class ScreenEffects {
 	}
 
 	public static ScreenEffect reverseImage(int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
-			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-
-				if (tc.isReaching()) {
-					ended = true;
-				}
-				BufferedImage res = src;
-				Graphics2D g2 = ImageUtil.createGraphics2D(res, RenderingQuality.NOT_USE);
-				g2.drawImage(res, res.getWidth(), 0, -res.getWidth(), res.getHeight(), null);
-				g2.dispose();
-
-				int[][] pix = ImageUtil.getPixel2D(res);
-				int[][] newPix = new int[pix.length][];
-
-				for (int y = pix.length - 1, yy = 0; y >= 0; y--, yy++) {
-					newPix[yy] = pix[y];
-				}
-
-				ImageUtil.setPixel2D(res, newPix);
-
-				return res;
-			}
-
-			@Override
-			public boolean isEnded() {
-				return ended;
-			}
-
+		return new PixelScreenEffect(time) {
 			@Override
-			public boolean isRunning() {
-				return !ended;
+			protected void apply(int[] pix, int w, int h, ScreenEffectChain chain) {
+				//上下左右の反転は配列全体の反転と同じ
+				reverse(pix, 0, w * h - 1);
 			}
 
 		};
 	}
 
-	public static ScreenEffect monochrome(int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
-			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-
-				if (tc.isReaching()) {
-					ended = true;
-				}
-				return ImageUtil.monochrome(src, 128, null);
-			}
+	private static void reverse(int[] pix, int from, int to) {
+		for (; from < to; from++, to--) {
+			int tmp = pix[from];
+			pix[from] = pix[to];
+			pix[to] = tmp;
+		}
+	}
 
+	public static ScreenEffect monochrome(int time) {
+		return new PixelScreenEffect(time) {
 			@Override
-			public boolean isEnded() {
-				return ended;
+			public boolean isPerPixel() {
+				return true;
 			}
 
 			@Override
-			public boolean isRunning() {
-				return !ended;
+			protected void filter(int[] pix, int from, int to) {
+				for (int i = from; i < to; i++) {
+					pix[i] = ARGBColor.getRGBAverage(pix[i]) > 128
+							? (pix[i] & ARGBColor.ARGB_ALPHA_MASK) | 0x00FFFFFF
+							: pix[i] & ARGBColor.ARGB_ALPHA_MASK;
+				}
 			}
 
 		};
@@ -255,65 +162,55 @@ public final class ScreenEffects {
 	}
 
 	public static ScreenEffect mozaic(int size, int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
+		if (size < 1) {
+			throw new IllegalArgumentException("size < 1 : size=[" + size + "]");
+		}
+		return new PixelScreenEffect(time) {
 			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
+			protected void apply(int[] pix, int w, int h, ScreenEffectChain chain) {
+				if (size > w || size > h) {
+					throw new RasterFormatException("size is over image bounds : size=[" + size + "]");
 				}
-				if (tc.isReaching()) {
-					ended = true;
+				for (int y = 0; y < h; y += size) {
+					int yEnd = Math.min(y + size, h);
+					for (int x = 0; x < w; x += size) {
+						int xEnd = Math.min(x + size, w);
+						int argb = pix[y * w + x];
+						for (int row = y * w; row < yEnd * w; row += w) {
+							Arrays.fill(pix, row + x, row + xEnd, argb);
+						}
+					}
 				}
-				return ImageUtil.mosaic(src, size, null);
-			}
-
-			@Override
-			public boolean isEnded() {
-				return ended;
-			}
-
-			@Override
-			public boolean isRunning() {
-				return !ended;
 			}
 
 		};
 	}
 
 	public static ScreenEffect rotate(float r, int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
+		return new PixelScreenEffect(time) {
 			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
+			protected void apply(int[] pix, int w, int h, ScreenEffectChain chain) {
+				int n = w * h;
+				int[] src = chain.scratch(n);
+				System.arraycopy(pix, 0, src, 0, n);
+				int back = GameOption.getInstance().getBackColor().getRGB();
+				double rad = Math.toRadians(r);
+				//16ビットの固定小数点で計算する
+				long cos = Math.round(Math.cos(rad) * 65536);
+				long sin = Math.round(Math.sin(rad) * 65536);
+				long cx = w / 2;
+				long cy = h / 2;
+				//出力のピクセルごとに逆回転した位置の元のピクセルを取る
+				for (int y = 0, i = 0; y < h; y++) {
+					long dy = y - cy;
+					long sx = -cx * cos + dy * sin + (cx << 16);
+					long sy = cx * sin + dy * cos + (cy << 16);
+					for (int x = 0; x < w; x++, i++, sx += cos, sy -= sin) {
+						long ix = sx >> 16;
+						long iy = sy >> 16;
+						pix[i] = ix >= 0 && ix < w && iy >= 0 && iy < h ? src[(int) iy * w + (int) ix] : back;
+					}
 				}
-				if (tc.isReaching()) {
-					ended = true;
-				}
-				BufferedImage res = ImageUtil.copy(src);
-				Graphics2D g = ImageUtil.createGraphics2D(res, RenderingQuality.NOT_USE);
-				g.setColor(GameOption.getInstance().getBackColor());
-				g.fillRect(0, 0, res.getWidth(), res.getHeight());
-				g.rotate(Math.toRadians(r), res.getWidth() / 2, res.getHeight() / 2);
-				g.drawImage(src, 0, 0, null);
-				g.dispose();
-				return res;
-			}
-
-			@Override
-			public boolean isEnded() {
-				return ended;
-			}
-
-			@Override
-			public boolean isRunning() {
-				return !ended;
 			}
 
 		};
@@ -321,42 +218,43 @@ public final class ScreenEffects {
 	}
 
 	public static ScreenEffect shake(int r, int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
+		return new PixelScreenEffect(time) {
 			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-				if (tc.isReaching()) {
-					ended = true;
+			protected void apply(int[] pix, int w, int h, ScreenEffectChain chain) {
+				int dx = Random.effect().randomBool()
+						? -Random.effect().randomAbsInt(r)
+						: Random.effect().randomAbsInt(r);
+				int dy = Random.effect().randomBool()
+						? -Random.effect().randomAbsInt(r)
+						: Random.effect().randomAbsInt(r);
+				int back = GameOption.getInstance().getBackColor().getRGB();
+				//行の上書きを避けるため、下に動かす場合は下の行から処理する
+				if (dy >= 0) {
+					for (int y = h - 1; y >= 0; y--) {
+						shiftRow(pix, w, h, y - dy, y, dx, back);
+					}
+				} else {
+					for (int y = 0; y < h; y++) {
+						shiftRow(pix, w, h, y - dy, y, dx, back);
+					}
 				}
-				BufferedImage res = ImageUtil.copy(src);
-				Graphics2D g = ImageUtil.createGraphics2D(res, RenderingQuality.NOT_USE);
-				g.setColor(GameOption.getInstance().getBackColor());
-				g.fillRect(0, 0, res.getWidth(), res.getHeight());
-				int x = Random.randomBool()
-						? -Random.randomAbsInt(r)
-						: Random.randomAbsInt(r);
-				int y = Random.randomBool()
-						? -Random.randomAbsInt(r)
-						: Random.randomAbsInt(r);
-
-				g.drawImage(src, x, y, null);
-				g.dispose();
-				return res;
-			}
-
-			@Override
-			public boolean isEnded() {
-				return ended;
 			}
 
-			@Override
-			public boolean isRunning() {
-				return !ended;
+			private void shiftRow(int[] pix, int w, int h, int srcY, int dstY, int dx, int back) {
+				int dst = dstY * w;
+				if (srcY < 0 || srcY >= h || Math.abs(dx) >= w) {
+					Arrays.fill(pix, dst, dst + w, back);
+					return;
+				}
+				int src = srcY * w;
+				int len = w - Math.abs(dx);
+				if (dx >= 0) {
+					System.arraycopy(pix, src, pix, dst + dx, len);
+					Arrays.fill(pix, dst, dst + dx, back);
+				} else {
+					System.arraycopy(pix, src - dx, pix, dst, len);
+					Arrays.fill(pix, dst + len, dst + w, back);
+				}
 			}
 
 		};
@@ -364,35 +262,28 @@ public final class ScreenEffects {
 	}
 
 	public static ScreenEffect grayScale(int time) {
-		return new ScreenEffect() {
-			private FrameTimeCounter tc = new FrameTimeCounter(time);
-			private boolean ended = false;
-
+		return new PixelScreenEffect(time) {
 			@Override
-			public BufferedImage doIt(BufferedImage src) {
-				if (ended) {
-					return src;
-				}
-				if (tc.isReaching()) {
-					ended = true;
-				}
-				return ImageUtil.grayScale(src, null);
+			public boolean isPerPixel() {
+				return true;
 			}
 
 			@Override
-			public boolean isEnded() {
-				return ended;
-			}
-
-			@Override
-			public boolean isRunning() {
-				return !ended;
+			protected void filter(int[] pix, int from, int to) {
+				for (int i = from; i < to; i++) {
+					int average = ARGBColor.getRGBAverage(pix[i]);
+					pix[i] = (pix[i] & ARGBColor.ARGB_ALPHA_MASK)
+							| (average << 16)
+							| (average << 8)
+							| average;
+				}
 			}
 
 		};
 
 	}
 
+
 	//強制的に上書きする
 	public static ScreenEffect blackout(int speed) {
 		throw new UnsupportedOperationException("そのうち対応");
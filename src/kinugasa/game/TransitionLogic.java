@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import kinugasa.game.input.InputState;
+
+/**
+ * 非同期でロジックを読み込む間に表示するロジックです.
+ * <br>
+ * 切り替える直前の画面を指定した色にフェードし、次のロジックが進捗を設定している場合は進捗のバーを表示します。
+ * 読み込みが終わると、GameLoopが呼び出すGameLogicStorageのpollTransitionによって次のロジックに切り替わります。<br>
+ * 表示を変更する場合は、drawをオーバーライドしてください。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_23:00:00<br>
+ * @author Shinacho<br>
+ */
+public class TransitionLogic extends GameLogic {
+
+	private final int fadeFrames;
+	//フレームごとのフェードの色。描画のたびにColorを作らないように、作成時にすべて作る
+	private final Color[] fadeColors;
+	private int frame;
+	//切り替える直前の画面
+	private BufferedImage lastFrame;
+
+	public TransitionLogic(String name, GameManager gm) {
+		this(name, gm, Color.BLACK, 30);
+	}
+
+	/**
+	 * ロジックを作成します。
+	 *
+	 * @param name 名前。
+	 * @param gm ゲームマネージャ。
+	 * @param color フェードする色。
+	 * @param fadeFrames フェードにかけるフレーム数。
+	 */
+	public TransitionLogic(String name, GameManager gm, Color color, int fadeFrames) {
+		super(name, gm);
+		this.fadeFrames = Math.max(1, fadeFrames);
+		this.fadeColors = new Color[this.fadeFrames + 1];
+		for (int i = 0; i <= this.fadeFrames; i++) {
+			fadeColors[i] = new Color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha() * i / this.fadeFrames);
+		}
+	}
+
+	@Override
+	public void load() {
+		frame = 0;
+		lastFrame = gm == null ? null : gm.getRenderPipeline().copyLastFrame();
+	}
+
+	@Override
+	public void dispose() {
+		lastFrame = null;
+	}
+
+	@Override
+	public void update(GameTimeManager gtm, InputState is) {
+		if (frame < fadeFrames) {
+			frame++;
+		}
+	}
+
+	/**
+	 * フェードの進み具合を返します。
+	 *
+	 * @return 0から1の値。
+	 */
+	protected float getFade() {
+		return (float) frame / fadeFrames;
+	}
+
+	@Override
+	public void draw(GraphicsContext g) {
+		Dimension size = GameOption.getInstance().getWindowSize();
+		//色が不透明になった後は直前の画面は見えないため描画しない
+		if (lastFrame != null && fadeColors[frame].getAlpha() < 255) {
+			g.drawImage(lastFrame, 0, 0);
+		}
+		g.setColor(fadeColors[frame]);
+		g.fillRect(0, 0, size.width, size.height);
+		SceneTransition t = gls.getTransition();
+		if (t == null || t.getTo().getLoadProgress() <= 0) {
+			return;
+		}
+		int w = size.width / 2;
+		int x = size.width / 4;
+		int y = size.height - 32;
+		g.setColor(Color.GRAY);
+		g.drawRect(x, y, w, 6);
+		g.setColor(Color.WHITE);
+		g.fillRect(x + 1, y + 1, (int) ((w - 1) * t.getProgress()), 5);
+	}
+
+}
@@ -82,6 +82,10 @@ public class FieldEvent extends Model implements Nameable, Comparable<FieldEvent
 		return u;
 	}
 
+	public int getOrder() {
+		return order;
+	}
+
 	public D2Idx getLocation() {
 		return location;
 	}
@@ -51,6 +51,25 @@ public class FieldEventParser {
 	}
 
 	public List<FieldEvent> parse() throws ScriptFormatException, FileNotFoundException {
+		List<FieldEvent> result = parseAsWritten();
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * スクリプトをパースし、実行用のプログラムにコンパイルします。
+	 *
+	 * @return コンパイルされたプログラム。
+	 * @throws ScriptFormatException スクリプトの形式が正しくない場合に投げられます。
+	 * @throws FileNotFoundException ファイルが存在しない場合に投げられます。
+	 */
+	public FieldEventProgram compile() throws ScriptFormatException, FileNotFoundException {
+		long lastModified = scriptData.getFile().lastModified();
+		return FieldEventProgram.of(scriptData.getFile().getPath(), lastModified, parseAsWritten());
+	}
+
+	//スクリプトに記述された順のイベントを返す
+	private List<FieldEvent> parseAsWritten() throws ScriptFormatException, FileNotFoundException {
 		if (!scriptData.exists()) {
 			throw new FileNotFoundException(scriptData.getFile());
 		}
@@ -117,7 +136,6 @@ public class FieldEventParser {
 			result.add(ee);
 		}
 		scriptData.dispose();
-		Collections.sort(result);
 		return result;
 	}
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.field4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * コンパイル済みのイベントスクリプトです.
+ * <br>
+ * スクリプトファイルをパースした結果をorder順にソートした状態で保持します。IF～END_IFブロックの条件はコンパイル時に解決されます。<br>
+ * このクラスは不変です。イベントは実行により状態が変わるため、実行のたびにnewEventsで新しいインスタンスを作成します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_11:50:00<br>
+ * @author Shinacho<br>
+ */
+public final class FieldEventProgram {
+
+	private static final class Template {
+
+		private final int seq;
+		private final int order;
+		private final FieldEventType type;
+		private final String storageName;
+		private final String targetName;
+		private final String value;
+		private final List<EventTerm> term;
+		private final boolean disposeWhenExec;
+		//IFブロック解決後のterm
+		private List<EventTerm> blockTerm;
+
+		Template(int seq, int order, FieldEventType type, String storageName, String targetName, String value, List<EventTerm> term, boolean disposeWhenExec) {
+			this.seq = seq;
+			this.order = order;
+			this.type = type;
+			this.storageName = storageName;
+			this.targetName = targetName;
+			this.value = value;
+			this.term = term;
+			this.disposeWhenExec = disposeWhenExec;
+			this.blockTerm = term;
+		}
+
+		FieldEvent newEvent(String name, D2Idx idx, boolean resolved) {
+			FieldEvent e = new FieldEvent(name, order, idx, resolved ? blockTerm : term, type, storageName, targetName, value);
+			e.setDisposeWhenExec(disposeWhenExec);
+			return e;
+		}
+	}
+
+	private final String fileName;
+	private final long lastModified;
+	private final List<Template> templates;
+	private final boolean manual;
+	private final boolean ifMissmatch;
+
+	private FieldEventProgram(String fileName, long lastModified, List<Template> templates) {
+		this.fileName = fileName;
+		this.lastModified = lastModified;
+		this.templates = templates;
+		this.manual = templates.stream().anyMatch(p -> p.type.toString().startsWith("MANUAL_EVENT"));
+		long ifCount = templates.stream().filter(p -> p.type == FieldEventType.IF).count();
+		long endIfCount = templates.stream().filter(p -> p.type == FieldEventType.END_IF).count();
+		this.ifMissmatch = ifCount != endIfCount;
+		if (!ifMissmatch) {
+			resolveIf();
+		}
+	}
+
+	//FieldEventSystem.setEventと同じ規則で、IF～END_IFの間のイベントにIFのtermを設定する
+	private void resolveIf() {
+		int i = 0, j = 0;
+		while (true) {
+			for (; i < templates.size() && templates.get(i).type != FieldEventType.IF; i++);
+			for (j = i + 1; j < templates.size() && templates.get(j).type != FieldEventType.END_IF; j++);
+			if (i < templates.size()) {
+				List<EventTerm> t = templates.get(i).term;
+				for (; i <= j && i < templates.size(); i++) {
+					templates.get(i).blockTerm = t;
+				}
+			}
+			if (i >= templates.size()) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * パース済みのイベントからプログラムを作成します。
+	 *
+	 * @param fileName スクリプトファイル名。
+	 * @param lastModified コンパイル時のファイルの更新日時。
+	 * @param events スクリプトに記述された順のイベント。
+	 * @return プログラム。
+	 */
+	static FieldEventProgram of(String fileName, long lastModified, List<FieldEvent> events) {
+		List<Template> t = new ArrayList<>(events.size());
+		for (int i = 0; i < events.size(); i++) {
+			FieldEvent e = events.get(i);
+			List<EventTerm> term = e.getTerm() == null ? null : Collections.unmodifiableList(new ArrayList<>(e.getTerm()));
+			t.add(new Template(i, e.getOrder(), e.getEventType(), e.getStorageName(), e.getTargetName(), e.getValue(), term, e.isDisposeWhenExec()));
+		}
+		//FieldEventのソートと同じく、orderの昇順で安定ソートする
+		t.sort((a, b) -> a.order - b.order);
+		return new FieldEventProgram(fileName, lastModified, Collections.unmodifiableList(t));
+	}
+
+	/**
+	 * スクリプトに記述されたとおりのイベントを新しく作成します。IFブロックの条件は設定されません。
+	 * この結果は、FieldEventParserのparseと同じです。
+	 *
+	 * @param name イベント名の接頭辞。
+	 * @param idx イベントの位置。nullの場合もあります。
+	 * @return order順にソートされた新しいイベントのリスト。
+	 */
+	public List<FieldEvent> newEvents(String name, D2Idx idx) {
+		return newEvents(name, idx, false);
+	}
+
+	LinkedList<FieldEvent> newResolvedEvents(String name, D2Idx idx) {
+		return newEvents(name, idx, true);
+	}
+
+	private LinkedList<FieldEvent> newEvents(String name, D2Idx idx, boolean resolved) {
+		LinkedList<FieldEvent> result = new LinkedList<>();
+		for (int i = 0; i < templates.size(); i++) {
+			Template t = templates.get(i);
+			result.add(t.newEvent(name + "_" + t.seq, idx, resolved));
+		}
+		return result;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	public boolean hasManualEvent() {
+		return manual;
+	}
+
+	public boolean isIfMissmatch() {
+		return ifMissmatch;
+	}
+
+	public int size() {
+		return templates.size();
+	}
+
+	public boolean isEmpty() {
+		return templates.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "FieldEventProgram{" + "fileName=" + fileName + ", size=" + templates.size() + ", manual=" + manual + '}';
+	}
+
+}
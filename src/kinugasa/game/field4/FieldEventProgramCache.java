@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.field4;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import kinugasa.game.GameLog;
+import kinugasa.game.system.GameSystem;
+import kinugasa.game.system.ScriptFormatException;
+import kinugasa.resource.FileNotFoundException;
+import kinugasa.resource.text.XMLFile;
+
+/**
+ * コンパイル済みイベントスクリプトの共有キャッシュです.
+ * <br>
+ * スクリプトはファイル名をキーとして、初回要求時に1度だけパースされます。
+ * 更新日時のチェックが有効な場合は、ファイルが更新されていれば再コンパイルされます。
+ * チェックはファイルシステムへのアクセスを伴うため、デフォルトではデバッグモードの場合のみ有効です。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_12:10:00<br>
+ * @author Shinacho<br>
+ */
+public final class FieldEventProgramCache {
+
+	private static final FieldEventProgramCache INSTANCE = new FieldEventProgramCache();
+
+	public static FieldEventProgramCache getInstance() {
+		return INSTANCE;
+	}
+
+	private FieldEventProgramCache() {
+	}
+
+	private final ConcurrentHashMap<String, FieldEventProgram> map = new ConcurrentHashMap<>();
+	private Boolean checkModified = null;
+
+	/**
+	 * ファイルの更新日時をチェックするかどうかを設定します。nullを指定するとデバッグモードの場合のみチェックします。
+	 *
+	 * @param checkModified 更新日時をチェックする場合はtrue。
+	 */
+	public void setCheckModified(Boolean checkModified) {
+		this.checkModified = checkModified;
+	}
+
+	public boolean isCheckModified() {
+		return checkModified == null ? GameSystem.isDebugMode() : checkModified;
+	}
+
+	/**
+	 * スクリプトのプログラムを取得します。キャッシュにない場合はコンパイルします。
+	 *
+	 * @param fileName スクリプトファイル名。
+	 * @return コンパイル済みのプログラム。
+	 * @throws ScriptFormatException スクリプトの形式が正しくない場合に投げられます。
+	 * @throws FileNotFoundException ファイルが存在しない場合に投げられます。
+	 */
+	public FieldEventProgram get(String fileName) throws ScriptFormatException, FileNotFoundException {
+		FieldEventProgram p = map.get(fileName);
+		if (p != null && (!isCheckModified() || p.getLastModified() == new File(fileName).lastModified())) {
+			return p;
+		}
+		p = new FieldEventParser(fileName, null, new XMLFile(fileName)).compile();
+		map.put(fileName, p);
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("FieldEventProgramCache compiled : " + p);
+		}
+		return p;
+	}
+
+	/**
+	 * スクリプトをあらかじめコンパイルしておきます。
+	 *
+	 * @param fileName スクリプトファイル名。
+	 */
+	public void preload(String... fileName) {
+		for (String f : fileName) {
+			get(f);
+		}
+	}
+
+	public boolean contains(String fileName) {
+		return map.containsKey(fileName);
+	}
+
+	public void remove(String fileName) {
+		map.remove(fileName);
+	}
+
+	public void clear() {
+		map.clear();
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+}
@@ -24,6 +24,10 @@ import kinugasa.resource.Nameable;
 import kinugasa.resource.Storage;
 
 /**
+ * フィールドイベントを格納するストレージです.
+ * <br>
+ * イベントはタイル座標ごとにorder順にソート済みのリストとしてインデックスされます。
+ * get(D2Idx)が返すリストは変更できません。<br>
  *
  * @vesion 1.0.0 - 2022/11/08_19:24:33<br>
  * @author Shinacho<br>
@@ -31,6 +35,7 @@ import kinugasa.resource.Storage;
 public class FieldEventStorage extends Storage<FieldEvent> implements Nameable, Disposable {
 
 	private String name;
+	private final TileIndex<List<FieldEvent>> index = new TileIndex<>();
 
 	public FieldEventStorage(String name) {
 		this.name = name;
@@ -47,18 +52,63 @@ public class FieldEventStorage extends Storage<FieldEvent> implements Nameable,
 	}
 
 	public List<FieldEvent> get(int x, int y) {
-		return get(new D2Idx(x, y));
+		List<FieldEvent> result = index.get(x, y);
+		return result == null ? Collections.emptyList() : result;
 	}
 
 	public List<FieldEvent> get(D2Idx p) {
-		List<FieldEvent> result = new ArrayList<>();
-		for (FieldEvent e : this) {
-			if (e.getLocation().equals(p)) {
-				result.add(e);
-			}
+		return get(p.x, p.y);
+	}
+
+	private void indexAdd(FieldEvent e) {
+		D2Idx p = e.getLocation();
+		List<FieldEvent> current = index.get(p);
+		List<FieldEvent> list = current == null ? new ArrayList<>(1) : new ArrayList<>(current);
+		list.add(e);
+		Collections.sort(list);
+		index.put(p.x, p.y, Collections.unmodifiableList(list));
+	}
+
+	private void indexRemove(FieldEvent e) {
+		D2Idx p = e.getLocation();
+		List<FieldEvent> current = index.get(p);
+		if (current == null) {
+			return;
+		}
+		List<FieldEvent> list = new ArrayList<>(current);
+		list.remove(e);
+		index.put(p.x, p.y, list.isEmpty() ? null : Collections.unmodifiableList(list));
+	}
+
+	@Override
+	public void add(FieldEvent val) {
+		super.add(val);
+		indexAdd(val);
+	}
+
+	@Override
+	public void put(FieldEvent val) {
+		FieldEvent prev = getOrNull(val.getName());
+		if (prev != null) {
+			indexRemove(prev);
 		}
-		Collections.sort(result);
-		return result;
+		super.put(val);
+		indexAdd(val);
+	}
+
+	@Override
+	public void remove(String key) {
+		FieldEvent e = getOrNull(key);
+		if (e != null) {
+			indexRemove(e);
+		}
+		super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		index.clear();
 	}
 
 }
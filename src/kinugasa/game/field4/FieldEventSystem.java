@@ -135,6 +135,29 @@ public class FieldEventSystem implements Drawable {
 		}
 	}
 
+	/**
+	 * コンパイル済みのプログラムからイベントを設定します.
+	 * プログラムはソート済みでIFブロックの条件も解決されているため、スクリプトのパースやソートは行われません。
+	 *
+	 * @param program イベントスクリプトのプログラム。
+	 * @param name イベント名の接頭辞。
+	 * @throws ScriptFormatException IFとEND_IFの数が一致しない場合に投げられます。
+	 */
+	public void setEvent(FieldEventProgram program, String name) throws ScriptFormatException {
+		if (program.isIfMissmatch()) {
+			throw new ScriptFormatException("IF - END_IF is missmatch:" + program);
+		}
+		LinkedList<FieldEvent> event = program.newResolvedEvents(name, null);
+		prevEvent = new LinkedList<>(event);
+		this.event = event;
+		if (program.hasManualEvent()) {
+			manual = true;
+		}
+		if (event.isEmpty()) {
+			manual = false;
+		}
+	}
+
 	Storage<Flag> getFlags() {
 		return flags;
 	}
@@ -19,7 +19,6 @@ package kinugasa.game.field4;
 import java.awt.geom.Point2D;
 import kinugasa.game.system.NPCSprite;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import kinugasa.game.GameOption;
 import kinugasa.game.system.ActionStorage;
@@ -661,7 +660,7 @@ public enum FieldEventType {
 		@Override
 		UserOperationRequire exec(FieldEvent e) throws FieldEventScriptException {
 			String name = e.getValue();
-			FieldEventSystem.getInstance().addEventToFirst(FieldEventParser.parse(e.getName() + "." + name, name));
+			FieldEventSystem.getInstance().addEventToFirst(FieldEventProgramCache.getInstance().get(name).newEvents(e.getName() + "." + name, null));
 			return UserOperationRequire.CONTINUE;
 		}
 
@@ -670,7 +669,7 @@ public enum FieldEventType {
 		@Override
 		UserOperationRequire exec(FieldEvent e) throws FieldEventScriptException {
 			String name = e.getValue();
-			FieldEventSystem.getInstance().setEvent(new LinkedList<>(FieldEventParser.parse(e.getName() + "." + name, name)));
+			FieldEventSystem.getInstance().setEvent(FieldEventProgramCache.getInstance().get(name), e.getName() + "." + name);
 			return UserOperationRequire.CONTINUE;
 		}
 
@@ -46,6 +46,7 @@ import kinugasa.game.ui.TextLabelSprite;
 import kinugasa.game.ui.TextStorage;
 import kinugasa.game.ui.TextStorageStorage;
 import kinugasa.graphics.ARGBColor;
+import kinugasa.graphics.ImageCache;
 import kinugasa.graphics.Animation;
 import kinugasa.graphics.ImageUtil;
 import kinugasa.graphics.RenderingQuality;
@@ -256,9 +257,58 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 		return mg;
 	}
 
+	XMLFile getData() {
+		return data;
+	}
+
+	/**
+	 * レイヤーの要素からチップを配置したレイヤーを作成します。
+	 *
+	 * @param e backLayerまたはfrontLayerの要素。
+	 * @param mg 描画倍率。
+	 * @return レイヤー。
+	 */
+	static FieldMapLayerSprite createLayer(XMLElement e, float mg) {
+		MapChipSet chipset = MapChipSetStorage.getInstance().get(e.getAttributes().get("chipSet").getValue());
+		String lineSep = e.getAttributes().get("lineSeparator").getValue();
+		String[] lineVal = e.getValue().replaceAll("\n", "").replaceAll("\r\n", "").replaceAll(" ", "").replaceAll("\t", "").split(lineSep);
+		MapChip[][] data = new MapChip[lineVal.length][];
+		for (int y = 0; y < lineVal.length; y++) {
+			String[] val = lineVal[y].split(",");
+			data[y] = new MapChip[val.length];
+			for (int x = 0; x < val.length; x++) {
+				data[y][x] = chipset.get(val[x]);
+			}
+		}
+		int w = (int) (data[0][0].getImage().getWidth());
+		int h = (int) (data[0][0].getImage().getWidth());
+
+		return new FieldMapLayerSprite(chipset, w, h, mg, data);
+	}
+
+	/**
+	 * マップを構築します。
+	 * FieldMapPrefetcherによってこのマップが先読みされている場合は、先読みされたXMLとレイヤーを使用します。
+	 * 構築の後、このマップの出入り口から移動できるマップの先読みを要求します。
+	 * 構築中にロードされた画像は、disposeまでImageCacheにピン留めされます。
+	 *
+	 * @return このマップ。
+	 * @throws FieldMapDataException データが不正な場合に投げられます。
+	 */
 	public FieldMap build() throws FieldMapDataException {
-		data.load();
-		XMLElement root = data.getFirst();
+		ImageCache.getInstance().beginPin(this);
+		try {
+			return build0();
+		} finally {
+			ImageCache.getInstance().endPin();
+		}
+	}
+
+	private FieldMap build0() throws FieldMapDataException {
+		PrefetchedFieldMap prefetched = FieldMapPrefetcher.getInstance().take(getName());
+		XMLElement root = prefetched != null
+				? prefetched.getRoot()
+				: data.load().getFirst();
 		int screenW = (int) (GameOption.getInstance().getWindowSize().width / GameOption.getInstance().getDrawSize());
 		int screenH = (int) (GameOption.getInstance().getWindowSize().height / GameOption.getInstance().getDrawSize());
 
@@ -286,7 +336,7 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 			this.encountCounter = new ManualTimeCounter(root.getAttributes().get("encountCounterDefault").getIntValue());
 			int r = encountCounter.getCurrentTime();
 			if (r != 1) {
-				r = Random.randomAbsInt(r - r / 2, r + r / 2);
+				r = Random.field().randomAbsInt(r - r / 2, r + r / 2);
 			}
 			r *= GameSystem.getDifficulty().getエンカウント歩数倍率();
 			encountCounter.setCurrentTime(r);
@@ -370,45 +420,23 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 			if (root.getElement("backLayer").isEmpty()) {
 				throw new FieldMapDataException("backLayer is need 1 or more");
 			}
-			for (XMLElement e : root.getElement("backLayer")) {
-				MapChipSet chipset = MapChipSetStorage.getInstance().get(e.getAttributes().get("chipSet").getValue());
-				String lineSep = e.getAttributes().get("lineSeparator").getValue();
-				String[] lineVal = e.getValue().replaceAll("\n", "").replaceAll("\r\n", "").replaceAll(" ", "").replaceAll("\t", "").split(lineSep);
-				MapChip[][] data = new MapChip[lineVal.length][];
-				for (int y = 0; y < lineVal.length; y++) {
-					String[] val = lineVal[y].split(",");
-					data[y] = new MapChip[val.length];
-					for (int x = 0; x < val.length; x++) {
-						data[y][x] = chipset.get(val[x]);
-					}
+			if (prefetched != null) {
+				backlLayeres.addAll(prefetched.getBackLayers());
+			} else {
+				for (XMLElement e : root.getElement("backLayer")) {
+					backlLayeres.add(createLayer(e, mg));
 				}
-				int w = (int) (data[0][0].getImage().getWidth());
-				int h = (int) (data[0][0].getImage().getWidth());
-
-				FieldMapLayerSprite layerSprite = new FieldMapLayerSprite(chipset, w, h, mg, data);
-				backlLayeres.add(layerSprite);
 			}
 
 		}
 		// フロントレイヤー
 		{
-			for (XMLElement e : root.getElement("frontLayer")) {
-				MapChipSet chipset = MapChipSetStorage.getInstance().get(e.getAttributes().get("chipSet").getValue());
-				String lineSep = e.getAttributes().get("lineSeparator").getValue();
-				String[] lineVal = e.getValue().replaceAll("\n", "").replaceAll("\r\n", "").replaceAll(" ", "").replaceAll("\t", "").split(lineSep);
-				MapChip[][] data = new MapChip[lineVal.length][];
-				for (int y = 0; y < lineVal.length; y++) {
-					String[] val = lineVal[y].split(",");
-					data[y] = new MapChip[val.length];
-					for (int x = 0; x < val.length; x++) {
-						data[y][x] = chipset.get(val[x]);
-					}
+			if (prefetched != null) {
+				frontlLayeres.addAll(prefetched.getFrontLayers());
+			} else {
+				for (XMLElement e : root.getElement("frontLayer")) {
+					frontlLayeres.add(createLayer(e, mg));
 				}
-				int w = (int) (data[0][0].getImage().getWidth());
-				int h = (int) (data[0][0].getImage().getWidth());
-
-				FieldMapLayerSprite layerSprite = new FieldMapLayerSprite(chipset, w, h, mg, data);
-				frontlLayeres.add(layerSprite);
 			}
 
 		}
@@ -462,7 +490,7 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 				int y = e.getAttributes().get("y").getIntValue();
 				String name = e.getAttributes().get("name").getValue();
 				String script = e.getAttributes().get("script").getValue();
-				fieldEventStorage.addAll(new FieldEventParser(name, new D2Idx(x, y), new XMLFile(script)).parse());
+				fieldEventStorage.addAll(FieldEventProgramCache.getInstance().get(script).newEvents(name, new D2Idx(x, y)));
 			}
 		}
 
@@ -527,12 +555,17 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 				//タッチイベント
 				if (e.hasAttribute("touchEvent")) {
 					npc.setTouchEvent(e.getAttributes().get("touchEvent").getValue());
+					//接触時にパースしないよう、ロード時にコンパイルしておく
+					FieldEventProgramCache.getInstance().preload(npc.getTouchEvent());
 				}
 				npcStorage.add(npc);
 			}
 			//追加NPCを設定
 			if (addedNPC.containsKey(getName())) {
-				npcStorage.addAll(addedNPC.get(getName()));
+				for (NPCSprite n : addedNPC.get(getName())) {
+					n.setMap(this);
+					npcStorage.add(n);
+				}
 			}
 		}
 
@@ -574,14 +607,17 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 		//自動適用スクリプト
 		if (root.getAttributes().contains("loadScript")) {
 			String fileName = root.getAttributes().get("loadScript").getValue();
-			FieldEventSystem.getInstance().setEvent(new LinkedList<>(FieldEventParser.parse(getName(), fileName)));
+			FieldEventSystem.getInstance().setEvent(FieldEventProgramCache.getInstance().get(fileName), getName());
 			while (true) {
 				if (FieldEventSystem.getInstance().exec() == UserOperationRequire.END) {
 					break;
 				}
 			}
 		}
-		data.dispose();
+		if (prefetched == null) {
+			data.dispose();
+		}
+		FieldMapPrefetcher.getInstance().prefetch(this);
 
 		return this;
 	}
@@ -646,6 +682,7 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 		if (textStorage != null) {
 			textStorage.clear();
 		}
+		ImageCache.getInstance().unpinAll(this);
 		if (GameSystem.isDebugMode()) {
 			GameLog.print("FieldMap[" + getName() + "] is disposed");
 		}
@@ -742,7 +779,7 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 	public void resetEncountCounter() {
 		int r = encountCounter.getInitialTime();
 		if (r != 1) {
-			r = Random.randomAbsInt(r - r / 2, r + r / 2);
+			r = Random.field().randomAbsInt(r - r / 2, r + r / 2);
 			r *= GameSystem.getDifficulty().getエンカウント歩数倍率();
 		}
 		encountCounter.setCurrentTime(r);
@@ -818,7 +855,6 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 			if (fieldEventStorage != null) {
 				//イベントの実行
 				List<FieldEvent> e = fieldEventStorage.get(idx);
-				Collections.sort(e);
 				//自動発動イベントの設定
 				FieldEventSystem.getInstance().setEvent(new LinkedList<>(e));
 			}
@@ -843,9 +879,13 @@ public class FieldMap implements Drawable, Nameable, Disposable {
 				= getBaseLayer().allIs(getBaseLayer().getChip(0, 0)) && backlLayeres.size() >= 2
 				? this.backlLayeres.get(1) : getBaseLayer();
 
-		int imageW = (int) (tgt.getChip(0, 0).getImage().getWidth() * mg);
-		int imageH = (int) (tgt.getChip(0, 0).getImage().getHeight() * mg);
-		BufferedImage[][] baseImage = ImageUtil.splitAsArray(tgt.getImage(), imageW, imageH);
+		//レイヤー全体の画像は作らず、各タイルのチップ画像から色を求める
+		BufferedImage[][] baseImage = new BufferedImage[tgt.getDataHeight()][tgt.getDataWidth()];
+		for (int y = 0; y < baseImage.length; y++) {
+			for (int x = 0; x < baseImage[y].length; x++) {
+				baseImage[y][x] = tgt.getChip(x, y).getImage().get();
+			}
+		}
 
 		BufferedImage image = ImageUtil.newImage(tgt.getDataWidth(), tgt.getDataHeight());
 		int[] pix = new int[tgt.getDataWidth() * tgt.getDataHeight()];
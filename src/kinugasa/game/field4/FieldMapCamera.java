@@ -19,7 +19,6 @@ package kinugasa.game.field4;
 import kinugasa.game.system.NPCSprite;
 import kinugasa.game.system.PCSprite;
 import java.awt.geom.Point2D;
-import java.util.LinkedList;
 import kinugasa.game.GameOption;
 import kinugasa.game.system.GameSystem;
 import kinugasa.object.KVector;
@@ -108,12 +107,12 @@ public class FieldMapCamera {
 			}
 
 			//NPC衝突判定
-			if (map.getNpcStorage().get(new D2Idx(x, y)) != null) {
-				cameraCantMoveDesc = "[1]NPC hit[" + map.getNpcStorage().get(new D2Idx(x, y)) + "]";
-				NPCSprite npc = map.getNpcStorage().get(new D2Idx(x, y));
+			if (map.getNpcStorage().get(x, y) != null) {
+				cameraCantMoveDesc = "[1]NPC hit[" + map.getNpcStorage().get(x, y) + "]";
+				NPCSprite npc = map.getNpcStorage().get(x, y);
 				if (npc.getTouchEvent() != null) {
 					FieldEventSystem.getInstance()
-							.setEvent(new LinkedList<>(FieldEventParser.parse(npc.getId() + "_TE", npc.getTouchEvent())));
+							.setEvent(FieldEventProgramCache.getInstance().get(npc.getTouchEvent()), npc.getId() + "_TE");
 					FieldEventSystem.getInstance().exec();
 				}
 				return;
@@ -170,12 +169,12 @@ public class FieldMapCamera {
 					return;
 				}
 				//NPC衝突判定
-				if (map.getNpcStorage().get(new D2Idx(x, y)) != null) {
-					cameraCantMoveDesc = "[2]NPC hit[" + map.getNpcStorage().get(new D2Idx(x, y)) + "]";
-					NPCSprite npc = map.getNpcStorage().get(new D2Idx(x, y));
+				if (map.getNpcStorage().get(x, y) != null) {
+					cameraCantMoveDesc = "[2]NPC hit[" + map.getNpcStorage().get(x, y) + "]";
+					NPCSprite npc = map.getNpcStorage().get(x, y);
 					if (npc.getTouchEvent() != null) {
 						FieldEventSystem.getInstance()
-								.setEvent(new LinkedList<>(FieldEventParser.parse(npc.getId() + "_TE", npc.getTouchEvent())));
+								.setEvent(FieldEventProgramCache.getInstance().get(npc.getTouchEvent()), npc.getId() + "_TE");
 						FieldEventSystem.getInstance().exec();
 					}
 					return;
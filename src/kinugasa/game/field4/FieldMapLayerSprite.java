@@ -16,11 +16,11 @@
  */
 package kinugasa.game.field4;
 
-import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.Point2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.util.List;
+import java.util.Arrays;
+import kinugasa.game.GameOption;
 import kinugasa.game.GraphicsContext;
 import kinugasa.graphics.ImageUtil;
 import kinugasa.graphics.RenderingQuality;
@@ -30,16 +30,33 @@ import kinugasa.resource.Disposable;
 /**
  * フィールドマップのメインレイヤーの役割を持ったスプライトです。 このクラスはフィールドマップのレイヤですが、単品で使うこともできます。
  * その場合、このレイヤーに使用するチップセットとその二次元配列データを用意する必要があります。データのインデックスは、[y][x]である点に注意してください。
+ * <br>
+ * レイヤーはCHUNK_SIZE四方のチャンク単位で必要になった時点で描画され、描画領域付近のチャンクのみがLRUキャッシュに保持されます。
+ * 描画時はクリップ領域と交差するチャンクのみが描画されます。<br>
  *
  * @vesion 1.0.0 - 2021/11/26_11:08:20<br>
+ * @version 1.1.0 - 2026/10/18_10:12:00<br>
  * @author Shinacho<br>
  */
 public class FieldMapLayerSprite extends BasicSprite implements Disposable {
 
+	/**
+	 * 1チャンクのタイル数（縦横）です。
+	 */
+	public static final int CHUNK_SIZE = 16;
+	/**
+	 * 画面に表示されるチャンクの外周に何チャンク分余分にキャッシュするかです。
+	 */
+	private static final int CHUNK_CACHE_MARGIN = 1;
+
 	private final MapChipSet chipSet;
 	private MapChip[][] data;
 	private BufferedImage fieldMapImage = null;
 	private float mg;
+	private final int srcW, srcH;
+	private final int chipW, chipH;
+	private final int chunkW, chunkH;
+	private ChunkCache chunks;
 
 	public FieldMapLayerSprite(MapChipSet chipSet, int w, int h, MapChip[][] data) {
 		this(chipSet, w, h, 1, data);
@@ -50,30 +67,220 @@ public class FieldMapLayerSprite extends BasicSprite implements Disposable {
 		this.chipSet = chipSet;
 		this.data = data;
 		this.mg = mg;
-		build();
+		this.srcW = data[0][0].getImage().getWidth();
+		this.srcH = data[0][0].getImage().getHeight();
+		this.chipW = (int) (srcW * mg);
+		this.chipH = (int) (srcH * mg);
+		this.chunkW = (data[0].length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		this.chunkH = (data.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		this.chunks = new ChunkCache(chunkW * chunkH, calcChunkCapacity());
+	}
+
+	//画面サイズから、表示されうるチャンク数+マージン分のキャッシュ容量を計算する
+	private int calcChunkCapacity() {
+		int screenW = (int) (GameOption.getInstance().getWindowSize().width / GameOption.getInstance().getDrawSize());
+		int screenH = (int) (GameOption.getInstance().getWindowSize().height / GameOption.getInstance().getDrawSize());
+		int w = screenW / (chipW * CHUNK_SIZE) + 2 + CHUNK_CACHE_MARGIN * 2;
+		int h = screenH / (chipH * CHUNK_SIZE) + 2 + CHUNK_CACHE_MARGIN * 2;
+		return Math.min(w * h, chunkW * chunkH);
+	}
+
+	//チャンク画像のLRUキャッシュ。インデックスはcy * chunkW + cx。
+	private static class ChunkCache {
+
+		private final BufferedImage[] images;
+		private final long[] lastUsed;
+		private final int capacity;
+		private int size;
+		private long clock;
+
+		ChunkCache(int length, int capacity) {
+			this.images = new BufferedImage[length];
+			this.lastUsed = new long[length];
+			this.capacity = Math.max(1, capacity);
+		}
+
+		BufferedImage get(int i) {
+			BufferedImage image = images[i];
+			if (image != null) {
+				lastUsed[i] = ++clock;
+			}
+			return image;
+		}
+
+		void put(int i, BufferedImage image) {
+			if (images[i] == null) {
+				if (size >= capacity) {
+					evictEldest();
+				}
+				size++;
+			}
+			images[i] = image;
+			lastUsed[i] = ++clock;
+		}
+
+		private void evictEldest() {
+			int eldest = -1;
+			for (int i = 0; i < images.length; i++) {
+				if (images[i] != null && (eldest < 0 || lastUsed[i] < lastUsed[eldest])) {
+					eldest = i;
+				}
+			}
+			if (eldest >= 0) {
+				images[eldest] = null;
+				size--;
+			}
+		}
+
+		int size() {
+			return size;
+		}
+
+		int capacity() {
+			return capacity;
+		}
+
+		long bytes() {
+			long n = 0;
+			for (BufferedImage image : images) {
+				if (image != null) {
+					n += (long) image.getWidth() * image.getHeight() * 4;
+				}
+			}
+			return n;
+		}
+
+		void clear() {
+			Arrays.fill(images, null);
+			size = 0;
+		}
+	}
+
+	//タイルの左上のレイヤー内の座標。mgが整数でない場合も1枚の画像に描画していたときと同じ位置になるように計算する
+	private int tileX(int x) {
+		return (int) (x * srcW * mg);
 	}
 
-	private void build() {
-		fieldMapImage = ImageUtil.newImage(
-				(int) (data[0].length * data[0][0].getImage().getWidth() * mg),
-				(int) (data.length * data[0][0].getImage().getHeight() * mg));
+	private int tileY(int y) {
+		return (int) (y * srcH * mg);
+	}
 
-		Graphics2D g = ImageUtil.createGraphics2D(fieldMapImage, RenderingQuality.SPEED);
-		for (int y = 0; y < data.length; y++) {
-			for (int x = 0; x < data[y].length; x++) {
-				BufferedImage cellImage = data[y][x].getImage().get();
-				int lx = (int) (x * data[y][x].getImage().getWidth() * mg);
-				int ly = (int) (y * data[y][x].getImage().getHeight() * mg);
-				g.drawImage(cellImage, lx, ly, (int) (cellImage.getWidth() * mg), (int) (cellImage.getHeight() * mg), null);
+	//レイヤー内の座標を含むチャンクの番号。境界の端数で1つ手前のチャンクになることがあるが、描画範囲が1チャンク広がるだけである
+	private int chunkX(int px) {
+		return (int) Math.floor(px / (srcW * mg * CHUNK_SIZE));
+	}
+
+	private int chunkY(int py) {
+		return (int) Math.floor(py / (srcH * mg * CHUNK_SIZE));
+	}
+
+	//チャンク1つ分のチップを画像に描画する
+	private BufferedImage buildChunk(int cx, int cy) {
+		int x0 = cx * CHUNK_SIZE;
+		int y0 = cy * CHUNK_SIZE;
+		int x1 = Math.min(x0 + CHUNK_SIZE, data[0].length);
+		int y1 = Math.min(y0 + CHUNK_SIZE, data.length);
+		int ox = tileX(x0);
+		int oy = tileY(y0);
+		BufferedImage image = ImageUtil.newImage(tileX(x1 - 1) + chipW - ox, tileY(y1 - 1) + chipH - oy);
+		Graphics2D g = ImageUtil.createGraphics2D(image, RenderingQuality.SPEED);
+		for (int y = y0; y < y1; y++) {
+			for (int x = x0; x < x1; x++) {
+				g.drawImage(data[y][x].getImage().get(), tileX(x) - ox, tileY(y) - oy, chipW, chipH, null);
 			}
 		}
 		g.dispose();
+		return image;
+	}
+
+	private BufferedImage getChunk(int cx, int cy) {
+		int i = cy * chunkW + cx;
+		BufferedImage image = chunks.get(i);
+		if (image == null) {
+			image = buildChunk(cx, cy);
+			chunks.put(i, image);
+		}
+		return image;
 	}
 
+	/**
+	 * このレイヤー全体を1枚に描画した画像を返します。
+	 * この画像はマップ全体のサイズとなるため、通常の描画では使用されません。初回呼び出し時に作成されます。
+	 *
+	 * @return レイヤー全体の画像。
+	 */
 	public BufferedImage getImage() {
+		if (fieldMapImage == null) {
+			fieldMapImage = ImageUtil.newImage(tileX(data[0].length), tileY(data.length));
+			Graphics2D g = ImageUtil.createGraphics2D(fieldMapImage, RenderingQuality.SPEED);
+			for (int y = 0; y < data.length; y++) {
+				for (int x = 0; x < data[y].length; x++) {
+					g.drawImage(data[y][x].getImage().get(), tileX(x), tileY(y), chipW, chipH, null);
+				}
+			}
+			g.dispose();
+		}
 		return fieldMapImage;
 	}
 
+	/**
+	 * 現在キャッシュされているチャンク数を返します。
+	 *
+	 * @return キャッシュ済みのチャンク数。
+	 */
+	public int getCachedChunkCount() {
+		return chunks.size();
+	}
+
+	/**
+	 * キャッシュされているチャンクのおおよそのメモリサイズを返します。
+	 *
+	 * @return チャンク画像の合計バイト数。
+	 */
+	public long getCachedChunkBytes() {
+		return chunks.bytes();
+	}
+
+	/**
+	 * 指定したタイルを画面の中央に表示したときに見えるチャンクを事前に描画します。
+	 * 描画されるチャンクの数はキャッシュの容量までです。<br>
+	 * このメソッドは、レイヤーを他のスレッドに渡す前であれば、ゲームスレッド以外から呼び出すことができます。<br>
+	 *
+	 * @param center 中央に表示するタイル。
+	 * @param screenW 画面の幅。
+	 * @param screenH 画面の高さ。
+	 * @return 新たに描画したチャンクの数。
+	 */
+	public int prebuildChunks(D2Idx center, int screenW, int screenH) {
+		int px = tileX(center.x) + chipW / 2;
+		int py = tileY(center.y) + chipH / 2;
+		int cx0 = Math.max(0, chunkX(px - screenW / 2));
+		int cy0 = Math.max(0, chunkY(py - screenH / 2));
+		int cx1 = Math.min(chunkW - 1, chunkX(px + screenW / 2));
+		int cy1 = Math.min(chunkH - 1, chunkY(py + screenH / 2));
+		int n = 0;
+		for (int cy = cy0; cy <= cy1; cy++) {
+			for (int cx = cx0; cx <= cx1; cx++) {
+				if (chunks.size() >= chunks.capacity()) {
+					return n;
+				}
+				int i = cy * chunkW + cx;
+				if (chunks.get(i) == null) {
+					chunks.put(i, buildChunk(cx, cy));
+					n++;
+				}
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * キャッシュされているチャンクを破棄します。次の描画で必要なチャンクが再度描画されます。
+	 */
+	public void clearChunkCache() {
+		chunks.clear();
+	}
+
 	public MapChip getChip(int x, int y) throws ArrayIndexOutOfBoundsException {
 		return data[y][x];
 	}
@@ -101,13 +308,37 @@ public class FieldMapLayerSprite extends BasicSprite implements Disposable {
 		if (!isVisible() || !isExist()) {
 			return;
 		}
-		g.drawImage(fieldMapImage, (int) getX(), (int) getY());
+		int layerX = (int) getX();
+		int layerY = (int) getY();
+		Rectangle clip = g.getClipBounds();
+		int clipX, clipY, clipW, clipH;
+		if (clip == null) {
+			clipX = clipY = 0;
+			clipW = (int) (GameOption.getInstance().getWindowSize().width / GameOption.getInstance().getDrawSize());
+			clipH = (int) (GameOption.getInstance().getWindowSize().height / GameOption.getInstance().getDrawSize());
+		} else {
+			clipX = clip.x;
+			clipY = clip.y;
+			clipW = clip.width;
+			clipH = clip.height;
+		}
+		//クリップ領域と交差するチャンクの範囲
+		int cx0 = Math.max(0, chunkX(clipX - layerX));
+		int cy0 = Math.max(0, chunkY(clipY - layerY));
+		int cx1 = Math.min(chunkW - 1, chunkX(clipX + clipW - layerX));
+		int cy1 = Math.min(chunkH - 1, chunkY(clipY + clipH - layerY));
+		for (int cy = cy0; cy <= cy1; cy++) {
+			for (int cx = cx0; cx <= cx1; cx++) {
+				g.drawImage(getChunk(cx, cy), layerX + tileX(cx * CHUNK_SIZE), layerY + tileY(cy * CHUNK_SIZE));
+			}
+		}
 	}
 
 	@Override
 	public void dispose() {
 		data = null;
 		fieldMapImage = null;
+		chunks.clear();
 	}
 
 	public boolean include(D2Idx idx) {
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.field4;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import kinugasa.game.GameLog;
+import kinugasa.game.GameOption;
+import kinugasa.game.system.GameSystem;
+import kinugasa.graphics.ImageUtil;
+import kinugasa.resource.text.XMLElement;
+import kinugasa.resource.text.XMLFile;
+
+/**
+ * 現在のマップの出入り口から移動できるマップを、バックグラウンドで先読みします.
+ * <br>
+ * FieldMap.buildの最後にprefetchが呼ばれ、NodeStorageの移動先のマップについて、
+ * XMLの解析、チップの配置、マップが使用する画像のロード、到着地点の周辺のチャンクの描画を行います。
+ * 結果は変更されないPrefetchedFieldMapとして保持され、移動先のFieldMap.buildでtakeによって取り出されます。<br>
+ * <br>
+ * 先読みは1本のスレッドで、優先度を下げて実行されます。待機できる要求の数には上限があり、超えた要求は破棄されます。<br>
+ * 先読みしたデータの合計サイズがメモリの上限を超える場合、チャンクを破棄し、それでも超える場合はそのマップの先読みを破棄します。<br>
+ * 新しいマップに移動したとき、そのマップから移動できないマップの先読みは、実行中であっても取り消されます。<br>
+ * 移動時に先読みが実行中の場合は完了を待ち、まだ開始されていない場合は取り消して従来通りゲームスレッドで構築します。<br>
+ * <br>
+ * NPC、イベント、BGMなどのゲームの状態に依存する処理は、従来通りゲームスレッドのbuildで行われます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class FieldMapPrefetcher {
+
+	private static final FieldMapPrefetcher INSTANCE = new FieldMapPrefetcher();
+	//待機できる先読み要求の数
+	private static final int QUEUE_SIZE = 8;
+
+	public static FieldMapPrefetcher getInstance() {
+		return INSTANCE;
+	}
+
+	private static class Entry {
+
+		Future<PrefetchedFieldMap> future;
+		//以下は先読み器のロックで保護される
+		boolean dropped;
+		long bytes;
+	}
+
+	private boolean enabled = true;
+	private long memoryBudget = 64L * 1024 * 1024;
+	private ThreadPoolExecutor executor;
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+	private long usedBytes;
+	//計測値
+	private int hit, miss, cancelled, rejected, overBudget;
+
+	private FieldMapPrefetcher() {
+	}
+
+	public synchronized boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 先読みを使用するかどうかを設定します。falseにすると、保持しているすべての先読みが取り消されます。
+	 *
+	 * @param enabled 使用する場合はtrue。
+	 */
+	public synchronized void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			cancelAll();
+		}
+	}
+
+	public synchronized long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * 先読みしたデータが使用できるメモリの上限を設定します。
+	 *
+	 * @param bytes バイト数。
+	 * @throws IllegalArgumentException 負数の場合に投げられます。
+	 */
+	public synchronized void setMemoryBudget(long bytes) throws IllegalArgumentException {
+		if (bytes < 0) {
+			throw new IllegalArgumentException("FieldMapPrefetcher : memoryBudget is minus : " + bytes);
+		}
+		this.memoryBudget = bytes;
+	}
+
+	/**
+	 * 現在保持している先読みデータの合計サイズを返します。
+	 *
+	 * @return バイト数。
+	 */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * 先読みを要求中または完了しているマップの数を返します。
+	 *
+	 * @return マップの数。
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * マップが先読みを要求中または完了しているかを返します。
+	 *
+	 * @param name マップの名前。
+	 * @return 先読みの対象の場合はtrue。
+	 */
+	public synchronized boolean contains(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * マップの出入り口から移動できるマップの先読みを要求します。
+	 * 移動先に含まれないマップの先読みは取り消されます。
+	 *
+	 * @param current 構築されたマップ。
+	 */
+	public synchronized void prefetch(FieldMap current) {
+		if (!enabled) {
+			return;
+		}
+		//移動先のマップと到着ノード。到着ノードがない場合は到着地点。
+		Map<String, Node> targets = new HashMap<>();
+		for (Node n : current.getNodeStorage()) {
+			String name = n.getExitFieldMapName();
+			if (name == null || name.equals(current.getName()) || !FieldMapStorage.getInstance().contains(name)) {
+				continue;
+			}
+			targets.putIfAbsent(name, n);
+		}
+		for (Iterator<Map.Entry<String, Entry>> i = entries.entrySet().iterator(); i.hasNext();) {
+			Map.Entry<String, Entry> e = i.next();
+			if (!targets.containsKey(e.getKey())) {
+				drop(e.getValue());
+				cancelled++;
+				i.remove();
+			}
+		}
+		for (Map.Entry<String, Node> e : targets.entrySet()) {
+			if (entries.containsKey(e.getKey())) {
+				continue;
+			}
+			FieldMap map = FieldMapStorage.getInstance().get(e.getKey());
+			Node node = e.getValue();
+			Entry entry = new Entry();
+			try {
+				entry.future = executor().submit(() -> load(entry, map, node.getExitNodeName(), node.getIdx()));
+			} catch (RejectedExecutionException ex) {
+				rejected++;
+				continue;
+			}
+			entries.put(e.getKey(), entry);
+		}
+	}
+
+	/**
+	 * 先読みしたデータを取り出します。先読みの対象から外されます。
+	 * 先読みが実行中の場合は完了を待ちます。まだ開始されていない場合は取り消してnullを返します。
+	 *
+	 * @param name マップの名前。
+	 * @return 先読みしたデータ。先読みされていない場合や失敗した場合はnull。
+	 */
+	PrefetchedFieldMap take(String name) {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.remove(name);
+			if (entry == null) {
+				miss++;
+				return null;
+			}
+		}
+		PrefetchedFieldMap result = null;
+		if (!entry.future.isDone() && executor.getQueue().remove((Runnable) entry.future)) {
+			entry.future.cancel(false);
+		} else {
+			try {
+				result = entry.future.get();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException | CancellationException ex) {
+				GameLog.print(ex);
+			}
+		}
+		synchronized (this) {
+			drop(entry);
+			if (result == null) {
+				miss++;
+			} else {
+				hit++;
+			}
+		}
+		if (result != null && GameSystem.isDebugMode()) {
+			GameLog.print("FieldMapPrefetcher : " + result);
+		}
+		return result;
+	}
+
+	/**
+	 * すべての先読みを取り消し、保持しているデータを破棄します。
+	 */
+	public synchronized void cancelAll() {
+		for (Entry e : entries.values()) {
+			drop(e);
+			cancelled++;
+		}
+		entries.clear();
+	}
+
+	//呼び出し元は先読み器のロックを保持すること
+	private void drop(Entry e) {
+		if (e.future != null) {
+			e.future.cancel(true);
+		}
+		e.dropped = true;
+		usedBytes -= e.bytes;
+		e.bytes = 0;
+	}
+
+	private ThreadPoolExecutor executor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+				Thread t = new Thread(r, "kgf map prefetch");
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY);
+				return t;
+			});
+		}
+		return executor;
+	}
+
+	//バックグラウンドスレッドで実行される
+	private PrefetchedFieldMap load(Entry entry, FieldMap map, String exitNodeName, D2Idx idx) throws InterruptedException {
+		long start = System.nanoTime();
+		XMLElement root;
+		List<BufferedImage> images = new ArrayList<>();
+		List<FieldMapLayerSprite> back = new ArrayList<>();
+		List<FieldMapLayerSprite> front = new ArrayList<>();
+		try {
+			root = new XMLFile(map.getData().getFile()).load().getFirst();
+			checkInterrupted();
+			float mg = root.hasAttribute("mg") ? root.getAttributes().get("mg").getFloatValue() : 1;
+			//マップが使用する画像をロードしてImageUtilのキャッシュに登録する
+			for (XMLElement e : root.getElement("background")) {
+				images.add(ImageUtil.load(e.getAttributes().get("image").getValue()));
+			}
+			for (XMLElement e : root.getElement("animation")) {
+				images.add(ImageUtil.load(e.getAttributes().get("image").getValue()));
+			}
+			for (XMLElement e : root.getElement("npc")) {
+				images.add(ImageUtil.load(e.getAttributes().get("image").getValue()));
+			}
+			for (XMLElement e : root.getElement("before")) {
+				if (!BeforeLayerSpriteStorage.getInstance().contains(e.getAttributes().get("name").getValue())) {
+					images.add(ImageUtil.load(e.getAttributes().get("image").getValue()));
+				}
+			}
+			checkInterrupted();
+			for (XMLElement e : root.getElement("backLayer")) {
+				back.add(FieldMap.createLayer(e, mg));
+			}
+			for (XMLElement e : root.getElement("frontLayer")) {
+				front.add(FieldMap.createLayer(e, mg));
+			}
+			//到着地点の周辺のチャンクを描画する
+			if (exitNodeName != null) {
+				idx = null;
+				for (XMLElement e : root.getElement("inOutNode")) {
+					if (exitNodeName.equals(e.getAttributes().get("name").getValue())) {
+						idx = new D2Idx(e.getAttributes().get("x").getIntValue(), e.getAttributes().get("y").getIntValue());
+						break;
+					}
+				}
+			}
+			if (idx != null) {
+				int screenW = (int) (GameOption.getInstance().getWindowSize().width / GameOption.getInstance().getDrawSize());
+				int screenH = (int) (GameOption.getInstance().getWindowSize().height / GameOption.getInstance().getDrawSize());
+				for (FieldMapLayerSprite l : back) {
+					checkInterrupted();
+					l.prebuildChunks(idx, screenW, screenH);
+				}
+				for (FieldMapLayerSprite l : front) {
+					checkInterrupted();
+					l.prebuildChunks(idx, screenW, screenH);
+				}
+			}
+		} catch (InterruptedException ex) {
+			throw ex;
+		} catch (RuntimeException ex) {
+			//データの誤りはゲームスレッドのbuildで報告される
+			if (GameSystem.isDebugMode()) {
+				GameLog.print("FieldMapPrefetcher : " + map.getName() + " : " + ex);
+			}
+			return null;
+		}
+		long imageBytes = 0;
+		for (BufferedImage i : images) {
+			imageBytes += (long) i.getWidth() * i.getHeight() * 4;
+		}
+		long chunkBytes = 0;
+		for (FieldMapLayerSprite l : back) {
+			chunkBytes += l.getCachedChunkBytes();
+		}
+		for (FieldMapLayerSprite l : front) {
+			chunkBytes += l.getCachedChunkBytes();
+		}
+		synchronized (this) {
+			if (entry.dropped) {
+				return null;
+			}
+			if (usedBytes + imageBytes + chunkBytes > memoryBudget) {
+				//チャンクを諦めて解析結果と画像だけを保持する
+				back.forEach(l -> l.clearChunkCache());
+				front.forEach(l -> l.clearChunkCache());
+				chunkBytes = 0;
+				if (usedBytes + imageBytes > memoryBudget) {
+					overBudget++;
+					return null;
+				}
+			}
+			entry.bytes = imageBytes + chunkBytes;
+			usedBytes += entry.bytes;
+		}
+		return new PrefetchedFieldMap(map.getName(), root, back, front, images, imageBytes + chunkBytes, System.nanoTime() - start);
+	}
+
+	private static void checkInterrupted() throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "FieldMapPrefetcher{" + "size=" + entries.size() + ", usedBytes=" + usedBytes + ", memoryBudget=" + memoryBudget
+				+ ", hit=" + hit + ", miss=" + miss + ", cancelled=" + cancelled + ", rejected=" + rejected + ", overBudget=" + overBudget + '}';
+	}
+
+}
@@ -17,11 +17,16 @@
 package kinugasa.game.field4;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import kinugasa.game.GameLog;
 import kinugasa.game.system.GameSystem;
 import kinugasa.graphics.ImageUtil;
+import kinugasa.graphics.TextureAtlas;
 import kinugasa.resource.Nameable;
 import kinugasa.resource.Storage;
 import kinugasa.resource.KImage;
@@ -57,24 +62,40 @@ public class MapChipSetStorage extends Storage<MapChipSet> implements XMLFileSup
 
 		XMLElement root = file.load().getFirst();
 
+		//すべてのチップセットのチップを1つのアトラスに詰め込む。元画像が更新されていなければキャッシュから読み込む
+		List<File> sources = new ArrayList<>();
+		sources.add(file.getFile());
 		for (XMLElement e : root.getElement("chipSet")) {
-			String name = e.getAttributes().get("name").getValue();
-			String image = e.getAttributes().get("image").getValue();
-			int w = e.getAttributes().get("cutWidth").getIntValue();
-			int h = e.getAttributes().get("cutHeight").getIntValue();
+			sources.add(new File(e.getAttributes().get("image").getValue()));
+		}
+		TextureAtlas atlas = TextureAtlas.loadOrPack("chipSet_" + filePath, TextureAtlas.stampOf(sources.toArray(new File[sources.size()])), () -> {
+			Map<String, BufferedImage> chips = new LinkedHashMap<>();
+			for (XMLElement e : root.getElement("chipSet")) {
+				String name = e.getAttributes().get("name").getValue();
+				String image = e.getAttributes().get("image").getValue();
+				int w = e.getAttributes().get("cutWidth").getIntValue();
+				int h = e.getAttributes().get("cutHeight").getIntValue();
 
-			Map<String, BufferedImage> map = ImageUtil.splitAsMapN(ImageUtil.load(image), w, h, 3);
+				Map<String, BufferedImage> map = ImageUtil.splitAsMapN(ImageUtil.load(image), w, h, 3);
+				for (XMLElement c : e.getElement("mapChip")) {
+					String chipName = c.getAttributes().get("name").getValue();
+					BufferedImage image2 = map.get(chipName);
+					if (image2 == null) {
+						image2 = ImageUtil.newImage(w, h);
+					}
+					chips.put(name + "/" + chipName, image2);
+				}
+			}
+			return chips;
+		});
 
+		for (XMLElement e : root.getElement("chipSet")) {
+			String name = e.getAttributes().get("name").getValue();
 			MapChipSet chipSet = new MapChipSet(name);
 			for (XMLElement c : e.getElement("mapChip")) {
 				String chipName = c.getAttributes().get("name").getValue();
 				String attr = c.getAttributes().get("attribute").getValue();
-				BufferedImage image2 = map.get(chipName);
-				if (image2 == null) {
-					image2 = ImageUtil.newImage(w, h);
-				}
-				chipSet.add(new MapChip(chipName, MapChipAttributeStorage.getInstance().get(attr), new KImage(image2)));
-
+				chipSet.add(new MapChip(chipName, MapChipAttributeStorage.getInstance().get(attr), new KImage(atlas.get(name + "/" + chipName))));
 			}
 			add(chipSet);
 		}
@@ -76,15 +76,15 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 				D2Idx tgt = null;
 				for (int i = 0; i < 600; i++) {
 					tgt = new D2Idx(n.getCurrentIdx());
-					if (Random.randomBool()) {
-						tgt.x -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.x -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.x += Random.randomAbsInt(2);
+						tgt.x += Random.field().randomAbsInt(2);
 					}
-					if (Random.randomBool()) {
-						tgt.y -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.y -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.y += Random.randomAbsInt(2);
+						tgt.y += Random.field().randomAbsInt(2);
 					}
 					if (tgt.x <= 0 || tgt.y <= 0) {
 						tgt = new D2Idx(n.getInitialIdx());
@@ -119,7 +119,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 
 			@Override
 			public int nextMoveFrameTime(NPCSprite n, FieldMap map) {
-				return 60 + Random.randomAbsInt(541);
+				return 60 + Random.field().randomAbsInt(541);
 			}
 
 			@Override
@@ -147,15 +147,15 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 				D2Idx tgt = null;
 				for (int i = 0; i < 600; i++) {
 					tgt = new D2Idx(n.getCurrentIdx());
-					if (Random.randomBool()) {
-						tgt.x -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.x -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.x += Random.randomAbsInt(2);
+						tgt.x += Random.field().randomAbsInt(2);
 					}
-					if (Random.randomBool()) {
-						tgt.y -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.y -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.y += Random.randomAbsInt(2);
+						tgt.y += Random.field().randomAbsInt(2);
 					}
 					if (tgt.x <= 0 || tgt.y <= 0) {
 						tgt = new D2Idx(n.getInitialIdx());
@@ -187,7 +187,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 
 			@Override
 			public int nextMoveFrameTime(NPCSprite n, FieldMap map) {
-				return 60 + Random.randomAbsInt(541);
+				return 60 + Random.field().randomAbsInt(541);
 			}
 
 			@Override
@@ -214,15 +214,15 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 				D2Idx tgt = null;
 				for (int i = 0; i < 600; i++) {
 					tgt = new D2Idx(n.getCurrentIdx());
-					if (Random.randomBool()) {
-						tgt.x -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.x -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.x += Random.randomAbsInt(2);
+						tgt.x += Random.field().randomAbsInt(2);
 					}
-					if (Random.randomBool()) {
-						tgt.y -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.y -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.y += Random.randomAbsInt(2);
+						tgt.y += Random.field().randomAbsInt(2);
 					}
 					if (tgt.x <= 0 || tgt.y <= 0) {
 						tgt = new D2Idx(n.getInitialIdx());
@@ -254,7 +254,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 
 			@Override
 			public int nextMoveFrameTime(NPCSprite n, FieldMap map) {
-				return 60 + Random.randomAbsInt(541);
+				return 60 + Random.field().randomAbsInt(541);
 			}
 
 			@Override
@@ -281,15 +281,15 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 				D2Idx tgt = null;
 				for (int i = 0; i < 600; i++) {
 					tgt = new D2Idx(n.getCurrentIdx());
-					if (Random.randomBool()) {
-						tgt.x -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.x -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.x += Random.randomAbsInt(2);
+						tgt.x += Random.field().randomAbsInt(2);
 					}
-					if (Random.randomBool()) {
-						tgt.y -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.y -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.y += Random.randomAbsInt(2);
+						tgt.y += Random.field().randomAbsInt(2);
 					}
 					if (tgt.x <= 0 || tgt.y <= 0) {
 						tgt = new D2Idx(n.getInitialIdx());
@@ -321,7 +321,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 
 			@Override
 			public int nextMoveFrameTime(NPCSprite n, FieldMap map) {
-				return 60 + Random.randomAbsInt(541);
+				return 60 + Random.field().randomAbsInt(541);
 			}
 
 			@Override
@@ -348,15 +348,15 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 				D2Idx tgt = null;
 				for (int i = 0; i < 600; i++) {
 					tgt = new D2Idx(n.getCurrentIdx());
-					if (Random.randomBool()) {
-						tgt.x -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.x -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.x += Random.randomAbsInt(2);
+						tgt.x += Random.field().randomAbsInt(2);
 					}
-					if (Random.randomBool()) {
-						tgt.y -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.y -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.y += Random.randomAbsInt(2);
+						tgt.y += Random.field().randomAbsInt(2);
 					}
 					if (tgt.x <= 0 || tgt.y <= 0) {
 						tgt = new D2Idx(n.getInitialIdx());
@@ -388,7 +388,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 
 			@Override
 			public int nextMoveFrameTime(NPCSprite n, FieldMap map) {
-				return 60 + Random.randomAbsInt(541);
+				return 60 + Random.field().randomAbsInt(541);
 			}
 
 			@Override
@@ -415,7 +415,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 
 			@Override
 			public int nextMoveFrameTime(NPCSprite n, FieldMap map) {
-				int r = Random.randomAbsInt(4);
+				int r = Random.field().randomAbsInt(4);
 				switch (r) {
 					case 0:
 						n.to(FourDirection.EAST);
@@ -430,7 +430,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 						n.to(FourDirection.NORTH);
 						break;
 				}
-				return 60 + Random.randomAbsInt(541);
+				return 60 + Random.field().randomAbsInt(541);
 			}
 
 			@Override
@@ -454,15 +454,15 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 				D2Idx tgt = null;
 				for (int i = 0; i < 600; i++) {
 					tgt = new D2Idx(n.getCurrentIdx());
-					if (Random.randomBool()) {
-						tgt.x -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.x -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.x += Random.randomAbsInt(2);
+						tgt.x += Random.field().randomAbsInt(2);
 					}
-					if (Random.randomBool()) {
-						tgt.y -= Random.randomAbsInt(2);
+					if (Random.field().randomBool()) {
+						tgt.y -= Random.field().randomAbsInt(2);
 					} else {
-						tgt.y += Random.randomAbsInt(2);
+						tgt.y += Random.field().randomAbsInt(2);
 					}
 					if (tgt.x <= 0 || tgt.y <= 0) {
 						tgt = new D2Idx(n.getInitialIdx());
@@ -494,7 +494,7 @@ public class NPCMoveModelStorage extends Storage<NPCMoveModel> {
 
 			@Override
 			public int nextMoveFrameTime(NPCSprite n, FieldMap map) {
-				return minTime + Random.randomAbsInt(maxTime + 1 - minTime);
+				return minTime + Random.field().randomAbsInt(maxTime + 1 - minTime);
 			}
 
 			@Override
@@ -20,18 +20,123 @@ import kinugasa.game.system.NPCSprite;
 import kinugasa.resource.Storage;
 
 /**
+ * NPCを格納するストレージです.
+ * <br>
+ * NPCはタイル座標のインデックスにも登録され、座標からの検索はO(1)で行われます。
+ * NPCの座標が変わった場合はrelocateでインデックスを更新する必要があります。<br>
  *
  * @vesion 1.0.0 - 2022/11/08_19:25:01<br>
  * @author Shinacho<br>
  */
 public class NPCStorage extends Storage<NPCSprite> {
 
+	private final TileIndex<NPCSprite> index = new TileIndex<>();
+	//タイルごとの、インデックスに登録されたNPCの下に重なっているNPCの数
+	private final TileIndex<Integer> stacked = new TileIndex<>();
+
 	public NPCSprite get(D2Idx idx) {
-		for (NPCSprite n : this) {
-			if (n.getCurrentIdx().equals(idx)) {
-				return n;
+		return index.get(idx);
+	}
+
+	public NPCSprite get(int x, int y) {
+		return index.get(x, y);
+	}
+
+	private void indexAdd(NPCSprite n) {
+		D2Idx idx = n.getCurrentIdx();
+		if (idx == null || !TileIndex.inRange(idx.x, idx.y)) {
+			return;
+		}
+		if (index.get(idx) == null) {
+			index.put(idx.x, idx.y, n);
+		} else if (index.get(idx) != n) {
+			stacked.put(idx.x, idx.y, stackedCount(idx) + 1);
+		}
+	}
+
+	private int stackedCount(D2Idx idx) {
+		Integer c = stacked.get(idx);
+		return c == null ? 0 : c;
+	}
+
+	private void unstack(D2Idx idx) {
+		int c = stackedCount(idx) - 1;
+		stacked.put(idx.x, idx.y, c > 0 ? c : null);
+	}
+
+	private void indexRemove(NPCSprite n, D2Idx idx) {
+		if (idx == null) {
+			return;
+		}
+		if (index.get(idx) != n) {
+			//このタイルに重なっていたNPCが離れた
+			if (stackedCount(idx) > 0) {
+				unstack(idx);
+			}
+			return;
+		}
+		index.remove(idx.x, idx.y);
+		if (stackedCount(idx) > 0) {
+			//重なっていたNPCがいればそれを登録する
+			unstack(idx);
+			for (NPCSprite o : getAll()) {
+				if (o != n && idx.equals(o.getCurrentIdx())) {
+					index.put(idx.x, idx.y, o);
+					return;
+				}
 			}
+			//数が合わない場合は、このタイルには重なっているNPCがいない
+			stacked.remove(idx.x, idx.y);
+		}
+	}
+
+	/**
+	 * NPCの座標が変わったことをインデックスに反映します.
+	 * このストレージに含まれないNPCの場合は何もしません。
+	 *
+	 * @param n 座標が変わったNPC。
+	 * @param prev 移動前の座標。
+	 */
+	public void relocate(NPCSprite n, D2Idx prev) {
+		if (getOrNull(n.getId()) != n) {
+			return;
 		}
-		return null;
+		if (prev != null && prev.equals(n.getCurrentIdx())) {
+			return;
+		}
+		indexRemove(n, prev);
+		indexAdd(n);
+	}
+
+	@Override
+	public void add(NPCSprite val) {
+		super.add(val);
+		indexAdd(val);
+	}
+
+	@Override
+	public void put(NPCSprite val) {
+		NPCSprite prev = getOrNull(val.getId());
+		if (prev != null) {
+			indexRemove(prev, prev.getCurrentIdx());
+		}
+		super.put(val);
+		indexAdd(val);
+	}
+
+	@Override
+	public void remove(String key) {
+		NPCSprite n = getOrNull(key);
+		if (n != null) {
+			indexRemove(n, n.getCurrentIdx());
+		}
+		super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		index.clear();
+		stacked.clear();
 	}
 }
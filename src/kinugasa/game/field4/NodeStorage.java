@@ -19,18 +19,47 @@ package kinugasa.game.field4;
 import kinugasa.resource.Storage;
 
 /**
+ * ノードを格納するストレージです. ノードはタイル座標のインデックスにも登録されます。
  *
  * @vesion 1.0.0 - 2022/11/08_19:26:38<br>
  * @author Shinacho<br>
  */
 public class NodeStorage extends Storage<Node> {
 
+	private final TileIndex<Node> index = new TileIndex<>();
+
 	public Node get(D2Idx idx) {
-		for (Node n : this) {
-			if (n.getX() == idx.x && n.getY() == idx.y) {
-				return n;
-			}
+		return index.get(idx);
+	}
+
+	@Override
+	public void add(Node val) {
+		super.add(val);
+		index.put(val.getX(), val.getY(), val);
+	}
+
+	@Override
+	public void put(Node val) {
+		Node prev = getOrNull(val.getName());
+		if (prev != null && index.get(prev.getX(), prev.getY()) == prev) {
+			index.remove(prev.getX(), prev.getY());
 		}
-		return null;
+		super.put(val);
+		index.put(val.getX(), val.getY(), val);
+	}
+
+	@Override
+	public void remove(String key) {
+		Node n = getOrNull(key);
+		if (n != null && index.get(n.getX(), n.getY()) == n) {
+			index.remove(n.getX(), n.getY());
+		}
+		super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		index.clear();
 	}
 }
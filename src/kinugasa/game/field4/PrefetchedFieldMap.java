@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.field4;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import kinugasa.resource.text.XMLElement;
+
+/**
+ * バックグラウンドで先読みされたフィールドマップのデータです.
+ * <br>
+ * 解析済みのXML、チップを配置したレイヤー、マップが使用する画像を保持します。
+ * 作成後は変更されず、FieldMapPrefetcherからゲームスレッドに渡されてFieldMap.buildで使用されます。<br>
+ * 画像はImageCacheに登録されるため、build時のロードは通常キャッシュから取得されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:00:00<br>
+ * @author Shinacho<br>
+ */
+final class PrefetchedFieldMap {
+
+	private final String name;
+	private final XMLElement root;
+	private final List<FieldMapLayerSprite> backLayers;
+	private final List<FieldMapLayerSprite> frontLayers;
+	private final List<BufferedImage> images;
+	private final long bytes;
+	private final long nanos;
+
+	PrefetchedFieldMap(String name, XMLElement root, List<FieldMapLayerSprite> backLayers, List<FieldMapLayerSprite> frontLayers,
+			List<BufferedImage> images, long bytes, long nanos) {
+		this.name = name;
+		this.root = root;
+		this.backLayers = Collections.unmodifiableList(backLayers);
+		this.frontLayers = Collections.unmodifiableList(frontLayers);
+		this.images = Collections.unmodifiableList(images);
+		this.bytes = bytes;
+		this.nanos = nanos;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	XMLElement getRoot() {
+		return root;
+	}
+
+	List<FieldMapLayerSprite> getBackLayers() {
+		return backLayers;
+	}
+
+	List<FieldMapLayerSprite> getFrontLayers() {
+		return frontLayers;
+	}
+
+	List<BufferedImage> getImages() {
+		return images;
+	}
+
+	/**
+	 * このデータが使用するおおよそのメモリサイズを返します。
+	 *
+	 * @return 先読みしたチャンクと画像の合計バイト数。
+	 */
+	long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * 先読みに要した時間を返します。
+	 *
+	 * @return 時間（ナノ秒）。
+	 */
+	long getNanos() {
+		return nanos;
+	}
+
+	@Override
+	public String toString() {
+		return "PrefetchedFieldMap{" + "name=" + name + ", backLayers=" + backLayers.size() + ", frontLayers=" + frontLayers.size()
+				+ ", images=" + images.size() + ", bytes=" + bytes + ", ms=" + nanos / 1000000 + '}';
+	}
+
+}
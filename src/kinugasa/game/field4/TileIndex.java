@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.field4;
+
+import java.util.Arrays;
+
+/**
+ * タイル座標をキーとして値を保持するインデックスです.
+ * <br>
+ * x,yを1つのintにパックしたキーでオープンアドレス法のハッシュ表に格納するため、検索時にオブジェクトを生成しません。<br>
+ * 座標は0～32767の範囲で格納できます。範囲外の座標の検索は常にnullを返します。<br>
+ *
+ * @param <V> 値の型。
+ * @vesion 1.0.0 - 2026/10/18_11:20:00<br>
+ * @author Shinacho<br>
+ */
+class TileIndex<V> {
+
+	private static final int EMPTY = -1;
+	private static final int MAX = 0x7FFF;
+	private int[] keys;
+	private Object[] values;
+	private int size;
+
+	TileIndex() {
+		this(64);
+	}
+
+	TileIndex(int initialCapacity) {
+		int cap = Integer.highestOneBit(Math.max(16, initialCapacity) * 2 - 1);
+		keys = new int[cap];
+		values = new Object[cap];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	static boolean inRange(int x, int y) {
+		return x >= 0 && y >= 0 && x <= MAX && y <= MAX;
+	}
+
+	static int key(int x, int y) {
+		return (x << 16) | y;
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int indexOf(int key) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	V get(int x, int y) {
+		if (!inRange(x, y)) {
+			return null;
+		}
+		int i = indexOf(key(x, y));
+		return i < 0 ? null : (V) values[i];
+	}
+
+	V get(D2Idx idx) {
+		return get(idx.x, idx.y);
+	}
+
+	void put(int x, int y, V v) {
+		if (v == null) {
+			remove(x, y);
+			return;
+		}
+		if (!inRange(x, y)) {
+			throw new IllegalArgumentException("TileIndex : out of range : " + x + "," + y);
+		}
+		if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		int key = key(x, y);
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				values[i] = v;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = v;
+		size++;
+	}
+
+	void remove(int x, int y) {
+		if (!inRange(x, y)) {
+			return;
+		}
+		int i = indexOf(key(x, y));
+		if (i < 0) {
+			return;
+		}
+		//線形探査の連鎖を保つため、後続の要素を詰める
+		int mask = keys.length - 1;
+		keys[i] = EMPTY;
+		values[i] = null;
+		size--;
+		for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+			int k = keys[j];
+			Object v = values[j];
+			keys[j] = EMPTY;
+			values[j] = null;
+			size--;
+			reinsert(k, v);
+		}
+	}
+
+	private void reinsert(int key, Object v) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (keys[i] != EMPTY) {
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = v;
+		size++;
+	}
+
+	private void rehash(int cap) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[cap];
+		values = new Object[cap];
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				reinsert(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(values, null);
+		size = 0;
+	}
+}
@@ -0,0 +1,639 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.input;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import kinugasa.game.PlayerConstants;
+import kinugasa.resource.ContentsIOException;
+import kinugasa.util.Random;
+
+/**
+ * 入力状態を記録し、再生するリプレイです.
+ * <br>
+ * 1フレームの入力状態は、キーボード、マウス、ゲームパッドの状態をまとめた31個のint値として扱われます。
+ * 記録されるのは前のフレームから値が変わったフレームだけで、変わった値を示すビットマスクと、
+ * 変わった値の差分(ボタンはXOR、座標などの数値は差)が可変長の整数で書き込まれます。
+ * 入力がないフレームや押し続けているフレームはデータを消費しません。<br>
+ * 一定のフレームごとにすべての値を書き込むキーフレームが置かれます。
+ * 再生時はキーフレームの索引を二分探索するため、任意のフレームへ移動するコストはリプレイの長さによらずほぼ一定です。<br>
+ * ファイルに記録する場合、データは一定量ごとにFileChannelで書き込まれ、closeで終端が書き込まれます。
+ * 終端がないファイル(記録中に異常終了した場合など)は、最後の完全なレコードまで再生できます。<br>
+ * 記録の開始時と再生の開始時に、リプレイのシードでkinugasa.util.Randomが初期化されます。
+ * seekで入力は任意のフレームに戻せますが、ゲームの状態や乱数の状態は戻らないため、必要であれば別に復元してください。<br>
+ * キーボードは512未満のキーコードのみが記録されます。<br>
+ * <br>
+ * 通常はGameOptionのsetReplayで設定し、GameLoopによって使用されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_19:30:00<br>
+ * @author Shinacho<br>
+ */
+public final class InputReplay implements AutoCloseable {
+
+	private static final int MAGIC = 0x4B475250;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	//1フレームの値の配置
+	private static final int KEY_BITS = 512;
+	private static final int KEY_WORDS = KEY_BITS / 32;
+	private static final int MOUSE_FLAGS = KEY_WORDS;
+	private static final int MOUSE_WHEEL = MOUSE_FLAGS + 1;
+	private static final int MOUSE_X = MOUSE_FLAGS + 2;
+	private static final int MOUSE_SCREEN_X = MOUSE_FLAGS + 4;
+	private static final int MOUSE_DRAG_X = MOUSE_FLAGS + 6;
+	private static final int PAD_BUTTONS = MOUSE_FLAGS + 8;
+	private static final int PAD_TRIGGER = PAD_BUTTONS + 1;
+	private static final int PAD_STICK = PAD_BUTTONS + 3;
+	private static final int WORDS = PAD_STICK + 4;
+	private static final int M_LEFT = 1, M_RIGHT = 1 << 1, M_WHEEL = 1 << 2, M_IN_WINDOW = 1 << 3, M_DRAG = 1 << 4, M_DRAG_LOCATION = 1 << 5;
+	//レコードの種類
+	private static final byte DELTA = 0;
+	private static final byte KEY_FRAME = 1;
+	private static final byte END = 2;
+	private static final int KEY_FRAME_INTERVAL = 600;
+	private static final int FLUSH_SIZE = 64 * 1024;
+	//差分を数値の差で書き込む値。それ以外はXORで書き込む
+	private static final boolean[] NUMERIC = new boolean[WORDS];
+
+	static {
+		for (int i = MOUSE_WHEEL; i < PAD_BUTTONS; i++) {
+			NUMERIC[i] = true;
+		}
+		for (int i = PAD_TRIGGER; i < WORDS; i++) {
+			NUMERIC[i] = true;
+		}
+	}
+
+	private final boolean recording;
+	private final long seed;
+	private byte[] data;
+	private int size;
+	private FileChannel channel;
+	private long written;
+	private boolean closed;
+	private final int[] cur = new int[WORDS];
+	private final int[] work = new int[WORDS];
+	//最後に返したフレーム
+	private long frame = -1;
+	private long lastRecordFrame = -1;
+	private long lastKeyFrame = -1;
+	private long records;
+	//再生
+	private long frameCount;
+	private long[] keyFrames = new long[16];
+	private int[] keyFrameOffsets = new int[16];
+	private int keyFrameNum;
+	private int pos;
+	private byte nextTag;
+	private long nextFrame;
+	private KeyState keyState;
+	private MouseState mouseState;
+	private GamePadState gpState;
+
+	private InputReplay(boolean recording, long seed, byte[] data, int size) {
+		this.recording = recording;
+		this.seed = seed;
+		this.data = data;
+		this.size = size;
+	}
+
+	/**
+	 * メモリ上に記録するリプレイを作成します。Randomはseedで初期化されます。
+	 *
+	 * @param seed 乱数のシード。
+	 * @return 記録中のリプレイ。
+	 */
+	public static InputReplay record(long seed) {
+		InputReplay r = new InputReplay(true, seed, new byte[4096], 0);
+		r.putInt(MAGIC).putInt(VERSION).putLong(seed);
+		Random.initSeed(seed);
+		return r;
+	}
+
+	/**
+	 * ファイルに記録するリプレイを作成します。既存のファイルは上書きされます。Randomはseedで初期化されます。
+	 *
+	 * @param file ファイル。
+	 * @param seed 乱数のシード。
+	 * @return 記録中のリプレイ。
+	 * @throws ContentsIOException ファイルを開けない場合に投げられます。
+	 */
+	public static InputReplay record(File file, long seed) throws ContentsIOException {
+		InputReplay r = record(seed);
+		try {
+			r.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			r.flush();
+		} catch (IOException ex) {
+			throw new ContentsIOException(ex);
+		}
+		return r;
+	}
+
+	/**
+	 * ファイルからリプレイを読み込みます。
+	 *
+	 * @param file ファイル。
+	 * @return 再生用のリプレイ。
+	 * @throws ContentsIOException ファイルを読めない場合、または形式が異なる場合に投げられます。
+	 */
+	public static InputReplay load(File file) throws ContentsIOException {
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long len = ch.size();
+			if (len > Integer.MAX_VALUE) {
+				throw new ContentsIOException("replay file is too large : " + file);
+			}
+			ByteBuffer b = ByteBuffer.allocate((int) len);
+			while (b.hasRemaining() && ch.read(b) >= 0) {
+			}
+			return load(b.array());
+		} catch (IOException ex) {
+			throw new ContentsIOException(ex);
+		}
+	}
+
+	/**
+	 * toByteArrayで取得したデータからリプレイを作成します。
+	 *
+	 * @param data データ。
+	 * @return 再生用のリプレイ。
+	 * @throws ContentsIOException 形式が異なる場合に投げられます。
+	 */
+	public static InputReplay load(byte[] data) throws ContentsIOException {
+		if (data.length < HEADER_SIZE || getInt(data, 0) != MAGIC) {
+			throw new ContentsIOException("replay data is broken : header");
+		}
+		if (getInt(data, 4) != VERSION) {
+			throw new ContentsIOException("replay data version is not supported : " + getInt(data, 4));
+		}
+		InputReplay r = new InputReplay(false, ((long) getInt(data, 8) << 32) | (getInt(data, 12) & 0xFFFFFFFFL), data, data.length);
+		r.index();
+		r.rewind();
+		return r;
+	}
+
+	//--------------------------------------------------------------------------
+	//記録
+	/**
+	 * 1フレーム進め、そのフレームの入力状態を返します。
+	 * 記録中の場合は現在の入力状態を取得して記録します。再生中の場合は記録された入力状態を返します。
+	 * このメソッドは1回の更新につき1回だけ呼び出してください。
+	 *
+	 * @return 入力状態。再生が終わった場合、またはクローズされている場合はnull。
+	 * @throws ContentsIOException ファイルへの書き込みに失敗した場合に投げられます。
+	 */
+	public synchronized InputState next() throws ContentsIOException {
+		if (closed) {
+			return null;
+		}
+		if (!recording) {
+			return play();
+		}
+		InputState s = InputState.refreshed();
+		frame++;
+		capture(s, work);
+		int mask = 0;
+		for (int i = 0; i < WORDS; i++) {
+			if (work[i] != cur[i]) {
+				mask |= 1 << i;
+			}
+		}
+		if (mask != 0 || lastRecordFrame < 0) {
+			if (lastRecordFrame < 0 || frame - lastKeyFrame >= KEY_FRAME_INTERVAL) {
+				putByte(KEY_FRAME).putVarLong(frame - lastRecordFrame);
+				for (int i = 0; i < WORDS; i++) {
+					putVarLong(zigzag(work[i]));
+				}
+				lastKeyFrame = frame;
+			} else {
+				putByte(DELTA).putVarLong(frame - lastRecordFrame).putVarLong(mask);
+				for (int i = 0; i < WORDS; i++) {
+					if ((mask & (1 << i)) != 0) {
+						putVarLong(NUMERIC[i] ? zigzag(work[i] - cur[i]) : (work[i] ^ cur[i]) & 0xFFFFFFFFL);
+					}
+				}
+			}
+			System.arraycopy(work, 0, cur, 0, WORDS);
+			lastRecordFrame = frame;
+			records++;
+			if (channel != null && size >= FLUSH_SIZE) {
+				flush();
+			}
+		}
+		return s;
+	}
+
+	private static void capture(InputState s, int[] v) {
+		Arrays.fill(v, 0);
+		KeyState k = s.getKeyState();
+		if (k != null) {
+			long[] bits = k.getKeySet().toLongArray();
+			for (int i = 0; i < bits.length && i < KEY_WORDS / 2; i++) {
+				v[i * 2] = (int) bits[i];
+				v[i * 2 + 1] = (int) (bits[i] >>> 32);
+			}
+		}
+		MouseState m = s.getMouseState();
+		if (m != null) {
+			Point d = m.draggedLocation();
+			v[MOUSE_FLAGS] = (m.LEFT_BUTTON ? M_LEFT : 0) | (m.RIGHT_BUTTON ? M_RIGHT : 0) | (m.WHEEL_BUTTON ? M_WHEEL : 0)
+					| (m.IN_WINDOW ? M_IN_WINDOW : 0) | (m.DRAG_NOW ? M_DRAG : 0) | (d != null ? M_DRAG_LOCATION : 0);
+			v[MOUSE_WHEEL] = m.WHEEL_VALUE;
+			v[MOUSE_X] = m.getX();
+			v[MOUSE_X + 1] = m.getY();
+			v[MOUSE_SCREEN_X] = m.getXOnScreen();
+			v[MOUSE_SCREEN_X + 1] = m.getYOnScreen();
+			if (d != null) {
+				v[MOUSE_DRAG_X] = d.x;
+				v[MOUSE_DRAG_X + 1] = d.y;
+			}
+		}
+		GamePadState g = s.getGamePadState();
+		if (g != null) {
+			GamePadButtons b = g.buttons;
+			boolean[] bs = {b.A, b.B, b.X, b.Y, b.RB, b.LB, b.LEFT_STICK, b.RIGHT_STICK,
+				b.POV_UP, b.POV_DOWN, b.POV_LEFT, b.POV_RIGHT, b.BACK, b.START};
+			for (int i = 0; i < bs.length; i++) {
+				if (bs[i]) {
+					v[PAD_BUTTONS] |= 1 << i;
+				}
+			}
+			v[PAD_TRIGGER] = Float.floatToIntBits(g.triggeres.LEFT.value);
+			v[PAD_TRIGGER + 1] = Float.floatToIntBits(g.triggeres.RIGHT.value);
+			v[PAD_STICK] = Float.floatToIntBits(g.sticks.LEFT.x);
+			v[PAD_STICK + 1] = Float.floatToIntBits(g.sticks.LEFT.y);
+			v[PAD_STICK + 2] = Float.floatToIntBits(g.sticks.RIGHT.x);
+			v[PAD_STICK + 3] = Float.floatToIntBits(g.sticks.RIGHT.y);
+		}
+	}
+
+	private void flush() throws ContentsIOException {
+		try {
+			ByteBuffer b = ByteBuffer.wrap(data, 0, size);
+			while (b.hasRemaining()) {
+				channel.write(b);
+			}
+		} catch (IOException ex) {
+			throw new ContentsIOException(ex);
+		}
+		written += size;
+		size = 0;
+	}
+
+	/**
+	 * 記録中の場合は終端を書き込み、ファイルを閉じます。以降のnextはnullを返します。
+	 *
+	 * @throws ContentsIOException ファイルへの書き込みに失敗した場合に投げられます。
+	 */
+	@Override
+	public synchronized void close() throws ContentsIOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (!recording) {
+			return;
+		}
+		putByte(END).putVarLong(frame - lastRecordFrame).putVarLong(frame + 1);
+		if (channel != null) {
+			try {
+				flush();
+				channel.close();
+			} catch (IOException ex) {
+				throw new ContentsIOException(ex);
+			}
+		}
+	}
+
+	/**
+	 * メモリ上に記録したデータを返します。closeした後に呼び出してください。
+	 *
+	 * @return データのコピー。
+	 * @throws IllegalStateException ファイルに記録している場合に投げられます。
+	 */
+	public synchronized byte[] toByteArray() throws IllegalStateException {
+		if (channel != null) {
+			throw new IllegalStateException("replay is written to file");
+		}
+		return Arrays.copyOf(data, size);
+	}
+
+	//--------------------------------------------------------------------------
+	//再生
+	private void index() throws ContentsIOException {
+		pos = HEADER_SIZE;
+		int end = HEADER_SIZE;
+		long f = -1;
+		frameCount = -1;
+		try {
+			while (pos < size) {
+				int start = pos;
+				byte tag = data[pos++];
+				long rf = f + getVarLong();
+				if (tag == END) {
+					frameCount = getVarLong();
+					end = pos;
+					break;
+				}
+				if (tag == KEY_FRAME) {
+					for (int i = 0; i < WORDS; i++) {
+						getVarLong();
+					}
+					if (keyFrameNum == keyFrames.length) {
+						keyFrames = Arrays.copyOf(keyFrames, keyFrameNum * 2);
+						keyFrameOffsets = Arrays.copyOf(keyFrameOffsets, keyFrameNum * 2);
+					}
+					keyFrames[keyFrameNum] = rf;
+					keyFrameOffsets[keyFrameNum++] = start;
+				} else if (tag == DELTA) {
+					int mask = (int) getVarLong();
+					for (int i = 0; i < WORDS; i++) {
+						if ((mask & (1 << i)) != 0) {
+							getVarLong();
+						}
+					}
+				} else {
+					throw new ContentsIOException("replay data is broken : tag " + tag + " at " + start);
+				}
+				if (keyFrameNum == 0) {
+					throw new ContentsIOException("replay data is broken : first record is not key frame");
+				}
+				f = rf;
+				records++;
+				end = pos;
+			}
+		} catch (ArrayIndexOutOfBoundsException ex) {
+			//記録中に終了したファイルは最後の完全なレコードまで使用する
+		}
+		if (frameCount < 0) {
+			frameCount = f + 1;
+		}
+		size = end;
+	}
+
+	private void rewind() {
+		frame = -1;
+		Arrays.fill(cur, 0);
+		if (keyFrameNum == 0) {
+			nextTag = END;
+			nextFrame = Long.MAX_VALUE;
+			return;
+		}
+		pos = keyFrameOffsets[0];
+		readHeader(-1);
+	}
+
+	private void readHeader(long base) {
+		if (pos >= size) {
+			nextTag = END;
+			nextFrame = Long.MAX_VALUE;
+			return;
+		}
+		nextTag = data[pos++];
+		nextFrame = base + getVarLong();
+		if (nextTag == END) {
+			nextFrame = Long.MAX_VALUE;
+		}
+	}
+
+	private void applyRecord() {
+		if (nextTag == KEY_FRAME) {
+			for (int i = 0; i < WORDS; i++) {
+				cur[i] = unzigzag(getVarLong());
+			}
+		} else {
+			int mask = (int) getVarLong();
+			for (int i = 0; i < WORDS; i++) {
+				if ((mask & (1 << i)) != 0) {
+					long d = getVarLong();
+					cur[i] = NUMERIC[i] ? cur[i] + unzigzag(d) : cur[i] ^ (int) d;
+				}
+			}
+		}
+		readHeader(nextFrame);
+	}
+
+	private InputState play() {
+		if (frame + 1 >= frameCount) {
+			return null;
+		}
+		if (frame < 0) {
+			Random.initSeed(seed);
+		}
+		frame++;
+		boolean changed = keyState == null;
+		while (nextFrame == frame) {
+			applyRecord();
+			changed = true;
+		}
+		if (changed) {
+			build();
+		}
+		InputState s = InputState.instance();
+		s.set(keyState, mouseState, gpState);
+		return s;
+	}
+
+	/**
+	 * 再生位置を移動します。次のnextは指定したフレームの入力状態を返します。
+	 * 直前のフレームの入力状態も復元されるため、押した瞬間の判定も正しく行われます。
+	 *
+	 * @param frame フレーム。0の場合は最初から再生します。
+	 * @throws IllegalStateException 記録中のリプレイの場合に投げられます。
+	 */
+	public synchronized void seek(long frame) throws IllegalStateException {
+		if (recording) {
+			throw new IllegalStateException("replay is recording");
+		}
+		rewind();
+		long target = Math.min(frame, frameCount) - 1;
+		if (target < 0) {
+			return;
+		}
+		//target以前の最後のキーフレームから適用する
+		int i = Arrays.binarySearch(keyFrames, 0, keyFrameNum, target);
+		if (i < 0) {
+			i = -i - 2;
+		}
+		pos = keyFrameOffsets[i];
+		readHeader(0);
+		nextFrame = keyFrames[i];
+		while (nextFrame <= target) {
+			applyRecord();
+		}
+		this.frame = target;
+		build();
+		InputState.instance().set(keyState, mouseState, gpState);
+	}
+
+	private void build() {
+		BitSet keys = BitSet.valueOf(new long[]{
+			pack(0), pack(2), pack(4), pack(6), pack(8), pack(10), pack(12), pack(14)});
+		keyState = new KeyState(keys);
+		int f = cur[MOUSE_FLAGS];
+		mouseState = new MouseState((f & M_LEFT) != 0, (f & M_RIGHT) != 0, (f & M_WHEEL) != 0,
+				(f & M_IN_WINDOW) != 0, (f & M_DRAG) != 0, cur[MOUSE_WHEEL],
+				new Point(cur[MOUSE_X], cur[MOUSE_X + 1]),
+				new Point(cur[MOUSE_SCREEN_X], cur[MOUSE_SCREEN_X + 1]),
+				(f & M_DRAG_LOCATION) != 0 ? new Point(cur[MOUSE_DRAG_X], cur[MOUSE_DRAG_X + 1]) : null);
+		if (PlayerConstants.getInstance().isUsingGamePad()) {
+			int b = cur[PAD_BUTTONS];
+			GamePadButtons buttons = new GamePadButtons(
+					(b & 1) != 0, (b & 1 << 1) != 0, (b & 1 << 2) != 0, (b & 1 << 3) != 0,
+					(b & 1 << 4) != 0, (b & 1 << 5) != 0, (b & 1 << 6) != 0, (b & 1 << 7) != 0,
+					(b & 1 << 8) != 0, (b & 1 << 9) != 0, (b & 1 << 10) != 0, (b & 1 << 11) != 0,
+					(b & 1 << 12) != 0, (b & 1 << 13) != 0);
+			GamePadTriggeres triggeres = new GamePadTriggeres(
+					new GamePadTrigger(Float.intBitsToFloat(cur[PAD_TRIGGER])),
+					new GamePadTrigger(Float.intBitsToFloat(cur[PAD_TRIGGER + 1])));
+			//GamePadSticksはYを反転してデッドゾーンを適用するため、記録された値に戻るように渡す
+			GamePadSticks sticks = new GamePadSticks(
+					Float.intBitsToFloat(cur[PAD_STICK]), -Float.intBitsToFloat(cur[PAD_STICK + 1]),
+					Float.intBitsToFloat(cur[PAD_STICK + 2]), -Float.intBitsToFloat(cur[PAD_STICK + 3]));
+			gpState = new GamePadState(buttons, triggeres, sticks);
+		}
+	}
+
+	private long pack(int i) {
+		return (cur[i] & 0xFFFFFFFFL) | ((long) cur[i + 1] << 32);
+	}
+
+	//--------------------------------------------------------------------------
+	//バッファ
+	private void ensure(int n) {
+		if (size + n > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, size + n));
+		}
+	}
+
+	private InputReplay putByte(int v) {
+		ensure(1);
+		data[size++] = (byte) v;
+		return this;
+	}
+
+	private InputReplay putInt(int v) {
+		ensure(4);
+		data[size++] = (byte) (v >>> 24);
+		data[size++] = (byte) (v >>> 16);
+		data[size++] = (byte) (v >>> 8);
+		data[size++] = (byte) v;
+		return this;
+	}
+
+	private InputReplay putLong(long v) {
+		putInt((int) (v >>> 32));
+		return putInt((int) v);
+	}
+
+	private InputReplay putVarLong(long v) {
+		ensure(10);
+		while ((v & ~0x7FL) != 0) {
+			data[size++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		data[size++] = (byte) v;
+		return this;
+	}
+
+	private long getVarLong() {
+		long v = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = data[pos++];
+			v |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return v;
+	}
+
+	private static int getInt(byte[] b, int i) {
+		return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+	}
+
+	private static long zigzag(int v) {
+		return ((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL;
+	}
+
+	private static int unzigzag(long v) {
+		int i = (int) v;
+		return (i >>> 1) ^ -(i & 1);
+	}
+
+	//--------------------------------------------------------------------------
+	public boolean isRecording() {
+		return recording;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * 最後にnextで返したフレームを返します。
+	 *
+	 * @return フレーム。まだnextを呼び出していない場合は-1。
+	 */
+	public synchronized long getFrame() {
+		return frame;
+	}
+
+	/**
+	 * リプレイのフレーム数を返します。記録中の場合は記録したフレーム数です。
+	 *
+	 * @return フレーム数。
+	 */
+	public synchronized long getFrameCount() {
+		return recording ? frame + 1 : frameCount;
+	}
+
+	/**
+	 * 入力が変化したフレームの数を返します。
+	 *
+	 * @return レコードの数。
+	 */
+	public synchronized long getRecordCount() {
+		return records;
+	}
+
+	/**
+	 * データのサイズを返します。
+	 *
+	 * @return バイト数。
+	 */
+	public synchronized long getDataSize() {
+		return recording ? written + size : size;
+	}
+
+	public synchronized boolean isEnded() {
+		return closed || (!recording && frame + 1 >= frameCount);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "InputReplay{" + "recording=" + recording + ", seed=" + seed + ", frame=" + frame
+				+ ", frameCount=" + getFrameCount() + ", records=" + records + ", keyFrames=" + (recording ? "-" : keyFrameNum)
+				+ ", size=" + getDataSize() + '}';
+	}
+
+}
@@ -97,6 +97,47 @@ public final class InputState extends InputDeviceState {
 		return INSTANCE;
 	}
 
+	/**
+	 * 入力状態を更新せずにインスタンスを取得します.
+	 *
+	 * @return InputStateのインスタンスを返します。<br>
+	 */
+	static InputState instance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 現在の入力状態を検査してからインスタンスを取得します. リプレイの記録に使用します。<br>
+	 *
+	 * @return InputStateのインスタンスを返します。<br>
+	 */
+	static InputState refreshed() {
+		INSTANCE.refresh();
+		return INSTANCE;
+	}
+
+	/**
+	 * 入力状態を指定した状態に置き換えます. 現在の状態は前回の状態になります。リプレイの再生に使用します。<br>
+	 *
+	 * @param k キーボードの状態。使用しない場合は無視されます。
+	 * @param m マウスの状態。使用しない場合は無視されます。
+	 * @param g ゲームパッドの状態。使用しない場合は無視されます。
+	 */
+	void set(KeyState k, MouseState m, GamePadState g) {
+		if (PlayerConstants.getInstance().isUsingMouse()) {
+			prevMouseState = mouseState;
+			mouseState = m;
+		}
+		if (PlayerConstants.getInstance().isUsingKeyboard()) {
+			prevKeyState = keyState;
+			keyState = k;
+		}
+		if (PlayerConstants.getInstance().isUsingGamePad()) {
+			prevGpState = gpState;
+			gpState = g;
+		}
+	}
+
 	/**
 	 * 入力状態を更新します.
 	 */
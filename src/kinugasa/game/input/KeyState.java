@@ -66,6 +66,10 @@ public class KeyState extends InputDeviceState {
 		return keySet.size() <= index ? false : keySet.get(index);
 	}
 
+	BitSet getKeySet() {
+		return keySet;
+	}
+
 	@Override
 	public String toString() {
 		return "KeyState{" + "keySet=" + keySet + '}';
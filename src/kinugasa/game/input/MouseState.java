@@ -220,6 +220,11 @@ public final class MouseState extends InputDeviceState {
 		return (Point) draggedLocation.clone();
 	}
 
+	//ドラッグしていない場合はnull
+	Point draggedLocation() {
+		return draggedLocation;
+	}
+
 	@Override
 	public String toString() {
 		return "MouseState{" + "LEFT_BUTTON=" + LEFT_BUTTON + ", RIGHT_BUTTON=" + RIGHT_BUTTON
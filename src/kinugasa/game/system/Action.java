@@ -537,4 +537,17 @@ public class Action implements Nameable, Comparable<Action>, Cloneable {
 		}
 	}
 
+	/**
+	 * 可変な内部構造まで複製したコピーを作成します。clone()は浅いコピーのため、キャッシュした定義から払い出す際はこちらを使用します。
+	 * ActionEventは読込後に変更されないため、リストのみを複製します。
+	 *
+	 * @return 定義と状態を共有しないコピー。
+	 */
+	Action deepCopy() {
+		Action r = clone();
+		r.mainEvents = mainEvents == null ? null : new ArrayList<>(mainEvents);
+		r.userEvents = userEvents == null ? null : new ArrayList<>(userEvents);
+		return r;
+	}
+
 }
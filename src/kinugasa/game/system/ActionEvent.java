@@ -439,7 +439,7 @@ public class ActionEvent implements Nameable, Comparable<ActionEvent> {
 			ar.setPerEvent(new ActionResult.PerEvent(this, ActionResultSummary.失敗＿不発, Map.of()));
 			return;
 		}
-		if (!Random.percent(p)) {
+		if (!Random.battle().percent(p)) {
 			if (isUserEvent) {
 				ar.addUserEventResult(new ActionResult.UserEventResult(this, ActionResultSummary.失敗＿不発, tgt));
 			} else {
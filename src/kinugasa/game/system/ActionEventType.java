@@ -37,7 +37,7 @@ import javax.swing.SpinnerNumberModel;
 import kinugasa.game.GameOption;
 import kinugasa.game.I18N;
 import kinugasa.game.PlayerConstants;
-import kinugasa.game.field4.FieldEventParser;
+import kinugasa.game.field4.FieldEventProgramCache;
 import kinugasa.game.field4.FieldEventSystem;
 import kinugasa.game.field4.FieldMap;
 import kinugasa.game.field4.FieldMapStorage;
@@ -838,7 +838,7 @@ public enum ActionEventType {
 				ActionResult res, boolean isUserEvent
 		) {
 			//p判定は行われている。
-			if (Random.percent(tgt.getStatus().getEffectedConditionRegist().get(e.getTgtConditionKey()))) {
+			if (Random.battle().percent(tgt.getStatus().getEffectedConditionRegist().get(e.getTgtConditionKey()))) {
 				String msg = tgt.getStatus().addCondition(e.getTgtConditionKey(), e.getCndTime());
 				addResult(res, ActionResultSummary.成功, user, tgt, e, msg, isUserEvent);
 				return;
@@ -1665,7 +1665,7 @@ public enum ActionEventType {
 			int len = Integer.MAX_VALUE;
 			Actor newTgt = null;
 			for (var ac : newTgts) {
-				if (ac.getSprite().getCenter().distance(tgt.getSprite().getCenter()) < len) {
+				if (ac.getSprite().getCenterDistance(tgt.getSprite()) < len) {
 					newTgt = ac;
 				}
 			}
@@ -1738,7 +1738,7 @@ public enum ActionEventType {
 			int len = Integer.MAX_VALUE;
 			Actor newTgt = null;
 			for (var ac : newTgts) {
-				if (ac.getSprite().getCenter().distance(tgt.getSprite().getCenter()) < len) {
+				if (ac.getSprite().getCenterDistance(tgt.getSprite()) < len) {
 					newTgt = ac;
 				}
 			}
@@ -2169,7 +2169,7 @@ public enum ActionEventType {
 			//中心位置の取得
 			Point2D.Float center = BattleSystem.getInstance().getBattleFieldSystem().getBattleFieldAllArea().getCenter();
 			do {
-				Point2D.Float p = Random.randomLocation(center, e.getValue());
+				Point2D.Float p = Random.battle().randomLocation(center, e.getValue());
 				if (!BattleSystem.getInstance().getBattleFieldSystem().hitObstacle(p)) {
 					if (BattleSystem.getInstance().getBattleFieldSystem().inArea(p)) {
 						tgt.getSprite().setLocationByCenter(p);
@@ -2221,7 +2221,7 @@ public enum ActionEventType {
 		) {
 			Point2D.Float center = user.getSprite().getCenter();
 			do {
-				Point2D.Float p = Random.randomLocation(center, e.getValue());
+				Point2D.Float p = Random.battle().randomLocation(center, e.getValue());
 				if (!BattleSystem.getInstance().getBattleFieldSystem().hitObstacle(p)) {
 					if (BattleSystem.getInstance().getBattleFieldSystem().inArea(p)) {
 						tgt.getSprite().setLocationByCenter(p);
@@ -2271,11 +2271,11 @@ public enum ActionEventType {
 			Point2D.Float p = (Point2D.Float) tgt.getSprite().getCenter().clone();
 			if (tgt instanceof Enemy) {
 				//X = 行動力
-				p.x = Random.randomFloat(tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue());
+				p.x = Random.battle().randomFloat(tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue());
 			} else {
 				//X = width - 行動力
 				p.x = BattleSystem.getInstance().getBattleFieldSystem().getBattleFieldAllArea().getWidth()
-						- Random.randomFloat(tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue());
+						- Random.battle().randomFloat(tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue());
 			}
 			tgt.getSprite().setLocationByCenter(p);
 			String msg = I18N.get(GameSystemI18NKeys.Xは転送された, tgt.getVisibleName());
@@ -2325,7 +2325,7 @@ public enum ActionEventType {
 			float dist = Float.MAX_VALUE;
 			Actor newTgt = null;
 			for (Actor ac : list) {
-				float d = (float) tgt.getSprite().getCenter().distance(ac.getSprite().getCenter());
+				float d = (float) tgt.getSprite().getCenterDistance(ac.getSprite());
 				if (d < dist) {
 					dist = d;
 					newTgt = ac;
@@ -2334,7 +2334,7 @@ public enum ActionEventType {
 			assert newTgt != null : "tgt is null : " + this;
 			do {
 				Point2D.Float center = tgt.getSprite().getCenter();
-				Point2D.Float p = Random.randomLocation(center, tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue() / 2);
+				Point2D.Float p = Random.battle().randomLocation(center, tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue() / 2);
 				if (!BattleSystem.getInstance().getBattleFieldSystem().hitObstacle(p)) {
 					if (BattleSystem.getInstance().getBattleFieldSystem().inArea(p)) {
 						tgt.getSprite().setLocationByCenter(p);
@@ -2383,7 +2383,7 @@ public enum ActionEventType {
 		) {
 			do {
 				Point2D.Float center = tgt.getSprite().getCenter();
-				Point2D.Float p = Random.randomLocation(center, tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue() / 2);
+				Point2D.Float p = Random.battle().randomLocation(center, tgt.getStatus().getEffectedStatus().get(StatusKey.行動力).getValue() / 2);
 				if (!BattleSystem.getInstance().getBattleFieldSystem().hitObstacle(p)) {
 					if (BattleSystem.getInstance().getBattleFieldSystem().inArea(p)) {
 						user.getSprite().setLocationByCenter(center);
@@ -2488,7 +2488,7 @@ public enum ActionEventType {
 				Actor tgt, ActionEvent e,
 				ActionResult res, boolean isUserEvent
 		) {
-			String id = Random.randomChoice(StringUtil.safeSplit(e.getTgtID(), ","));
+			String id = Random.battle().randomChoice(StringUtil.safeSplit(e.getTgtID(), ","));
 			if (user.getStatus().getItemBag().canAdd() || e.isNoLimit()) {
 				user.getStatus().getItemBag().add(ActionStorage.getInstance().itemOf(id));
 				String msg = I18N.get(GameSystemI18NKeys.XはXを入手した);
@@ -3046,7 +3046,7 @@ public enum ActionEventType {
 				value = -value;
 			}
 			value = file.getName().hashCode() % 2 == 0 ? -value : +value;
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3145,7 +3145,7 @@ public enum ActionEventType {
 			} catch (IOException ex) {
 				value = -1;
 			}
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3230,7 +3230,7 @@ public enum ActionEventType {
 			if (value > 0) {
 				value = -value;
 			}
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3315,7 +3315,7 @@ public enum ActionEventType {
 			if (value > 0) {
 				value = -value;
 			}
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3392,7 +3392,7 @@ public enum ActionEventType {
 		) {
 			float value = -(128 - BattleSystem.getInstance().getTurn());
 
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3468,7 +3468,7 @@ public enum ActionEventType {
 				ActionResult res, boolean isUserEvent
 		) {
 			float value = -BattleSystem.getInstance().getTurn();
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3547,7 +3547,7 @@ public enum ActionEventType {
 		) {
 			float value = Runtime.getRuntime().availableProcessors() * e.getValue();
 			value = -value;
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3643,7 +3643,7 @@ public enum ActionEventType {
 					val -= 1;
 				}
 			}
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3778,7 +3778,7 @@ public enum ActionEventType {
 				if (v < 0) {
 					v = Math.abs(v);
 				}
-				int val = Random.randomAbsInt(v) + 1;
+				int val = Random.battle().randomAbsInt(v) + 1;
 				if (v > 0) {
 					v = -v;
 				}
@@ -3887,7 +3887,7 @@ public enum ActionEventType {
 		) {
 			float val = e.getValue() * (1 - user.getStatus().getEffectedStatus().get(StatusKey.体力).get割合());
 
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -3968,7 +3968,7 @@ public enum ActionEventType {
 		) {
 			float val = e.getValue() * (1 - user.getStatus().getEffectedStatus().get(StatusKey.魔力).get割合());
 
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -4049,7 +4049,7 @@ public enum ActionEventType {
 		) {
 			float val = e.getValue() * (1 - user.getStatus().getEffectedStatus().get(StatusKey.正気度).get割合());
 
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -4130,7 +4130,7 @@ public enum ActionEventType {
 		) {
 			float val = e.getValue() * (user.getStatus().getEffectedStatus().get(StatusKey.体力).get割合());
 
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -4211,7 +4211,7 @@ public enum ActionEventType {
 		) {
 			float val = e.getValue() * (user.getStatus().getEffectedStatus().get(StatusKey.魔力).get割合());
 
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -4291,7 +4291,7 @@ public enum ActionEventType {
 		) {
 			float val = e.getValue() * (user.getStatus().getEffectedStatus().get(StatusKey.正気度).get割合());
 
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -4487,10 +4487,10 @@ public enum ActionEventType {
 				Actor tgt, ActionEvent e,
 				ActionResult res, boolean isUserEvent
 		) {
-			float val = Random.d100(1);
-			AttributeKey attr = Random.randomChoice(AttributeKey.values());
+			float val = Random.battle().dice(1, 100);
+			AttributeKey attr = Random.battle().randomChoice(AttributeKey.values());
 			val = -val;
-			if (GameSystem.getInstance().getMode() == GameMode.FIELD) {
+			if (isField(user)) {
 				throw new GameSystemException("damage calc is cant exec in field : " + this);
 			}
 			//攻撃タイプ調整
@@ -4856,7 +4856,7 @@ public enum ActionEventType {
 		) {
 			switch (e.getTgtConditionKey()) {
 				case 解脱: {
-					if (!Random.percent(tgt.getStatus().getEffectedConditionRegist().get(ConditionKey.解脱))) {
+					if (!Random.battle().percent(tgt.getStatus().getEffectedConditionRegist().get(ConditionKey.解脱))) {
 						String msg = I18N.get(GameSystemI18NKeys.XはXしなかった, tgt.getVisibleName(), ConditionKey.解脱.getVisibleName());
 						addResult(res, ActionResultSummary.失敗＿不発, user, tgt, e, msg, isUserEvent);
 						return;
@@ -4866,7 +4866,7 @@ public enum ActionEventType {
 					break;
 				}
 				case 損壊: {
-					if (!Random.percent(tgt.getStatus().getEffectedConditionRegist().get(ConditionKey.損壊))) {
+					if (!Random.battle().percent(tgt.getStatus().getEffectedConditionRegist().get(ConditionKey.損壊))) {
 						String msg = I18N.get(GameSystemI18NKeys.XはXしなかった, tgt.getVisibleName(), ConditionKey.損壊.getVisibleName());
 						addResult(res, ActionResultSummary.失敗＿不発, user, tgt, e, msg, isUserEvent);
 						return;
@@ -4876,7 +4876,7 @@ public enum ActionEventType {
 					break;
 				}
 				case 気絶: {
-					if (!Random.percent(tgt.getStatus().getEffectedConditionRegist().get(ConditionKey.気絶))) {
+					if (!Random.battle().percent(tgt.getStatus().getEffectedConditionRegist().get(ConditionKey.気絶))) {
 						String msg = I18N.get(GameSystemI18NKeys.XはXしなかった, tgt.getVisibleName(), ConditionKey.気絶.getVisibleName());
 						addResult(res, ActionResultSummary.失敗＿不発, user, tgt, e, msg, isUserEvent);
 						return;
@@ -5326,7 +5326,7 @@ public enum ActionEventType {
 				ActionResult res, boolean isUserEvent
 		) {
 			Actor ac = GameSystem.getInstance().getPCbyID(e.getTgtID());
-			int val = Random.randomAbsInt((int) e.getValue()) + 1;
+			int val = Random.battle().randomAbsInt((int) e.getValue()) + 1;
 			val = -val;
 			ac.getStatus().getBaseStatus().get(StatusKey.正気度).add(val);
 			String msg = I18N.get(GameSystemI18NKeys.XはXの正気度ダメージを受けた, ac.getVisibleName(), Math.abs(val));
@@ -5445,7 +5445,7 @@ public enum ActionEventType {
 				addResult(res, ActionResultSummary.失敗＿不発, user, tgt, e, msg, isUserEvent);
 				return;
 			}
-			FieldEventSystem.getInstance().setEvent(new LinkedList<>(FieldEventParser.parse(a.getId(), e.getTgtID())));
+			FieldEventSystem.getInstance().setEvent(FieldEventProgramCache.getInstance().get(e.getTgtID()), a.getId());
 			String msg = I18N.get(GameSystemI18NKeys.脚本が実行された);
 			addResult(res, ActionResultSummary.成功, user, tgt, e, msg, isUserEvent);
 		}
@@ -5834,6 +5834,11 @@ public enum ActionEventType {
 
 	public abstract void pack(ActionEvent e, Action a) throws GameSystemException;
 
+	//シミュレーション中はフィールドのモードに関係なく戦闘として扱う
+	private static boolean isField(Actor user) {
+		return !user.getStatus().getContext().isHeadless() && GameSystem.getInstance().getMode() == GameMode.FIELD;
+	}
+
 	public abstract void exec(Actor user, Action a, Actor tgt, ActionEvent e, ActionResult res, boolean isUserEvent);
 
 	private static void addResult(ActionResult res, ActionResultSummary s, Actor user, Actor tgt, ActionEvent e, String msg, boolean isUserEvent) {
@@ -5854,19 +5859,21 @@ public enum ActionEventType {
 		r.msgI18Nd = msg;
 		if (s.is成功()) {
 			//ERへのアニメーションなどのセット
-			if (e.getTgtAnimation() != null) {
+			//シミュレーション中は表示しないため省略する
+			boolean headless = user.getStatus().getContext().isHeadless();
+			if (!headless && e.getTgtAnimation() != null) {
 				r.tgtAnimation = e.getTgtAnimation().clone();
 				r.tgtAnimation.getAnimation().setImages(ImageUtil.resizeAll(r.tgtAnimation.getAnimation().getImages(), GameOption.getInstance().getDrawSize()));
 				r.tgtAnimation.setLocationByCenter(user.getSprite().getCenter());
 				r.tgtAnimation.getAnimation().setRepeat(false);
 			}
-			if (e.getOtherAnimation() != null) {
+			if (!headless && e.getOtherAnimation() != null) {
 				r.otherAnimation = e.getOtherAnimation().clone();
 				r.otherAnimation.getAnimation().setImages(ImageUtil.resizeAll(r.otherAnimation.getAnimation().getImages(), GameOption.getInstance().getDrawSize()));
 				r.otherAnimation.setLocation(0, 0);
 				r.otherAnimation.getAnimation().setRepeat(false);
 			}
-			if (e.getUserAnimation() != null) {
+			if (!headless && e.getUserAnimation() != null) {
 				r.userAnimation = e.getUserAnimation().clone();
 				r.userAnimation.getAnimation().setImages(ImageUtil.resizeAll(r.userAnimation.getAnimation().getImages(), GameOption.getInstance().getDrawSize()));
 				r.userAnimation.setLocation(user.getSprite().getCenter());
@@ -5882,7 +5889,7 @@ public enum ActionEventType {
 			if (tgtVs.contains(StatusKey.正気度)) {
 				r.tgtDamageSAN = (int) tgtVs.get(StatusKey.正気度).getValue();
 			}
-			if (e.getSuccessSound() != null) {
+			if (!headless && e.getSuccessSound() != null) {
 				e.getSuccessSound().load().stopAndPlay();
 			}
 		}
@@ -5899,19 +5906,21 @@ public enum ActionEventType {
 		r.msgI18Nd = msg;
 		if (s.is成功()) {
 			//ERへのアニメーションなどのセット
-			if (e.getTgtAnimation() != null) {
+			//シミュレーション中は表示しないため省略する
+			boolean headless = tgt.getStatus().getContext().isHeadless();
+			if (!headless && e.getTgtAnimation() != null) {
 				r.tgtAnimation = e.getTgtAnimation().clone();
 				r.tgtAnimation.getAnimation().setImages(ImageUtil.resizeAll(r.tgtAnimation.getAnimation().getImages(), GameOption.getInstance().getDrawSize()));
 				r.tgtAnimation.setLocationByCenter(tgt.getSprite().getCenter());
 				r.tgtAnimation.getAnimation().setRepeat(false);
 			}
-			if (e.getOtherAnimation() != null) {
+			if (!headless && e.getOtherAnimation() != null) {
 				r.otherAnimation = e.getOtherAnimation().clone();
 				r.otherAnimation.getAnimation().setImages(ImageUtil.resizeAll(r.otherAnimation.getAnimation().getImages(), GameOption.getInstance().getDrawSize()));
 				r.otherAnimation.setLocation(0, 0);
 				r.otherAnimation.getAnimation().setRepeat(false);
 			}
-			if (e.getUserAnimation() != null) {
+			if (!headless && e.getUserAnimation() != null) {
 				r.userAnimation = e.getUserAnimation().clone();
 				r.userAnimation.getAnimation().setImages(ImageUtil.resizeAll(r.userAnimation.getAnimation().getImages(), GameOption.getInstance().getDrawSize()));
 				r.userAnimation.setLocationByCenter(user.getSprite().getCenter());
@@ -5927,7 +5936,7 @@ public enum ActionEventType {
 			if (tgtVs.contains(StatusKey.正気度)) {
 				r.tgtDamageSAN = (int) tgtVs.get(StatusKey.正気度).getValue();
 			}
-			if (e.getSuccessSound() != null) {
+			if (!headless && e.getSuccessSound() != null) {
 				e.getSuccessSound().load().stopAndPlay();
 			}
 		}
@@ -20,13 +20,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import kinugasa.game.GameLog;
 import kinugasa.game.I18N;
 import kinugasa.game.NewInstance;
 import kinugasa.game.NotNull;
+import kinugasa.game.Nullable;
 import kinugasa.graphics.Animation;
 import kinugasa.graphics.SpriteSheet;
 import kinugasa.object.AnimationSprite;
@@ -50,6 +55,8 @@ public class ActionStorage extends DBStorage<Action> {
 	private static final ActionStorage INSTANCE = new ActionStorage();
 
 	private ActionStorage() {
+		//ウインドウやAIが毎フレーム一覧を要求するため、読み込んだアクションをキャッシュする
+		setCacheSize(1024);
 	}
 	public final Item 両手持ち
 			= new Item("TWO_HAND", I18N.get(GameSystemI18NKeys.両手持ち))
@@ -96,18 +103,25 @@ public class ActionStorage extends DBStorage<Action> {
 	}
 
 	public InstanceType getInstanceType(String id) {
-		String sql = "select id from action where id = '" + id + "'";
-		KResultSet r = DBConnection.getInstance().execDirect(sql);
-		if (!r.isEmpty()) {
-			return InstanceType.ACTION;
+		//IDの一覧や一括読み込みで判明している場合はDBを読まない
+		synchronized (instanceTypes) {
+			InstanceType t = instanceTypes.get(id);
+			if (t != null) {
+				return t;
+			}
 		}
-		sql = "select id from item where id = '" + id + "'";
-		r = DBConnection.getInstance().execDirect(sql);
-		if (!r.isEmpty()) {
-			return InstanceType.ITEM;
+		InstanceType t;
+		if (!DBConnection.getInstance().execQuery("select id from action where id = ?", id).isEmpty()) {
+			t = InstanceType.ACTION;
+		} else if (!DBConnection.getInstance().execQuery("select id from item where id = ?", id).isEmpty()) {
+			t = InstanceType.ITEM;
+		} else {
+			throw new NameNotFoundException("action/item is not found : " + id);
 		}
-		throw new NameNotFoundException("action/item is not found : " + id);
-
+		synchronized (instanceTypes) {
+			instanceTypes.put(id, t);
+		}
+		return t;
 	}
 
 	public void checkAll() throws GameSystemException {
@@ -124,169 +138,345 @@ public class ActionStorage extends DBStorage<Action> {
 		GameLog.print("----------ACTION_CHECK end --------------------");
 	}
 
+	private static final String ACTION_COLUMNS
+			= "ID,VISIBLENAME,DESCRIPTION,ACTIONTYPE,FIELD,BATTLE,AREA,CASTTIME,TGTTYPE,TGTDEAD,SUMMARY";
+	private static final String ITEM_COLUMNS = "id,visibleName,description,"
+			+ "field,battle,area,"
+			+ "tgtType,tgtDead,price,"
+			+ "eqipSlot,atkCount,weaponType,"
+			+ "styleName,enchantName,DCS,"
+			+ "upgradeNum,summary,eqipTermCSV,"
+			+ "cndRegistCSV,attrInCSV,attrOutCSV,"
+			+ "statusCSV,materialCSV,canSale,"
+			+ "unEqip";
+	private static final String EVENT_COLUMNS = "ACTIONID,EVENTID,SORT,EVENTTYPE,STATUSKEYNAME,"
+			+ "P,CONDITIONKEY,CNDTIME,ATKATTR,ATTRIN,ATTROUT,CNDREGIST,TGTID,NOLIMIT,VAL,CALCMODE,SOUNDID,TRIGGEROPTION,WAITTIME,userAnimationId,tgtAnimationId,otherAnimationId";
+	//IDごとのテーブルの種類
+	private final Map<String, InstanceType> instanceTypes = new HashMap<>();
+	private boolean parallelLoad = false;
+	private LoadReport lastLoadReport;
+
+	/**
+	 * 一括読み込みの各段階の所要時間です.
+	 */
+	public static final class LoadReport {
+
+		private final int actions;
+		private final int items;
+		private final int events;
+		private final boolean parallel;
+		private final long queryTime;
+		private final long eventTime;
+		private final long buildTime;
+
+		private LoadReport(int actions, int items, int events, boolean parallel, long queryTime, long eventTime, long buildTime) {
+			this.actions = actions;
+			this.items = items;
+			this.events = events;
+			this.parallel = parallel;
+			this.queryTime = queryTime;
+			this.eventTime = eventTime;
+			this.buildTime = buildTime;
+		}
+
+		public int getActions() {
+			return actions;
+		}
+
+		public int getItems() {
+			return items;
+		}
+
+		public int getEvents() {
+			return events;
+		}
+
+		public boolean isParallel() {
+			return parallel;
+		}
+
+		/**
+		 * SQLの実行にかかった時間を返します。
+		 *
+		 * @return 時間（ナノ秒）。
+		 */
+		public long getQueryTime() {
+			return queryTime;
+		}
+
+		/**
+		 * イベントと発動条件の構築にかかった時間を返します。
+		 *
+		 * @return 時間（ナノ秒）。
+		 */
+		public long getEventTime() {
+			return eventTime;
+		}
+
+		/**
+		 * アクションとアイテムの構築とpackにかかった時間を返します。
+		 *
+		 * @return 時間（ナノ秒）。
+		 */
+		public long getBuildTime() {
+			return buildTime;
+		}
+
+		@Override
+		public String toString() {
+			return "LoadReport{" + "actions=" + actions + ", items=" + items + ", events=" + events
+					+ ", parallel=" + parallel + ", query=" + queryTime / 1000_000 + "ms"
+					+ ", event=" + eventTime / 1000_000 + "ms, build=" + buildTime / 1000_000 + "ms}";
+		}
+
+	}
+
+	/**
+	 * selectAllでアクションとアイテムの構築を並列に行うかどうかを設定します。
+	 *
+	 * @param parallelLoad 並列に構築する場合はtrue。
+	 */
+	public void setParallelLoad(boolean parallelLoad) {
+		this.parallelLoad = parallelLoad;
+	}
+
+	public boolean isParallelLoad() {
+		return parallelLoad;
+	}
+
+	/**
+	 * 最後の一括読み込みの所要時間を返します。
+	 *
+	 * @return 所要時間。一括読み込みをしていない場合はnull。
+	 */
+	@Nullable
+	public LoadReport getLastLoadReport() {
+		return lastLoadReport;
+	}
+
+	/**
+	 * すべてのアクションとアイテムを一括で読み込み、キャッシュに格納します。起動時に呼び出すことを想定しています。
+	 *
+	 * @param parallel アクションとアイテムの構築を並列に行う場合はtrue。
+	 * @return 各段階の所要時間。
+	 * @throws KSQLException DBの読み込みに失敗した場合に投げられます。
+	 */
+	public LoadReport preload(boolean parallel) throws KSQLException {
+		if (DBConnection.getInstance().isUsing()) {
+			fillCache(loadAll(parallel, true, true));
+		}
+		return lastLoadReport;
+	}
+
 	@Override
 	protected Action select(String id) throws KSQLException {
 		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select ID,VISIBLENAME,DESCRIPTION,ACTIONTYPE,FIELD,BATTLE,AREA,CASTTIME,TGTTYPE,TGTDEAD,SUMMARY"
-					+ " from action"
-					+ " where id = '" + id + "';";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
+			KResultSet r = DBConnection.getInstance().execQuery("select " + ACTION_COLUMNS + " from action where id = ?", id);
 			if (r.isEmpty()) {
-				sql = "select "
-						+ "id,visibleName,description,"
-						+ "field,battle,area,"
-						+ "tgtType,tgtDead,price,"
-						+ "eqipSlot,atkCount,weaponType,"
-						+ "styleName,enchantName,DCS,"
-						+ "upgradeNum,summary,eqipTermCSV,"
-						+ "cndRegistCSV,attrInCSV,attrOutCSV,"
-						+ "statusCSV,materialCSV,canSale,"
-						+ "unEqip"
-						+ " from item"
-						+ " where id = '" + id + "';";
-				r = DBConnection.getInstance().execDirect(sql);
+				r = DBConnection.getInstance().execQuery("select " + ITEM_COLUMNS + " from item where id = ?", id);
 				if (r.isEmpty()) {
 					throw new NameNotFoundException("action / item not found : " + id);
 				}
 				//item
-				for (List<DBValue> l : r) {
-					Item i = new Item(id, l.get(1).get());
-					i.setDesc(l.get(2).get());
-					i.setField(l.get(3).asBoolean());
-					i.setBattle(l.get(4).asBoolean());
-					i.setArea(l.get(5).asInt());
-					i.setTgtType(l.get(6).of(Action.ターゲットモード.class));
-					i.set死亡者ターゲティング(l.get(7).orNull(Action.死亡者ターゲティング.class));
-					i.setPrice(l.get(8).asInt());
-					i.setSlot(l.get(9).orNull(EqipSlot.class));
-					i.setAtkCount(l.get(10).asInt());
-					i.setWeaponType(l.get(11).of(WeaponType.class));
-					i.setStyle(l.get(12).orNull(ItemStyle.class));
-					i.setEnchant(l.get(13).orNull(ItemEnchant.class));
-					i.setDcs(l.get(14).orNull(StatusKey.class));
-					i.setCurrentUpgradeNum(l.get(15).asInt());
-					i.setSummary(l.get(16).get());
-					//eqipTErm
-					i.setTerms(getEqipTerms(l.get(17).get()));
-					//cndRegist
-					i.setConditionRegist(getCndRegist(l.get(18).get()));
-					//attrIn
-					i.setAttrIn(getAttrIn(l.get(19).get()));
-					//attrOut
-					i.setAttrOut(getAttrOut(l.get(20).get()));
-					//Status
-					i.setStatus(getStatus(l.get(21).get()));
-					//mateirla
-					i.setMaterial(getMaterial(l.get(22).get()));
-					//
-					i.setCanSale(l.get(23).asBoolean());
-					i.setCanUnEqip(l.get(24).asBoolean());
-					//event
-					i.setMainEvents(getMainEvents(id));
-					i.setUserEvents(getUserEvents(id));
-					//pack
-					return i.pack();
-				}
+				return createItem(r.row(0), getMainEvents(id), getUserEvents(id), MaterialStorage.getInstance()::get).pack();
 			}
 			//action
-			for (List<DBValue> l : r) {
-				Action a = new Action(id, l.get(1).get(), l.get(3).of(ActionType.class));
-				a.setDesc(l.get(2).get());
-				a.setField(l.get(4).asBoolean());
-				a.setBattle(l.get(5).asBoolean());
-				a.setArea(l.get(6).asInt());
-				a.setCastTime(l.get(7).asInt());
-				a.setTgtType(l.get(8).orNull(Action.ターゲットモード.class));
-				a.set死亡者ターゲティング(l.get(9).orNull(Action.死亡者ターゲティング.class));
-				a.setSummary(l.get(10).get());
-				//event
-				a.setMainEvents(getMainEvents(id));
-				a.setUserEvents(getUserEvents(id));
-				//pack
-				return a.pack();
-			}
+			return createAction(r.row(0), getMainEvents(id), getUserEvents(id)).pack();
 		}
 		throw new NameNotFoundException("action / item not found : " + id);
 	}
 
 	@Override
 	protected List<Action> selectAll() throws KSQLException {
-		List<Action> res = new ArrayList<>();
 		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select ID,VISIBLENAME,DESCRIPTION,ACTIONTYPE,FIELD,BATTLE,AREA,CASTTIME,TGTTYPE,TGTDEAD,SUMMARY"
-					+ " from action;";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
-			//action
-			for (List<DBValue> l : r) {
-				Action a = new Action(l.get(0).get(), l.get(1).get(), l.get(3).of(ActionType.class));
-				a.setDesc(l.get(2).get());
-				a.setField(l.get(4).asBoolean());
-				a.setBattle(l.get(5).asBoolean());
-				a.setArea(l.get(6).asInt());
-				a.setCastTime(l.get(7).asInt());
-				a.setTgtType(l.get(8).orNull(Action.ターゲットモード.class));
-				a.set死亡者ターゲティング(l.get(9).orNull(Action.死亡者ターゲティング.class));
-				a.setSummary(l.get(10).get());
-				//event
-				a.setMainEvents(getMainEvents(l.get(0).get()));
-				a.setUserEvents(getUserEvents(l.get(0).get()));
-				//pack
-				res.add(a.pack());
+			return loadAll(parallelLoad, true, true);
+		}
+		return new ArrayList<>();
+	}
+
+	/**
+	 * アクション、アイテム、イベント、発動条件をそれぞれ1回のSQLで読み込み、メモリ上で組み立てます。
+	 */
+	private List<Action> loadAll(boolean parallel, boolean loadAction, boolean loadItem) throws KSQLException {
+		DBConnection db = DBConnection.getInstance();
+		//QUERY
+		long start = System.nanoTime();
+		List<List<DBValue>> actions = loadAction
+				? db.execDirect("select " + ACTION_COLUMNS + " from action").getData()
+				: Collections.emptyList();
+		List<List<DBValue>> items = loadItem
+				? db.execDirect("select " + ITEM_COLUMNS + " from item").getData()
+				: Collections.emptyList();
+		KResultSet mainEvents = db.execDirect("select " + EVENT_COLUMNS
+				+ " from action_mainEvent me left join actionEvent e on me.eventId = e.id");
+		KResultSet userEvents = db.execDirect("select " + EVENT_COLUMNS
+				+ " from action_userEvent ue left join actionEvent e on ue.eventId = e.id");
+		Map<String, List<ActionEvent.Actor起動条件>> userTerms = groupActor起動条件(db.execDirect("select eventid,id,typ,tgtName,Val from EventUserTerm"));
+		Map<String, List<ActionEvent.Actor起動条件>> tgtTerms = groupActor起動条件(db.execDirect("select eventid,id,typ,tgtName,Val from EventTgtTerm"));
+		Map<String, Material> materials = new HashMap<>();
+		if (loadItem) {
+			for (Material m : MaterialStorage.getInstance().asList()) {
+				materials.put(m.getName(), m);
 			}
-			sql = "select "
-					+ "id,visibleName,description,"
-					+ "field,battle,area,"
-					+ "tgtType,tgtDead,price,"
-					+ "eqipSlot,atkCount,weaponType,"
-					+ "styleName,enchantName,DCS,"
-					+ "upgradeNum,summary,eqipTermCSV,"
-					+ "cndRegistCSV,attrInCSV,attrOutCSV,"
-					+ "statusCSV,materialCSV,canSale,"
-					+ "unEqip"
-					+ " from item;";
-			r = DBConnection.getInstance().execDirect(sql);
-			//item
-			for (List<DBValue> l : r) {
-				Item i = new Item(l.get(0).get(), l.get(1).get());
-				i.setDesc(l.get(2).get());
-				i.setField(l.get(3).asBoolean());
-				i.setBattle(l.get(4).asBoolean());
-				i.setArea(l.get(5).asInt());
-				i.setTgtType(l.get(6).of(Action.ターゲットモード.class));
-				i.set死亡者ターゲティング(l.get(7).orNull(Action.死亡者ターゲティング.class));
-				i.setPrice(l.get(8).asInt());
-				i.setSlot(l.get(9).orNull(EqipSlot.class));
-				i.setAtkCount(l.get(10).asInt());
-				i.setWeaponType(l.get(11).orNull(WeaponType.class));
-				i.setStyle(l.get(12).orNull(ItemStyle.class));
-				i.setEnchant(l.get(13).orNull(ItemEnchant.class));
-				i.setDcs(l.get(14).orNull(StatusKey.class));
-				i.setCurrentUpgradeNum(l.get(15).asInt());
-				i.setSummary(l.get(16).get());
-				//eqipTErm
-				i.setTerms(getEqipTerms(l.get(17).get()));
-				//cndRegist
-				i.setConditionRegist(getCndRegist(l.get(18).get()));
-				//attrIn
-				i.setAttrIn(getAttrIn(l.get(19).get()));
-				//attrOut
-				i.setAttrOut(getAttrOut(l.get(20).get()));
-				//Status
-				i.setStatus(getStatus(l.get(21).get()));
-				//mateirla
-				i.setMaterial(getMaterial(l.get(22).get()));
-				//
-				i.setCanSale(l.get(23).asBoolean());
-				i.setCanUnEqip(l.get(24).asBoolean());
-				//event
-				i.setMainEvents(getMainEvents(l.get(0).get()));
-				i.setUserEvents(getUserEvents(l.get(0).get()));
-				res.add(i.pack());
+		}
+		long queryEnd = System.nanoTime();
+
+		//EVENT
+		//音とアニメーションの読み込みを伴うため、イベントは呼び出し元のスレッドで作成する
+		//一方のテーブルだけを読む場合は、そのテーブルのIDのイベントだけを作成する
+		Set<String> ids = new HashSet<>();
+		for (List<DBValue> l : actions) {
+			ids.add(l.get(0).get());
+		}
+		for (List<DBValue> l : items) {
+			ids.add(l.get(0).get());
+		}
+		Map<String, List<ActionEvent>> main = new HashMap<>();
+		Map<String, List<ActionEvent>> user = new HashMap<>();
+		int eventNum = 0;
+		for (List<DBValue> l : mainEvents) {
+			if (!ids.contains(l.get(0).get())) {
+				continue;
+			}
+			eventNum++;
+			main.computeIfAbsent(l.get(0).get(), k -> new ArrayList<>()).add(createMainEvent(l,
+					new ArrayList<>(userTerms.getOrDefault(l.get(1).get(), Collections.emptyList())),
+					new ArrayList<>(tgtTerms.getOrDefault(l.get(1).get(), Collections.emptyList()))));
+		}
+		for (List<DBValue> l : userEvents) {
+			if (!ids.contains(l.get(0).get())) {
+				continue;
+			}
+			eventNum++;
+			user.computeIfAbsent(l.get(0).get(), k -> new ArrayList<>()).add(createEvent(l,
+					new ArrayList<>(userTerms.getOrDefault(l.get(1).get(), Collections.emptyList())),
+					new ArrayList<>(tgtTerms.getOrDefault(l.get(1).get(), Collections.emptyList()))));
+		}
+		long eventEnd = System.nanoTime();
+
+		//BUILD
+		List<Supplier<Action>> tasks = new ArrayList<>(actions.size() + items.size());
+		for (List<DBValue> l : actions) {
+			String id = l.get(0).get();
+			tasks.add(() -> createAction(l, events(main, id), events(user, id)).pack());
+		}
+		for (List<DBValue> l : items) {
+			String id = l.get(0).get();
+			tasks.add(() -> createItem(l, events(main, id), events(user, id), k -> {
+				Material m = materials.get(k);
+				if (m == null) {
+					throw new NameNotFoundException("Material key is not found :" + k);
+				}
+				return m;
+			}).pack());
+		}
+		List<Action> res = parallel
+				? tasks.parallelStream().map(Supplier::get).collect(Collectors.toList())
+				: tasks.stream().map(Supplier::get).collect(Collectors.toList());
+		long buildEnd = System.nanoTime();
+
+		synchronized (instanceTypes) {
+			for (List<DBValue> l : actions) {
+				instanceTypes.put(l.get(0).get(), InstanceType.ACTION);
+			}
+			for (List<DBValue> l : items) {
+				instanceTypes.put(l.get(0).get(), InstanceType.ITEM);
+			}
+		}
+		lastLoadReport = new LoadReport(actions.size(), items.size(), eventNum,
+				parallel, queryEnd - start, eventEnd - queryEnd, buildEnd - eventEnd);
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("ActionStorage : " + lastLoadReport);
+		}
+		return res;
+	}
+
+	private static List<ActionEvent> events(Map<String, List<ActionEvent>> map, String id) {
+		List<ActionEvent> l = map.get(id);
+		return l == null ? Collections.emptyList() : l;
+	}
+
+	private Action createAction(List<DBValue> l, List<ActionEvent> mainEvents, List<ActionEvent> userEvents) {
+		Action a = new Action(l.get(0).get(), l.get(1).get(), l.get(3).of(ActionType.class));
+		a.setDesc(l.get(2).get());
+		a.setField(l.get(4).asBoolean());
+		a.setBattle(l.get(5).asBoolean());
+		a.setArea(l.get(6).asInt());
+		a.setCastTime(l.get(7).asInt());
+		a.setTgtType(l.get(8).orNull(Action.ターゲットモード.class));
+		a.set死亡者ターゲティング(l.get(9).orNull(Action.死亡者ターゲティング.class));
+		a.setSummary(l.get(10).get());
+		//event
+		a.setMainEvents(mainEvents);
+		a.setUserEvents(userEvents);
+		return a;
+	}
+
+	private Item createItem(List<DBValue> l, List<ActionEvent> mainEvents, List<ActionEvent> userEvents,
+			Function<String, Material> materials) {
+		Item i = new Item(l.get(0).get(), l.get(1).get());
+		i.setDesc(l.get(2).get());
+		i.setField(l.get(3).asBoolean());
+		i.setBattle(l.get(4).asBoolean());
+		i.setArea(l.get(5).asInt());
+		i.setTgtType(l.get(6).of(Action.ターゲットモード.class));
+		i.set死亡者ターゲティング(l.get(7).orNull(Action.死亡者ターゲティング.class));
+		i.setPrice(l.get(8).asInt());
+		i.setSlot(l.get(9).orNull(EqipSlot.class));
+		i.setAtkCount(l.get(10).asInt());
+		i.setWeaponType(l.get(11).orNull(WeaponType.class));
+		i.setStyle(l.get(12).orNull(ItemStyle.class));
+		i.setEnchant(l.get(13).orNull(ItemEnchant.class));
+		i.setDcs(l.get(14).orNull(StatusKey.class));
+		i.setCurrentUpgradeNum(l.get(15).asInt());
+		i.setSummary(l.get(16).get());
+		//eqipTErm
+		i.setTerms(getEqipTerms(l.get(17).get()));
+		//cndRegist
+		i.setConditionRegist(getCndRegist(l.get(18).get()));
+		//attrIn
+		i.setAttrIn(getAttrIn(l.get(19).get()));
+		//attrOut
+		i.setAttrOut(getAttrOut(l.get(20).get()));
+		//Status
+		i.setStatus(getStatus(l.get(21).get()));
+		//mateirla
+		i.setMaterial(getMaterial(l.get(22).get(), materials));
+		//
+		i.setCanSale(l.get(23).asBoolean());
+		i.setCanUnEqip(l.get(24).asBoolean());
+		//event
+		i.setMainEvents(mainEvents);
+		i.setUserEvents(userEvents);
+		return i;
+	}
+
+	@Override
+	protected List<String> selectIds() throws KSQLException {
+		List<String> res = new ArrayList<>();
+		if (DBConnection.getInstance().isUsing()) {
+			Map<String, InstanceType> types = new HashMap<>();
+			DBConnection.getInstance().forEachRow("select id from action", v -> {
+				res.add(v.getString(0));
+				types.put(v.getString(0), InstanceType.ACTION);
+			});
+			DBConnection.getInstance().forEachRow("select id from item", v -> {
+				res.add(v.getString(0));
+				types.put(v.getString(0), InstanceType.ITEM);
+			});
+			synchronized (instanceTypes) {
+				instanceTypes.putAll(types);
 			}
 		}
 		return res;
 	}
 
+	@Override
+	protected Action copyOf(Action t) {
+		//キャッシュしたインスタンスが変更されないように、ステータス等の可変な内部構造まで複製して返す
+		return t.deepCopy();
+	}
+
 	@Override
 	protected int count() throws KSQLException {
 		if (DBConnection.getInstance().isUsing()) {
@@ -305,26 +495,7 @@ public class ActionStorage extends DBStorage<Action> {
 		List<Action> res = new ArrayList<>();
 		res.addAll(getDirect().values());
 		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select ID,VISIBLENAME,DESCRIPTION,ACTIONTYPE,FIELD,BATTLE,AREA,CASTTIME,TGTTYPE,TGTDEAD,SUMMARY"
-					+ " from action;";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
-			//action
-			for (List<DBValue> l : r) {
-				Action a = new Action(l.get(0).get(), l.get(1).get(), l.get(3).of(ActionType.class));
-				a.setDesc(l.get(2).get());
-				a.setField(l.get(4).asBoolean());
-				a.setBattle(l.get(5).asBoolean());
-				a.setArea(l.get(6).asInt());
-				a.setCastTime(l.get(7).asInt());
-				a.setTgtType(l.get(8).orNull(Action.ターゲットモード.class));
-				a.set死亡者ターゲティング(l.get(9).orNull(Action.死亡者ターゲティング.class));
-				a.setSummary(l.get(10).get());
-				//event
-				a.setMainEvents(getMainEvents(l.get(0).get()));
-				a.setUserEvents(getUserEvents(l.get(0).get()));
-				//pack
-				res.add(a.pack());
-			}
+			res.addAll(loadAll(parallelLoad, true, false));
 		}
 		return res.stream().distinct().toList();
 	}
@@ -332,56 +503,8 @@ public class ActionStorage extends DBStorage<Action> {
 	public List<Item> allItems() {
 		List<Item> res = new ArrayList<>();
 		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select "
-					+ "id,visibleName,description,"
-					+ "field,battle,area,"
-					+ "tgtType,tgtDead,price,"
-					+ "eqipSlot,atkCount,weaponType,"
-					+ "styleName,enchantName,DCS,"
-					+ "upgradeNum,summary,eqipTermCSV,"
-					+ "cndRegistCSV,attrInCSV,attrOutCSV,"
-					+ "statusCSV,materialCSV,canSale,"
-					+ "unEqip"
-					+ " from item;";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
-			//item
-			for (List<DBValue> l : r) {
-				Item i = new Item(l.get(0).get(), l.get(1).get());
-				i.setDesc(l.get(2).get());
-				i.setField(l.get(3).asBoolean());
-				i.setBattle(l.get(4).asBoolean());
-				i.setArea(l.get(5).asInt());
-				i.setTgtType(l.get(6).of(Action.ターゲットモード.class));
-				i.set死亡者ターゲティング(l.get(7).orNull(Action.死亡者ターゲティング.class));
-				i.setPrice(l.get(8).asInt());
-				i.setSlot(l.get(9).orNull(EqipSlot.class));
-				i.setAtkCount(l.get(10).asInt());
-				i.setWeaponType(l.get(11).orNull(WeaponType.class));
-				i.setStyle(l.get(12).orNull(ItemStyle.class));
-				i.setEnchant(l.get(13).orNull(ItemEnchant.class));
-				i.setDcs(l.get(14).orNull(StatusKey.class));
-				i.setCurrentUpgradeNum(l.get(15).asInt());
-				i.setSummary(l.get(16).get());
-				//eqipTErm
-				i.setTerms(getEqipTerms(l.get(17).get()));
-				//cndRegist
-				i.setConditionRegist(getCndRegist(l.get(18).get()));
-				//attrIn
-				i.setAttrIn(getAttrIn(l.get(19).get()));
-				//attrOut
-				i.setAttrOut(getAttrOut(l.get(20).get()));
-				//Status
-				i.setStatus(getStatus(l.get(21).get()));
-				//mateirla
-				i.setMaterial(getMaterial(l.get(22).get()));
-				//
-				i.setCanSale(l.get(23).asBoolean());
-				i.setCanUnEqip(l.get(24).asBoolean());
-				//event
-				i.setMainEvents(getMainEvents(l.get(0).get()));
-				i.setUserEvents(getUserEvents(l.get(0).get()));
-				//pack
-				res.add(i.pack());
+			for (Action a : loadAll(parallelLoad, false, true)) {
+				res.add((Item) a);
 			}
 		}
 		return res;
@@ -580,13 +703,13 @@ public class ActionStorage extends DBStorage<Action> {
 		return res;
 	}
 
-	private Map<Material, Integer> getMaterial(String val) {
+	private Map<Material, Integer> getMaterial(String val, Function<String, Material> materials) {
 		Map<Material, Integer> res = new HashMap<>();
 		if (val == null || val.isEmpty()) {
 			return res;
 		}
 		for (var s : StringUtil.safeSplit(val, ",")) {
-			Material k = MaterialStorage.getInstance().get(s.split("=")[0]);
+			Material k = materials.apply(s.split("=")[0]);
 			if (k == null) {
 				throw new NameNotFoundException("Material key is not found :" + val);
 			}
@@ -618,8 +741,8 @@ public class ActionStorage extends DBStorage<Action> {
 		}
 		String sql = "select ID,FILENAME,WSIZE,HSIZE,SPEED"
 				+ " from animation a "
-				+ " where a.id = '" + animationId + "';";
-		KResultSet r = DBConnection.getInstance().execDirect(sql);
+				+ " where a.id = ?";
+		KResultSet r = DBConnection.getInstance().execQuery(sql, animationId);
 		if (r.isEmpty()) {
 			return null;
 		}
@@ -640,42 +763,43 @@ public class ActionStorage extends DBStorage<Action> {
 	}
 
 	private List<ActionEvent> getMainEvents(String actionID) {
-		String sql = "select ACTIONID,EVENTID,SORT,EVENTTYPE,STATUSKEYNAME,"
-				+ "P,CONDITIONKEY,CNDTIME,ATKATTR,ATTRIN,ATTROUT,CNDREGIST,TGTID,NOLIMIT,VAL,CALCMODE,SOUNDID,TRIGGEROPTION,WAITTIME,userAnimationId,tgtAnimationId,otherAnimationId"
+		KResultSet r = DBConnection.getInstance().execQuery("select " + EVENT_COLUMNS
 				+ " from action_mainEvent me left join actionEvent e on me.eventId = e.id"
-				+ " where me.actionId = '" + actionID + "';";
-		KResultSet r = DBConnection.getInstance().execDirect(sql);
+				+ " where me.actionId = ?", actionID);
 		if (r.isEmpty()) {
 			return Collections.emptyList();
 		}
 		List<ActionEvent> res = new ArrayList<>();
 		for (List<DBValue> l : r) {
-			//光線イベントの判定
-			if (BeamEffectEvents.getInstance().has(l.get(3).get())) {
-				ActionEvent e = BeamEffectEvents.getInstance().of(l.get(3).of(BeamEffectEvents.Key.class));
-				e.setEvent起動条件(l.get(17).of(ActionEvent.Event起動条件.class));
-				res.add(e);
-				continue;
-			}
-			ActionEvent e = createEvent(l);
-			res.add(e);
+			res.add(createMainEvent(l,
+					getActor起動条件("EventUserTerm", l.get(1).get()),
+					getActor起動条件("EventTgtTerm", l.get(1).get())));
 		}
 		return res;
 	}
 
+	private ActionEvent createMainEvent(List<DBValue> l, List<ActionEvent.Actor起動条件> userTerms, List<ActionEvent.Actor起動条件> tgtTerms) {
+		//光線イベントの判定
+		if (BeamEffectEvents.getInstance().has(l.get(3).get())) {
+			ActionEvent e = BeamEffectEvents.getInstance().of(l.get(3).of(BeamEffectEvents.Key.class));
+			e.setEvent起動条件(l.get(17).of(ActionEvent.Event起動条件.class));
+			return e;
+		}
+		return createEvent(l, userTerms, tgtTerms);
+	}
+
 	private List<ActionEvent> getUserEvents(String actionID) {
-		String sql = "select ACTIONID,EVENTID,SORT,EVENTTYPE,STATUSKEYNAME,P,"
-				+ "CONDITIONKEY,CNDTIME,ATKATTR,ATTRIN,ATTROUT,CNDREGIST,TGTID,NOLIMIT,VAL,CALCMODE,SOUNDID,TRIGGEROPTION,WAITTIME,userAnimationId,tgtAnimationId,otherAnimationId"
+		KResultSet r = DBConnection.getInstance().execQuery("select " + EVENT_COLUMNS
 				+ " from action_userEvent ue left join actionEvent e on ue.eventId = e.id"
-				+ " where ue.actionId = '" + actionID + "';";
-		KResultSet r = DBConnection.getInstance().execDirect(sql);
+				+ " where ue.actionId = ?", actionID);
 		if (r.isEmpty()) {
 			return Collections.emptyList();
 		}
 		List<ActionEvent> res = new ArrayList<>();
 		for (List<DBValue> l : r) {
-			ActionEvent e = createEvent(l);
-			res.add(e);
+			res.add(createEvent(l,
+					getActor起動条件("EventUserTerm", l.get(1).get()),
+					getActor起動条件("EventTgtTerm", l.get(1).get())));
 		}
 		return res;
 	}
@@ -684,22 +808,24 @@ public class ActionStorage extends DBStorage<Action> {
 		String sql = "select ACTIONID,EVENTID,SORT,EVENTTYPE,STATUSKEYNAME,P,"
 				+ "CONDITIONKEY,CNDTIME,ATKATTR,ATTRIN,ATTROUT,CNDREGIST,TGTID,NOLIMIT,VAL,CALCMODE,SOUNDID,TRIGGEROPTION,WAITTIME,userAnimationId,tgtAnimationId,otherAnimationId"
 				+ " from action_userEvent ue left join actionEvent e on ue.eventId = e.id"
-				+ " where e.id = '" + eventId + "';";
-		KResultSet r = DBConnection.getInstance().execDirect(sql);
+				+ " where e.id = ?";
+		KResultSet r = DBConnection.getInstance().execQuery(sql, eventId);
 		if (r.isEmpty()) {
 			sql = "select ACTIONID,EVENTID,SORT,EVENTTYPE,STATUSKEYNAME,"
 					+ "P,CONDITIONKEY,CNDTIME,ATKATTR,ATTRIN,ATTROUT,CNDREGIST,TGTID,NOLIMIT,VAL,CALCMODE,SOUNDID,TRIGGEROPTION,WAITTIME,userAnimationId,tgtAnimationId,otherAnimationId"
 					+ " from action_mainEvent me left join actionEvent e on me.eventId = e.id"
-					+ " where e.id = '" + eventId + "';";
-			r = DBConnection.getInstance().execDirect(sql);
+					+ " where e.id = ?";
+			r = DBConnection.getInstance().execQuery(sql, eventId);
 			if (r.isEmpty()) {
 				throw new NameNotFoundException("event not found : " + eventId);
 			}
 		}
-		return createEvent(r.row(0));
+		return createEvent(r.row(0),
+				getActor起動条件("EventUserTerm", r.row(0).get(1).get()),
+				getActor起動条件("EventTgtTerm", r.row(0).get(1).get()));
 	}
 
-	private ActionEvent createEvent(List<DBValue> l) {
+	private ActionEvent createEvent(List<DBValue> l, List<ActionEvent.Actor起動条件> userTerms, List<ActionEvent.Actor起動条件> tgtTerms) {
 		ActionEvent e = new ActionEvent(l.get(1).get());
 		e.setSort(l.get(2).asInt());
 		e.setEventType(l.get(3).of(ActionEventType.class));
@@ -722,8 +848,8 @@ public class ActionStorage extends DBStorage<Action> {
 		e.setEvent起動条件(l.get(17).of(ActionEvent.Event起動条件.class));
 		e.setWaitTime(l.get(18).asInt());
 		//TERM
-		e.setUser起動条件(getActor起動条件("EventUserTerm", e.getId()));
-		e.setTgt起動条件(getActor起動条件("EventTgtTerm", e.getId()));
+		e.setUser起動条件(userTerms);
+		e.setTgt起動条件(tgtTerms);
 		//ANIMATION
 		e.setUserAnimation(getAnimation(l.get(19).get()));
 		e.setTgtAnimation(getAnimation(l.get(20).get()));
@@ -734,21 +860,33 @@ public class ActionStorage extends DBStorage<Action> {
 
 	private List<ActionEvent.Actor起動条件> getActor起動条件(String tableName, String eventID) {
 		String sql = "select "
-				+ "id,typ,tgtName,Val"
+				+ "eventid,id,typ,tgtName,Val"
 				+ " from " + tableName
-				+ " where eventid = '" + eventID + "';";
-		KResultSet tr = DBConnection.getInstance().execDirect(sql);
+				+ " where eventid = ?";
+		KResultSet tr = DBConnection.getInstance().execQuery(sql, eventID);
 		List<ActionEvent.Actor起動条件> terms = new ArrayList<>();
 		for (List<DBValue> tl : tr) {
-			String id = tl.get(0).get();
-			ActionEvent.Actor起動条件.Type type = tl.get(1).of(ActionEvent.Actor起動条件.Type.class);
-			String tgtName = tl.get(2).get();
-			float val = tl.get(3).asFloat();
-			terms.add(new ActionEvent.Actor起動条件(id, type, val, tgtName));
+			terms.add(createActor起動条件(tl));
 		}
 		return terms;
 	}
 
+	private Map<String, List<ActionEvent.Actor起動条件>> groupActor起動条件(KResultSet tr) {
+		Map<String, List<ActionEvent.Actor起動条件>> res = new HashMap<>();
+		for (List<DBValue> tl : tr) {
+			res.computeIfAbsent(tl.get(0).get(), k -> new ArrayList<>()).add(createActor起動条件(tl));
+		}
+		return res;
+	}
+
+	private static ActionEvent.Actor起動条件 createActor起動条件(List<DBValue> tl) {
+		String id = tl.get(1).get();
+		ActionEvent.Actor起動条件.Type type = tl.get(2).of(ActionEvent.Actor起動条件.Type.class);
+		String tgtName = tl.get(3).get();
+		float val = tl.get(4).asFloat();
+		return new ActionEvent.Actor起動条件(id, type, val, tgtName);
+	}
+
 	public List<Item> itemOf(String... ids) {
 		List<Item> res = new ArrayList<>();
 		for (var v : ids) {
@@ -78,6 +78,17 @@ public sealed class Actor implements Nameable, XMLFileSupport, Comparable<Actor>
 		this.sprite = a.sprite.clone();
 	}
 
+	//戦闘のシミュレーション用。スプライトは共有し、ステータスは指定したものを使う
+	Actor(Actor a, Status status) {
+		this.id = a.id;
+		this.visibleName = a.visibleName;
+		this.sprite = a.sprite;
+		this.status = status;
+		this.iniStatusFile = a.iniStatusFile;
+		this.faceImage = a.faceImage;
+		this.isSummoned = a.isSummoned;
+	}
+
 	public Actor(String id, String visibleName, Race r, PCSprite sprite) {
 		if (id == null || visibleName == null || r == null || sprite == null) {
 			throw new GameSystemException("actor value is null : " + id + " / " + visibleName);
@@ -303,7 +314,7 @@ public sealed class Actor implements Nameable, XMLFileSupport, Comparable<Actor>
 	}
 
 	public boolean isPlayer() {
-		return GameSystem.getInstance().getPartyStatus().contains(status);
+		return status.getContext().isParty(this);
 	}
 
 	@Override
@@ -16,19 +16,55 @@
  */
 package kinugasa.game.system;
 
+import java.util.Arrays;
 import kinugasa.game.NewInstance;
+import kinugasa.resource.DuplicateNameException;
+import kinugasa.resource.NameNotFoundException;
 import kinugasa.resource.Storage;
 
 /**
+ * 属性値のセットです.
+ * <br>
+ * 名前によるマップに加えて、AttributeKeyの序数を添え字とする配列で値を保持します。<br>
  *
  * @vesion 1.0.0 - 2023/10/14_11:23:52<br>
  * @author Shinacho<br>
  */
 public class AttributeValueSet extends Storage<AttributeValue> implements Cloneable {
 
+	private static final AttributeKey[] KEYS = AttributeKey.values();
+	//AttributeKeyの序数で引くための索引。マップと常に同じ内容を持つ
+	private AttributeValue[] byKey = new AttributeValue[KEYS.length];
+
 	public AttributeValueSet() {
 	}
 
+	@Override
+	public void add(AttributeValue val) throws DuplicateNameException {
+		super.add(val);
+		byKey[val.getKey().ordinal()] = val;
+	}
+
+	@Override
+	public void put(AttributeValue val) {
+		super.put(val);
+		byKey[val.getKey().ordinal()] = val;
+	}
+
+	@Override
+	public void remove(String key) {
+		if (contains(key)) {
+			byKey[get(key).getKey().ordinal()] = null;
+		}
+		super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		Arrays.fill(byKey, null);
+	}
+
 	public void init() {
 		for (AttributeKey k : AttributeKey.values()) {
 			add(new AttributeValue(k, 1.0f));
@@ -36,14 +72,24 @@ public class AttributeValueSet extends Storage<AttributeValue> implements Clonea
 	}
 
 	public AttributeValue get(AttributeKey key) {
-		return get(key.getName());
+		AttributeValue v = byKey[key.ordinal()];
+		if (v == null) {
+			throw new NameNotFoundException("! > AttributeValueSet : get : not found : key=[" + key + "]");
+		}
+		return v;
+	}
+
+	public boolean contains(AttributeKey key) {
+		return byKey[key.ordinal()] != null;
 	}
 
 	@Override
 	public AttributeValueSet clone() {
 		AttributeValueSet r = new AttributeValueSet();
-		for (AttributeValue v : this) {
-			r.add(v.clone());
+		for (AttributeValue v : byKey) {
+			if (v != null) {
+				r.add(v.clone());
+			}
 		}
 		return r;
 	}
@@ -53,9 +99,9 @@ public class AttributeValueSet extends Storage<AttributeValue> implements Clonea
 		AttributeValueSet r = clone();
 
 		//thisには全キーが入っている
-		for (AttributeKey k : AttributeKey.values()) {
+		for (AttributeKey k : KEYS) {
 			AttributeValue sv = r.get(k);
-			if (!v.contains(k.getName())) {
+			if (!v.contains(k)) {
 				continue;
 			}
 			sv.add(v.get(k).getValue());
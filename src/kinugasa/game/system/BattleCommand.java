@@ -92,7 +92,7 @@ public class BattleCommand {
 	}
 
 	public Action randomAction() {
-		return Random.randomChoice(ba.stream().filter(p -> p.getType() != ActionType.行動).toList());
+		return Random.battle().randomChoice(ba.stream().filter(p -> p.getType() != ActionType.行動).toList());
 	}
 
 	public List<Action> getActions() {
@@ -64,7 +64,7 @@ public class BattleCommandMessageWindow extends ScrollSelectableMessageWindow im
 		type = ActionType.values()[typeIdx];
 		updateText();
 		if (GameSystem.isDebugMode()) {
-			kinugasa.game.GameLog.print("BCMW :" + selected);
+			kinugasa.game.GameLog.print("BCMW :{}", selected);
 		}
 		setCurrent();
 	}
@@ -77,7 +77,7 @@ public class BattleCommandMessageWindow extends ScrollSelectableMessageWindow im
 		type = ActionType.values()[typeIdx];
 		updateText();
 		if (GameSystem.isDebugMode()) {
-			kinugasa.game.GameLog.print("BCMW :" + selected);
+			kinugasa.game.GameLog.print("BCMW :{}", selected);
 		}
 		setCurrent();
 	}
@@ -246,7 +246,7 @@ public class BattleCommandMessageWindow extends ScrollSelectableMessageWindow im
 		Collections.sort(actionList);
 		selected = actionList.get(getSelectedIdx() - 1);
 		if (GameSystem.isDebugMode()) {
-			kinugasa.game.GameLog.print("MCMW :" + selected);
+			kinugasa.game.GameLog.print("MCMW :{}", selected);
 		}
 		setCurrent();
 	}
@@ -260,7 +260,7 @@ public class BattleCommandMessageWindow extends ScrollSelectableMessageWindow im
 		Collections.sort(actionList);
 		selected = actionList.get(getSelectedIdx() - 1);
 		if (GameSystem.isDebugMode()) {
-			kinugasa.game.GameLog.print("MCMW :" + selected);
+			kinugasa.game.GameLog.print("MCMW :{}", selected);
 		}
 		setCurrent();
 	}
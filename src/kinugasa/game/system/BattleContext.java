@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ステータスが参照する戦闘の環境です.
+ * <br>
+ * 通常はGameSystemとBattleSystemのシングルトンを参照するGAMEが使用されます。
+ * BattleSimulatorは戦闘ごとにこれを実装し、複製したステータスに設定することで、シングルトンを使わずに戦闘を実行します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_09:10:00<br>
+ * @author Shinacho<br>
+ */
+interface BattleContext {
+
+	/**
+	 * ゲームのシングルトンを参照する環境です。
+	 */
+	BattleContext GAME = new BattleContext() {
+		@Override
+		public boolean isHeadless() {
+			return false;
+		}
+
+		@Override
+		public List<Action> allActions() {
+			return ActionStorage.getInstance().allActions();
+		}
+
+		@Override
+		public List<Actor> allActors() {
+			return Stream.of(GameSystem.getInstance().getParty(), BattleSystem.getInstance().getEnemies()).<Actor>flatMap(p -> p.stream()).toList();
+		}
+
+		@Override
+		public boolean isParty(Actor a) {
+			return GameSystem.getInstance().getPartyStatus().contains(a.getStatus());
+		}
+
+		@Override
+		public boolean isPC(String id) {
+			return GameSystem.getInstance().getPCbyID(id) != null;
+		}
+	};
+
+	/**
+	 * 画面を使わずに実行しているかどうかを返します。trueの場合、アニメーションとサウンドを省略し、常に戦闘として扱います。
+	 *
+	 * @return 画面を使わない場合true。
+	 */
+	boolean isHeadless();
+
+	/**
+	 * 行動の更新に使用する、すべてのアクションを返します。
+	 *
+	 * @return すべてのアクション。
+	 */
+	List<Action> allActions();
+
+	/**
+	 * 戦闘に参加しているパーティーと敵を返します。
+	 *
+	 * @return パーティーと敵。
+	 */
+	List<Actor> allActors();
+
+	/**
+	 * アクターがパーティーのメンバーかどうかを返します。
+	 *
+	 * @param a アクター。
+	 * @return パーティーのメンバーの場合true。
+	 */
+	boolean isParty(Actor a);
+
+	/**
+	 * IDのPCがパーティーにいるかどうかを返します。
+	 *
+	 * @param id アクターのID。
+	 * @return いる場合true。
+	 */
+	boolean isPC(String id);
+
+}
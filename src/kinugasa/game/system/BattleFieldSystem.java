@@ -32,6 +32,7 @@ import kinugasa.game.field4.MapChipAttribute;
 import kinugasa.game.field4.MapChipAttributeStorage;
 import kinugasa.graphics.GraphicsUtil;
 import kinugasa.graphics.ImageUtil;
+import kinugasa.object.SpatialGrid;
 import kinugasa.object.Sprite;
 import kinugasa.resource.FileNotFoundException;
 import kinugasa.resource.text.FileIOException;
@@ -75,6 +76,9 @@ public class BattleFieldSystem implements XMLFileSupport {
 		battleFieldAllArea = new EmptySprite(minX, statusPaneH + 4, screenW - 8, areaH);
 	}
 	private List<BattleFieldObstacle> obstacle = new ArrayList<>();
+	//障害物の当たり判定用の格子。障害物は配置後に移動しない
+	private final SpatialGrid<BattleFieldObstacle> obstacleGrid = new SpatialGrid<>(battleArea, OBSTACLE_CELL_SIZE);
+	private static final float OBSTACLE_CELL_SIZE = 48;
 
 	private static final BattleFieldSystem INSTANCE = new BattleFieldSystem();
 
@@ -91,7 +95,7 @@ public class BattleFieldSystem implements XMLFileSupport {
 
 	public void init(MapChipAttribute attr) {
 		if (GameSystem.isDebugMode()) {
-			kinugasa.game.GameLog.print("BF : init, attr=" + attr + ", obMax:" + obstacleMax.get(attr));
+			kinugasa.game.GameLog.print("BF : init, attr={}, obMax:{}", attr, obstacleMax.get(attr));
 		}
 		if (fieldImage.containsKey(attr)) {
 			currentChipAttr = attr;
@@ -100,30 +104,22 @@ public class BattleFieldSystem implements XMLFileSupport {
 		}
 		//障害物の設定
 		obstacle.clear();
+		obstacleGrid.clear();
 		int max = obstacleMax.containsKey(attr) ? obstacleMax.get(attr) : 0;
 		if (max <= 0) {
 			return;
 		}
-		max = Random.randomAbsInt(max);
+		max = Random.field().randomAbsInt(max);
 		String[] name = obstacleName.get(attr);
 		obstacle.addAll(BattleFieldObstacleStorage.getInstance().createN(max, name));
 		//障害物の配置、障害物同士が重ならないようにする
-		List<Sprite> checkList = new ArrayList<>();
-		for (Sprite s : obstacle) {
+		for (BattleFieldObstacle s : obstacle) {
 			float w = s.getWidth();
 			float h = s.getHeight();
-			L2:
 			do {
-				s.setLocation(Random.randomLocation(battleAreaAndNoPartyArea, w, h));
-				boolean hit = false;
-				for (Sprite os : checkList) {
-					hit |= s.hit(os);
-				}
-				if (!hit) {
-					break L2;
-				}
-			} while (true);
-			checkList.add(s);
+				s.setLocation(Random.field().randomLocation(battleAreaAndNoPartyArea, w, h));
+			} while (obstacleGrid.hitAny(s.getX(), s.getY(), w, h));
+			obstacleGrid.add(s, s);
 		}
 		Collections.sort(obstacle, (BattleFieldObstacle o1, BattleFieldObstacle o2) -> (int) (o1.getY() - o2.getY()));
 	}
@@ -132,31 +128,25 @@ public class BattleFieldSystem implements XMLFileSupport {
 		return obstacle;
 	}
 
+	/**
+	 * 障害物の当たり判定の格子を返します。障害物を配置した後の位置で登録されています。
+	 *
+	 * @return 格子。
+	 */
+	public SpatialGrid<BattleFieldObstacle> getObstacleGrid() {
+		return obstacleGrid;
+	}
+
 	public boolean hitObstacle(Sprite s) {
-		for (Sprite o : obstacle) {
-			if (o.hit(s)) {
-				return true;
-			}
-		}
-		return false;
+		return obstacleGrid.hitAny(s.getX(), s.getY(), s.getWidth(), s.getHeight());
 	}
 
 	public boolean hitObstacle(Rectangle2D.Float r) {
-		for (Sprite o : obstacle) {
-			if (o.hit(r)) {
-				return true;
-			}
-		}
-		return false;
+		return obstacleGrid.hitAny(r.x, r.y, r.width, r.height);
 	}
 
 	public boolean hitObstacle(Point2D.Float p) {
-		for (Sprite o : obstacle) {
-			if (o.contains(p)) {
-				return true;
-			}
-		}
-		return false;
+		return obstacleGrid.containsAny(p.x, p.y);
 	}
 
 	public boolean inArea(Rectangle2D.Float r) {
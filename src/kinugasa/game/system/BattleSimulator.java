@@ -0,0 +1,795 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import kinugasa.game.NotNewInstance;
+import kinugasa.game.Nullable;
+import kinugasa.util.Random;
+import kinugasa.util.RandomStream;
+import static kinugasa.game.system.ActionEventType.*;
+
+/**
+ * 画面を使わずに戦闘を繰り返し実行し、勝率やターン数の分布を求めるシミュレータです.
+ * <br>
+ * <b>このシミュレータの結果は実際の戦闘の近似です。</b>
+ * BattleSystemとEnemyAIImplはシングルトンのBattleSystem、BattleTargetSystemとスプライトの座標に依存しており、
+ * 複数の戦闘を並列に実行できないため、ターンの流れ（状態異常の経過、行動順、停止・混乱、魔法の詠唱と完了、勝敗判定）は
+ * BattleSystem.execを元にこのクラスで再実装しています。BattleSystemのターン処理を変更した場合はこのクラスも合わせて変更しないと、結果が実際の戦闘とずれます。<br>
+ * 個々の処理のうち、状態異常の経過、SpeedCalcSystemによる行動順、ActionEventとDamageCalcSystemによるダメージ計算は、BattleSystemと同じコードを呼び出します。
+ * スプライト、メッセージウインドウ、アニメーション、サウンドは使用しません。<br>
+ * 戦闘はパーティーと敵のステータスの複製で行われるため、元のアクターは変更されません。
+ * 複製したステータスには戦闘ごとのBattleContextが設定され、アクターとアクションの一覧、パーティーの判定はシングルトンではなくこの戦闘を参照します。
+ * 戦闘ごとに独立しているため、複数のスレッドで並列に実行されます。<br>
+ * <br>
+ * 以下の点がBattleSystemと異なります。<br>
+ * ・射程は考慮されず、移動はしません。逃走は必ず成功します。<br>
+ * ・パーティーと敵の行動は、EnemyAIImplではなくPolicyで選択します。デフォルトはどちらもRANDOMのため、敵のAIの傾向は反映されません。
+ * AIに近い結果が必要な場合は、setEnemyPolicyで行動を選択する方法を設定してください。<br>
+ * ・座標、行動順の操作、召喚、マップやファイルを使用するイベントは実行されず、スキップした数が記録されます。<br>
+ * 戦闘ごとにシミュレータのシードと戦闘の番号から乱数の系列を作成するため、同じシードの結果はスレッド数によらず同じになります。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class BattleSimulator {
+
+	/**
+	 * 行動とターゲットを選択する方法です.
+	 */
+	@FunctionalInterface
+	public interface Policy {
+
+		/**
+		 * 行動とターゲットを選択します。
+		 *
+		 * @param user 行動するアクター。
+		 * @param allies userを含む、行動可能な味方。
+		 * @param foes 行動可能な敵対者。
+		 * @return 実行する行動。nullの場合は何もしません。
+		 */
+		@Nullable
+		ActionTarget next(Actor user, List<Actor> allies, List<Actor> foes);
+	}
+
+	/**
+	 * 実行可能な攻撃と魔法の中からランダムに選び、ターゲットモードの初期選択からランダムにターゲットを選ぶ方法です。
+	 */
+	public static final Policy RANDOM = (user, allies, foes) -> {
+		List<Action> list = new ArrayList<>();
+		for (Action a : user.getStatus().getActions()) {
+			if ((a.getType() == ActionType.攻撃 || a.getType() == ActionType.魔法)
+					&& a.isBattle() && a.hasMainEvent() && a.canDo(user.getStatus())) {
+				list.add(a);
+			}
+		}
+		if (list.isEmpty()) {
+			return null;
+		}
+		Action a = Random.ai().randomChoice(list);
+		List<Actor> tgt = targetOf(a, user, allies, foes);
+		if (tgt.isEmpty()) {
+			return null;
+		}
+		return new ActionTarget(user, a, tgt, false);
+	};
+
+	//座標、コマンドの並び、召喚、マップ、UI、DBを使用するため実行できないイベント
+	private static final EnumSet<ActionEventType> UNSUPPORTED = EnumSet.of(
+			TGTの行動をVALUE回数この直後に追加,
+			TGTの行動をVALUE回数ターン最後に追加,
+			このアクションの他のイベントをこのイベントのTGTからVALUE内の同じチームの全員にも適用,
+			このアクションの他のイベントをこのイベントのTGTからVALUE内の全員にも適用,
+			このアクションの他のイベントをこのイベントのTGTからVALUE内のランダムな同じチームの一人にも適用,
+			このアクションの他のイベントをこのイベントのTGTからVALUE内のランダムな一人にも適用,
+			このアクションの他のイベントをこのイベントのTGTからVALUE内の最も近い同じチームの一人にも適用,
+			このアクションの他のイベントをこのイベントのTGTからVALUE内の最も近い一人にも適用,
+			このターンのTGTの行動を未行動ならこの直後に移動,
+			このターンのTGTの行動を未行動ならターン最後に移動,
+			TGTの魔法詠唱を中断,
+			TGTの魔法詠唱完了をVALUEターン分ずらす,
+			USERのクローンをパーティーまたはENEMYに追加,
+			このターンのTGTの行動を破棄,
+			このターンの行動順を反転させる,
+			TGTを中心位置からVALUEの場所に転送,
+			TGTを術者の近くに転送,
+			TGTを逃げられる位置に転送,
+			TGTを一番近い敵対者の至近距離に転送,
+			USERをTGTの至近距離に転送,
+			USERとTGTの位置を交換,
+			逃走で戦闘終了,
+			TGTIDのマップIDの座標に転送,
+			カレントマップのランダムな出口ノードに転送,
+			友好的な存在の召喚,
+			敵対的な存在の召喚,
+			DC_ファイル選択からのハッシュ,
+			DC_ファイル選択からのサイズ,
+			DC_倒した敵の数が多い,
+			DC_倒した敵の数が少ない,
+			DC_ターン数が小さい,
+			DC_ターン数が大きい,
+			詠唱完了イベントをVALUEターン内で反転,
+			自身以外の全員の正気度にダメージ,
+			USERによる指定IDの魔法の詠唱完了をこのターンの最後にVALUE回数追加,
+			USERによる指定IDの魔法の詠唱完了をこのターンの最初にVALUE回数追加,
+			マップIDと座標を入力させて移動する,
+			指定IDのPCがいれば即死させる,
+			指定IDのPCがいれば正気度ダメージ,
+			TGTノックバック,
+			現在のマップIDと座標表示,
+			難易度の選択,
+			異名の変更,
+			脚本の実行,
+			統計情報変更,
+			統計情報完全リセット
+	);
+
+	private final List<Actor> party;
+	private final List<Enemy> enemies;
+	private final List<Action> allActions;
+	private Policy partyPolicy = RANDOM;
+	private Policy enemyPolicy = RANDOM;
+	private int maxTurn = 100;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed = System.nanoTime();
+
+	/**
+	 * シミュレータを作成します。敵セットの敵はこのスレッドで1度だけ作成され、戦闘ごとに複製されます。
+	 *
+	 * @param party パーティー。
+	 * @param es 敵セット。
+	 */
+	public BattleSimulator(List<Actor> party, EnemySet es) {
+		this(party, es.create());
+	}
+
+	/**
+	 * シミュレータを作成します。
+	 *
+	 * @param party パーティー。
+	 * @param enemies 敵。
+	 * @throws GameSystemException パーティーまたは敵が空の場合に投げられます。
+	 */
+	public BattleSimulator(List<Actor> party, List<Enemy> enemies) throws GameSystemException {
+		if (party.isEmpty() || enemies.isEmpty()) {
+			throw new GameSystemException("simulator : party or enemies is empty : " + party + " / " + enemies);
+		}
+		this.party = List.copyOf(party);
+		this.enemies = List.copyOf(enemies);
+		//行動の更新でDBを読まないように、開始前に読み込んでおく
+		this.allActions = ActionStorage.getInstance().allActions();
+	}
+
+	public BattleSimulator setPartyPolicy(Policy partyPolicy) {
+		this.partyPolicy = partyPolicy;
+		return this;
+	}
+
+	public BattleSimulator setEnemyPolicy(Policy enemyPolicy) {
+		this.enemyPolicy = enemyPolicy;
+		return this;
+	}
+
+	/**
+	 * 1回の戦闘の最大ターン数を設定します。このターン数で決着しない場合は時間切れとして記録されます。
+	 *
+	 * @param maxTurn 最大ターン数。
+	 * @return このシミュレータ。
+	 * @throws IllegalArgumentException maxTurnが1未満の場合に投げられます。
+	 */
+	public BattleSimulator setMaxTurn(int maxTurn) throws IllegalArgumentException {
+		if (maxTurn < 1) {
+			throw new IllegalArgumentException("simulator : maxTurn=" + maxTurn);
+		}
+		this.maxTurn = maxTurn;
+		return this;
+	}
+
+	/**
+	 * 並列に実行するスレッド数を設定します。デフォルトはプロセッサの数です。
+	 *
+	 * @param threads スレッド数。
+	 * @return このシミュレータ。
+	 * @throws IllegalArgumentException threadsが1未満の場合に投げられます。
+	 */
+	public BattleSimulator setThreads(int threads) throws IllegalArgumentException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("simulator : threads=" + threads);
+		}
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * 乱数のシードを設定します。同じシードと設定で実行した結果は同じになります。
+	 *
+	 * @param seed シード。
+	 * @return このシミュレータ。
+	 */
+	public BattleSimulator setSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getMaxTurn() {
+		return maxTurn;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * 戦闘をn回実行します。呼び出したスレッドはすべての戦闘が終わるまでブロックされます。
+	 *
+	 * @param n 戦闘の回数。
+	 * @return 結果。
+	 * @throws IllegalArgumentException nが1未満の場合に投げられます。
+	 * @throws GameSystemException 戦闘の実行中に例外が発生した場合に投げられます。
+	 */
+	public Report run(int n) throws IllegalArgumentException, GameSystemException {
+		if (n < 1) {
+			throw new IllegalArgumentException("simulator : n=" + n);
+		}
+		final BattleResult[] results = new BattleResult[n];
+		final int[] turns = new int[n];
+		final float[] dealt = new float[n];
+		final float[] taken = new float[n];
+		final long[] skipped = new long[1];
+		int t = Math.min(threads, n);
+		final long seed = this.seed;
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(t, r -> {
+			Thread th = new Thread(r, "kgf battle simulator");
+			th.setDaemon(true);
+			return th;
+		});
+		try {
+			List<Future<Long>> futures = new ArrayList<>();
+			for (int i = 0; i < t; i++) {
+				final int from = (int) ((long) n * i / t);
+				final int to = (int) ((long) n * (i + 1) / t);
+				futures.add(executor.submit(() -> {
+					long skip = 0;
+					for (int j = from; j < to; j++) {
+						Random.setLocalSeed(RandomStream.of(seed, Integer.toString(j)).nextLong());
+						Battle b = new Battle();
+						try {
+							results[j] = b.exec();
+						} finally {
+							Random.clearLocalSeed();
+						}
+						turns[j] = b.turn;
+						dealt[j] = b.dealt;
+						taken[j] = b.taken;
+						skip += b.skipped;
+					}
+					return skip;
+				}));
+			}
+			for (Future<Long> f : futures) {
+				skipped[0] += f.get();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new GameSystemException(ex);
+		} catch (ExecutionException ex) {
+			throw new GameSystemException(ex.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return new Report(results, turns, dealt, taken, skipped[0], maxTurn, System.nanoTime() - start);
+	}
+
+	/**
+	 * 行動のターゲットモードに従って、ターゲットを選択します。単体の場合はランダムに1人を選びます。
+	 * 切替可能なモードでは初期選択のチームから選びます。
+	 *
+	 * @param a 行動。
+	 * @param user 行動するアクター。
+	 * @param allies userを含む、行動可能な味方。
+	 * @param foes 行動可能な敵対者。
+	 * @return ターゲット。いない場合は空のリスト。
+	 */
+	public static List<Actor> targetOf(Action a, Actor user, List<Actor> allies, List<Actor> foes) {
+		List<Actor> others = new ArrayList<>(allies);
+		others.remove(user);
+		switch (a.getTgtType()) {
+			case 自身のみ:
+				return List.of(user);
+			case 単体_敵のみ:
+			case 単体_切替可能_自身含む_初期選択敵:
+			case 単体_切替可能_自身含まない_初期選択敵:
+				return foes.isEmpty() ? List.of() : List.of(Random.battle().randomChoice(foes));
+			case 単体_味方のみ_自身含む:
+			case 単体_切替可能_自身含む_初期選択味方:
+				return List.of(Random.battle().randomChoice(allies));
+			case 単体_味方のみ_自身含まない:
+			case 単体_切替可能_自身含まない_初期選択味方:
+				return others.isEmpty() ? List.of() : List.of(Random.battle().randomChoice(others));
+			case グループ_敵全員:
+			case グループ_切替可能_初期選択敵:
+			case グループ_切替可能_初期選択敵_自身除く:
+				return foes;
+			case グループ_味方全員:
+			case グループ_切替可能_初期選択味方:
+				return allies;
+			case グループ_味方全員_自身除く:
+			case グループ_切替可能_初期選択味方_自身除く:
+				return others;
+			case 全員: {
+				List<Actor> r = new ArrayList<>(allies);
+				r.addAll(foes);
+				return r;
+			}
+			case 全員_自身除く: {
+				List<Actor> r = new ArrayList<>(others);
+				r.addAll(foes);
+				return r;
+			}
+			default:
+				throw new AssertionError("undefined tgt type : " + a.getTgtType());
+		}
+	}
+
+	private static boolean isActive(Actor a) {
+		return !a.getStatus().hasAnyCondition(ConditionKey.解脱, ConditionKey.損壊, ConditionKey.気絶, ConditionKey.逃走した);
+	}
+
+	/**
+	 * 1回の戦闘です。シミュレーションのスレッドでだけ使用されます.
+	 * 複製したステータスの環境として設定されるため、戦闘中のステータスはシングルトンではなくこの戦闘のアクターとアクションを参照します。
+	 */
+	final class Battle implements BattleContext {
+
+		private final List<Actor> p = new ArrayList<>();
+		private final List<Actor> e = new ArrayList<>();
+		private final List<Actor> all = new ArrayList<>();
+		private final Map<Integer, List<MagicSpell>> magics = new HashMap<>();
+		private final Map<Actor, List<Actor>> castTgt = new HashMap<>();
+		private LinkedList<BattleCommand> commands;
+		private final float[] hp;
+		private final boolean[] dead;
+		private int turn;
+		private float dealt, taken;
+		private long skipped;
+
+		private Battle() {
+			for (Actor a : party) {
+				p.add(new Actor(a, a.getStatus().detachedClone()));
+			}
+			for (Enemy a : enemies) {
+				e.add(Enemy.simulationCopyOf(a));
+			}
+			all.addAll(p);
+			all.addAll(e);
+			for (Actor a : all) {
+				a.getStatus().setContext(this);
+			}
+			hp = new float[all.size()];
+			dead = new boolean[all.size()];
+			for (int i = 0; i < hp.length; i++) {
+				hp[i] = hpOf(all.get(i));
+			}
+		}
+
+		@Override
+		public boolean isHeadless() {
+			return true;
+		}
+
+		//行動の更新でDBを読まないように、開始時に読み込んだ一覧を使う
+		@Override
+		@NotNewInstance
+		public List<Action> allActions() {
+			return allActions;
+		}
+
+		@Override
+		@NotNewInstance
+		public List<Actor> allActors() {
+			return all;
+		}
+
+		@Override
+		public boolean isParty(Actor a) {
+			for (Actor v : p) {
+				if (v == a) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean isPC(String id) {
+			for (Actor v : p) {
+				if (v.getId().equals(id)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private BattleResult exec() {
+			for (turn = 1; turn <= maxTurn; turn++) {
+				//状態異常の経過ターン更新・継続ダメージ処理
+				if (turn != 1) {
+					for (Actor a : all) {
+						if (!a.getStatus().hasAnyCondition(ConditionKey.解脱, ConditionKey.損壊, ConditionKey.気絶)) {
+							a.getStatus().updateCondition();
+						}
+					}
+					account();
+				}
+				BattleResult r = result();
+				if (r != null) {
+					return r;
+				}
+				List<MagicSpell> ms = magics.remove(turn);
+				commands = SpeedCalcSystem.doExec(all, ms == null ? Collections.emptyList() : ms);
+				while (!commands.isEmpty()) {
+					exec(commands.removeFirst());
+					account();
+					r = result();
+					if (r != null) {
+						return r;
+					}
+				}
+			}
+			turn = maxTurn;
+			return null;
+		}
+
+		private void exec(BattleCommand cmd) {
+			Actor user = cmd.getUser();
+			if (!isActive(user)) {
+				return;
+			}
+			//防御または回避は1ターンだけ有効
+			user.getStatus().removeCondition(ConditionKey.防御中);
+			user.getStatus().removeCondition(ConditionKey.回避中);
+			ConditionFlags f = user.getStatus().getConditionFlags();
+			if (!user.getStatus().hasCondition(ConditionKey.詠唱中) && Random.battle().percent(f.getP().停止)) {
+				return;
+			}
+			if (user.getStatus().hasCondition(ConditionKey.詠唱中)) {
+				return;
+			}
+			if (Random.battle().percent(f.getP().停止)) {
+				user.getStatus().removeCondition(ConditionKey.詠唱中);
+				return;
+			}
+			List<Actor> allies = allies(user);
+			List<Actor> foes = foes(user);
+			//混乱の場合は適当な行動を誰かに実行する
+			if (Random.battle().percent(f.getP().混乱)) {
+				List<Actor> tgt = new ArrayList<>(allies);
+				tgt.addAll(foes);
+				List<Action> list = cmd.getActions().stream().filter(p -> p.getType() != ActionType.行動).toList();
+				if (!list.isEmpty()) {
+					execAction(new ActionTarget(user, Random.battle().randomChoice(list), List.of(Random.battle().randomChoice(tgt)), false));
+				}
+				return;
+			}
+			//魔法詠唱完了
+			if (cmd.isMagicSpell()) {
+				user.getStatus().removeCondition(ConditionKey.詠唱中);
+				Action a = cmd.getFirstBattleAction();
+				List<Actor> tgt = castTgt.remove(user);
+				if (tgt == null) {
+					return;
+				}
+				tgt = tgt.stream().filter(p -> isActive(p)).toList();
+				if (tgt.isEmpty()) {
+					return;
+				}
+				execAction(new ActionTarget(user, a, tgt, false));
+				return;
+			}
+			ActionTarget at = (user.isPlayer() ? partyPolicy : enemyPolicy).next(user, allies, foes);
+			if (at == null) {
+				return;
+			}
+			Action a = at.getAction();
+			if (a.getType() == ActionType.行動) {
+				switch (a.getId()) {
+					case BattleConfig.ActionID.逃走:
+						user.getStatus().addCondition(ConditionKey.逃走した, Integer.MAX_VALUE);
+						break;
+					case BattleConfig.ActionID.防御:
+						user.getStatus().addCondition(ConditionKey.防御中, 1);
+						break;
+					case BattleConfig.ActionID.回避:
+						user.getStatus().addCondition(ConditionKey.回避中, 1);
+						break;
+					default:
+						break;
+				}
+				return;
+			}
+			//魔法詠唱開始
+			if (a.getType() == ActionType.魔法 && a.getCastTime() != 0) {
+				if (a.checkResource(user.getStatus()).is足りないステータスあり()) {
+					return;
+				}
+				int t = turn + a.getCastTime();
+				user.getStatus().addCondition(ConditionKey.詠唱中, a.getCastTime());
+				magics.computeIfAbsent(t, k -> new ArrayList<>()).add(new MagicSpell(user, a, user.isPlayer()));
+				castTgt.put(user, at.getTgt());
+				commands.removeIf(c -> c.getUser().equals(user));
+				return;
+			}
+			execAction(at);
+		}
+
+		private void execAction(ActionTarget tgt) {
+			Actor user = tgt.getUser();
+			Action a = tgt.getAction();
+			if (!a.canDo(user.getStatus())) {
+				return;
+			}
+			ActionResult ar = new ActionResult(a, tgt);
+			for (ActionEvent v : a.getUserEvents()) {
+				if (!execEvent(v, tgt, ar, true)) {
+					return;
+				}
+			}
+			for (ActionEvent v : a.getMainEvents()) {
+				if (!execEvent(v, tgt, ar, false)) {
+					return;
+				}
+			}
+		}
+
+		private boolean execEvent(ActionEvent v, ActionTarget tgt, ActionResult ar, boolean isUserEvent) {
+			if (UNSUPPORTED.contains(v.getEventType())) {
+				skipped++;
+				return true;
+			}
+			int n = v.getEventType().isTgtID回実行イベント() ? Integer.parseInt(v.getTgtID()) : 1;
+			for (int i = 0; i < n; i++) {
+				//ユーザが実行できない状態になっていたら中断
+				if (tgt.getUser().getStatus().getConditionFlags().getP().停止 >= 1f) {
+					return false;
+				}
+				for (Actor a : all) {
+					a.getStatus().unsetDamageCalcPoint();
+				}
+				v.exec(tgt, ar, isUserEvent);
+			}
+			return true;
+		}
+
+		private List<Actor> allies(Actor user) {
+			return (user.isPlayer() ? p : e).stream().filter(v -> isActive(v)).toList();
+		}
+
+		private List<Actor> foes(Actor user) {
+			return (user.isPlayer() ? e : p).stream().filter(v -> isActive(v)).toList();
+		}
+
+		@Nullable
+		private BattleResult result() {
+			if (e.stream().noneMatch(v -> isActive(v))) {
+				return e.stream().allMatch(v -> v.getStatus().hasCondition(ConditionKey.逃走した))
+						? BattleResult.勝利_敵が全員逃げた
+						: BattleResult.勝利_敵全滅;
+			}
+			if (p.stream().noneMatch(v -> isActive(v))) {
+				return p.stream().allMatch(v -> v.getStatus().hasCondition(ConditionKey.逃走した))
+						? BattleResult.勝利_こちらが全員逃げた
+						: BattleResult.敗北_味方全滅;
+			}
+			return null;
+		}
+
+		//前回からの体力の減少を集計する。損壊した場合はステータスがリセットされるため、残っていた体力を減少とする
+		private void account() {
+			for (int i = 0; i < hp.length; i++) {
+				Actor a = all.get(i);
+				float now = hpOf(a);
+				boolean d = a.getStatus().hasCondition(ConditionKey.損壊);
+				float damage = d && !dead[i] ? hp[i] : hp[i] - now;
+				if (damage > 0) {
+					if (a.isPlayer()) {
+						taken += damage;
+					} else {
+						dealt += damage;
+					}
+				}
+				hp[i] = d ? 0 : now;
+				dead[i] = d;
+			}
+		}
+	}
+
+	private static float hpOf(Actor a) {
+		return a.getStatus().getBaseStatus().get(StatusKey.体力).getValue();
+	}
+
+	/**
+	 * シミュレーションの結果です.
+	 */
+	public static final class Report {
+
+		private final int battles;
+		private final EnumMap<BattleResult, Integer> results = new EnumMap<>(BattleResult.class);
+		private final int timeout;
+		private final int[] turns;
+		private final float[] dealt;
+		private final float[] taken;
+		private final long[] turnHistogram;
+		private final long skippedEvents;
+		private final long time;
+
+		private Report(BattleResult[] r, int[] turns, float[] dealt, float[] taken, long skippedEvents, int maxTurn, long time) {
+			this.battles = r.length;
+			int to = 0;
+			for (BattleResult v : r) {
+				if (v == null) {
+					to++;
+				} else {
+					results.merge(v, 1, Integer::sum);
+				}
+			}
+			this.timeout = to;
+			this.turnHistogram = new long[maxTurn + 1];
+			for (int v : turns) {
+				turnHistogram[v]++;
+			}
+			this.turns = turns.clone();
+			Arrays.sort(this.turns);
+			this.dealt = dealt.clone();
+			Arrays.sort(this.dealt);
+			this.taken = taken.clone();
+			Arrays.sort(this.taken);
+			this.skippedEvents = skippedEvents;
+			this.time = time;
+		}
+
+		public int getBattles() {
+			return battles;
+		}
+
+		/**
+		 * 結果ごとの戦闘の数を返します。
+		 *
+		 * @param r 結果。
+		 * @return 戦闘の数。
+		 */
+		public int getCount(BattleResult r) {
+			return results.getOrDefault(r, 0);
+		}
+
+		/**
+		 * 最大ターン数で決着しなかった戦闘の数を返します。
+		 *
+		 * @return 戦闘の数。
+		 */
+		public int getTimeout() {
+			return timeout;
+		}
+
+		/**
+		 * 敵の全滅または逃走で終わった戦闘の割合を返します。
+		 *
+		 * @return 勝率。0から1。
+		 */
+		public float getWinRate() {
+			return (getCount(BattleResult.勝利_敵全滅) + getCount(BattleResult.勝利_敵が全員逃げた)) / (float) battles;
+		}
+
+		/**
+		 * 決着したターン数ごとの戦闘の数を返します。
+		 *
+		 * @return 戦闘の数のコピー。i番目の要素はiターンで終わった戦闘の数です。時間切れは最大ターン数に含まれます。
+		 */
+		public long[] getTurnHistogram() {
+			return turnHistogram.clone();
+		}
+
+		/**
+		 * 指定した割合の戦闘が終わるターン数を返します。
+		 *
+		 * @param p 割合。0から1で指定します。
+		 * @return ターン数。
+		 */
+		public int getTurnPercentile(float p) {
+			return turns[index(p)];
+		}
+
+		/**
+		 * 1回の戦闘で敵が受けた体力へのダメージのうち、指定した割合の戦闘が収まる値を返します。
+		 *
+		 * @param p 割合。0から1で指定します。
+		 * @return ダメージ。
+		 */
+		public float getDealtPercentile(float p) {
+			return dealt[index(p)];
+		}
+
+		/**
+		 * 1回の戦闘でパーティーが受けた体力へのダメージのうち、指定した割合の戦闘が収まる値を返します。
+		 *
+		 * @param p 割合。0から1で指定します。
+		 * @return ダメージ。
+		 */
+		public float getTakenPercentile(float p) {
+			return taken[index(p)];
+		}
+
+		private int index(float p) {
+			if (p < 0 || p > 1) {
+				throw new IllegalArgumentException("Report : p is out of range : " + p);
+			}
+			return Math.max(0, (int) Math.ceil(battles * p) - 1);
+		}
+
+		/**
+		 * 実行できずにスキップしたイベントの数を返します。
+		 *
+		 * @return イベントの数。
+		 */
+		public long getSkippedEvents() {
+			return skippedEvents;
+		}
+
+		/**
+		 * すべての戦闘にかかった時間を返します。
+		 *
+		 * @return 時間（ナノ秒）。
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		public float getBattlesPerSecond() {
+			return time == 0 ? 0 : battles / (time / 1_000_000_000f);
+		}
+
+		@Override
+		public String toString() {
+			return "Report{" + "battles=" + battles
+					+ ", winRate=" + getWinRate()
+					+ ", results=" + results
+					+ ", timeout=" + timeout
+					+ ", turn(p50/p90/max)=" + getTurnPercentile(0.5f) + "/" + getTurnPercentile(0.9f) + "/" + getTurnPercentile(1)
+					+ ", dealt(p50/p90)=" + getDealtPercentile(0.5f) + "/" + getDealtPercentile(0.9f)
+					+ ", taken(p50/p90)=" + getTakenPercentile(0.5f) + "/" + getTakenPercentile(0.9f)
+					+ ", skippedEvents=" + skippedEvents
+					+ ", battles/s=" + (int) getBattlesPerSecond() + '}';
+		}
+	}
+
+}
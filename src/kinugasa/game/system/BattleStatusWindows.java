@@ -23,19 +23,32 @@ import kinugasa.game.GameOption;
 import kinugasa.game.GraphicsContext;
 import kinugasa.game.ui.FontModel;
 import kinugasa.game.ui.MessageWindow;
+import kinugasa.game.ui.RetainedMessageWindow;
 import kinugasa.game.ui.SimpleMessageWindowModel;
 import kinugasa.game.ui.Text;
+import kinugasa.game.ui.ValueWatcher;
 import kinugasa.object.BasicSprite;
 
 /**
+ * バトル画面上部の、パーティーメンバーのステータスを表示するウインドウです.
+ * <br>
+ * 体力、魔力、正気度と行動不能状態をValueWatcherで監視し、変化したメンバーのテキストだけを作り直します。
+ * ウインドウはRetainedMessageWindowのため、値が変わらない間は描画結果の画像が再利用されます。<br>
  *
  * @vesion 1.0.0 - 2022/11/23_17:37:07<br>
  * @author Shinacho<br>
  */
 public class BattleStatusWindows extends BasicSprite {
 
+	private static final StatusKey[] KEYS = {StatusKey.体力, StatusKey.魔力, StatusKey.正気度};
+	private static final ConditionKey[] DOWN = {ConditionKey.解脱, ConditionKey.気絶, ConditionKey.損壊, ConditionKey.逃走した};
 	private List<MessageWindow> mw = new ArrayList<>();
 	private List<Actor> status;
+	private final List<ValueWatcher> watchers = new ArrayList<>();
+	//通常時と行動不能時のモデル
+	private final List<SimpleMessageWindowModel> models = new ArrayList<>();
+	private final List<SimpleMessageWindowModel> downModels = new ArrayList<>();
+	private final StringBuilder sb = new StringBuilder();
 
 	BattleStatusWindows(List<Actor> s) {
 		status = s;
@@ -49,80 +62,63 @@ public class BattleStatusWindows extends BasicSprite {
 	public static float h = 68;
 
 	public void init() {
+		体力 = StatusKey.体力.getVisibleName();
+		魔力 = StatusKey.魔力.getVisibleName();
+		正気度 = StatusKey.正気度.getVisibleName();
 		float x = 3;
 		float y = 3;
 		float w = (GameOption.getInstance().getWindowSize().width - 6) / status.size() / GameOption.getInstance().getDrawSize();
 		for (Actor s : status) {
-			//表示文字列の生成
-			String text = s + s.getVisibleName() + " | ";
-			StatusValueSet es = s.getStatus().getEffectedStatus();
-			int j = 0;
-			for (StatusKey k : List.of(StatusKey.体力, StatusKey.魔力, StatusKey.正気度)) {
-				StatusValue vs = es.get(k);
-				if (j != 0) {
-					if (s.getVisibleName().substring(0, 1).getBytes().length == 1) {
-						text += " ".repeat(s.getVisibleName().length());
-					} else {
-						text += "　".repeat(s.getVisibleName().length());
-					}
-					text += " | ";
-				}
-				text += vs.getKey().getVisibleName()
-						+ ":"
-						+ (int) (vs.getValue()) + Text.getLineSep();
-				j++;
-			}
-			//座標の計算
-			Text t = Text.of(text);
-			t.allText();
-			MessageWindow window = new MessageWindow(x, y, w, h, t);
-			window.showAllNow();
-			window.setModel(new SimpleMessageWindowModel().setNextIcon(""));
+			MessageWindow window = new RetainedMessageWindow(x, y, w, h, Text.empty());
+			SimpleMessageWindowModel model = new SimpleMessageWindowModel("");
+			model.setFont(FontModel.DEFAULT.clone().setColor(Color.WHITE));
+			SimpleMessageWindowModel downModel = new SimpleMessageWindowModel("");
+			downModel.setFont(FontModel.DEFAULT.clone().setColor(Color.GRAY));
+			window.setModel(model);
 			mw.add(window);
+			models.add(model);
+			downModels.add(downModel);
+			watchers.add(new ValueWatcher(KEYS.length + 1));
 			x += w;
 		}
-		体力 = StatusKey.体力.getVisibleName();
-		魔力 = StatusKey.魔力.getVisibleName();
-		正気度 = StatusKey.正気度.getVisibleName();
+		update();
 	}
 	private String 体力, 魔力, 正気度;
 
 	@Override
 	public void update() {
-		int i = 0;
-		for (Actor s : status) {
-			//表示文字列の生成
-			String text = s.getVisibleName() + " | ";
+		for (int i = 0; i < status.size(); i++) {
+			Actor s = status.get(i);
 			StatusValueSet es = s.getStatus().getEffectedStatus();
-			int j = 0;
-			for (StatusKey k : List.of(StatusKey.体力, StatusKey.魔力, StatusKey.正気度)) {
-				StatusValue vs = es.get(k);
+			boolean down = s.getStatus().hasAnyCondition(DOWN);
+			ValueWatcher vw = watchers.get(i);
+			for (int j = 0; j < KEYS.length; j++) {
+				vw.watch(j, (int) es.get(KEYS[j]).getValue());
+			}
+			vw.watch(KEYS.length, down);
+			if (!vw.poll()) {
+				continue;
+			}
+			//表示文字列の生成
+			sb.setLength(0);
+			sb.append(s.getVisibleName()).append(" | ");
+			for (int j = 0; j < KEYS.length; j++) {
 				if (j != 0) {
 					if (s.getVisibleName().substring(0, 1).getBytes().length == 1) {
-						text += " ".repeat(s.getVisibleName().length());
+						sb.append(" ".repeat(s.getVisibleName().length()));
 					} else {
-						text += "　".repeat(s.getVisibleName().length());
+						sb.append("　".repeat(s.getVisibleName().length()));
 					}
-					text += " | ";
+					sb.append(" | ");
 				}
-				text += (vs.getKey() == StatusKey.体力 ? 体力 : vs.getKey() == StatusKey.魔力 ? 魔力 : 正気度)
-						+ ":"
-						+ (int) (vs.getValue()) + Text.getLineSep();
-				j++;
+				sb.append(KEYS[j] == StatusKey.体力 ? 体力 : KEYS[j] == StatusKey.魔力 ? 魔力 : 正気度)
+						.append(':')
+						.append((int) es.get(KEYS[j]).getValue()).append(Text.getLineSep());
 			}
-			Text t = Text.of(text);
+			Text t = Text.of(sb.toString());
 			t.allText();
 			mw.get(i).setText(t);
-			if (s.getStatus().hasAnyCondition(ConditionKey.解脱, ConditionKey.気絶, ConditionKey.損壊, ConditionKey.逃走した)) {
-				SimpleMessageWindowModel model = new SimpleMessageWindowModel("");
-				model.setFont(FontModel.DEFAULT.clone().setColor(Color.GRAY));
-				mw.get(i).setModel(model);
-			} else {
-				SimpleMessageWindowModel model = new SimpleMessageWindowModel("");
-				model.setFont(FontModel.DEFAULT.clone().setColor(Color.WHITE));
-				mw.get(i).setModel(model);
-			}
-			i++;
+			mw.get(i).setModel(down ? downModels.get(i) : models.get(i));
 		}
 	}
 
@@ -131,7 +127,9 @@ public class BattleStatusWindows extends BasicSprite {
 		if (!isVisible() || !isExist()) {
 			return;
 		}
-		mw.forEach(v -> v.draw(g));
+		for (int i = 0; i < mw.size(); i++) {
+			mw.get(i).draw(g);
+		}
 	}
 
 }
@@ -41,6 +41,7 @@ import kinugasa.game.ui.Text;
 import kinugasa.object.Drawable;
 import kinugasa.object.FourDirection;
 import kinugasa.object.KVector;
+import kinugasa.object.SpatialGrid;
 import kinugasa.object.Sprite;
 import kinugasa.resource.sound.Sound;
 import kinugasa.util.FrameTimeCounter;
@@ -54,6 +55,7 @@ import static kinugasa.game.system.ConditionKey.解脱;
 import kinugasa.game.ui.FontModel;
 import kinugasa.graphics.Animation;
 import kinugasa.graphics.GraphicsUtil;
+import kinugasa.graphics.ImageCache;
 import kinugasa.object.AnimationSprite;
 import kinugasa.object.BasicSprite;
 import kinugasa.object.Effect;
@@ -326,8 +328,13 @@ public class BattleSystem implements Drawable {
 			currentBGM.stopAndPlay();
 		}
 		winBGM = enc.getEnemySetStorage().get().getWinBgm();
-		//敵取得
-		enemies = es.create();
+		//敵取得。敵の画像はバトル終了までキャッシュにピン留めする
+		ImageCache.getInstance().beginPin(this);
+		try {
+			enemies = es.create();
+		} finally {
+			ImageCache.getInstance().endPin();
+		}
 		ess.dispose();
 		//初期化
 		GameSystem gs = GameSystem.getInstance();
@@ -420,28 +427,21 @@ public class BattleSystem implements Drawable {
 		}
 	}
 
+	//敵の配置に使用する格子のセルの大きさ
+	private static final float ENEMY_CELL_SIZE = 48;
+
 	@OneceTime
 	private void putEnemy() {
-		List<Sprite> checkList = new ArrayList<>();
+		//配置済みの敵と障害物に重ならない位置を探す
+		SpatialGrid<Sprite> placed = new SpatialGrid<>(battleFieldSystem.getEnemytArea(), ENEMY_CELL_SIZE);
 		for (Enemy e : enemies) {
-			float w = e.getSprite().getWidth();
-			float h = e.getSprite().getHeight();
-			L2:
+			Sprite s = e.getSprite();
+			float w = s.getWidth();
+			float h = s.getHeight();
 			do {
-				e.getSprite().setLocation(Random.randomLocation(battleFieldSystem.getEnemytArea(), w, h));
-
-				boolean hit = false;
-				for (Sprite ee : checkList) {
-					hit |= e.getSprite().hit(ee);
-				}
-				for (Sprite os : battleFieldSystem.getObstacle()) {
-					hit |= e.getSprite().hit(os);
-				}
-				if (!hit) {
-					break L2;
-				}
-			} while (true);
-			checkList.add(e.getSprite());
+				s.setLocation(Random.field().randomLocation(battleFieldSystem.getEnemytArea(), w, h));
+			} while (placed.hitAny(s.getX(), s.getY(), w, h) || battleFieldSystem.hitObstacle(s));
+			placed.add(s, s);
 		}
 
 		Collections.sort(enemies, (Enemy o1, Enemy o2) -> (int) (o1.getSprite().getY() - o2.getSprite().getY()));
@@ -509,9 +509,9 @@ public class BattleSystem implements Drawable {
 					if (e.getStatus().hasAnyCondition(ConditionKey.解脱, ConditionKey.気絶, ConditionKey.損壊)) {
 						exp += (int) e.getStatus().getEffectedStatus().get(StatusKey.保有経験値).getValue();
 						for (DropItem i : e.getDropItem()) {
-							if (Random.percent(i.getP())) {
+							if (Random.battle().percent(i.getP())) {
 								//個数
-								int n = Random.randomAbsInt(i.getN() - 1) + 1;
+								int n = Random.battle().randomAbsInt(i.getN() - 1) + 1;
 								if (i.getItem() == null) {
 									for (int j = 0; j < n; j++) {
 										dropMaterials.add(i.getMaterial());
@@ -588,6 +588,7 @@ public class BattleSystem implements Drawable {
 			prevBGM.play();
 		}
 		enemies.clear();
+		ImageCache.getInstance().unpinAll(this);
 		end = true;
 		setStage(Stage.未使用);
 	}
@@ -595,7 +596,7 @@ public class BattleSystem implements Drawable {
 	private void turnStart() {
 		turn++;
 		if (GameSystem.isDebugMode()) {
-			GameLog.print(" -----------------TURN[" + turn + "] START-----------------");
+			GameLog.print(" -----------------TURN[{}] START-----------------", turn);
 		}
 		//PC・NPCの状態異常の経過ターン更新・継続ダメージ処理
 		boolean conditionMsg = false;
@@ -618,8 +619,8 @@ public class BattleSystem implements Drawable {
 						switch (v.getValue().statusKey) {
 							case 体力: {
 								DamageAnimationSprite ds = new DamageAnimationSprite(
-										a.getSprite().getX() - Random.randomAbsInt(9),
-										a.getSprite().getY() - Random.randomAbsInt(9),
+										a.getSprite().getX() - Random.effect().randomAbsInt(9),
+										a.getSprite().getY() - Random.effect().randomAbsInt(9),
 										Math.abs((int) (v.getValue().damage)),
 										Color.WHITE);
 								animation.add(ds);
@@ -635,8 +636,8 @@ public class BattleSystem implements Drawable {
 							}
 							case 正気度: {
 								DamageAnimationSprite ds = new DamageAnimationSprite(
-										a.getSprite().getX() + Random.randomAbsInt(9),
-										a.getSprite().getY() + Random.randomAbsInt(9),
+										a.getSprite().getX() + Random.effect().randomAbsInt(9),
+										a.getSprite().getY() + Random.effect().randomAbsInt(9),
 										Math.abs((int) (v.getValue().damage)),
 										Color.RED);
 								animation.add(ds);
@@ -777,7 +778,7 @@ public class BattleSystem implements Drawable {
 		user.getStatus().updateAction();
 
 		if (GameSystem.isDebugMode()) {
-			kinugasa.game.GameLog.print(" currentCMD:" + currentCmd);
+			kinugasa.game.GameLog.print(" currentCMD:{}", currentCmd);
 		}
 		//ターゲットシステム初期化
 		targetSystem.unset();
@@ -785,7 +786,7 @@ public class BattleSystem implements Drawable {
 		//この時点でアンターゲット状態異常の場合、メッセージ出さずに次に送る
 		if (user.getStatus().hasAnyCondition(ConditionKey.解脱, ConditionKey.損壊, ConditionKey.気絶, ConditionKey.逃走した)) {
 			if (GameSystem.isDebugMode()) {
-				GameLog.print(user.getVisibleName() + " is bad condition");
+				GameLog.print("{} is bad condition", user.getVisibleName());
 			}
 			return exec();
 		}
@@ -800,7 +801,7 @@ public class BattleSystem implements Drawable {
 		//状態異常で動けないときスキップ（メッセージは出す
 		//詠唱中の場合はのぞく
 		if (!user.getStatus().hasCondition(ConditionKey.詠唱中)) {
-			if (Random.percent(user.getStatus().getConditionFlags().getP().停止)) {
+			if (Random.battle().percent(user.getStatus().getConditionFlags().getP().停止)) {
 				assert user.getStatus().getConditionFlags().get停止理由() != null : "stop desc is null  : " + user + " / " + this;
 				setMsg(user.getVisibleName()
 						+ user.getStatus().getConditionFlags().get停止理由());
@@ -818,7 +819,7 @@ public class BattleSystem implements Drawable {
 		}
 		//その他の行動不能
 		ConditionKey 停止理由 = null;
-		if(Random.percent(user.getStatus().getConditionFlags().getP().停止)){
+		if(Random.battle().percent(user.getStatus().getConditionFlags().getP().停止)){
 			停止理由 = user.getStatus().getConditionFlags().get停止理由();
 		}
 //		for (ConditionKey k : List.of(ConditionKey.眠り, ConditionKey.麻痺)) {
@@ -835,7 +836,7 @@ public class BattleSystem implements Drawable {
 			return BSExecResult.STAGEが待機中の間待機しその後EXECを再度コールせよ;
 		}
 		//混乱で動けないときは、アクションを適当に取得して自動実行する
-		if (Random.percent(user.getStatus().getConditionFlags().getP().混乱)) {
+		if (Random.battle().percent(user.getStatus().getConditionFlags().getP().混乱)) {
 			//混乱
 			currentCmd.setUserOperation(false);//ユーザオペレーション要否を不要に設定
 			Action a = currentCmd.randomAction();
@@ -948,7 +949,7 @@ public class BattleSystem implements Drawable {
 			//AIからアクションとターゲットを取得して実行
 			ea = ((Enemy) user).getActionTgt();
 			if (GameSystem.isDebugMode()) {
-				kinugasa.game.GameLog.print(" enemy atgt:" + ea);
+				kinugasa.game.GameLog.print(" enemy atgt:{}", ea);
 			}
 
 			//移動、防御などのアクションの場合（逃げるも入る、確定も入る
@@ -1090,7 +1091,7 @@ public class BattleSystem implements Drawable {
 
 	private void cast予約(int t, MagicSpell s) {
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("cast : " + t + " / " + s);
+			GameLog.print("cast : {} / {}", t, s);
 		}
 		if (BattleConfig.Sounds.魔法詠唱開始 != null) {
 			BattleConfig.Sounds.魔法詠唱開始.load().stopAndPlay();
@@ -1330,7 +1331,7 @@ public class BattleSystem implements Drawable {
 		targetSystem.setIconVisible(true);
 		targetSystem.setAreaVisible(false, true);
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("-TGT SYS INITIAL SET : " + targetSystem.getSelected());
+			GameLog.print("-TGT SYS INITIAL SET : {}", new ArrayList<>(targetSystem.getSelected()));
 		}
 		if (targetSystem.getSelected().isEmpty()) {
 			if (GameSystem.isDebugMode()) {
@@ -1602,6 +1603,7 @@ public class BattleSystem implements Drawable {
 		afterMove = false;
 		//元の位置に戻してコマンド選択に戻す
 		currentCmd.getUser().getSprite().setLocationByCenter(moveIinitialLocation);
+		targetSystem.invalidateGrid();
 		targetSystem.setCurrent(currentCmd.getUser());
 		targetSystem.setCurrent(currentCmd.getActionOf(messageWindowSystem.getCmdW().getCurrentType()).get(0));
 		targetSystem.setAreaVisible(true, true);
@@ -1622,7 +1624,7 @@ public class BattleSystem implements Drawable {
 				.toList());
 		targetSystem.setAreaVisible(false, true);
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("AF : " + a);
+			GameLog.print("AF : {}", a);
 		}
 		messageWindowSystem.getAfterMoveW().setActions(a);
 		messageWindowSystem.setVisible(BattleMessageWindowSystem.Mode.AFTER_MOVE);
@@ -1734,7 +1736,7 @@ public class BattleSystem implements Drawable {
 		//アクション自動実行開始
 		ActionTarget target = new ActionTarget(currentCmd.getUser(), a, tgt, false);
 		if (GameSystem.isDebugMode()) {
-			GameLog.print(" commit tgt : " + tgt);
+			GameLog.print(" commit tgt : {}", new ArrayList<>(tgt));
 		}
 		//ターゲット不在の場合空振り
 		if (target.getTgt().isEmpty()) {
@@ -1884,7 +1886,7 @@ public class BattleSystem implements Drawable {
 
 	private void 攻撃処理(Action a, ActionTarget tgt) {
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("BS ATK : " + a + " / " + tgt);
+			GameLog.print("BS ATK : {} / {}", a, tgt);
 		}
 		actionResult = new ActionResult(a, tgt);
 		eventQueue.clear();
@@ -1920,9 +1922,9 @@ public class BattleSystem implements Drawable {
 
 	private void イベントキュー消化() {
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("BS currentQ : " + eventQueue);
-			GameLog.print("BS effect : " + effect);
-			GameLog.print("BS 前エフェクト生存者リスト : " + 前エフェクト生存者リスト);
+			GameLog.print("BS currentQ : {}", new ArrayList<>(eventQueue));
+			GameLog.print("BS effect : {}", effect);
+			GameLog.print("BS 前エフェクト生存者リスト : {}", new ArrayList<>(前エフェクト生存者リスト));
 		}
 		if (effect != null && effect.isEnded()) {
 			//エフェクトが終了している場合、その効果で死亡者がいるか再チェックする
@@ -1951,7 +1953,7 @@ public class BattleSystem implements Drawable {
 				}
 			}
 			if (GameSystem.isDebugMode()) {
-				GameLog.print(" effect tgt=" + 死亡者リスト);
+				GameLog.print(" effect tgt={}", new ArrayList<>(死亡者リスト));
 			}
 			if (死亡者リスト != null && !死亡者リスト.isEmpty()) {
 				前エフェクト生存者リスト = new ArrayList<>();
@@ -2015,6 +2017,8 @@ public class BattleSystem implements Drawable {
 		//実行
 		allActors().forEach(p -> p.getStatus().unsetDamageCalcPoint());
 		e.exec(currentActionTgt, actionResult, isUserEvent);
+		//イベントで移動や召喚が行われることがあるため、範囲検索の格子を作り直す
+		targetSystem.invalidateGrid();
 
 		if (e.getEventType().is連鎖イベント()) {
 			イベントキュー消化();
@@ -2179,7 +2183,7 @@ public class BattleSystem implements Drawable {
 
 	private void エフェクト起動ByActor(List<Actor> 死亡者リスト) {
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("BS effect start by actor : " + 死亡者リスト);
+			GameLog.print("BS effect start by actor : {}", new ArrayList<>(死亡者リスト));
 		}
 		assert 死亡者リスト != null && !死亡者リスト.isEmpty() : "BS deadman list is missmatch";
 		boolean sound = false;
@@ -2323,7 +2327,7 @@ public class BattleSystem implements Drawable {
 		//死亡者リストには召喚者は含まれない
 		assert 死亡者リスト.stream().anyMatch(p -> !p.tgt.isSummoned()) : "BS deadman list is missmatch";
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("BS effect start tgt=[" + 死亡者リスト + "]");
+			GameLog.print("BS effect start tgt=[{}]", new ArrayList<>(死亡者リスト));
 		}
 		boolean sound = false;
 		//サウンド再生
@@ -2427,8 +2431,8 @@ public class BattleSystem implements Drawable {
 	private void addDamageAnimation(ActionResult.EventActorResult res) {
 		if (res.tgtDamageHp != 0) {
 			DamageAnimationSprite ds = new DamageAnimationSprite(
-					res.tgt.getSprite().getX() - Random.randomAbsInt(9),
-					res.tgt.getSprite().getY() - Random.randomAbsInt(9),
+					res.tgt.getSprite().getX() - Random.effect().randomAbsInt(9),
+					res.tgt.getSprite().getY() - Random.effect().randomAbsInt(9),
 					Math.abs(res.tgtDamageHp),
 					Color.WHITE);
 			遅延起動Animation a = new 遅延起動Animation(ds, new FrameTimeCounter(20));
@@ -2445,8 +2449,8 @@ public class BattleSystem implements Drawable {
 		}
 		if (res.tgtDamageSAN != 0) {
 			DamageAnimationSprite ds = new DamageAnimationSprite(
-					res.tgt.getSprite().getX() + Random.randomAbsInt(9),
-					res.tgt.getSprite().getY() + Random.randomAbsInt(9),
+					res.tgt.getSprite().getX() + Random.effect().randomAbsInt(9),
+					res.tgt.getSprite().getY() + Random.effect().randomAbsInt(9),
 					Math.abs(res.tgtDamageSAN),
 					Color.RED);
 			遅延起動Animation a = new 遅延起動Animation(ds, new FrameTimeCounter(20));
@@ -2477,6 +2481,7 @@ public class BattleSystem implements Drawable {
 		//MW表示内容の更新
 		messageWindowSystem.update();
 		//SELECTEDのアイコンとエリア更新
+		targetSystem.invalidateGrid();
 		targetSystem.update();
 		//敵のプログレスバー更新
 		enemies.forEach(v -> v.update());
@@ -2671,6 +2676,7 @@ public class BattleSystem implements Drawable {
 			}
 			case 待機中＿敵逃走中: {
 				currentCmd.getUser().getSprite().moveToTgt();
+				targetSystem.invalidateGrid();
 				if (!currentCmd.getUser().getSprite().isMoving()
 						|| !battleFieldSystem.getBattleFieldAllArea().hit(currentCmd.getUser().getSprite())) {
 					currentCmd.getUser().getSprite().unsetTarget();
@@ -2686,6 +2692,7 @@ public class BattleSystem implements Drawable {
 			}
 			case PC逃げアニメーション実行中: {
 				currentCmd.getUser().getSprite().moveToTgt();
+				targetSystem.invalidateGrid();
 				if (!currentCmd.getUser().getSprite().isMoving()
 						|| !battleFieldSystem.getBattleFieldAllArea().hit(currentCmd.getUser().getSprite())) {
 					currentCmd.getUser().getSprite().unsetTarget();
@@ -2734,6 +2741,7 @@ public class BattleSystem implements Drawable {
 				currentCmd.getUser().getStatus().getBaseStatus().get(StatusKey.残行動力)
 						.add(-2f);
 				currentCmd.getUser().getSprite().moveToTgt();
+				targetSystem.invalidateGrid();
 				remMovePoint = (int) currentCmd.getUser().getStatus().getEffectedStatus().get(StatusKey.残行動力).getValue();
 				//移動ポイントが切れた場合、移動終了してユーザコマンド待ちに移行
 				if (remMovePoint <= 0 || !currentCmd.getUser().getSprite().isMoving()) {
@@ -2835,7 +2843,7 @@ public class BattleSystem implements Drawable {
 	//"/" ng
 	private void setMsg(List<String> s) {
 		if (GameSystem.isDebugMode()) {
-			GameLog.print(" setMsg:" + s.toString());
+			GameLog.print(" setMsg:{}", new ArrayList<>(s));
 		}
 		//8行以上ある場合は2列づつ出す。
 		List<String> msg = new ArrayList<>();
@@ -2886,7 +2894,7 @@ public class BattleSystem implements Drawable {
 	private void setStage(Stage s) {
 		if (s != Stage.バトル終了済み) {
 			if (GameSystem.isDebugMode()) {
-				GameLog.print("BS " + prevStage + " -> " + stage + " -> " + s);
+				GameLog.print("BS {} -> {} -> {}", prevStage, stage, s);
 			}
 		}
 		this.prevStage = stage;
@@ -51,6 +51,7 @@ import kinugasa.game.ui.FontModel;
 import kinugasa.game.ui.SimpleTextLabelModel;
 import kinugasa.game.ui.TextLabelSprite;
 import kinugasa.object.Drawable;
+import kinugasa.object.SpatialGrid;
 import kinugasa.object.Sprite;
 import kinugasa.util.FrameTimeCounter;
 import kinugasa.game.NotNull;
@@ -73,12 +74,43 @@ public class BattleTargetSystem implements Drawable {
 		return INSTANCE;
 	}
 
+	//範囲の検索に使用する格子。BattleSystemがフレームの開始時と移動、イベントの実行後に無効化する
+	private SpatialGrid<Actor> partyGrid;
+	private SpatialGrid<Actor> enemyGrid;
+	private boolean gridValid = false;
+	private static final float GRID_CELL_SIZE = 64;
+
+	void invalidateGrid() {
+		gridValid = false;
+	}
+
+	private void updateGrid() {
+		List<Actor> party = GameSystem.getInstance().getParty();
+		List<Enemy> enemies = BattleSystem.getInstance().getEnemies();
+		if (gridValid && partyGrid.size() == party.size() && enemyGrid.size() == enemies.size()) {
+			return;
+		}
+		if (partyGrid == null) {
+			partyGrid = new SpatialGrid<>(BattleFieldSystem.getInstance().getBattleArea(), GRID_CELL_SIZE);
+			enemyGrid = new SpatialGrid<>(BattleFieldSystem.getInstance().getBattleArea(), GRID_CELL_SIZE);
+		}
+		partyGrid.clear();
+		for (int i = 0, size = party.size(); i < size; i++) {
+			partyGrid.add(party.get(i), party.get(i).getSprite());
+		}
+		enemyGrid.clear();
+		for (int i = 0, size = enemies.size(); i < size; i++) {
+			enemyGrid.add(enemies.get(i), enemies.get(i).getSprite());
+		}
+		gridValid = true;
+	}
+
 	@NewInstance
 	@NotNull
 	static List<Actor> recalcDistance(List<Actor> tgt, Point2D.Float p, int area) {
 		List<Actor> res = new ArrayList<>();
 		for (Actor a : tgt) {
-			if (a.getSprite().getCenter().distance(p) < area) {
+			if (a.getSprite().getCenterDistance(p.x, p.y) < area) {
 				res.add(a);
 			}
 		}
@@ -115,7 +147,7 @@ public class BattleTargetSystem implements Drawable {
 			case 単体_敵のみ:
 			case 単体_切替可能_自身含む_初期選択敵:
 			case 単体_切替可能_自身含まない_初期選択敵: {
-				result.add(Random.randomChoice(tgt));
+				result.add(Random.battle().randomChoice(tgt));
 				break;
 			}
 		}
@@ -188,7 +220,7 @@ public class BattleTargetSystem implements Drawable {
 		if (tgt.isEmpty()) {
 			return null;
 		}
-		return Random.randomChoice(tgt);
+		return Random.battle().randomChoice(tgt);
 	}
 
 	public void saveNowTgt(Actor a) {
@@ -317,7 +349,7 @@ public class BattleTargetSystem implements Drawable {
 			selectedIdx = 0;
 		}
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("TS : " + selectedIdx + " of " + inArea候補者);
+			GameLog.print("TS : {} of {}", selectedIdx, new ArrayList<>(inArea候補者));
 		}
 		updateIcons();
 	}
@@ -331,7 +363,7 @@ public class BattleTargetSystem implements Drawable {
 			selectedIdx = inArea候補者.size() - 1;
 		}
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("TS : " + selectedIdx + " of " + inArea候補者);
+			GameLog.print("TS : {} of {}", selectedIdx, new ArrayList<>(inArea候補者));
 		}
 		updateIcons();
 	}
@@ -344,7 +376,7 @@ public class BattleTargetSystem implements Drawable {
 			updateIcons();
 		}
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("TS : " + selectedIdx + " of " + inArea候補者);
+			GameLog.print("TS : {} of {}", selectedIdx, new ArrayList<>(inArea候補者));
 		}
 	}
 
@@ -410,26 +442,24 @@ public class BattleTargetSystem implements Drawable {
 				TeamSelect.未使用;
 		};
 		if (GameSystem.isDebugMode()) {
-			GameLog.print(" TS init team select : " + teamSelect);
+			GameLog.print(" TS init team select : {}", teamSelect);
 		}
 	}
 
 	List<Actor> allPartyOf(Point2D.Float center, int area) {
+		updateGrid();
 		List<Actor> result = new ArrayList<>();
-		for (Actor pc : GameSystem.getInstance().getParty()) {
-			if (pc.getSprite().getCenter().distance(center) <= area) {
-				result.add(pc);
-			}
+		for (int i = 0, n = partyGrid.queryRadius(center.x, center.y, area); i < n; i++) {
+			result.add(partyGrid.getResult(i));
 		}
 		return result;
 	}
 
 	List<Actor> allEnemyOf(Point2D.Float center, int area) {
+		updateGrid();
 		List<Actor> result = new ArrayList<>();
-		for (Actor e : BattleSystem.getInstance().getEnemies()) {
-			if (e.getSprite().getCenter().distance(center) <= area) {
-				result.add(e);
-			}
+		for (int i = 0, n = enemyGrid.queryRadius(center.x, center.y, area); i < n; i++) {
+			result.add(enemyGrid.getResult(i));
 		}
 		return result;
 	}
@@ -439,7 +469,7 @@ public class BattleTargetSystem implements Drawable {
 		Point2D.Float center = user.getSprite().getCenter();
 		List<Actor> result = new ArrayList<>();
 		for (Actor e : BattleSystem.getInstance().getEnemies()) {
-			if (e.getSprite().getCenter().distance(center) <= area) {
+			if (e.getSprite().getCenterDistance(center.x, center.y) <= area) {
 				if (!e.isSummoned()) {
 					if (e.getStatus().getItemBag().canAdd()) {
 						result.add(e);
@@ -767,7 +797,7 @@ public class BattleTargetSystem implements Drawable {
 		inArea候補者.removeAll(remove);
 
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("TS inArea : " + inArea候補者);
+			GameLog.print("TS inArea : {}", new ArrayList<>(inArea候補者));
 		}
 	}
 
@@ -160,7 +160,7 @@ public class BeamEffectEvents {
 					public void draw(GraphicsContext g) {
 						Graphics2D g2 = g.create();
 						g2.setColor(key.color);
-						g2.setStroke(new BasicStroke(Random.randomFloat() + key.size));
+						g2.setStroke(new BasicStroke(Random.effect().randomFloat() + key.size));
 						g2.drawLine((int) p1.x, (int) p1.y, (int) p2.x, (int) p2.y);
 						g2.dispose();
 					}
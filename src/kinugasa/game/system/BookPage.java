@@ -51,6 +51,10 @@ public class BookPage implements Nameable {
 		throw new UnsupportedOperationException("Not supported yet."); // Generated from nbfs://nbhost/SystemFileSystem/Templates/Classes/Code/GeneratedMethodBody
 	}
 
+	String getEventID() {
+		return eventID;
+	}
+
 	public ActionEvent getEvent() {
 		return ActionStorage.getInstance().eventOf(eventID).setEvent起動条件(ActionEvent.Event起動条件.条件なしで必ず起動);
 	}
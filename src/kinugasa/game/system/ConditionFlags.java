@@ -39,11 +39,11 @@ public class ConditionFlags extends Model {
 		}
 
 		public boolean is停止() {
-			return Random.percent(停止);
+			return Random.battle().percent(停止);
 		}
 
 		public boolean is混乱() {
-			return Random.percent(混乱);
+			return Random.battle().percent(混乱);
 		}
 
 		@Override
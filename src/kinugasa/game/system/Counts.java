@@ -17,11 +17,14 @@
 package kinugasa.game.system;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import kinugasa.resource.Nameable;
 import kinugasa.resource.Storage;
 import kinugasa.resource.db.DBConnection;
 import kinugasa.resource.db.DBValue;
+import kinugasa.resource.db.DBWriteBehind;
 import kinugasa.resource.db.KResultSet;
 import kinugasa.resource.db.KSQLException;
 
@@ -74,49 +77,46 @@ public class Counts {
 		return storage;
 	}
 
+	private static final String TABLE = "counts";
+
+	/**
+	 * カウントに1加算します。値はDBWriteBehindによって非同期に書き込まれます。
+	 *
+	 * @param name カウントのID。
+	 */
 	public void add1count(String name) {
-		Counts.Value v = null;
-		if (storage.contains(name)) {
-			v = storage.get(name);
-			storage.remove(name);
-		} else if ((v = select(name)) != null) {
-		}
-		if (v == null) {
-			v = new Value(name, 1);
-		} else {
-			v = new Value(v.name, v.num + 1);
-		}
-		storage.add(v);
-		commit();
+		updateOrInsert(name, 1);
 	}
-	
-	public void updateOrInsert(String name, long val){
-		Counts.Value v = null;
-		if (storage.contains(name)) {
-			v = storage.get(name);
-			storage.remove(name);
-		} else if ((v = select(name)) != null) {
-		}
-		if (v == null) {
-			v = new Value(name, val);
-		} else {
-			v = new Value(v.name, v.num + val);
+
+	/**
+	 * カウントに値を加算します。値はDBWriteBehindによって非同期に書き込まれます。
+	 *
+	 * @param name カウントのID。
+	 * @param val 加算する値。
+	 */
+	public void updateOrInsert(String name, long val) {
+		if (!DBConnection.getInstance().isUsing()) {
+			return;
 		}
-		storage.add(v);
-		commit();
+		DBWriteBehind.getInstance().add(TABLE, name, val);
 	}
 
 	public Value select(String id) throws KSQLException {
-		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select id, num from counts where id = '" + id + "';";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
-			if (r.isEmpty()) {
-				return null;
-			}
-			for (List<DBValue> v : r) {
-				String i = v.get(0).get();
-				long n = v.get(1).asLong();
-				return new Value(i, n);
+		DBConnection dbc = DBConnection.getInstance();
+		if (dbc.isUsing()) {
+			//書き込み待ちの加算値を含める。コミットの前後で二重に数えないように読み込み用のロックで同期する
+			DBWriteBehind wb = DBWriteBehind.getInstance();
+			synchronized (wb.getReadLock()) {
+				String sql = "select id, num from counts where id = ?";
+				KResultSet r = dbc.execQuery(sql, id);
+				if (r.isEmpty()) {
+					return wb.hasPending(TABLE, id) ? new Value(id, wb.getPending(TABLE, id)) : null;
+				}
+				for (List<DBValue> v : r) {
+					String i = v.get(0).get();
+					long n = v.get(1).asLong();
+					return new Value(i, n + wb.getPending(TABLE, i));
+				}
 			}
 		}
 		return null;
@@ -124,32 +124,25 @@ public class Counts {
 
 	public List<Value> selectAll() throws KSQLException {
 		List<Value> res = new ArrayList<>();
-		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select id, num from counts;";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
-			if (r.isEmpty()) {
-				return res;
-			}
-			for (List<DBValue> v : r) {
-				String i = v.get(0).get();
-				long n = v.get(1).asLong();
-				res.add(new Value(i, n));
+		DBConnection dbc = DBConnection.getInstance();
+		if (dbc.isUsing()) {
+			//書き込み待ちの加算値を含める。コミットの前後で二重に数えないように読み込み用のロックで同期する
+			DBWriteBehind wb = DBWriteBehind.getInstance();
+			synchronized (wb.getReadLock()) {
+				Set<String> pendingIds = new HashSet<>(wb.getPendingIds(TABLE));
+				String sql = "select id, num from counts";
+				dbc.forEachRow(sql, v -> {
+					String i = v.getString(0);
+					long n = v.getLong(1);
+					res.add(new Value(i, n + wb.getPending(TABLE, i)));
+					pendingIds.remove(i);
+				});
+				for (String i : pendingIds) {
+					res.add(new Value(i, wb.getPending(TABLE, i)));
+				}
 			}
 		}
 		return res;
 	}
 
-	private void commit() {
-		for (Value v : storage) {
-			if (select(v.name) == null) {
-				String sql = "insert into counts values('" + v.name + "'," + v.num + ");";
-				DBConnection.getInstance().execDirect(sql);
-			} else {
-				String sql = "update counts set num = " + v.num + " where id = '" + v.name + "';";
-				DBConnection.getInstance().execDirect(sql);
-			}
-		}
-		storage.clear();
-	}
-
 }
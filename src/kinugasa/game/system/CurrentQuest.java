@@ -39,6 +39,10 @@ public class CurrentQuest {
 		questMap.put(q.getQid(), q);
 	}
 
+	public void clear() {
+		questMap.clear();
+	}
+
 	public Set<Quest> get() {
 		return new HashSet<>(questMap.values());
 	}
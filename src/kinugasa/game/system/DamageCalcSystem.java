@@ -18,6 +18,7 @@ package kinugasa.game.system;
 
 import kinugasa.game.GameLog;
 import kinugasa.game.I18N;
+import kinugasa.resource.sound.Sound;
 import kinugasa.util.Random;
 
 /**
@@ -55,7 +56,7 @@ public class DamageCalcSystem {
 			this.tgtStatusKey = tgtStatusKey;
 			this.dcs = dcs;
 			if (GameSystem.isDebugMode()) {
-				GameLog.print(this);
+				GameLog.print("{}", this);
 			}
 		}
 
@@ -100,7 +101,7 @@ public class DamageCalcSystem {
 			this.finalValue = finalValue;
 			this.reverse調整 = reverse調整;
 			if (GameSystem.isDebugMode()) {
-				GameLog.print(this);
+				GameLog.print("{}", this);
 			}
 		}
 
@@ -113,6 +114,13 @@ public class DamageCalcSystem {
 
 	public static final float SPREAD = 0.05f;
 
+	//シミュレーション中はサウンドを再生しない
+	private static void play(Param p, Sound s) {
+		if (s != null && !p.user.getStatus().getContext().isHeadless()) {
+			s.load().stopAndPlay();
+		}
+	}
+
 	public static Result calcDamage(Param p) {
 		if (GameSystem.isDebugMode()) {
 			GameLog.print("CALC DAMAGE ^-PARAM / v-RESULT");
@@ -174,8 +182,8 @@ public class DamageCalcSystem {
 				value *= BattleConfig.DAMAGE_MUL;
 
 				//乱数
-				float spread = value * Random.randomFloat(SPREAD);
-				if (Random.randomBool()) {
+				float spread = value * Random.battle().randomFloat(SPREAD);
+				if (Random.battle().randomBool()) {
 					value += spread;
 				} else {
 					value -= spread;
@@ -189,7 +197,7 @@ public class DamageCalcSystem {
 
 				//0ダメ1補正
 				if ((-1 < value && value <= 0) || (0 <= value && value < 1)) {
-					if (Random.percent(def / (atk == 0 ? 1 : atk))) {
+					if (Random.battle().percent(def / (atk == 0 ? 1 : atk))) {
 						value = -1;
 						ゼロダメ＿１にした = true;
 					} else {
@@ -216,23 +224,19 @@ public class DamageCalcSystem {
 				} else {
 					cp *= CRIT_ADD;
 				}
-				if (Random.percent(userVS.get(StatusKey.クリティカル率).getValue() + cp)) {
+				if (Random.battle().percent(userVS.get(StatusKey.クリティカル率).getValue() + cp)) {
 					クリティカル = true;
 					value *= (1f + userVS.get(StatusKey.クリティカルダメージ倍数).getValue());
-					if (BattleConfig.Sounds.物理クリティカル != null) {
-						BattleConfig.Sounds.物理クリティカル.load().stopAndPlay();
-					}
+					play(p, BattleConfig.Sounds.物理クリティカル);
 				}
 
 				//命中＊回避判定
 				//クリティカルの場合は回避できない
 				if (!クリティカル) {
-					if (Random.percent(tgtVS.get(StatusKey.回避率).getValue() * userVS.get(StatusKey.命中率).getValue())) {
+					if (Random.battle().percent(tgtVS.get(StatusKey.回避率).getValue() * userVS.get(StatusKey.命中率).getValue())) {
 						//回避成功
 						回避 = true;
-						if (BattleConfig.Sounds.物理回避 != null) {
-							BattleConfig.Sounds.物理回避.load().stopAndPlay();
-						}
+						play(p, BattleConfig.Sounds.物理回避);
 						return new Result(p, ActionResultSummary.失敗＿実行したがミス,
 								false, true, false, false, false, false, false, false,
 								0, 0, false);
@@ -257,21 +261,17 @@ public class DamageCalcSystem {
 				//ブロック判定
 				//クリティカルの場合はブロックできない
 				if (!クリティカル) {
-					if (Random.percent(tgtVS.get(StatusKey.ブロック率).getValue())) {
+					if (Random.battle().percent(tgtVS.get(StatusKey.ブロック率).getValue())) {
 						//ブロック成功
 						ブロック = true;
-						if (BattleConfig.Sounds.物理ブロック != null) {
-							BattleConfig.Sounds.物理ブロック.load().stopAndPlay();
-						}
+						play(p, BattleConfig.Sounds.物理ブロック);
 						value *= tgtVS.get(StatusKey.ブロックダメージ倍率).getValue();
 					}
 				}
 
 				//反射判定
-				if (Random.percent(p.tgt.getStatus().getConditionFlags().get物理反射確率())) {
-					if (BattleConfig.Sounds.物理反射 != null) {
-						BattleConfig.Sounds.物理反射.load().stopAndPlay();
-					}
+				if (Random.battle().percent(p.tgt.getStatus().getConditionFlags().get物理反射確率())) {
+					play(p, BattleConfig.Sounds.物理反射);
 					反射 = true;
 					p.user.getStatus().getBaseStatus().get(p.tgtStatusKey).add(value);
 					return new Result(p,
@@ -282,10 +282,8 @@ public class DamageCalcSystem {
 				}
 
 				//吸収判定
-				if (Random.percent(p.tgt.getStatus().getConditionFlags().get物理吸収確率())) {
-					if (BattleConfig.Sounds.物理吸収 != null) {
-						BattleConfig.Sounds.物理吸収.load().stopAndPlay();
-					}
+				if (Random.battle().percent(p.tgt.getStatus().getConditionFlags().get物理吸収確率())) {
+					play(p, BattleConfig.Sounds.物理吸収);
 					吸収 = true;
 					value = -value;
 					p.tgt.getStatus().getBaseStatus().get(p.tgtStatusKey).add(value);
@@ -303,7 +301,7 @@ public class DamageCalcSystem {
 					}
 					if (i.isAddConditionP()) {
 						if (p.tgt.getStatus().getEffectedConditionRegist().containsKey(i.getAddCondition())) {
-							if (Random.percent(p.tgt.getStatus().getEffectedConditionRegist().get(i.getAddCondition()))) {
+							if (Random.battle().percent(p.tgt.getStatus().getEffectedConditionRegist().get(i.getAddCondition()))) {
 								p.tgt.getStatus().addCondition(i.getAddCondition(), i.getCnditionTime());
 								状態異常付与 = true;
 							}
@@ -365,8 +363,8 @@ public class DamageCalcSystem {
 				value *= BattleConfig.DAMAGE_MUL;
 
 				//乱数
-				float spread = value * Random.randomFloat(SPREAD);
-				if (Random.randomBool()) {
+				float spread = value * Random.battle().randomFloat(SPREAD);
+				if (Random.battle().randomBool()) {
 					value += spread;
 				} else {
 					value -= spread;
@@ -380,7 +378,7 @@ public class DamageCalcSystem {
 
 				//0ダメ1補正
 				if ((-1 < value && value <= 0) || (0 <= value && value < 1)) {
-					if (Random.percent(def / (atk == 0 ? 1 : atk))) {
+					if (Random.battle().percent(def / (atk == 0 ? 1 : atk))) {
 						value = -1;
 						ゼロダメ＿１にした = true;
 					} else {
@@ -407,12 +405,10 @@ public class DamageCalcSystem {
 				} else {
 					cp *= CRIT_ADD;
 				}
-				if (Random.percent(userVS.get(StatusKey.魔法クリティカル率).getValue() + cp)) {
+				if (Random.battle().percent(userVS.get(StatusKey.魔法クリティカル率).getValue() + cp)) {
 					クリティカル = true;
 					value *= (1f + userVS.get(StatusKey.魔法クリティカルダメージ倍数).getValue());
-					if (BattleConfig.Sounds.魔法クリティカル != null) {
-						BattleConfig.Sounds.魔法クリティカル.load().stopAndPlay();
-					}
+					play(p, BattleConfig.Sounds.魔法クリティカル);
 				}
 
 				//難易度補正
@@ -433,12 +429,10 @@ public class DamageCalcSystem {
 				//回避判定
 				//クリティカルの場合は回避できない
 				if (!クリティカル) {
-					if (Random.percent(tgtVS.get(StatusKey.魔法回避率).getValue() * userVS.get(StatusKey.魔法命中率).getValue())) {
+					if (Random.battle().percent(tgtVS.get(StatusKey.魔法回避率).getValue() * userVS.get(StatusKey.魔法命中率).getValue())) {
 						//回避成功
 						回避 = true;
-						if (BattleConfig.Sounds.魔法回避 != null) {
-							BattleConfig.Sounds.魔法回避.load().stopAndPlay();
-						}
+						play(p, BattleConfig.Sounds.魔法回避);
 						return new Result(p, ActionResultSummary.失敗＿実行したがミス,
 								false, true, false, false, false, false, false, false,
 								0, 0, false);
@@ -447,21 +441,17 @@ public class DamageCalcSystem {
 				//ブロック判定
 				//クリティカルの場合はブロックできない
 				if (!クリティカル) {
-					if (Random.percent(tgtVS.get(StatusKey.魔法ブロック率).getValue())) {
+					if (Random.battle().percent(tgtVS.get(StatusKey.魔法ブロック率).getValue())) {
 						//ブロック成功
 						ブロック = true;
-						if (BattleConfig.Sounds.魔法ブロック != null) {
-							BattleConfig.Sounds.魔法ブロック.load().stopAndPlay();
-						}
+						play(p, BattleConfig.Sounds.魔法ブロック);
 						value *= tgtVS.get(StatusKey.魔法ブロックダメージ倍率).getValue();
 					}
 				}
 
 				//反射判定
-				if (Random.percent(p.tgt.getStatus().getConditionFlags().get物理反射確率())) {
-					if (BattleConfig.Sounds.魔法反射 != null) {
-						BattleConfig.Sounds.魔法反射.load().stopAndPlay();
-					}
+				if (Random.battle().percent(p.tgt.getStatus().getConditionFlags().get物理反射確率())) {
+					play(p, BattleConfig.Sounds.魔法反射);
 					反射 = true;
 					p.user.getStatus().getBaseStatus().get(p.tgtStatusKey).add(value);
 					return new Result(p,
@@ -472,10 +462,8 @@ public class DamageCalcSystem {
 				}
 
 				//吸収判定
-				if (Random.percent(p.tgt.getStatus().getConditionFlags().get物理吸収確率())) {
-					if (BattleConfig.Sounds.魔法吸収 != null) {
-						BattleConfig.Sounds.魔法吸収.load().stopAndPlay();
-					}
+				if (Random.battle().percent(p.tgt.getStatus().getConditionFlags().get物理吸収確率())) {
+					play(p, BattleConfig.Sounds.魔法吸収);
 					吸収 = true;
 					value = -value;
 					p.tgt.getStatus().getBaseStatus().get(p.tgtStatusKey).add(value);
@@ -493,7 +481,7 @@ public class DamageCalcSystem {
 					}
 					if (i.isAddConditionP()) {
 						if (p.tgt.getStatus().getEffectedConditionRegist().containsKey(i.getAddCondition())) {
-							if (Random.percent(p.tgt.getStatus().getEffectedConditionRegist().get(i.getAddCondition()))) {
+							if (Random.battle().percent(p.tgt.getStatus().getEffectedConditionRegist().get(i.getAddCondition()))) {
 								p.tgt.getStatus().addCondition(i.getAddCondition(), i.getCnditionTime());
 								状態異常付与 = true;
 							}
@@ -547,8 +535,8 @@ public class DamageCalcSystem {
 				value *= BattleConfig.DAMAGE_MUL;
 
 				//乱数
-				float spread = value * Random.randomFloat(SPREAD);
-				if (Random.randomBool()) {
+				float spread = value * Random.battle().randomFloat(SPREAD);
+				if (Random.battle().randomBool()) {
 					value += spread;
 				} else {
 					value -= spread;
@@ -580,12 +568,10 @@ public class DamageCalcSystem {
 				} else {
 					cp *= CRIT_ADD;
 				}
-				if (Random.percent(userVS.get(StatusKey.クリティカル率).getValue() + cp)) {
+				if (Random.battle().percent(userVS.get(StatusKey.クリティカル率).getValue() + cp)) {
 					クリティカル = true;
 					value *= (1f + userVS.get(StatusKey.クリティカルダメージ倍数).getValue());
-					if (BattleConfig.Sounds.物理クリティカル != null) {
-						BattleConfig.Sounds.物理クリティカル.load().stopAndPlay();
-					}
+					play(p, BattleConfig.Sounds.物理クリティカル);
 				}
 
 				//難易度補正
@@ -645,8 +631,8 @@ public class DamageCalcSystem {
 				value *= BattleConfig.DAMAGE_MUL;
 
 				//乱数
-				float spread = value * Random.randomFloat(SPREAD);
-				if (Random.randomBool()) {
+				float spread = value * Random.battle().randomFloat(SPREAD);
+				if (Random.battle().randomBool()) {
 					value += spread;
 				} else {
 					value -= spread;
@@ -678,12 +664,10 @@ public class DamageCalcSystem {
 				} else {
 					cp *= CRIT_ADD;
 				}
-				if (Random.percent(userVS.get(StatusKey.魔法クリティカル率).getValue() + cp)) {
+				if (Random.battle().percent(userVS.get(StatusKey.魔法クリティカル率).getValue() + cp)) {
 					クリティカル = true;
 					value *= (1f + userVS.get(StatusKey.魔法クリティカルダメージ倍数).getValue());
-					if (BattleConfig.Sounds.魔法クリティカル != null) {
-						BattleConfig.Sounds.魔法クリティカル.load().stopAndPlay();
-					}
+					play(p, BattleConfig.Sounds.魔法クリティカル);
 				}
 
 				//難易度補正
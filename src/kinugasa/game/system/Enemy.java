@@ -47,6 +47,19 @@ public final class Enemy extends Actor {
 		super(a.getId() + "_CLONE", a);
 	}
 
+	//戦闘のシミュレーション用。スプライトは共有し、ステータスはバッグや装備も含めて複製する
+	static Enemy simulationCopyOf(Enemy a) {
+		Enemy e = new Enemy(a, a.getStatus().detachedClone());
+		e.dropItem = a.dropItem;
+		e.ai = a.ai;
+		e.nameNo = a.nameNo;
+		return e;
+	}
+
+	private Enemy(Enemy a, Status status) {
+		super(a, status);
+	}
+
 	Enemy(String filePath) {
 		super(filePath);
 		getSprite().setMe(this);
@@ -115,7 +128,7 @@ public final class Enemy extends Actor {
 	public ActionTarget getActionTgt() {
 		ActionTarget res = ai.getNextAction(this);
 		if (GameSystem.isDebugMode()) {
-			GameLog.print(" selected action : " + getVisibleName() + " -> " + res);
+			GameLog.print(" selected action : {} -> {}", getVisibleName(), res);
 		}
 		return res;
 	}
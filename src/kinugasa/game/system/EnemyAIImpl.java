@@ -75,7 +75,7 @@ public enum EnemyAIImpl implements EnemyAI {
 					maxRange = user.getStatus().getEffectedArea(ac);
 				}
 				if (GameSystem.isDebugMode()) {
-					GameLog.print("アクション選択:TGT=" + tgt + " / action=" + ac.getVisibleName());
+					GameLog.print("アクション選択:TGT={} / action={}", tgt, ac.getVisibleName());
 				}
 				//ターゲットが射程内にいればそれを実施
 				if (is射程内(user, ac, tgt)) {
@@ -225,7 +225,7 @@ public enum EnemyAIImpl implements EnemyAI {
 				//ターゲットが射程内にいるか確認
 				if (is射程内(user, aa, tgt)) {
 					if (!aa.checkResource(user.getStatus()).is足りないステータスあり()) {
-						if (Random.percent(0.5f)) {
+						if (Random.ai().percent(0.5f)) {
 							return new ActionTarget(user, EnemyAIImpl.防御アクション, List.of(user), false);
 						} else {
 							return new ActionTarget(user, aa, List.of(tgt), false);
@@ -624,14 +624,15 @@ public enum EnemyAIImpl implements EnemyAI {
 	static boolean is射程内(Enemy e, Action a, Actor tgt) {
 		if (tgt.getStatus().hasAnyCondition(ConditionKey.解脱, ConditionKey.損壊, ConditionKey.気絶)) {
 			if (GameSystem.isDebugMode()) {
-				GameLog.print("is射程内 : tgt is dead : " + e + " / " + a + " / " + tgt);
+				GameLog.print("is射程内 : tgt is dead : {} / {} / {}", e, a, tgt);
 			}
 			return false;
 		}
+		boolean res = e.getStatus().getEffectedArea(a) > (e.getSprite().getCenter().distance(tgt.getSprite().getCenter()));
 		if (GameSystem.isDebugMode()) {
-			GameLog.print("is射程内 : tgt is dead : " + e + " / " + a + " / " + tgt + " = " + (e.getStatus().getEffectedArea(a) > (e.getSprite().getCenter().distance(tgt.getSprite().getCenter()))));
+			GameLog.print("is射程内 : {} -> {} = {}", a, tgt, res);
 		}
-		return e.getStatus().getEffectedArea(a) > (e.getSprite().getCenter().distance(tgt.getSprite().getCenter()));
+		return res;
 	}
 
 	abstract Actor getTgt(Enemy user);
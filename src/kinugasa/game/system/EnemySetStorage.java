@@ -56,7 +56,7 @@ public class EnemySetStorage extends Storage<EnemySet> implements Nameable {
 		List<EnemySet> list = asList();
 		Collections.sort(list);
 		for (EnemySet e : list) {
-			if (Random.percent(e.getP())) {
+			if (Random.field().percent(e.getP())) {
 				if (e.isHard()) {
 					if (!GameSystem.getDifficulty().is特別なenemySet抽選()) {
 						continue;
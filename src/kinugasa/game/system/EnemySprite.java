@@ -83,7 +83,7 @@ public class EnemySprite extends PCSprite {
 		super.readFromXML(fileName);
 
 	}
-	boolean right = Random.randomBool();
+	boolean right = Random.effect().randomBool();
 	boolean changeDir = true;
 	float angle = 1f;
 	private Point2D.Float moveStartLocation = null;
@@ -92,7 +92,7 @@ public class EnemySprite extends PCSprite {
 	public void moveToTgt() {
 		if (!moving) {
 			if (GameSystem.isDebugMode()) {
-				kinugasa.game.GameLog.print("enemy " + getName() + " move is canceld : " + moving + " / " + tgt);
+				kinugasa.game.GameLog.print("enemy {} move is canceld : {} / {}", getName(), moving, tgt);
 			}
 			return;
 		}
@@ -18,11 +18,17 @@ package kinugasa.game.system;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import kinugasa.game.NotNewInstance;
 import kinugasa.game.Nullable;
 import kinugasa.game.field4.*;
+import kinugasa.resource.ContentsIOException;
+import kinugasa.resource.FileNotFoundException;
 import kinugasa.resource.NameNotFoundException;
+import kinugasa.resource.db.DBConnection;
+import kinugasa.resource.db.DBWriteBehind;
 
 /**
  * ステータス管理系のマスターです。
@@ -161,8 +167,44 @@ public class GameSystem {
 		return materialBag;
 	}
 
-	public void save(int dataNO) throws GameSystemException {
-		//TODO:
+	/**
+	 * 現在の状態をセーブします。状態のスナップショットを作成した後、ファイルへの書き込みと書き込み待ちのカウントのDBへの書き込みは、
+	 * それぞれのバックグラウンドスレッドで行われます。呼び出し元のスレッドは待たされません。
+	 *
+	 * @param dataNO セーブデータの番号。
+	 * @return ファイルとカウントの両方の書き込みが終わると完了する結果。
+	 * どちらかが失敗した場合は、その例外を原因とするExecutionExceptionになります。
+	 */
+	public Future<SaveReport> save(int dataNO) {
+		//書き込み待ちのカウントを保存する
+		CompletableFuture<Void> counts = DBConnection.getInstance().isUsing()
+				? DBWriteBehind.getInstance().flushAsync()
+				: CompletableFuture.completedFuture(null);
+		return SaveFileIO.getInstance().saveAsync(dataNO, SaveSnapshot.capture()).thenCombine(counts, (r, v) -> r);
+	}
+
+	/**
+	 * セーブデータを読み込み、パーティー、フラグ、クエスト、バッグ、お金を復元します。
+	 * フィールドマップは復元されないため、スナップショットの位置を使用して呼び出し元で構築してください。
+	 *
+	 * @param dataNO セーブデータの番号。
+	 * @return 読み込んだスナップショット。
+	 * @throws FileNotFoundException セーブデータがない場合に投げられます。
+	 * @throws ContentsIOException セーブデータが壊れている場合に投げられます。
+	 */
+	public SaveSnapshot load(int dataNO) throws FileNotFoundException, ContentsIOException {
+		SaveSnapshot s = SaveFileIO.getInstance().load(dataNO);
+		long start = System.nanoTime();
+		SaveCodec.apply(s, this);
+		SaveReport r = SaveFileIO.getInstance().getLastLoadReport();
+		if (r != null) {
+			SaveFileIO.getInstance().setLastLoadReport(r.applied(System.nanoTime() - start));
+		}
+		return s;
+	}
+
+	void setParty(List<Actor> party) {
+		this.party = new ArrayList<>(party);
 	}
 
 	public Counts getCountSystem() {
@@ -50,6 +50,8 @@ public class Item extends Action implements Cloneable {
 	private ItemEnchant enchant;
 	private StatusKey dcs = null;
 	private int currentUpgradeNum = 0;
+	//効果に影響する変更の回数。Statusの効果キャッシュが変更を検出するために使用する
+	private int modCount = 0;
 
 	public static Item of(String id) {
 		return ActionStorage.getInstance().itemOf(id);
@@ -178,6 +180,7 @@ public class Item extends Action implements Cloneable {
 
 	Item setStatus(StatusValueSet status) {
 		this.status = status;
+		modCount++;
 		return this;
 	}
 
@@ -188,11 +191,13 @@ public class Item extends Action implements Cloneable {
 
 	Item setAttrIn(AttributeValueSet attr) {
 		this.attrIn = attr;
+		modCount++;
 		return this;
 	}
 
 	Item setAttrOut(AttributeValueSet attr) {
 		this.attrOut = attr;
+		modCount++;
 		return this;
 	}
 
@@ -220,9 +225,16 @@ public class Item extends Action implements Cloneable {
 	@Deprecated
 	public Item setStyle(ItemStyle style) {
 		this.style = style;
+		modCount++;
 		return this;
 	}
 
+	//セーブデータからスタイルを復元する
+	void restoreStyle(ItemStyle style) {
+		this.style = style;
+		modCount++;
+	}
+
 	Item setAtkCount(int atkCount) {
 		this.atkCount = atkCount;
 		return this;
@@ -230,6 +242,7 @@ public class Item extends Action implements Cloneable {
 
 	Item setConditionRegist(ConditionRegist conditionRegist) {
 		this.conditionRegist = conditionRegist;
+		modCount++;
 		return this;
 	}
 
@@ -347,6 +360,7 @@ public class Item extends Action implements Cloneable {
 			}
 		}
 		currentUpgradeNum++;
+		modCount++;
 	}
 
 	public boolean canUpgrade() {
@@ -372,6 +386,7 @@ public class Item extends Action implements Cloneable {
 
 	public void setCurrentUpgradeNum(int currentUpgradeNum) {
 		this.currentUpgradeNum = currentUpgradeNum;
+		modCount++;
 	}
 
 	public int getCurrentUpgradeNum() {
@@ -453,7 +468,7 @@ public class Item extends Action implements Cloneable {
 				: style == ItemStyle.注入の
 						? 3f
 						: 1f;
-		return Random.percent(enchant.getCndPercent() * n);
+		return Random.battle().percent(enchant.getCndPercent() * n);
 	}
 
 	@Nullable
@@ -503,6 +518,13 @@ public class Item extends Action implements Cloneable {
 		return status;
 	}
 
+	//強化による変化を含む、スタイルとエンチャントを適用する前のステータス。セーブデータの読み書きで使用する
+	@Nullable
+	@NotNewInstance
+	StatusValueSet getBaseStatus() {
+		return status;
+	}
+
 	@Deprecated
 	@NotNewInstance
 	public AttributeValueSet getAttrIn() {
@@ -675,6 +697,12 @@ public class Item extends Action implements Cloneable {
 
 	public void setEnchant(ItemEnchant enchant) {
 		this.enchant = enchant;
+		modCount++;
+	}
+
+	//効果に影響する変更の回数。getStatusなどで取得した値を直接変更した場合は数えられない
+	int getModCount() {
+		return modCount;
 	}
 
 	@Nullable
@@ -711,4 +739,16 @@ public class Item extends Action implements Cloneable {
 	protected Item clone() {
 		return (Item) super.clone();
 	}
+
+	@Override
+	Item deepCopy() {
+		Item r = (Item) super.deepCopy();
+		r.status = status == null ? null : status.clone();
+		r.attrIn = attrIn == null ? null : attrIn.clone();
+		r.attrOut = attrOut == null ? null : attrOut.clone();
+		r.conditionRegist = conditionRegist == null ? null : conditionRegist.clone();
+		r.material = material == null ? null : new HashMap<>(material);
+		r.eqipTerms = eqipTerms == null ? null : EnumSet.copyOf(eqipTerms);
+		return r;
+	}
 }
@@ -43,8 +43,8 @@ public class MaterialStorage extends DBStorage<Material> {
 	@Override
 	protected Material select(String id) throws KSQLException {
 		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select id, visibleName, price from material where id = '" + id + "';";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
+			String sql = "select id, visibleName, price from material where id = ?";
+			KResultSet r = DBConnection.getInstance().execQuery(sql, id);
 			if (r.isEmpty()) {
 				return null;
 			}
@@ -63,18 +63,13 @@ public class MaterialStorage extends DBStorage<Material> {
 	protected List<Material> selectAll() throws KSQLException {
 		List<Material> res = new ArrayList<>();
 		if (DBConnection.getInstance().isUsing()) {
-			String sql = "select id, visibleName, price from material;";
-			KResultSet r = DBConnection.getInstance().execDirect(sql);
-			if (r.isEmpty()) {
-				return res;
-			}
-			for (List<DBValue> v : r) {
-				String mid = v.get(0).get();
-				String visibleName = v.get(1).get();
-				int price = v.get(2).asInt();
-				Material m = new Material(mid, visibleName, price);
-				res.add(m);
-			}
+			String sql = "select id, visibleName, price from material";
+			DBConnection.getInstance().forEachRow(sql, v -> {
+				String mid = v.getString(0);
+				String visibleName = v.getString(1);
+				int price = v.getInt(2);
+				res.add(new Material(mid, visibleName, price));
+			});
 		}
 		return res;
 	}
@@ -18,9 +18,8 @@ package kinugasa.game.system;
 
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.util.LinkedList;
 import kinugasa.game.field4.D2Idx;
-import kinugasa.game.field4.FieldEventParser;
+import kinugasa.game.field4.FieldEventProgramCache;
 import kinugasa.game.field4.FieldEventSystem;
 import kinugasa.game.field4.FieldMap;
 import kinugasa.game.field4.FourDirAnimation;
@@ -135,7 +134,11 @@ public class NPCSprite extends PCSprite implements Nameable {
 
 	@Override
 	public void setCurrentIdx(D2Idx currentIDXonMapData) {
+		D2Idx prev = this.currentIdx;
 		this.currentIdx = currentIDXonMapData;
+		if (map != null && prev != null) {
+			map.getNpcStorage().relocate(this, prev);
+		}
 	}
 
 	@Override
@@ -213,7 +216,7 @@ public class NPCSprite extends PCSprite implements Nameable {
 				if (getTargetIdx().equals(map.getCurrentIdx())) {
 					if (touchEventFileName != null) {
 						FieldEventSystem.getInstance()
-								.setEvent(new LinkedList<>(FieldEventParser.parse(getId() + "_TE", touchEventFileName)));
+								.setEvent(FieldEventProgramCache.getInstance().get(touchEventFileName), getId() + "_TE");
 						FieldEventSystem.getInstance().exec();
 					}
 					stage = 0;
@@ -261,6 +264,7 @@ public class NPCSprite extends PCSprite implements Nameable {
 					currentIdx.y--;
 				}
 				if (!prev.equals(currentIdx)) {
+					map.getNpcStorage().relocate(this, prev);
 					if (map.getNpcStorage().get(currentIdx) != null && map.getNpcStorage().get(currentIdx) != this) {
 						setLocation(prevLocation);
 						return;
@@ -47,9 +47,9 @@ public class QuestSystem {
 
 	public Quest get(String qid, int stage) throws KSQLException {
 		if (DBConnection.getInstance().isUsing()) {
-			KResultSet kr = DBConnection.getInstance().execDirect("select"
+			KResultSet kr = DBConnection.getInstance().execQuery("select"
 					+ " qid,typ,stage,visibleName,Description"
-					+ " from Quest where qid='" + qid + "' and stage=" + stage + ";");
+					+ " from Quest where qid = ? and stage = ?", qid, stage);
 			if (kr.isEmpty()) {
 				return null;
 			}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import kinugasa.resource.ContentsIOException;
+
+/**
+ * セーブデータのセクションを読み書きするためのバッファです.
+ * <br>
+ * 数値はビッグエンディアンで書き込まれます。文字列はUTF-8で、長さを先頭に持ちます。
+ * 列挙はバージョン間で序数が変わっても読めるように、名前で書き込まれます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:30:00<br>
+ * @author Shinacho<br>
+ */
+final class SaveBuffer {
+
+	private byte[] data;
+	private int size;
+
+	SaveBuffer() {
+		this(256);
+	}
+
+	SaveBuffer(int initialSize) {
+		data = new byte[initialSize];
+	}
+
+	private void ensure(int n) {
+		if (size + n > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, size + n));
+		}
+	}
+
+	SaveBuffer putByte(int v) {
+		ensure(1);
+		data[size++] = (byte) v;
+		return this;
+	}
+
+	SaveBuffer putBoolean(boolean v) {
+		return putByte(v ? 1 : 0);
+	}
+
+	SaveBuffer putInt(int v) {
+		ensure(4);
+		data[size++] = (byte) (v >>> 24);
+		data[size++] = (byte) (v >>> 16);
+		data[size++] = (byte) (v >>> 8);
+		data[size++] = (byte) v;
+		return this;
+	}
+
+	SaveBuffer putLong(long v) {
+		putInt((int) (v >>> 32));
+		return putInt((int) v);
+	}
+
+	SaveBuffer putFloat(float v) {
+		return putInt(Float.floatToIntBits(v));
+	}
+
+	/**
+	 * 文字列を書き込みます。nullの場合は長さ-1として書き込まれます。
+	 *
+	 * @param v 文字列。
+	 * @return このバッファ。
+	 */
+	SaveBuffer putString(String v) {
+		if (v == null) {
+			return putInt(-1);
+		}
+		byte[] b = v.getBytes(StandardCharsets.UTF_8);
+		putInt(b.length);
+		ensure(b.length);
+		System.arraycopy(b, 0, data, size, b.length);
+		size += b.length;
+		return this;
+	}
+
+	SaveBuffer putEnum(Enum<?> v) {
+		return putString(v == null ? null : v.name());
+	}
+
+	int size() {
+		return size;
+	}
+
+	byte[] toByteArray() {
+		return Arrays.copyOf(data, size);
+	}
+
+	//--------------------------------------------------------------------------
+	//読み込み
+	static boolean getBoolean(ByteBuffer b) {
+		return b.get() != 0;
+	}
+
+	static String getString(ByteBuffer b) throws ContentsIOException {
+		int len = b.getInt();
+		if (len < 0) {
+			return null;
+		}
+		if (len > b.remaining()) {
+			throw new ContentsIOException("save data is broken : string length " + len);
+		}
+		byte[] s = new byte[len];
+		b.get(s);
+		return new String(s, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 列挙を読み込みます。現在のバージョンに存在しない名前の場合はnullを返します。
+	 *
+	 * @param <E> 列挙の型。
+	 * @param b バッファ。
+	 * @param type 列挙の型。
+	 * @return 列挙の値。
+	 */
+	static <E extends Enum<E>> E getEnum(ByteBuffer b, Class<E> type) {
+		String name = getString(b);
+		if (name == null) {
+			return null;
+		}
+		try {
+			return Enum.valueOf(type, name);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * セクションのバイト列を読み込み用のバッファにします。読み込み中にデータが不足した場合はContentsIOExceptionに変換してください。
+	 *
+	 * @param data セクションのバイト列。
+	 * @return 読み取り専用のバッファ。
+	 */
+	static ByteBuffer reader(byte[] data) {
+		return ByteBuffer.wrap(data).asReadOnlyBuffer();
+	}
+
+	static ContentsIOException broken(String section, BufferUnderflowException ex) {
+		return new ContentsIOException("save data is broken : " + section + " : " + ex);
+	}
+
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import kinugasa.game.GameLog;
+import kinugasa.game.field4.FieldMap;
+import kinugasa.resource.ContentsIOException;
+import kinugasa.util.ManualTimeCounter;
+import kinugasa.util.Random;
+
+/**
+ * ゲームの状態とSaveSnapshotのセクションの相互変換を行います.
+ * <br>
+ * 列挙やマップはキーの順に書き込まれるため、状態が同じであれば常に同じバイト列になります。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:30:00<br>
+ * @author Shinacho<br>
+ */
+final class SaveCodec {
+
+	static final String META = "meta";
+	static final String ACTOR = "actor/";
+	static final String FLAG = "flag";
+	static final String QUEST = "quest";
+	static final String BAG = "bag";
+	static final String MONEY = "money";
+	static final String FIELD = "field";
+	static final String RANDOM = "random";
+	//装備中の両手持ちを表すアイテムの位置
+	private static final int TWO_HAND = -2;
+	private static final int TWO_HAND_BOW = -3;
+	private static final StatusKey[] STATUS_KEYS = StatusKey.values();
+	private static final AttributeKey[] ATTR_KEYS = AttributeKey.values();
+	private static final ConditionKey[] CONDITION_KEYS = ConditionKey.values();
+	private static final EqipSlot[] EQIP_SLOTS = EqipSlot.values();
+
+	private SaveCodec() {
+	}
+
+	static SaveSnapshot capture(GameSystem gs) {
+		long start = System.nanoTime();
+		Map<String, byte[]> s = new LinkedHashMap<>();
+		SaveBuffer meta = new SaveBuffer();
+		meta.putEnum(GameSystem.getDifficulty());
+		meta.putInt(gs.getParty().size());
+		for (Actor a : gs.getParty()) {
+			meta.putString(a.getId());
+		}
+		s.put(META, meta.toByteArray());
+		for (Actor a : gs.getParty()) {
+			s.put(ACTOR + a.getId(), writeActor(a));
+		}
+		s.put(FLAG, writeFlags());
+		s.put(QUEST, writeQuests());
+		s.put(BAG, writeBags(gs));
+		s.put(MONEY, writeMoney(gs.getMoneySystem()));
+		s.put(FIELD, writeField());
+		s.put(RANDOM, writeRandom());
+		return new SaveSnapshot(System.currentTimeMillis(), s, System.nanoTime() - start);
+	}
+
+	static void apply(SaveSnapshot snapshot, GameSystem gs) throws ContentsIOException {
+		String section = META;
+		try {
+			ByteBuffer meta = reader(snapshot, META);
+			Difficulty d = SaveBuffer.getEnum(meta, Difficulty.class);
+			if (d != null) {
+				GameSystem.setDifficulty(d);
+			}
+			int n = meta.getInt();
+			List<Actor> party = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				String id = SaveBuffer.getString(meta);
+				section = ACTOR + id;
+				party.add(readActor(id, gs.getPCbyID(id), reader(snapshot, section)));
+				section = META;
+			}
+			gs.setParty(party);
+			section = FLAG;
+			readFlags(reader(snapshot, FLAG));
+			section = QUEST;
+			readQuests(reader(snapshot, QUEST));
+			section = BAG;
+			readBags(gs, reader(snapshot, BAG));
+			section = MONEY;
+			readMoney(gs.getMoneySystem(), reader(snapshot, MONEY));
+			//古いセーブデータには乱数の状態がない
+			if (snapshot.hasSection(RANDOM)) {
+				section = RANDOM;
+				readRandom(reader(snapshot, RANDOM));
+			}
+		} catch (BufferUnderflowException ex) {
+			throw SaveBuffer.broken(section, ex);
+		}
+	}
+
+	private static ByteBuffer reader(SaveSnapshot snapshot, String name) throws ContentsIOException {
+		byte[] b = snapshot.getSection(name);
+		if (b == null) {
+			throw new ContentsIOException("save data section is not found : " + name);
+		}
+		return SaveBuffer.reader(b);
+	}
+
+	//--------------------------------------------------------------------------
+	//キャラクター
+	private static byte[] writeActor(Actor a) {
+		Status st = a.getStatus();
+		SaveBuffer b = new SaveBuffer(1024);
+		b.putString(a.getStatusFile());
+		b.putString(st.getVisibleName());
+		b.putString(st.get異名());
+		b.putEnum(st.getPartyLocation());
+		b.putEnum(st.getAbility());
+		b.putBoolean(a.isSummoned());
+		writeStatus(b, st.getBaseStatus());
+		writeAttr(b, st.getAttrIn());
+		writeAttr(b, st.getAttrOut());
+		//状態異常耐性
+		ConditionRegist cr = st.getConditionRegist();
+		b.putInt(cr.size());
+		for (Map.Entry<ConditionKey, Float> e : cr.entrySet()) {
+			b.putEnum(e.getKey());
+			b.putFloat(e.getValue());
+		}
+		//状態異常
+		Map<ConditionKey, ManualTimeCounter> cnd = st.getCurrentConditions();
+		b.putInt(cnd.size());
+		for (ConditionKey k : CONDITION_KEYS) {
+			ManualTimeCounter t = cnd.get(k);
+			if (t == null) {
+				continue;
+			}
+			b.putEnum(k);
+			//時間制限のない状態異常は-1
+			b.putInt(t == ManualTimeCounter.FALSE ? -1 : t.getInitialTime());
+			b.putInt(t == ManualTimeCounter.FALSE ? -1 : t.getCurrentTime());
+		}
+		//アイテム
+		List<Item> items = st.getItemBag().getItems();
+		b.putInt(items.size());
+		for (Item i : items) {
+			b.putString(i.getId());
+			b.putEnum(i.getStyle());
+			b.putEnum(i.getEnchant());
+			b.putInt(i.getCurrentUpgradeNum());
+			//強化によって変化するため、値も保存する
+			writeStatus(b, i.getBaseStatus());
+		}
+		//本
+		b.putInt(st.getBookBag().size());
+		for (Book book : st.getBookBag()) {
+			b.putString(book.getID());
+		}
+		//装備はアイテムの位置で書き込む
+		List<EqipSlot> slots = new ArrayList<>();
+		List<Integer> idx = new ArrayList<>();
+		for (EqipSlot slot : EQIP_SLOTS) {
+			Item i = st.getEqip().get(slot);
+			if (i == null) {
+				continue;
+			}
+			if (i == ActionStorage.getInstance().両手持ち) {
+				idx.add(TWO_HAND);
+			} else if (i == ActionStorage.getInstance().両手持ち_弓) {
+				idx.add(TWO_HAND_BOW);
+			} else if (indexOf(items, i) >= 0) {
+				idx.add(indexOf(items, i));
+			} else {
+				continue;
+			}
+			slots.add(slot);
+		}
+		b.putInt(slots.size());
+		for (int i = 0; i < slots.size(); i++) {
+			b.putEnum(slots.get(i));
+			b.putInt(idx.get(i));
+		}
+		return b.toByteArray();
+	}
+
+	private static int indexOf(List<Item> items, Item i) {
+		for (int j = 0; j < items.size(); j++) {
+			if (items.get(j) == i) {
+				return j;
+			}
+		}
+		return -1;
+	}
+
+	private static Actor readActor(String id, Actor a, ByteBuffer b) throws ContentsIOException {
+		String file = SaveBuffer.getString(b);
+		if (a == null) {
+			if (file == null) {
+				throw new ContentsIOException("actor is not found : " + id);
+			}
+			a = new Actor(file);
+		}
+		Status st = a.getStatus();
+		String visibleName = SaveBuffer.getString(b);
+		if (visibleName != null) {
+			a.setVisibleName(visibleName);
+		}
+		st.set異名(SaveBuffer.getString(b));
+		PartyLocation loc = SaveBuffer.getEnum(b, PartyLocation.class);
+		if (loc != null) {
+			st.setPartyLocation(loc);
+		}
+		st.setAbility(SaveBuffer.getEnum(b, Ability.class));
+		a.setSummoned(SaveBuffer.getBoolean(b));
+		readStatus(b, st.getBaseStatus());
+		readAttr(b, st.getAttrIn());
+		readAttr(b, st.getAttrOut());
+		st.getConditionRegist().clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			ConditionKey k = SaveBuffer.getEnum(b, ConditionKey.class);
+			float v = b.getFloat();
+			if (k != null) {
+				st.getConditionRegist().put(k, v);
+			}
+		}
+		//装備と状態異常を外してから復元する。フラグは作り直される
+		st.getEqip().replaceAll((k, v) -> null);
+		st.clearCondition();
+		Map<ConditionKey, int[]> cnd = new EnumMap<>(ConditionKey.class);
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			ConditionKey k = SaveBuffer.getEnum(b, ConditionKey.class);
+			int initial = b.getInt();
+			int current = b.getInt();
+			if (k != null) {
+				cnd.put(k, new int[]{initial, current});
+			}
+		}
+		//アイテム
+		st.getItemBag().clear();
+		List<Item> items = new ArrayList<>();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			Item item = ActionStorage.getInstance().itemOf(SaveBuffer.getString(b));
+			ItemStyle style = SaveBuffer.getEnum(b, ItemStyle.class);
+			if (style != null) {
+				item.restoreStyle(style);
+			}
+			item.setEnchant(SaveBuffer.getEnum(b, ItemEnchant.class));
+			item.setCurrentUpgradeNum(b.getInt());
+			//itemOfの結果はバッグやキャッシュのアイテムとステータスを共有している場合があるため、新しいセットに読み込んで置き換える
+			StatusValueSet vs = new StatusValueSet();
+			readStatus(b, vs);
+			if (item.getBaseStatus() != null) {
+				item.setStatus(vs);
+			}
+			st.getItemBag().add(item);
+			items.add(item);
+		}
+		//本
+		st.getBookBag().clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			st.getBookBag().add(new Book(ActionStorage.getInstance().actionOf(SaveBuffer.getString(b))));
+		}
+		//装備
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			EqipSlot slot = SaveBuffer.getEnum(b, EqipSlot.class);
+			int idx = b.getInt();
+			if (slot == null) {
+				continue;
+			}
+			switch (idx) {
+				case TWO_HAND:
+					st.eqipLeftHand(ActionStorage.getInstance().両手持ち);
+					break;
+				case TWO_HAND_BOW:
+					st.eqipLeftHand(ActionStorage.getInstance().両手持ち_弓);
+					break;
+				default:
+					if (idx < 0 || idx >= items.size()) {
+						throw new ContentsIOException("save data is broken : eqip index " + idx + " of " + id);
+					}
+					st.eqip(slot, items.get(idx));
+					break;
+			}
+		}
+		//状態異常
+		for (Map.Entry<ConditionKey, int[]> e : cnd.entrySet()) {
+			ManualTimeCounter t;
+			if (e.getValue()[0] < 0) {
+				t = ManualTimeCounter.FALSE;
+			} else {
+				t = new ManualTimeCounter(e.getValue()[0]);
+				t.setCurrentTime(e.getValue()[1]);
+			}
+			st.restoreCondition(e.getKey(), t);
+		}
+		st.updateBagSize();
+		st.updateAction();
+		st.clearEffectCache();
+		return a;
+	}
+
+	private static void writeStatus(SaveBuffer b, StatusValueSet s) {
+		if (s == null) {
+			b.putInt(0);
+			return;
+		}
+		b.putInt(s.size());
+		for (StatusKey k : STATUS_KEYS) {
+			StatusValue v = s.get(k);
+			if (v == null) {
+				continue;
+			}
+			b.putEnum(k);
+			b.putFloat(v.getValue());
+			b.putFloat(v.getMin());
+			b.putFloat(v.getMax());
+			b.putBoolean(v.isUseMax());
+		}
+	}
+
+	private static void readStatus(ByteBuffer b, StatusValueSet s) {
+		s.clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			StatusKey k = SaveBuffer.getEnum(b, StatusKey.class);
+			float value = b.getFloat();
+			float min = b.getFloat();
+			float max = b.getFloat();
+			boolean useMax = SaveBuffer.getBoolean(b);
+			if (k == null) {
+				continue;
+			}
+			StatusValue v;
+			if (useMax) {
+				v = new StatusValue(k, value, min, max);
+			} else {
+				v = new StatusValue(k, value);
+				v.setMin(min);
+				v.setMax(max);
+			}
+			s.add(v);
+		}
+	}
+
+	private static void writeAttr(SaveBuffer b, AttributeValueSet s) {
+		b.putInt(s.size());
+		for (AttributeKey k : ATTR_KEYS) {
+			AttributeValue v = s.get(k);
+			if (v == null) {
+				continue;
+			}
+			b.putEnum(k);
+			b.putFloat(v.getValue());
+		}
+	}
+
+	private static void readAttr(ByteBuffer b, AttributeValueSet s) {
+		s.clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			AttributeKey k = SaveBuffer.getEnum(b, AttributeKey.class);
+			float v = b.getFloat();
+			if (k != null) {
+				s.add(new AttributeValue(k, v));
+			}
+		}
+	}
+
+	//--------------------------------------------------------------------------
+	//フラグ、クエスト
+	private static byte[] writeFlags() {
+		Flag[] flags = FlagStorage.getInstance().getAll().toArray(new Flag[0]);
+		Arrays.sort(flags, (a, c) -> a.getName().compareTo(c.getName()));
+		SaveBuffer b = new SaveBuffer(flags.length * 16);
+		b.putInt(flags.length);
+		for (Flag f : flags) {
+			b.putString(f.getName());
+			b.putEnum(f.get());
+		}
+		return b.toByteArray();
+	}
+
+	private static void readFlags(ByteBuffer b) {
+		FlagStorage fs = FlagStorage.getInstance();
+		fs.clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			String name = SaveBuffer.getString(b);
+			FlagStatus s = SaveBuffer.getEnum(b, FlagStatus.class);
+			fs.add(s == null ? new Flag(name) : new Flag(name, s));
+		}
+	}
+
+	private static byte[] writeQuests() {
+		List<Quest> quests = new ArrayList<>(CurrentQuest.getInstance().get());
+		quests.sort(Comparator.comparing(Quest::getQid));
+		SaveBuffer b = new SaveBuffer();
+		b.putInt(quests.size());
+		for (Quest q : quests) {
+			b.putString(q.getQid());
+			b.putInt(q.getStage());
+		}
+		return b.toByteArray();
+	}
+
+	private static void readQuests(ByteBuffer b) {
+		CurrentQuest.getInstance().clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			String qid = SaveBuffer.getString(b);
+			int stage = b.getInt();
+			Quest q = QuestSystem.getInstance().get(qid, stage);
+			if (q == null) {
+				GameLog.print("!> WARNING : quest is not found : " + qid + " / " + stage);
+				continue;
+			}
+			CurrentQuest.getInstance().put(q);
+		}
+	}
+
+	//--------------------------------------------------------------------------
+	//バッグ、お金、フィールド
+	private static byte[] writeBags(GameSystem gs) {
+		SaveBuffer b = new SaveBuffer();
+		List<Map.Entry<Material, Integer>> materials = new ArrayList<>(gs.getMaterialBag().getMap().entrySet());
+		materials.sort(Comparator.comparing(e -> e.getKey().getName()));
+		b.putInt(materials.size());
+		for (Map.Entry<Material, Integer> e : materials) {
+			b.putString(e.getKey().getName());
+			b.putInt(e.getValue());
+		}
+		List<Map.Entry<BookPage, Integer>> pages = new ArrayList<>(gs.getPageBag().getMap().entrySet());
+		pages.sort(Comparator.comparing(e -> e.getKey().getEventID()));
+		b.putInt(pages.size());
+		for (Map.Entry<BookPage, Integer> e : pages) {
+			b.putString(e.getKey().getEventID());
+			b.putInt(e.getValue());
+		}
+		b.putInt(gs.getEnchantBag().getMap().size());
+		for (Map.Entry<ItemEnchant, Integer> e : gs.getEnchantBag().getMap().entrySet()) {
+			b.putEnum(e.getKey());
+			b.putInt(e.getValue());
+		}
+		return b.toByteArray();
+	}
+
+	private static void readBags(GameSystem gs, ByteBuffer b) {
+		Map<Material, Integer> materials = gs.getMaterialBag().getMap();
+		materials.clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			String id = SaveBuffer.getString(b);
+			materials.put(MaterialStorage.getInstance().get(id), b.getInt());
+		}
+		Map<BookPage, Integer> pages = gs.getPageBag().getMap();
+		pages.clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			String id = SaveBuffer.getString(b);
+			pages.put(new BookPage(id), b.getInt());
+		}
+		Map<ItemEnchant, Integer> enchants = gs.getEnchantBag().getMap();
+		enchants.clear();
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			ItemEnchant k = SaveBuffer.getEnum(b, ItemEnchant.class);
+			int v = b.getInt();
+			if (k != null) {
+				enchants.put(k, v);
+			}
+		}
+	}
+
+	private static byte[] writeMoney(MoneySystem ms) {
+		List<Money> money = new ArrayList<>(ms.asList());
+		money.sort(Comparator.comparing(Money::getName));
+		SaveBuffer b = new SaveBuffer();
+		b.putInt(money.size());
+		for (Money m : money) {
+			b.putString(m.getName());
+			b.putInt(m.getValue());
+		}
+		return b.toByteArray();
+	}
+
+	private static void readMoney(MoneySystem ms, ByteBuffer b) {
+		//セーブデータにない種類の前のセッションの値が残らないように、すべて0にしてから復元する
+		for (Money m : ms) {
+			m.setValue(0);
+		}
+		for (int i = 0, n = b.getInt(); i < n; i++) {
+			String name = SaveBuffer.getString(b);
+			int v = b.getInt();
+			if (!ms.contains(name)) {
+				ms.addMoneyType(name);
+			}
+			ms.get(name).setValue(v);
+		}
+	}
+
+	private static byte[] writeField() {
+		SaveBuffer b = new SaveBuffer();
+		FieldMap fm = FieldMap.getCurrentInstance();
+		if (fm == null || fm.getCurrentIdx() == null) {
+			b.putString(null);
+		} else {
+			b.putString(fm.getName());
+			b.putInt(fm.getCurrentIdx().x);
+			b.putInt(fm.getCurrentIdx().y);
+		}
+		return b.toByteArray();
+	}
+
+	//--------------------------------------------------------------------------
+	//乱数
+	private static byte[] writeRandom() {
+		Random.Snapshot r = Random.snapshot();
+		SaveBuffer b = new SaveBuffer();
+		b.putLong(r.getSeed());
+		b.putInt(r.size());
+		for (int i = 0; i < r.size(); i++) {
+			b.putString(r.getName(i));
+			b.putLong(r.getState(i));
+		}
+		return b.toByteArray();
+	}
+
+	private static void readRandom(ByteBuffer b) {
+		long seed = b.getLong();
+		int n = b.getInt();
+		String[] names = new String[n];
+		long[] states = new long[n];
+		for (int i = 0; i < n; i++) {
+			names[i] = SaveBuffer.getString(b);
+			states[i] = b.getLong();
+		}
+		Random.restore(new Random.Snapshot(seed, names, states));
+	}
+
+}
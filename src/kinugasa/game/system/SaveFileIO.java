@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import kinugasa.game.GameLog;
+import kinugasa.game.Nullable;
+import kinugasa.resource.ContentsIOException;
+import kinugasa.resource.FileNotFoundException;
+
+/**
+ * SaveSnapshotをバイナリ形式のファイルに読み書きします.
+ * <br>
+ * スロットごとに、すべてのセクションを持つベースファイル(.ksav)と、ベースから変化したセクションだけを持つ差分ファイル(.kdlt)を使用します。
+ * 変化したセクションの合計がスナップショット全体のdeltaRatio以下の場合は差分ファイルだけを書き直し、それ以外の場合はベースファイルを書き直して差分ファイルを削除します。
+ * 差分ファイルはベースファイルのIDを持ち、IDが一致しない差分ファイルは無視されます。<br>
+ * ファイルはFileChannelで一時ファイルに書き込まれ、書き込みが完了してから置き換えられるため、書き込み中に終了しても前回のセーブは失われません。
+ * 読み込みはファイルをメモリにマップして行います。<br>
+ * saveAsyncはバックグラウンドスレッドで順番に書き込みます。<br>
+ * <br>
+ * ファイルの形式は次の通りです。数値はビッグエンディアンです。<br>
+ * ヘッダ：マジック"KSAV"(int)、バージョン(int)、種類(byte、0=ベース、1=差分)、ベースID(long)、作成時刻(long)、セクション数(int)<br>
+ * セクション：名前(長さint+UTF-8)、CRC32(int)、長さ(int)、データ<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:30:00<br>
+ * @author Shinacho<br>
+ */
+public final class SaveFileIO {
+
+	private static final SaveFileIO INSTANCE = new SaveFileIO();
+
+	public static SaveFileIO getInstance() {
+		return INSTANCE;
+	}
+
+	private SaveFileIO() {
+	}
+
+	private static final int MAGIC = 0x4B534156;
+	private static final byte FULL = 0;
+	private static final byte DELTA = 1;
+	private static final int HEADER_SIZE = 4 + 4 + 1 + 8 + 8 + 4;
+
+	private static final class Parsed {
+
+		byte kind;
+		long id;
+		long createTime;
+		final LinkedHashMap<String, byte[]> sections = new LinkedHashMap<>();
+		final Map<String, Integer> crc = new HashMap<>();
+		long bytes;
+	}
+
+	//スロットのベースファイルのIDとセクションのCRC
+	private static final class Base {
+
+		final long id;
+		final Map<String, Integer> crc;
+
+		Base(long id, Map<String, Integer> crc) {
+			this.id = id;
+			this.crc = crc;
+		}
+	}
+	private volatile File directory = new File("save");
+	private volatile float deltaRatio = 0.5f;
+	private final Map<Integer, Base> bases = new HashMap<>();
+	private ExecutorService executor;
+	private volatile SaveReport lastSaveReport;
+	private volatile SaveReport lastLoadReport;
+
+	public synchronized void setDirectory(File directory) {
+		this.directory = directory;
+		bases.clear();
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * 差分ファイルを書き込む条件を設定します。
+	 *
+	 * @param deltaRatio 変化したセクションの合計サイズが全体のこの割合以下の場合に差分ファイルを書き込みます。0の場合は常にベースファイルを書き込みます。
+	 * @throws IllegalArgumentException 0から1の範囲外の場合に投げられます。
+	 */
+	public void setDeltaRatio(float deltaRatio) throws IllegalArgumentException {
+		if (deltaRatio < 0 || deltaRatio > 1) {
+			throw new IllegalArgumentException("SaveFileIO : deltaRatio is out of range : " + deltaRatio);
+		}
+		this.deltaRatio = deltaRatio;
+	}
+
+	public float getDeltaRatio() {
+		return deltaRatio;
+	}
+
+	public File getBaseFile(int slot) {
+		return new File(directory, "save" + slot + ".ksav");
+	}
+
+	public File getDeltaFile(int slot) {
+		return new File(directory, "save" + slot + ".kdlt");
+	}
+
+	public boolean exists(int slot) {
+		return getBaseFile(slot).exists();
+	}
+
+	/**
+	 * スロットのファイルを削除します。
+	 *
+	 * @param slot スロット。
+	 * @throws ContentsIOException 削除に失敗した場合に投げられます。
+	 */
+	public synchronized void delete(int slot) throws ContentsIOException {
+		try {
+			Files.deleteIfExists(getDeltaFile(slot).toPath());
+			Files.deleteIfExists(getBaseFile(slot).toPath());
+		} catch (IOException ex) {
+			throw new ContentsIOException(ex);
+		}
+		bases.remove(slot);
+	}
+
+	/**
+	 * スナップショットをバックグラウンドスレッドで書き込みます。
+	 *
+	 * @param slot スロット。
+	 * @param snapshot スナップショット。
+	 * @return 書き込みの結果。失敗した場合はContentsIOExceptionを原因とするExecutionExceptionになります。
+	 */
+	public synchronized CompletableFuture<SaveReport> saveAsync(int slot, SaveSnapshot snapshot) {
+		if (executor == null) {
+			executor = Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "kgf save");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return save(slot, snapshot);
+			} catch (ContentsIOException ex) {
+				GameLog.print(ex);
+				throw ex;
+			}
+		}, executor);
+	}
+
+	/**
+	 * saveAsyncで要求されたすべての書き込みが完了するまで待機します。ゲームの終了前に呼び出してください。
+	 */
+	public void awaitPending() {
+		ExecutorService e;
+		synchronized (this) {
+			e = executor;
+		}
+		if (e == null) {
+			return;
+		}
+		try {
+			e.submit(() -> {
+			}).get();
+		} catch (InterruptedException | ExecutionException ex) {
+			GameLog.print(ex);
+		}
+	}
+
+	/**
+	 * スナップショットを呼び出し元のスレッドで書き込みます。
+	 *
+	 * @param slot スロット。
+	 * @param snapshot スナップショット。
+	 * @return 書き込みの結果。
+	 * @throws ContentsIOException 書き込みに失敗した場合に投げられます。
+	 */
+	public synchronized SaveReport save(int slot, SaveSnapshot snapshot) throws ContentsIOException {
+		long start = System.nanoTime();
+		Map<String, Integer> crc = new HashMap<>();
+		for (Map.Entry<String, byte[]> e : snapshot.getSections().entrySet()) {
+			crc.put(e.getKey(), crc(e.getValue()));
+		}
+		Base base = base(slot);
+		List<String> changed = new ArrayList<>();
+		boolean delta = false;
+		if (base != null && deltaRatio > 0) {
+			long changedSize = 0;
+			for (Map.Entry<String, byte[]> e : snapshot.getSections().entrySet()) {
+				if (!crc.get(e.getKey()).equals(base.crc.get(e.getKey()))) {
+					changed.add(e.getKey());
+					changedSize += e.getValue().length;
+				}
+			}
+			delta = changedSize <= snapshot.getDataSize() * deltaRatio;
+		}
+		long bytes;
+		if (delta) {
+			bytes = write(getDeltaFile(slot), DELTA, base.id, snapshot, changed, crc);
+		} else {
+			long id = ThreadLocalRandom.current().nextLong();
+			changed = new ArrayList<>(snapshot.getSectionNames());
+			bytes = write(getBaseFile(slot), FULL, id, snapshot, changed, crc);
+			try {
+				Files.deleteIfExists(getDeltaFile(slot).toPath());
+			} catch (IOException ex) {
+				throw new ContentsIOException(ex);
+			}
+			bases.put(slot, new Base(id, crc));
+		}
+		SaveReport r = new SaveReport(slot, delta ? SaveReport.Type.DELTA : SaveReport.Type.FULL,
+				changed.size(), snapshot.getSectionNames().size(), bytes,
+				snapshot.getCaptureTime(), System.nanoTime() - start);
+		lastSaveReport = r;
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("SaveFileIO : " + r);
+		}
+		return r;
+	}
+
+	/**
+	 * スロットのファイルを読み込みます。差分ファイルがある場合はベースファイルに適用されます。
+	 *
+	 * @param slot スロット。
+	 * @return スナップショット。
+	 * @throws FileNotFoundException ベースファイルがない場合に投げられます。
+	 * @throws ContentsIOException ファイルが壊れている場合や読み込みに失敗した場合に投げられます。
+	 */
+	public synchronized SaveSnapshot load(int slot) throws FileNotFoundException, ContentsIOException {
+		long start = System.nanoTime();
+		File f = getBaseFile(slot);
+		if (!f.exists()) {
+			throw new FileNotFoundException(f);
+		}
+		Parsed b = read(f);
+		if (b.kind != FULL) {
+			throw new ContentsIOException("save data is not base file : " + f);
+		}
+		LinkedHashMap<String, byte[]> sections = new LinkedHashMap<>(b.sections);
+		long createTime = b.createTime;
+		long bytes = b.bytes;
+		int n = b.sections.size();
+		File d = getDeltaFile(slot);
+		if (d.exists()) {
+			Parsed delta = read(d);
+			if (delta.kind == DELTA && delta.id == b.id) {
+				sections.putAll(delta.sections);
+				createTime = delta.createTime;
+				bytes += delta.bytes;
+				n += delta.sections.size();
+			} else {
+				GameLog.print("!> WARNING : delta file is not match to base : " + d);
+			}
+		}
+		bases.put(slot, new Base(b.id, b.crc));
+		long time = System.nanoTime() - start;
+		SaveSnapshot s = new SaveSnapshot(createTime, sections, time);
+		SaveReport r = new SaveReport(slot, SaveReport.Type.LOAD, n, sections.size(), bytes, 0, time);
+		lastLoadReport = r;
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("SaveFileIO : " + r);
+		}
+		return s;
+	}
+
+	@Nullable
+	public SaveReport getLastSaveReport() {
+		return lastSaveReport;
+	}
+
+	@Nullable
+	public SaveReport getLastLoadReport() {
+		return lastLoadReport;
+	}
+
+	void setLastLoadReport(SaveReport lastLoadReport) {
+		this.lastLoadReport = lastLoadReport;
+	}
+
+	@Nullable
+	private Base base(int slot) throws ContentsIOException {
+		Base b = bases.get(slot);
+		if (b == null && getBaseFile(slot).exists()) {
+			Parsed p = read(getBaseFile(slot));
+			if (p.kind == FULL) {
+				bases.put(slot, b = new Base(p.id, p.crc));
+			}
+		}
+		return b;
+	}
+
+	private static int crc(byte[] data) {
+		CRC32 c = new CRC32();
+		c.update(data);
+		return (int) c.getValue();
+	}
+
+	private long write(File file, byte kind, long id, SaveSnapshot snapshot, List<String> names, Map<String, Integer> crc)
+			throws ContentsIOException {
+		ByteBuffer[] buf = new ByteBuffer[names.size() * 2 + 1];
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(SaveSnapshot.FORMAT_VERSION).put(kind).putLong(id)
+				.putLong(snapshot.getCreateTime()).putInt(names.size()).flip();
+		buf[0] = header;
+		long bytes = HEADER_SIZE;
+		for (int i = 0; i < names.size(); i++) {
+			byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+			byte[] data = snapshot.getSection(names.get(i));
+			ByteBuffer h = ByteBuffer.allocate(4 + name.length + 4 + 4);
+			h.putInt(name.length).put(name).putInt(crc.get(names.get(i))).putInt(data.length).flip();
+			buf[i * 2 + 1] = h;
+			buf[i * 2 + 2] = ByteBuffer.wrap(data);
+			bytes += h.remaining() + data.length;
+		}
+		Path target = file.toPath();
+		Path tmp = new File(file.getPath() + ".tmp").toPath();
+		try {
+			Files.createDirectories(target.toAbsolutePath().getParent());
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				long written = 0;
+				while (written < bytes) {
+					written += ch.write(buf);
+				}
+				ch.force(true);
+			}
+			try {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException ex) {
+			throw new ContentsIOException(ex);
+		}
+		return bytes;
+	}
+
+	private static Parsed read(File file) throws ContentsIOException {
+		Parsed p = new Parsed();
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			p.bytes = ch.size();
+			MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			if (m.remaining() < HEADER_SIZE || m.getInt() != MAGIC) {
+				throw new ContentsIOException("save data is not KSAV file : " + file);
+			}
+			int version = m.getInt();
+			if (version > SaveSnapshot.FORMAT_VERSION) {
+				throw new ContentsIOException("save data version is not supported : " + version + " : " + file);
+			}
+			p.kind = m.get();
+			p.id = m.getLong();
+			p.createTime = m.getLong();
+			for (int i = 0, n = m.getInt(); i < n; i++) {
+				String name = SaveBuffer.getString(m);
+				int crc = m.getInt();
+				int len = m.getInt();
+				if (name == null || len < 0 || len > m.remaining()) {
+					throw new ContentsIOException("save data is broken : " + file);
+				}
+				byte[] data = new byte[len];
+				m.get(data);
+				if (crc(data) != crc) {
+					throw new ContentsIOException("save data is broken : crc missmatch : " + name + " : " + file);
+				}
+				p.sections.put(name, data);
+				p.crc.put(name, crc);
+			}
+		} catch (BufferUnderflowException ex) {
+			throw SaveBuffer.broken(file.getName(), ex);
+		} catch (IOException ex) {
+			throw new ContentsIOException(ex);
+		}
+		return p;
+	}
+
+}
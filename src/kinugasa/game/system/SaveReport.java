@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+/**
+ * セーブまたはロードの結果と所要時間です.
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:30:00<br>
+ * @author Shinacho<br>
+ */
+public final class SaveReport {
+
+	public enum Type {
+		/**
+		 * すべてのセクションを書き込みました。
+		 */
+		FULL,
+		/**
+		 * 変化したセクションだけを差分ファイルに書き込みました。
+		 */
+		DELTA,
+		/**
+		 * ファイルから読み込みました。
+		 */
+		LOAD,
+	}
+	private final int slot;
+	private final Type type;
+	private final int sections;
+	private final int totalSections;
+	private final long bytes;
+	private final long captureTime;
+	private final long ioTime;
+
+	SaveReport(int slot, Type type, int sections, int totalSections, long bytes, long captureTime, long ioTime) {
+		this.slot = slot;
+		this.type = type;
+		this.sections = sections;
+		this.totalSections = totalSections;
+		this.bytes = bytes;
+		this.captureTime = captureTime;
+		this.ioTime = ioTime;
+	}
+
+	public int getSlot() {
+		return slot;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * 読み書きしたセクションの数を返します。
+	 *
+	 * @return セクションの数。
+	 */
+	public int getSections() {
+		return sections;
+	}
+
+	public int getTotalSections() {
+		return totalSections;
+	}
+
+	/**
+	 * 読み書きしたファイルのサイズを返します。
+	 *
+	 * @return サイズ（バイト）。
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * セーブの場合はスナップショットの作成、ロードの場合はゲームの状態への反映にかかった時間を返します。
+	 * セーブでゲームループが停止する時間はこの値だけです。
+	 *
+	 * @return 時間（ナノ秒）。
+	 */
+	public long getCaptureTime() {
+		return captureTime;
+	}
+
+	/**
+	 * ファイルの読み書きにかかった時間を返します。
+	 *
+	 * @return 時間（ナノ秒）。
+	 */
+	public long getIoTime() {
+		return ioTime;
+	}
+
+	SaveReport applied(long captureTime) {
+		return new SaveReport(slot, type, sections, totalSections, bytes, captureTime, ioTime);
+	}
+
+	@Override
+	public String toString() {
+		return "SaveReport{" + "slot=" + slot + ", type=" + type + ", sections=" + sections + "/" + totalSections
+				+ ", bytes=" + bytes + ", capture=" + captureTime / 1000 + "us, io=" + ioTime / 1000 + "us}";
+	}
+
+}
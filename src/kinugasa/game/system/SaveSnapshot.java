@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.system;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import kinugasa.game.Nullable;
+import kinugasa.game.field4.D2Idx;
+
+/**
+ * ある時点のゲームの状態をバイナリで保持する不変のスナップショットです.
+ * <br>
+ * スナップショットは名前付きのセクションで構成されます。パーティーのキャラクターは1人ごとに1つのセクションになり、
+ * 前回のセーブから変化したセクションだけが差分ファイルに書き込まれます。<br>
+ * 作成後は変更されないため、バックグラウンドスレッドからファイルに書き込むことができます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_18:30:00<br>
+ * @author Shinacho<br>
+ */
+public final class SaveSnapshot {
+
+	/**
+	 * セーブデータの形式のバージョンです。
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	private final long createTime;
+	private final Map<String, byte[]> sections;
+	private final long captureTime;
+
+	SaveSnapshot(long createTime, Map<String, byte[]> sections, long captureTime) {
+		this.createTime = createTime;
+		this.sections = Collections.unmodifiableMap(new LinkedHashMap<>(sections));
+		this.captureTime = captureTime;
+	}
+
+	/**
+	 * 現在のゲームの状態からスナップショットを作成します。
+	 *
+	 * @return スナップショット。
+	 */
+	public static SaveSnapshot capture() {
+		return SaveCodec.capture(GameSystem.getInstance());
+	}
+
+	/**
+	 * スナップショットが作成された時刻を返します。
+	 *
+	 * @return 時刻（ミリ秒）。
+	 */
+	public long getCreateTime() {
+		return createTime;
+	}
+
+	/**
+	 * 状態の取得にかかった時間を返します。ファイルから読み込んだ場合は読み込みにかかった時間です。
+	 *
+	 * @return 時間（ナノ秒）。
+	 */
+	public long getCaptureTime() {
+		return captureTime;
+	}
+
+	public Set<String> getSectionNames() {
+		return sections.keySet();
+	}
+
+	public boolean hasSection(String name) {
+		return sections.containsKey(name);
+	}
+
+	@Nullable
+	byte[] getSection(String name) {
+		return sections.get(name);
+	}
+
+	Map<String, byte[]> getSections() {
+		return sections;
+	}
+
+	/**
+	 * すべてのセクションの合計サイズを返します。
+	 *
+	 * @return サイズ（バイト）。
+	 */
+	public int getDataSize() {
+		int n = 0;
+		for (byte[] b : sections.values()) {
+			n += b.length;
+		}
+		return n;
+	}
+
+	/**
+	 * セーブ時にいたフィールドマップの名前を返します。
+	 *
+	 * @return フィールドマップの名前。フィールドマップにいなかった場合はnull。
+	 */
+	@Nullable
+	public String getFieldMapName() {
+		byte[] b = sections.get(SaveCodec.FIELD);
+		if (b == null) {
+			return null;
+		}
+		try {
+			return SaveBuffer.getString(SaveBuffer.reader(b));
+		} catch (BufferUnderflowException ex) {
+			throw SaveBuffer.broken(SaveCodec.FIELD, ex);
+		}
+	}
+
+	/**
+	 * セーブ時のフィールドマップ上の位置を返します。
+	 *
+	 * @return 位置。フィールドマップにいなかった場合はnull。
+	 */
+	@Nullable
+	public D2Idx getFieldMapIdx() {
+		byte[] b = sections.get(SaveCodec.FIELD);
+		if (b == null) {
+			return null;
+		}
+		try {
+			ByteBuffer r = SaveBuffer.reader(b);
+			if (SaveBuffer.getString(r) == null) {
+				return null;
+			}
+			return new D2Idx(r.getInt(), r.getInt());
+		} catch (BufferUnderflowException ex) {
+			throw SaveBuffer.broken(SaveCodec.FIELD, ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SaveSnapshot{" + "createTime=" + createTime + ", sections=" + sections.size() + ", size=" + getDataSize() + '}';
+	}
+
+}
@@ -72,7 +72,7 @@ public class SpeedCalcSystem {
 		List<Spd> result = new ArrayList<>();
 		//aを素早さ順に並べる。BattleConfigの乱数を使う。
 		for (Actor ac : a) {
-			float spd = Random.spread(ac.getStatus().getEffectedStatus().get(StatusKey.素早さ).getValue(), BattleConfig.SPEED_SPREAD);
+			float spd = Random.battle().spread(ac.getStatus().getEffectedStatus().get(StatusKey.素早さ).getValue(), BattleConfig.SPEED_SPREAD);
 			result.add(new Spd(ac, spd, null));
 		}
 		//詠唱完了イベントの挿入とその術者の削除
@@ -92,7 +92,7 @@ public class SpeedCalcSystem {
 			}
 		}
 		for (MagicSpell sp : ms) {
-			float spd = Random.spread(sp.getUser().getStatus().getEffectedStatus().get(StatusKey.詠唱).getValue(), BattleConfig.SPEED_SPREAD);
+			float spd = Random.battle().spread(sp.getUser().getStatus().getEffectedStatus().get(StatusKey.詠唱).getValue(), BattleConfig.SPEED_SPREAD);
 			result.add(new Spd(sp.getUser(), spd, sp));
 		}
 
@@ -17,7 +17,7 @@
 package kinugasa.game.system;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -25,7 +25,6 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
 import kinugasa.game.GameLog;
 import kinugasa.game.I18N;
 import kinugasa.game.NoLoopCall;
@@ -65,7 +64,7 @@ public final class Status extends Model implements Nameable {
 	//本
 	private PersonalBag<Book> bookBag = new PersonalBag<>();
 	//装備品
-	private Map<EqipSlot, Item> eqip = new HashMap<>();
+	private Map<EqipSlot, Item> eqip = new EnumMap<>(EqipSlot.class);
 	//とれる行動
 	private Storage<Action> actions = new Storage<>();
 	//前列・後列
@@ -76,6 +75,156 @@ public final class Status extends Model implements Nameable {
 	private Ability ability;
 	//キャラ名の前に付ける異名
 	private String 異名;
+	//効果適用後の値のキャッシュ
+	private EffectCache effectCache = new EffectCache();
+	//パーティーと敵、アクションの一覧を参照する戦闘の環境
+	private BattleContext context = BattleContext.GAME;
+
+	/**
+	 * getEffectedStatus、getEffectedAttrIn、getEffectedAttrOutの結果のキャッシュです.
+	 * <br>
+	 * 基礎値は外部から直接変更されるため、計算に使った入力のスナップショットを保持し、
+	 * 取得のたびに現在の値と比較して変化があれば破棄します。比較ではオブジェクトを生成しません。<br>
+	 */
+	private final class EffectCache {
+
+		private StatusValueSet status;
+		private AttributeValueSet attrIn;
+		private AttributeValueSet attrOut;
+		//基礎ステータスのvalue,min,max。キーがない場合はNaN
+		private final float[] statusValues = new float[STATUS_KEYS.length * 3];
+		private final float[] attrInValues = new float[ATTR_KEYS.length];
+		private final float[] attrOutValues = new float[ATTR_KEYS.length];
+		//装備品とそのスタイル、エンチャント、変更回数
+		private final Object[] eqipValues = new Object[EQIP_SLOTS.length * 3];
+		private final int[] eqipMods = new int[EQIP_SLOTS.length];
+		private final long[] conditions = new long[(CONDITION_KEYS.length + 63) / 64];
+		private final long[] conditionWork = new long[conditions.length];
+		private Ability ability;
+		private boolean valid = false;
+		//アサーションが有効な場合だけ、返した結果が呼び出し元に変更されていないかを確認するために内容を保持する
+		private float[] statusGuard;
+		private float[] attrInGuard;
+		private float[] attrOutGuard;
+
+		private void invalidate() {
+			valid = false;
+			status = null;
+			attrIn = null;
+			attrOut = null;
+			statusGuard = attrInGuard = attrOutGuard = null;
+		}
+
+		private void check() {
+			boolean same = valid;
+			same &= snapshotStatus();
+			same &= snapshotAttr(Status.this.attrIn, attrInValues);
+			same &= snapshotAttr(Status.this.attrOut, attrOutValues);
+			same &= snapshotEqip();
+			same &= snapshotCondition();
+			same &= ability == Status.this.ability;
+			ability = Status.this.ability;
+			if (!same) {
+				invalidate();
+				valid = true;
+			}
+		}
+
+		//現在の値を格納し、前回と同じであればtrueを返す
+		private boolean snapshotStatus() {
+			boolean same = true;
+			for (int i = 0, j = 0; i < STATUS_KEYS.length; i++, j += 3) {
+				StatusValue v = Status.this.status.get(STATUS_KEYS[i]);
+				float value = v == null ? Float.NaN : v.getValue();
+				float min = v == null ? Float.NaN : v.getMin();
+				float max = v == null ? Float.NaN : v.getMax();
+				same &= Float.compare(statusValues[j], value) == 0
+						&& Float.compare(statusValues[j + 1], min) == 0
+						&& Float.compare(statusValues[j + 2], max) == 0;
+				statusValues[j] = value;
+				statusValues[j + 1] = min;
+				statusValues[j + 2] = max;
+			}
+			return same;
+		}
+
+		private boolean snapshotAttr(AttributeValueSet s, float[] values) {
+			boolean same = true;
+			for (int i = 0; i < ATTR_KEYS.length; i++) {
+				float value = s.contains(ATTR_KEYS[i]) ? s.get(ATTR_KEYS[i]).getValue() : Float.NaN;
+				same &= Float.compare(values[i], value) == 0;
+				values[i] = value;
+			}
+			return same;
+		}
+
+		private boolean snapshotEqip() {
+			boolean same = true;
+			for (int i = 0, j = 0; i < EQIP_SLOTS.length; i++, j += 3) {
+				Item item = eqip.get(EQIP_SLOTS[i]);
+				Object style = item == null ? null : item.getStyle();
+				Object enchant = item == null ? null : item.getEnchant();
+				int mod = item == null ? 0 : item.getModCount();
+				same &= eqipValues[j] == item && eqipValues[j + 1] == style && eqipValues[j + 2] == enchant
+						&& eqipMods[i] == mod;
+				eqipValues[j] = item;
+				eqipValues[j + 1] = style;
+				eqipValues[j + 2] = enchant;
+				eqipMods[i] = mod;
+			}
+			return same;
+		}
+
+		private boolean snapshotCondition() {
+			//EnumMapの走査はすべてのキーを調べるため、状態異常がない場合は走査しない
+			Arrays.fill(conditionWork, 0);
+			if (!currentCondition.isEmpty()) {
+				for (ConditionKey k : currentCondition.keySet()) {
+					conditionWork[k.ordinal() >> 6] |= 1L << (k.ordinal() & 63);
+				}
+			}
+			boolean same = true;
+			for (int i = 0; i < conditions.length; i++) {
+				same &= conditions[i] == conditionWork[i];
+				conditions[i] = conditionWork[i];
+			}
+			return same;
+		}
+	}
+
+	private static final boolean ASSERT;
+
+	static {
+		boolean a = false;
+		assert a = true;
+		ASSERT = a;
+	}
+
+	private static float[] guardOf(StatusValueSet s) {
+		float[] r = new float[STATUS_KEYS.length * 3];
+		for (int i = 0, j = 0; i < STATUS_KEYS.length; i++, j += 3) {
+			StatusValue v = s.get(STATUS_KEYS[i]);
+			r[j] = v == null ? Float.NaN : v.getValue();
+			r[j + 1] = v == null ? Float.NaN : v.getMin();
+			r[j + 2] = v == null ? Float.NaN : v.getMax();
+		}
+		return r;
+	}
+
+	private static float[] guardOf(AttributeValueSet s) {
+		float[] r = new float[ATTR_KEYS.length];
+		for (int i = 0; i < ATTR_KEYS.length; i++) {
+			r[i] = s.contains(ATTR_KEYS[i]) ? s.get(ATTR_KEYS[i]).getValue() : Float.NaN;
+		}
+		return r;
+	}
+
+	private static final String MODIFIED_MSG = " was modified by the caller. the result is cached, clone it before changing : ";
+
+	private static final StatusKey[] STATUS_KEYS = StatusKey.values();
+	private static final AttributeKey[] ATTR_KEYS = AttributeKey.values();
+	private static final EqipSlot[] EQIP_SLOTS = EqipSlot.values();
+	private static final ConditionKey[] CONDITION_KEYS = ConditionKey.values();
 
 	private class Reset {
 
@@ -168,10 +317,41 @@ public final class Status extends Model implements Nameable {
 		r.conditionFlags = this.conditionFlags.clone();
 		r.conditionRegist = this.conditionRegist.clone();
 		r.currentCondition = this.currentCondition.clone();
+		r.effectCache = r.new EffectCache();
 		r.setInit();
 		return r;
 	}
 
+	/**
+	 * バッグ、装備、行動、状態異常の残り時間を元のステータスと共有しない複製を作成します.
+	 * cloneはバッグなどを共有するため、戦闘のシミュレーションのように元のステータスに影響させずに別のスレッドで使用する場合はこちらを使用します。
+	 *
+	 * @return 複製したステータス。
+	 */
+	Status detachedClone() {
+		Status r = clone();
+		r.itemBag = new PersonalBag<>(itemBag.getMax());
+		for (Item i : itemBag) {
+			r.itemBag.add(i);
+		}
+		r.bookBag = new PersonalBag<>(bookBag.getMax());
+		for (Book b : bookBag) {
+			r.bookBag.add(b);
+		}
+		r.eqip = new EnumMap<>(eqip);
+		r.actions = new Storage<>(actions);
+		//cloneは状態異常の残り時間のカウンタを共有するため、複製する。FALSEは共有の目印なのでそのまま使う
+		for (Map.Entry<ConditionKey, ManualTimeCounter> e : r.currentCondition.entrySet()) {
+			ManualTimeCounter t = e.getValue();
+			if (t != ManualTimeCounter.FALSE) {
+				ManualTimeCounter c = new ManualTimeCounter(t.getInitialTime());
+				c.setCurrentTime(t.getCurrentTime());
+				e.setValue(c);
+			}
+		}
+		return r;
+	}
+
 	public Status(String id, Race r) {
 		this.id = id;
 		this.race = r;
@@ -187,6 +367,15 @@ public final class Status extends Model implements Nameable {
 		setInit();
 	}
 
+	//シミュレーションの戦闘では、複製したステータスに戦闘ごとの環境を設定する
+	void setContext(BattleContext context) {
+		this.context = context;
+	}
+
+	BattleContext getContext() {
+		return context;
+	}
+
 	public void setAbility(Ability ability) {
 		this.ability = ability;
 	}
@@ -249,7 +438,7 @@ public final class Status extends Model implements Nameable {
 		//3大状態異常以外の処理
 		//寝た場合、ステータスを初期化する
 		if (key == ConditionKey.眠り) {
-			for (Actor a : Stream.of(GameSystem.getInstance().getParty(), BattleSystem.getInstance().getEnemies()).flatMap(p -> p.stream()).toList()) {
+			for (Actor a : context.allActors()) {
 				if (a.getId().equals(id)) {
 					reset();
 					currentCondition.put(key, t);
@@ -318,7 +507,7 @@ public final class Status extends Model implements Nameable {
 			return getVisibleName() + ConditionKey.損壊.getStartMsgI18Nd();
 		}
 		if (vs.get(StatusKey.魔力).isZero()) {
-			addCondition(ConditionKey.気絶, Random.d10(1) + 2);
+			addCondition(ConditionKey.気絶, Random.battle().dice(1, 10) + 2);
 			ConditionKey.気絶.startEffect(conditionFlags);
 			return getVisibleName() + ConditionKey.気絶.getStartMsgI18Nd();
 		}
@@ -462,9 +651,9 @@ public final class Status extends Model implements Nameable {
 	public void updateAction() {
 		actions.clear();
 		//行動アクションの導入
-		List<Action> allAction = ActionStorage.getInstance().allActions();
+		List<Action> allAction = context.allActions();
 		actions.addAll(allAction.stream().filter(p -> p.getType() == ActionType.行動).toList());
-		if (GameSystem.getInstance().getPCbyID(id) == null) {
+		if (!context.isPC(id)) {
 			actions.remove(BattleConfig.ActionID.状態);
 		}
 		//アイテム
@@ -499,9 +688,38 @@ public final class Status extends Model implements Nameable {
 		actions.removeAll(remove);
 	}
 
+	/**
+	 * 装備品、状態異常、アビリティの効果を適用したステータスを返します。<br>
+	 * 結果は入力が変わるまでキャッシュされ、同じインスタンスが返されます。変更するとキャッシュが壊れるため、変更する場合はcloneしてください。
+	 * アサーションが有効な場合、返した結果が変更されていると次の呼び出しでAssertionErrorが投げられます。
+	 *
+	 * @return 効果適用後のステータス。
+	 */
+	@NotNewInstance
+	public StatusValueSet getEffectedStatus() {
+		effectCache.check();
+		if (effectCache.status == null) {
+			effectCache.status = createEffectedStatus();
+			if (ASSERT) {
+				effectCache.statusGuard = guardOf(effectCache.status);
+			}
+		} else {
+			assert Arrays.equals(effectCache.statusGuard, guardOf(effectCache.status)) : "getEffectedStatus" + MODIFIED_MSG + id;
+		}
+		return effectCache.status;
+	}
+
+	/**
+	 * 効果適用後の値のキャッシュを破棄します。
+	 * getStatusなどで取得した装備品の値を直接変更した場合など、変更が検出されない場合に使用します。
+	 */
+	public void clearEffectCache() {
+		effectCache.invalidate();
+	}
+
 	//アイテムの効果も載せる。その時に左手が漁手持ちだったら右手の効果を2倍にする
 	@NewInstance
-	public StatusValueSet getEffectedStatus() {
+	private StatusValueSet createEffectedStatus() {
 		StatusValueSet s = this.status.clone();
 
 		//アイテム
@@ -545,9 +763,8 @@ public final class Status extends Model implements Nameable {
 		}
 		//バフデバフ
 		StatusValueSet vs = s.clone();
-		List<ConditionKey> list = new ArrayList<>(getCurrentConditions().keySet());
-		Collections.sort(list);
-		for (ConditionKey k : list) {
+		//EnumMapのキーは宣言順に並んでいる
+		for (ConditionKey k : currentCondition.keySet()) {
 			s = s.orHigh(k.getStatusValue(vs));
 		}
 		//アビリティ
@@ -557,8 +774,28 @@ public final class Status extends Model implements Nameable {
 		return s;
 	}
 
-	@NewInstance
+	/**
+	 * 装備品、状態異常、アビリティの効果を適用した被属性を返します。<br>
+	 * 結果はキャッシュされます。変更するとキャッシュが壊れるため、変更する場合はcloneしてください。
+	 *
+	 * @return 効果適用後の被属性。
+	 */
+	@NotNewInstance
 	public AttributeValueSet getEffectedAttrIn() {
+		effectCache.check();
+		if (effectCache.attrIn == null) {
+			effectCache.attrIn = createEffectedAttrIn();
+			if (ASSERT) {
+				effectCache.attrInGuard = guardOf(effectCache.attrIn);
+			}
+		} else {
+			assert Arrays.equals(effectCache.attrInGuard, guardOf(effectCache.attrIn)) : "getEffectedAttrIn" + MODIFIED_MSG + id;
+		}
+		return effectCache.attrIn;
+	}
+
+	@NewInstance
+	private AttributeValueSet createEffectedAttrIn() {
 		AttributeValueSet r = this.attrIn.clone();
 		//アイテム
 		for (Item i : getEqip().values()) {
@@ -569,7 +806,7 @@ public final class Status extends Model implements Nameable {
 		}
 		AttributeValueSet rr = r.clone();
 		//バフデバフ
-		for (ConditionKey k : getCurrentConditions().keySet()) {
+		for (ConditionKey k : currentCondition.keySet()) {
 			r = r.composite(k.getAttrIn(rr));
 		}
 		//アビリティ
@@ -579,8 +816,28 @@ public final class Status extends Model implements Nameable {
 		return r;
 	}
 
-	@NewInstance
+	/**
+	 * 装備品、状態異常、アビリティの効果を適用した与属性を返します。<br>
+	 * 結果はキャッシュされます。変更するとキャッシュが壊れるため、変更する場合はcloneしてください。
+	 *
+	 * @return 効果適用後の与属性。
+	 */
+	@NotNewInstance
 	public AttributeValueSet getEffectedAttrOut() {
+		effectCache.check();
+		if (effectCache.attrOut == null) {
+			effectCache.attrOut = createEffectedAttrOut();
+			if (ASSERT) {
+				effectCache.attrOutGuard = guardOf(effectCache.attrOut);
+			}
+		} else {
+			assert Arrays.equals(effectCache.attrOutGuard, guardOf(effectCache.attrOut)) : "getEffectedAttrOut" + MODIFIED_MSG + id;
+		}
+		return effectCache.attrOut;
+	}
+
+	@NewInstance
+	private AttributeValueSet createEffectedAttrOut() {
 		AttributeValueSet r = this.attrOut.clone();
 		//アイテム
 		for (Item i : getEqip().values()) {
@@ -591,7 +848,7 @@ public final class Status extends Model implements Nameable {
 		}
 		AttributeValueSet rr = r.clone();
 		//バフデバフ
-		for (ConditionKey k : getCurrentConditions().keySet()) {
+		for (ConditionKey k : currentCondition.keySet()) {
 			r = r.composite(k.getAttrOut(rr));
 		}
 		//アビリティ
@@ -613,7 +870,7 @@ public final class Status extends Model implements Nameable {
 		}
 		ConditionRegist rr = r.clone();
 		//バフデバフ
-		for (ConditionKey k : getCurrentConditions().keySet()) {
+		for (ConditionKey k : currentCondition.keySet()) {
 			r = r.add(k.getCndRegist(rr));
 		}
 		//アビリティ
@@ -967,6 +1224,12 @@ public final class Status extends Model implements Nameable {
 		return currentCondition;
 	}
 
+	//セーブデータから状態異常を復元する。耐性や他の状態異常との関係は判定しない
+	void restoreCondition(ConditionKey key, ManualTimeCounter t) {
+		currentCondition.put(key, t);
+		key.startEffect(conditionFlags);
+	}
+
 	public PartyLocation getPartyLocation() {
 		return partyLocation;
 	}
@@ -16,22 +16,59 @@
  */
 package kinugasa.game.system;
 
+import java.util.Arrays;
 import kinugasa.game.NewInstance;
+import kinugasa.game.Nullable;
 import static kinugasa.game.system.StatusKey.体力;
 import static kinugasa.game.system.StatusKey.正気度;
 import static kinugasa.game.system.StatusKey.魔力;
+import kinugasa.resource.DuplicateNameException;
 import kinugasa.resource.Storage;
 
 /**
+ * ステータスのセットです.
+ * <br>
+ * 名前によるマップに加えて、StatusKeyの序数を添え字とする配列で値を保持します。
+ * StatusKeyによる検索は配列の参照だけで行われます。<br>
  *
  * @vesion 1.0.0 - 2023/10/14_11:23:58<br>
  * @author Shinacho<br>
  */
 public class StatusValueSet extends Storage<StatusValue> implements Cloneable {
 
+	private static final StatusKey[] KEYS = StatusKey.values();
+	//StatusKeyの序数で引くための索引。マップと常に同じ内容を持つ
+	private StatusValue[] byKey = new StatusValue[KEYS.length];
+
 	public StatusValueSet() {
 	}
 
+	@Override
+	public void add(StatusValue val) throws DuplicateNameException {
+		super.add(val);
+		byKey[val.getKey().ordinal()] = val;
+	}
+
+	@Override
+	public void put(StatusValue val) {
+		super.put(val);
+		byKey[val.getKey().ordinal()] = val;
+	}
+
+	@Override
+	public void remove(String key) {
+		if (contains(key)) {
+			byKey[get(key).getKey().ordinal()] = null;
+		}
+		super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		Arrays.fill(byKey, null);
+	}
+
 	public void init() {
 		for (StatusKey k : StatusKey.values()) {
 			switch (k) {
@@ -49,21 +86,21 @@ public class StatusValueSet extends Storage<StatusValue> implements Cloneable {
 	}
 
 	public boolean contains(StatusKey s) {
-		return contains(s.getName());
+		return byKey[s.ordinal()] != null;
 	}
 
+	@Nullable
 	public StatusValue get(StatusKey key) {
-		if (contains(key.getName())) {
-			return get(key.getName());
-		}
-		return null;
+		return byKey[key.ordinal()];
 	}
 
 	@Override
 	public StatusValueSet clone() {
 		StatusValueSet r = new StatusValueSet();
-		for (StatusValue v : this) {
-			r.add(v.clone());
+		for (StatusValue v : byKey) {
+			if (v != null) {
+				r.add(v.clone());
+			}
 		}
 		return r;
 	}
@@ -73,9 +110,9 @@ public class StatusValueSet extends Storage<StatusValue> implements Cloneable {
 		StatusValueSet r = clone();
 
 		//thisには全キーが入っている
-		for (StatusKey k : StatusKey.values()) {
+		for (StatusKey k : KEYS) {
 			StatusValue sv = r.get(k);
-			if (!v.contains(k.getName())) {
+			if (!v.contains(k)) {
 				continue;
 			}
 			switch (k) {
@@ -101,7 +138,7 @@ public class StatusValueSet extends Storage<StatusValue> implements Cloneable {
 		StatusValueSet r = new StatusValueSet();
 
 		//thisには全キーが入っている
-		for (StatusKey k : StatusKey.values()) {
+		for (StatusKey k : KEYS) {
 			StatusValue thisValue = get(k);
 			StatusValue vValue = v.get(k);
 			if (thisValue == null) {
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import kinugasa.graphics.AtlasImage;
+import kinugasa.graphics.TextureAtlas;
+
+/**
+ * 文字をあらかじめ描画してテクスチャアトラスにまとめたものです.
+ * <br>
+ * TextRunCacheに登録すると、フォント、色、アンチエイリアスの設定が同じで、すべての文字がこのアトラスに含まれる行は、
+ * 行ごとの画像を作らずに文字の画像を並べて描画されます。
+ * 会話のように毎回異なる行が表示される場面で、行の画像を作成する時間とメモリを節約できます。<br>
+ * 文字の位置は行のレイアウトから計算されるため、drawStringで描画した場合と同じ位置になります。<br>
+ * 文字の集合はASCIIやHIRAGANAなどの定数、またはシナリオのテキストから作成してください。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_22:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class GlyphAtlas {
+
+	/**
+	 * 印字可能なASCII文字です。
+	 */
+	public static final String ASCII = range(0x20, 0x7E);
+	/**
+	 * ひらがなです。
+	 */
+	public static final String HIRAGANA = range(0x3041, 0x3096) + "ゝゞ";
+	/**
+	 * カタカナと長音記号です。
+	 */
+	public static final String KATAKANA = range(0x30A1, 0x30FA) + "ー・ヽヾ";
+	/**
+	 * 全角の英数字です。
+	 */
+	public static final String FULLWIDTH_ALNUM = range(0xFF10, 0xFF19) + range(0xFF21, 0xFF3A) + range(0xFF41, 0xFF5A);
+	/**
+	 * 日本語の文章でよく使われる記号です。
+	 */
+	public static final String JAPANESE_SYMBOLS = "　、。，．「」『』（）【】〈〉《》！？：；…‥～〜－＝＋※○●◎△▲▽▼□■◇◆☆★→←↑↓♪";
+
+	private static String range(int from, int to) {
+		StringBuilder sb = new StringBuilder(to - from + 1);
+		for (int c = from; c <= to; c++) {
+			sb.append((char) c);
+		}
+		return sb.toString();
+	}
+
+	//描画済みの文字
+	private static final class Glyph {
+
+		final BufferedImage page;
+		final int sx, sy, w, h;
+		final int ox, oy;
+
+		Glyph(AtlasImage image, int ox, int oy) {
+			this.page = image == null ? null : image.getPage();
+			this.sx = image == null ? 0 : image.getRegionX();
+			this.sy = image == null ? 0 : image.getRegionY();
+			this.w = image == null ? 0 : image.getWidth();
+			this.h = image == null ? 0 : image.getHeight();
+			this.ox = ox;
+			this.oy = oy;
+		}
+	}
+
+	private final Font font;
+	private final Color color;
+	private final FontRenderContext frc;
+	//上位8ビットと下位8ビットで引く表
+	private final Glyph[][] table = new Glyph[256][];
+	private final TextureAtlas textures;
+	private int size;
+
+	/**
+	 * フォントモデルの現在のフォントと色でアトラスを作成します。
+	 *
+	 * @param font フォントモデル。
+	 * @param antialias テキストのアンチエイリアスを使用する場合はtrue。
+	 * @param charSets 含める文字。重複は無視されます。
+	 */
+	public GlyphAtlas(FontModel font, boolean antialias, CharSequence... charSets) {
+		this(font.getFont(), font.getColor(), antialias, charSets);
+	}
+
+	/**
+	 * アトラスを作成します。
+	 *
+	 * @param font フォント。
+	 * @param color 色。
+	 * @param antialias テキストのアンチエイリアスを使用する場合はtrue。
+	 * @param charSets 含める文字。重複は無視されます。
+	 */
+	public GlyphAtlas(Font font, Color color, boolean antialias, CharSequence... charSets) {
+		this.font = font;
+		this.color = color;
+		this.frc = new FontRenderContext(null,
+				antialias ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF,
+				RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+		Map<String, BufferedImage> images = new LinkedHashMap<>();
+		Map<Character, Rectangle> bounds = new LinkedHashMap<>();
+		for (CharSequence cs : charSets) {
+			for (int i = 0; i < cs.length(); i++) {
+				char c = cs.charAt(i);
+				if (Character.isSurrogate(c) || Character.isISOControl(c) || bounds.containsKey(c) || !font.canDisplay(c)) {
+					continue;
+				}
+				GlyphVector gv = font.createGlyphVector(frc, new char[]{c});
+				Rectangle r = gv.getPixelBounds(frc, 0, 0);
+				bounds.put(c, r);
+				if (r.isEmpty()) {
+					continue;
+				}
+				BufferedImage image = new BufferedImage(r.width, r.height, BufferedImage.TYPE_INT_ARGB);
+				Graphics2D g2 = image.createGraphics();
+				g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, frc.getAntiAliasingHint());
+				g2.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, frc.getFractionalMetricsHint());
+				g2.setColor(color);
+				g2.drawGlyphVector(gv, -r.x, -r.y);
+				g2.dispose();
+				images.put(String.valueOf(c), image);
+			}
+		}
+		this.textures = TextureAtlas.pack(images);
+		for (Map.Entry<Character, Rectangle> e : bounds.entrySet()) {
+			char c = e.getKey();
+			Rectangle r = e.getValue();
+			AtlasImage image = r.isEmpty() ? null : textures.get(String.valueOf(c));
+			if (table[c >> 8] == null) {
+				table[c >> 8] = new Glyph[256];
+			}
+			table[c >> 8][c & 0xFF] = new Glyph(image, r.x, r.y);
+			size++;
+		}
+	}
+
+	private Glyph glyph(char c) {
+		Glyph[] t = table[c >> 8];
+		return t == null ? null : t[c & 0xFF];
+	}
+
+	/**
+	 * 文字がこのアトラスに含まれるかを返します。
+	 *
+	 * @param c 文字。
+	 * @return 含まれる場合はtrue。
+	 */
+	public boolean contains(char c) {
+		return glyph(c) != null;
+	}
+
+	/**
+	 * 文字列のすべての文字がこのアトラスに含まれるかを返します。
+	 *
+	 * @param s 文字列。
+	 * @return すべて含まれる場合はtrue。
+	 */
+	public boolean covers(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (glyph(s.charAt(i)) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 文字を描画します。
+	 *
+	 * @param g 描画先。
+	 * @param c 文字。このアトラスに含まれている必要があります。
+	 * @param x 文字の原点のX座標。
+	 * @param baseline ベースラインのY座標。
+	 */
+	void draw(Graphics2D g, char c, int x, int baseline) {
+		Glyph gl = glyph(c);
+		if (gl == null || gl.page == null) {
+			return;
+		}
+		int dx = x + gl.ox;
+		int dy = baseline + gl.oy;
+		g.drawImage(gl.page, dx, dy, dx + gl.w, dy + gl.h, gl.sx, gl.sy, gl.sx + gl.w, gl.sy + gl.h, null);
+	}
+
+	public Font getFont() {
+		return font;
+	}
+
+	public Color getColor() {
+		return color;
+	}
+
+	/**
+	 * 文字を描画したときのアンチエイリアスなどの設定を返します。
+	 *
+	 * @return 変換を持たない描画設定。
+	 */
+	public FontRenderContext getFontRenderContext() {
+		return frc;
+	}
+
+	/**
+	 * 含まれる文字の数を返します。
+	 *
+	 * @return 文字の数。
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * ページのピクセルのバイト数を返します。
+	 *
+	 * @return バイト数。
+	 */
+	public long getBytes() {
+		return textures.getBytes();
+	}
+
+	@Override
+	public String toString() {
+		return "GlyphAtlas{" + "font=" + font + ", color=" + color + ", size=" + size + ", pages=" + textures.getPages().size() + '}';
+	}
+
+}
@@ -28,6 +28,17 @@ public abstract class MessageWindowModel extends Model {
 
 	public abstract void draw(GraphicsContext g, MessageWindow mw);
 
+	/**
+	 * ウインドウのテキストとこのモデルが変わらない限り、描画結果が毎フレーム同じかどうかを返します。
+	 * RetainedMessageWindowは、trueの間は描画結果の画像を再利用します。
+	 *
+	 * @param mw ウインドウ。
+	 * @return 描画結果が変化しない場合はtrue。デフォルトではfalse。
+	 */
+	public boolean isStatic(MessageWindow mw) {
+		return false;
+	}
+
 	@Override
 	public MessageWindowModel clone() {
 		return (MessageWindowModel) super.clone(); //To change body of generated methods, choose Tools | Templates.
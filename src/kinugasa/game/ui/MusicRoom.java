@@ -43,7 +43,7 @@ public class MusicRoom extends ScrollSelectableMessageWindow {
 		Collections.sort(list, (Sound o1, Sound o2) -> o1.getFileName().compareTo(o2.getFileName()));
 		List<Text> t = list
 				.stream()
-				.map(p -> ((CachedSound) p).getBuilder().getVisibleName().replaceAll(".wav", ""))
+				.map(p -> p.getFileName().replaceAll(".wav", ""))
 				.map(p -> Text.i18nd(p))
 				.collect(Collectors.toList());
 		t.add(0, Text.of("--" + "BGM"));
@@ -65,8 +65,4 @@ public class MusicRoom extends ScrollSelectableMessageWindow {
 		return list.get(getSelectedIdx() - 1);
 	}
 
-	public CachedSound getSelectedCachedSound() {
-		return (CachedSound) list.get(getSelectedIdx() - 1);
-	}
-
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.ui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import kinugasa.game.GraphicsContext;
+import kinugasa.graphics.ImageUtil;
+
+/**
+ * 描画結果を画像として保持するメッセージウインドウです.
+ * <br>
+ * モデルのisStaticがtrueを返す間は、1度描画した画像を再利用します。
+ * テキストまたはモデルが設定された場合や、ウインドウのサイズが変わった場合に描画し直します。
+ * 位置の変更では描画し直しません。<br>
+ * モデルやフォントの色などを直接変更した場合は、invalidateを呼び出してください。<br>
+ * isStaticがfalseの間（テキストの表示中、アイコンの点滅中、選択肢など）は、MessageWindowと同じく毎フレーム描画します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_21:00:00<br>
+ * @author Shinacho<br>
+ */
+public class RetainedMessageWindow extends MessageWindow {
+
+	private BufferedImage cache;
+	private boolean valid = false;
+	private long renderCount;
+
+	public RetainedMessageWindow(float x, float y, float w, float h, MessageWindowModel model) {
+		super(x, y, w, h, model);
+	}
+
+	public RetainedMessageWindow(float x, float y, float w, float h, Text text) {
+		super(x, y, w, h, text);
+	}
+
+	public RetainedMessageWindow(float x, float y, float w, float h, MessageWindowModel model, TextStorage ts, Text text) {
+		super(x, y, w, h, model, ts, text);
+	}
+
+	@Override
+	public void setText(Text text) {
+		super.setText(text);
+		invalidate();
+	}
+
+	@Override
+	public void setModel(MessageWindowModel model) {
+		super.setModel(model);
+		invalidate();
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		invalidate();
+	}
+
+	/**
+	 * 保持している画像を破棄し、次の描画で描画し直します。
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * 保持している画像が有効かどうかを返します。
+	 *
+	 * @return 次の描画で画像を再利用する場合はtrue。
+	 */
+	public boolean isCached() {
+		return valid;
+	}
+
+	/**
+	 * 画像に描画した回数を返します。
+	 *
+	 * @return 回数。
+	 */
+	public long getRenderCount() {
+		return renderCount;
+	}
+
+	@Override
+	public void draw(GraphicsContext g) {
+		if (!isVisible() || !isExist()) {
+			return;
+		}
+		int w = (int) getWidth();
+		int h = (int) getHeight();
+		if (w <= 0 || h <= 0 || getModel() == null || !getModel().isStatic(this)) {
+			valid = false;
+			super.draw(g);
+			return;
+		}
+		if (!valid || cache == null || cache.getWidth() != w || cache.getHeight() != h) {
+			render(g, w, h);
+		}
+		g.drawImage(cache, (int) getX(), (int) getY());
+	}
+
+	private void render(GraphicsContext g, int w, int h) {
+		if (cache == null || cache.getWidth() != w || cache.getHeight() != h) {
+			cache = ImageUtil.newImage(w, h);
+		}
+		//画面と同じ描画設定で、ウインドウの位置が原点になるように描画する
+		Graphics2D screen = g.create();
+		RenderingHints hints = screen.getRenderingHints();
+		screen.dispose();
+		Graphics2D g2 = cache.createGraphics();
+		g2.setComposite(AlphaComposite.Clear);
+		g2.fillRect(0, 0, w, h);
+		g2.setComposite(AlphaComposite.SrcOver);
+		g2.setRenderingHints(hints);
+		g2.translate(-(int) getX(), -(int) getY());
+		getModel().draw(new GraphicsContext(g2), this);
+		g2.dispose();
+		valid = true;
+		renderCount++;
+	}
+
+}
@@ -17,10 +17,13 @@
 package kinugasa.game.ui;
 
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.GradientPaint;
 import java.awt.Graphics2D;
 import java.awt.Paint;
+import java.awt.font.FontRenderContext;
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import kinugasa.game.GraphicsContext;
 import kinugasa.graphics.ImageUtil;
 import kinugasa.util.FrameTimeCounter;
@@ -67,6 +70,14 @@ public class SimpleMessageWindowModel extends MessageWindowModel {
 	private static final float CHARA_IMAGE_W = 235;
 	private static final float CHARA_IMAGE_H = 235;
 	private BufferedImage charaImage;
+	//レイアウト済みのテキスト
+	private String laidOutText;
+	private Font laidOutFont;
+	private Color laidOutColor;
+	private FontRenderContext laidOutFrc;
+	private TextRun[] runs = new TextRun[4];
+	private int[] lineStarts = new int[4];
+	private int lineNum;
 
 	public SimpleMessageWindowModel() {
 		font = FontModel.DEFAULT.clone();
@@ -79,7 +90,12 @@ public class SimpleMessageWindowModel extends MessageWindowModel {
 
 	@Override
 	public SimpleMessageWindowModel clone() {
-		return (SimpleMessageWindowModel) super.clone(); //To change body of generated methods, choose Tools | Templates.
+		SimpleMessageWindowModel r = (SimpleMessageWindowModel) super.clone(); //To change body of generated methods, choose Tools | Templates.
+		r.laidOutText = null;
+		r.runs = new TextRun[4];
+		r.lineStarts = new int[4];
+		r.lineNum = 0;
+		return r;
 	}
 
 	public Color getBorder1() {
@@ -114,6 +130,51 @@ public class SimpleMessageWindowModel extends MessageWindowModel {
 		this.font = font;
 	}
 
+	/**
+	 * テキストがすべて表示され、次へのアイコンが空で、選択肢でない場合に描画結果は変化しません。
+	 *
+	 * @param mw ウインドウ。
+	 * @return 描画結果が変化しない場合はtrue。
+	 */
+	@Override
+	public boolean isStatic(MessageWindow mw) {
+		return mw.isAllVisible() && (nextIcon == null || nextIcon.isEmpty()) && !(mw.getText() instanceof Choice);
+	}
+
+	//テキストを行に分けてTextRunCacheから取得する。テキストとフォントが同じ間は再利用する
+	private void layout(Graphics2D g2, String text) {
+		Font f = g2.getFont();
+		Color c = g2.getColor();
+		FontRenderContext frc = g2.getFontRenderContext();
+		if (text == laidOutText && f.equals(laidOutFont) && c.equals(laidOutColor) && frc.equals(laidOutFrc)) {
+			return;
+		}
+		String sep = Text.getLineSep();
+		lineNum = 0;
+		int from = 0;
+		while (true) {
+			int to = sep.isEmpty() ? -1 : text.indexOf(sep, from);
+			if (lineNum == runs.length) {
+				runs = Arrays.copyOf(runs, lineNum * 2);
+				lineStarts = Arrays.copyOf(lineStarts, lineNum * 2);
+			}
+			lineStarts[lineNum] = from;
+			runs[lineNum++] = TextRunCache.getInstance().get(g2, f, c, to < 0 ? text.substring(from) : text.substring(from, to));
+			if (to < 0) {
+				break;
+			}
+			from = to + sep.length();
+		}
+		laidOutText = text;
+		laidOutFont = f;
+		laidOutColor = c;
+		laidOutFrc = frc;
+	}
+
+	private TextRun run(Graphics2D g2, String text) {
+		return TextRunCache.getInstance().get(g2, g2.getFont(), g2.getColor(), text);
+	}
+
 	@Override
 	public void draw(GraphicsContext g, MessageWindow mw) {
 		if (!mw.isVisible() || !mw.isExist()) {
@@ -154,13 +215,26 @@ public class SimpleMessageWindowModel extends MessageWindowModel {
 		float size = font == null || font.getFont() == null ? g2.getFont().getSize() : font.getFont().getSize();
 		y += BORDER_SIZE * 5 + size;
 
-		String visibleText = mw.getVisibleText();
-		String[] text = visibleText.contains(Text.getLineSep()) ? visibleText.split(Text.getLineSep()) : new String[]{visibleText};
 		if (font != null) {
 			g2.setFont(font.getFont());
 		}
-		for (String t : text) {
-			g2.drawString(t, x, y);
+		//表示中の文字列を作らず、レイアウト済みの行を表示済みの文字数だけ描画する
+		Text t = mw.getText();
+		String all = t.getText();
+		layout(g2, all);
+		int visible = t.isAllVisible() ? all.length() : Math.min(t.getVisibleIdx(), all.length());
+		int lines = 0;
+		for (int i = 0; i < lineNum; i++) {
+			int chars = Math.min(runs[i].length(), visible - lineStarts[i]);
+			if (chars > 0) {
+				lines = i + 1;
+			}
+		}
+		if (lines == 0 && lineNum == 1) {
+			lines = 1;
+		}
+		for (int i = 0; i < lines; i++) {
+			runs[i].draw(g2, x, y, visible - lineStarts[i]);
 			y += size + BORDER_SIZE * 2;
 		}
 		y += size;
@@ -170,10 +244,10 @@ public class SimpleMessageWindowModel extends MessageWindowModel {
 				y -= size / 2;
 				for (int i = 0; i < mw.getChoice().getOptions().size(); i++) {
 					if (i == mw.getSelect()) {
-						g2.drawString(selectIcon, x, y);
+						run(g2, selectIcon).draw(g2, x, y);
 					}
 					String optionVal = mw.getChoice().getOptions().get(i).getText();
-					g2.drawString(optionVal, x + (size * 2), y);
+					run(g2, optionVal).draw(g2, (int) (x + (size * 2)), y);
 					y += BORDER_SIZE * 3 + size;
 				}
 			}
@@ -189,7 +263,7 @@ public class SimpleMessageWindowModel extends MessageWindowModel {
 					x -= CHARA_IMAGE_W;
 				}
 				y = (int) (mw.getY() + mw.getHeight() - 12);
-				g2.drawString(nextIcon, x, y);
+				run(g2, nextIcon).draw(g2, x, y);
 			}
 		}
 
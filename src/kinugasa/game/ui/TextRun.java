@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import kinugasa.graphics.ImageUtil;
+
+/**
+ * レイアウト済みの1行のテキストです.
+ * <br>
+ * 作成時に1度だけレイアウトを行い、各文字の開始位置の表を保持します。
+ * 行は画像として描画しておき、毎フレームの描画は画像の転送だけになります。
+ * 文字送りの途中では、表の位置で画像を切り取って描画するため、表示中の文字列を作り直す必要はありません。<br>
+ * GlyphAtlasがすべての文字を含む場合は、行の画像を作らずにアトラスの文字を並べて描画します。<br>
+ * レイアウトと画像は変換を持たない描画設定で作成されるため、拡大縮小された描画先では画像が拡大縮小されます。<br>
+ * TextRunCacheから取得してください。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_22:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class TextRun {
+
+	private final String text;
+	//x[i]はi文字目の開始位置、x[length]は行の幅
+	private final int[] x;
+	private final GlyphAtlas atlas;
+	private final BufferedImage image;
+	//画像の左上の、原点からの位置
+	private final int ox, oy;
+
+	TextRun(String text, Font font, Color color, FontRenderContext frc, GlyphAtlas atlas) {
+		this.text = text;
+		this.atlas = atlas;
+		int len = text.length();
+		GlyphVector gv = font.createGlyphVector(frc, text);
+		float[] pos = new float[len + 1];
+		Arrays.fill(pos, -1);
+		int n = gv.getNumGlyphs();
+		for (int i = 0; i < n; i++) {
+			int c = gv.getGlyphCharIndex(i);
+			if (c >= 0 && c < len && pos[c] < 0) {
+				pos[c] = (float) gv.getGlyphPosition(i).getX();
+			}
+		}
+		pos[len] = (float) gv.getGlyphPosition(n).getX();
+		//グリフを持たない文字（サロゲートの後半など）は直前の位置にする
+		this.x = new int[len + 1];
+		float prev = 0;
+		for (int i = 0; i <= len; i++) {
+			if (pos[i] < 0) {
+				pos[i] = prev;
+			}
+			prev = pos[i];
+			x[i] = Math.round(pos[i]);
+		}
+		if (atlas != null || len == 0) {
+			this.image = null;
+			this.ox = 0;
+			this.oy = 0;
+			return;
+		}
+		Rectangle r = gv.getPixelBounds(frc, 0, 0);
+		if (r.isEmpty()) {
+			this.image = null;
+			this.ox = 0;
+			this.oy = 0;
+			return;
+		}
+		this.image = ImageUtil.newImage(r.width, r.height);
+		this.ox = r.x;
+		this.oy = r.y;
+		Graphics2D g2 = image.createGraphics();
+		g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, frc.getAntiAliasingHint());
+		g2.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, frc.getFractionalMetricsHint());
+		g2.setColor(color);
+		g2.drawGlyphVector(gv, -r.x, -r.y);
+		g2.dispose();
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public int length() {
+		return text.length();
+	}
+
+	/**
+	 * 行の幅を返します。
+	 *
+	 * @return 幅（ピクセル）。
+	 */
+	public int getWidth() {
+		return x[x.length - 1];
+	}
+
+	/**
+	 * 先頭から指定した文字数を表示したときの幅を返します。
+	 *
+	 * @param chars 文字数。
+	 * @return 幅（ピクセル）。
+	 * @throws IndexOutOfBoundsException charsが0から長さの範囲外の場合に投げられます。
+	 */
+	public int getAdvance(int chars) throws IndexOutOfBoundsException {
+		return x[chars];
+	}
+
+	/**
+	 * 行全体を描画します。
+	 *
+	 * @param g 描画先。
+	 * @param x 行の原点のX座標。
+	 * @param baseline ベースラインのY座標。
+	 */
+	public void draw(Graphics2D g, int x, int baseline) {
+		draw(g, x, baseline, text.length());
+	}
+
+	/**
+	 * 先頭から指定した文字数だけ描画します。
+	 *
+	 * @param g 描画先。
+	 * @param x 行の原点のX座標。
+	 * @param baseline ベースラインのY座標。
+	 * @param chars 描画する文字数。長さを超える場合は行全体を描画します。
+	 */
+	public void draw(Graphics2D g, int x, int baseline, int chars) {
+		if (chars <= 0) {
+			return;
+		}
+		if (chars > text.length()) {
+			chars = text.length();
+		}
+		if (atlas != null) {
+			for (int i = 0; i < chars; i++) {
+				atlas.draw(g, text.charAt(i), x + this.x[i], baseline);
+			}
+			return;
+		}
+		if (image == null) {
+			return;
+		}
+		int dx = x + ox;
+		int dy = baseline + oy;
+		int w = chars == text.length() ? image.getWidth() : Math.min(image.getWidth(), this.x[chars] - ox);
+		if (w <= 0) {
+			return;
+		}
+		g.drawImage(image, dx, dy, dx + w, dy + image.getHeight(), 0, 0, w, image.getHeight(), null);
+	}
+
+	/**
+	 * アトラスを使用して描画するかを返します。
+	 *
+	 * @return アトラスを使用する場合はtrue。
+	 */
+	public boolean isAtlas() {
+		return atlas != null;
+	}
+
+	/**
+	 * 保持している画像と表のおおよそのバイト数を返します。
+	 *
+	 * @return バイト数。
+	 */
+	long bytes() {
+		long b = 64L + text.length() * 2L + x.length * 4L;
+		if (image != null) {
+			b += (long) image.getWidth() * image.getHeight() * 4;
+		}
+		return b;
+	}
+
+	@Override
+	public String toString() {
+		return "TextRun{" + "text=" + text + ", width=" + getWidth() + ", atlas=" + (atlas != null) + '}';
+	}
+
+}
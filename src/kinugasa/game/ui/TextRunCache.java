@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * レイアウト済みの行を、フォント、色、アンチエイリアスの設定、文字列ごとに保持するキャッシュです.
+ * <br>
+ * 同じ行を毎フレーム描画する場合、レイアウトと文字の描画は最初の1回だけ行われます。
+ * キャッシュは最後に使用された順に管理され、画像の合計が上限を超えると古い行から破棄されます。<br>
+ * 取得の際は再利用するキーで検索するため、キャッシュにある行の取得ではメモリを確保しません。<br>
+ * 登録されたGlyphAtlasがすべての文字を含む行は、アトラスを使用して描画されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_22:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class TextRunCache {
+
+	private static final TextRunCache INSTANCE = new TextRunCache();
+
+	private TextRunCache() {
+	}
+
+	public static TextRunCache getInstance() {
+		return INSTANCE;
+	}
+
+	private static final class Key {
+
+		Font font;
+		int argb;
+		Object aa;
+		Object fm;
+		String text;
+		int hash;
+
+		Key set(Font font, int argb, Object aa, Object fm, String text) {
+			this.font = font;
+			this.argb = argb;
+			this.aa = aa;
+			this.fm = fm;
+			this.text = text;
+			int h = font.hashCode();
+			h = h * 31 + argb;
+			h = h * 31 + aa.hashCode();
+			h = h * 31 + fm.hashCode();
+			h = h * 31 + text.hashCode();
+			this.hash = h;
+			return this;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) obj;
+			return hash == k.hash && argb == k.argb && aa == k.aa && fm == k.fm
+					&& text.equals(k.text) && font.equals(k.font);
+		}
+	}
+
+	private final LinkedHashMap<Key, TextRun> runs = new LinkedHashMap<>(64, 0.75f, true);
+	private final List<GlyphAtlas> atlases = new ArrayList<>();
+	private final Key probe = new Key();
+	private long maxBytes = 4 * 1024 * 1024;
+	private long bytes;
+	private long hit, miss, evicted;
+
+	/**
+	 * 行を取得します。キャッシュにない場合はレイアウトして追加します。
+	 *
+	 * @param g 描画先。アンチエイリアスなどの設定が使用されます。
+	 * @param font フォント。
+	 * @param color 色。
+	 * @param text 改行を含まない文字列。
+	 * @return 行。
+	 */
+	public synchronized TextRun get(Graphics2D g, Font font, Color color, String text) {
+		FontRenderContext frc = g.getFontRenderContext();
+		Object aa = frc.getAntiAliasingHint();
+		if (aa == RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT) {
+			aa = RenderingHints.VALUE_TEXT_ANTIALIAS_OFF;
+		}
+		Object fm = frc.getFractionalMetricsHint();
+		if (fm == RenderingHints.VALUE_FRACTIONALMETRICS_DEFAULT) {
+			fm = RenderingHints.VALUE_FRACTIONALMETRICS_OFF;
+		}
+		int argb = color.getRGB();
+		TextRun run = runs.get(probe.set(font, argb, aa, fm, text));
+		probe.text = null;
+		if (run != null) {
+			hit++;
+			return run;
+		}
+		miss++;
+		run = new TextRun(text, font, color, new FontRenderContext(null, aa, fm), findAtlas(font, argb, aa, fm, text));
+		runs.put(new Key().set(font, argb, aa, fm, text), run);
+		bytes += run.bytes();
+		trim();
+		return run;
+	}
+
+	private GlyphAtlas findAtlas(Font font, int argb, Object aa, Object fm, String text) {
+		for (int i = 0, size = atlases.size(); i < size; i++) {
+			GlyphAtlas a = atlases.get(i);
+			if (a.getColor().getRGB() == argb
+					&& a.getFontRenderContext().getAntiAliasingHint() == aa
+					&& a.getFontRenderContext().getFractionalMetricsHint() == fm
+					&& a.getFont().equals(font)
+					&& a.covers(text)) {
+				return a;
+			}
+		}
+		return null;
+	}
+
+	private void trim() {
+		Iterator<Map.Entry<Key, TextRun>> i = runs.entrySet().iterator();
+		while (bytes > maxBytes && runs.size() > 1 && i.hasNext()) {
+			bytes -= i.next().getValue().bytes();
+			i.remove();
+			evicted++;
+		}
+	}
+
+	/**
+	 * アトラスを登録します。キャッシュされている行は破棄されます。
+	 *
+	 * @param atlas アトラス。
+	 */
+	public synchronized void addAtlas(GlyphAtlas atlas) {
+		atlases.add(atlas);
+		clear();
+	}
+
+	/**
+	 * アトラスの登録を解除します。キャッシュされている行は破棄されます。
+	 *
+	 * @param atlas アトラス。
+	 * @return 登録されていた場合はtrue。
+	 */
+	public synchronized boolean removeAtlas(GlyphAtlas atlas) {
+		boolean removed = atlases.remove(atlas);
+		if (removed) {
+			clear();
+		}
+		return removed;
+	}
+
+	public synchronized List<GlyphAtlas> getAtlases() {
+		return new ArrayList<>(atlases);
+	}
+
+	/**
+	 * 行の画像の合計の上限を設定します。
+	 *
+	 * @param maxBytes 上限のバイト数。
+	 * @throws IllegalArgumentException maxBytesが負数の場合に投げられます。
+	 */
+	public synchronized void setMaxBytes(long maxBytes) throws IllegalArgumentException {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("TextRunCache : maxBytes is negative : " + maxBytes);
+		}
+		this.maxBytes = maxBytes;
+		trim();
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized int size() {
+		return runs.size();
+	}
+
+	public synchronized void clear() {
+		runs.clear();
+		bytes = 0;
+	}
+
+	public synchronized long getHitCount() {
+		return hit;
+	}
+
+	public synchronized long getMissCount() {
+		return miss;
+	}
+
+	public synchronized long getEvictedCount() {
+		return evicted;
+	}
+
+	public synchronized void resetStatistics() {
+		hit = miss = evicted = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "TextRunCache{" + "size=" + runs.size() + ", bytes=" + bytes + ", maxBytes=" + maxBytes
+				+ ", hit=" + hit + ", miss=" + miss + ", evicted=" + evicted + ", atlases=" + atlases.size() + '}';
+	}
+
+}
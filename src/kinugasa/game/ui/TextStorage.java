@@ -23,7 +23,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import kinugasa.game.GameLog;
 import kinugasa.game.I18N;
-import kinugasa.game.field4.FieldEventParser;
+import kinugasa.game.field4.FieldEventProgramCache;
 import kinugasa.game.system.GameSystem;
 import kinugasa.graphics.ImageUtil;
 import kinugasa.resource.NameNotFoundException;
@@ -85,7 +85,7 @@ public class TextStorage extends Storage<Text> implements Nameable {
 				t.setNextId(e.getAttributes().get("next").getValue());
 			}
 			if (e.hasAttribute("eventScript")) {
-				t.setEvents(FieldEventParser.parse(id, e.getAttributes().get("eventScript").getValue()));
+				t.setEvents(FieldEventProgramCache.getInstance().get(e.getAttributes().get("eventScript").getValue()).newEvents(id, null));
 			}
 			if (e.hasAttribute("image")) {
 				t.setImage(ImageUtil.load(e.getAttributes().get("image").getValue()));
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.game.ui;
+
+import java.util.Arrays;
+
+/**
+ * UIに表示する値の変化を検出します.
+ * <br>
+ * 表示する値を毎フレームwatchで渡し、pollで前回のpoll以降に変化があったかを確認します。
+ * 値はプリミティブのまま比較されるため、変化がない場合はオブジェクトを生成しません。
+ * 変化があった場合にだけ、テキストやモデルを作り直してください。<br>
+ * 作成直後のpollは必ずtrueを返します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_21:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class ValueWatcher {
+
+	private final long[] values;
+	private boolean changed = true;
+
+	/**
+	 * 監視する値の数を指定して作成します。
+	 *
+	 * @param size 値の数。
+	 */
+	public ValueWatcher(int size) {
+		values = new long[size];
+	}
+
+	/**
+	 * 値を渡します。
+	 *
+	 * @param i 値の番号。
+	 * @param v 現在の値。
+	 * @return このインスタンス。
+	 */
+	public ValueWatcher watch(int i, long v) {
+		if (values[i] != v) {
+			values[i] = v;
+			changed = true;
+		}
+		return this;
+	}
+
+	public ValueWatcher watch(int i, float v) {
+		return watch(i, Float.floatToIntBits(v));
+	}
+
+	public ValueWatcher watch(int i, boolean v) {
+		return watch(i, v ? 1 : 0);
+	}
+
+	/**
+	 * 前回のpoll以降に値が変化したかを返し、変化の記録を消去します。
+	 *
+	 * @return 変化した場合はtrue。
+	 */
+	public boolean poll() {
+		boolean c = changed;
+		changed = false;
+		return c;
+	}
+
+	/**
+	 * 次のpollで必ずtrueを返すようにします。
+	 */
+	public void invalidate() {
+		changed = true;
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	@Override
+	public String toString() {
+		return "ValueWatcher{" + "values=" + Arrays.toString(values) + ", changed=" + changed + '}';
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RasterFormatException;
+
+/**
+ * テクスチャアトラスのページの一部を表す画像です.
+ * <br>
+ * この画像はページとピクセルを共有する通常のBufferedImageで、getSubimageで作成した画像と同じように使用できます。
+ * GraphicsContextで拡大縮小せずに描画する場合は、この画像ではなくページの領域が描画されます。
+ * そのため、同じページの画像はJava2Dのアクセラレーションのキャッシュを1つだけ使用します。<br>
+ * スプライトシートやマップチップの分割で作成されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_20:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class AtlasImage extends BufferedImage {
+
+	private final BufferedImage page;
+	private final int regionX, regionY;
+
+	private AtlasImage(BufferedImage page, int x, int y, int w, int h) {
+		super(page.getColorModel(), page.getRaster().createWritableChild(x, y, w, h, 0, 0, null), page.isAlphaPremultiplied(), null);
+		this.page = page;
+		this.regionX = x;
+		this.regionY = y;
+	}
+
+	/**
+	 * 画像の領域を切り出します。srcがAtlasImageの場合は、srcのページの領域になります。
+	 *
+	 * @param src 画像。
+	 * @param x X座標。
+	 * @param y Y座標。
+	 * @param w 幅。
+	 * @param h 高さ。
+	 * @return 領域の画像。
+	 * @throws RasterFormatException 領域がsrcの範囲外の場合に投げられます。
+	 */
+	public static AtlasImage of(BufferedImage src, int x, int y, int w, int h) throws RasterFormatException {
+		if (x < 0 || y < 0 || w <= 0 || h <= 0 || x + w > src.getWidth() || y + h > src.getHeight()) {
+			throw new RasterFormatException("AtlasImage : region is out of bounds : " + x + "," + y + "," + w + "," + h + " in " + src.getWidth() + "x" + src.getHeight());
+		}
+		if (src instanceof AtlasImage) {
+			AtlasImage a = (AtlasImage) src;
+			return new AtlasImage(a.page, a.regionX + x, a.regionY + y, w, h);
+		}
+		return new AtlasImage(src, x, y, w, h);
+	}
+
+	public BufferedImage getPage() {
+		return page;
+	}
+
+	public int getRegionX() {
+		return regionX;
+	}
+
+	public int getRegionY() {
+		return regionY;
+	}
+
+	@Override
+	public String toString() {
+		return "AtlasImage{" + "page=" + page.getWidth() + "x" + page.getHeight() + ", x=" + regionX + ", y=" + regionY
+				+ ", w=" + getWidth() + ", h=" + getHeight() + '}';
+	}
+
+}
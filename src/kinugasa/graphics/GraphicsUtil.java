@@ -50,9 +50,9 @@ public class GraphicsUtil {
 	}
 
 	public static Color randomColor() {
-		int r = Random.randomAbsInt(256);
-		int g = Random.randomAbsInt(256);
-		int b = Random.randomAbsInt(256);
+		int r = Random.effect().randomAbsInt(256);
+		int g = Random.effect().randomAbsInt(256);
+		int b = Random.effect().randomAbsInt(256);
 		int a = 255;
 		return new Color(r, g, b, a);
 	}
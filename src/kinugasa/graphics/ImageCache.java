@@ -0,0 +1,394 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.graphics;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import kinugasa.game.GameLog;
+import kinugasa.game.system.GameSystem;
+import kinugasa.resource.ContentsIOException;
+import kinugasa.resource.FileNotFoundException;
+import kinugasa.util.TimeHistogram;
+
+/**
+ * ImageUtil.loadでロードした画像のキャッシュです.
+ * <br>
+ * キャッシュは画像のピクセルのバイト数で制限され、セグメント化LRUで破棄されます。
+ * 新しくロードされた画像は試用領域に入り、2回目の要求で保護領域に移動します。
+ * 保護領域は上限の80%までで、溢れた画像は試用領域に戻されます。
+ * 上限を超えた場合は試用領域の古い画像から破棄されるため、マップのロードなどで1度だけ使われる画像が、繰り返し使われる画像を追い出すことはありません。<br>
+ * <br>
+ * 所有者を指定してピン留めした画像は、所有者がunpinAllを呼び出すまで破棄されません。
+ * beginPinからendPinまでの間に同じスレッドでロードされた画像は、自動的にその所有者にピン留めされます。
+ * フィールドマップは構築時に使用する画像を、バトルは敵の画像をピン留めします。<br>
+ * <br>
+ * このクラスはスレッドセーフです。同じ画像を複数のスレッドが同時に要求した場合、ロードは1回だけ行われ、他のスレッドはその完了を待ちます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_19:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class ImageCache {
+
+	private static final ImageCache INSTANCE = new ImageCache();
+	//保護領域の割合
+	private static final float PROTECTED_RATIO = 0.8f;
+
+	public static ImageCache getInstance() {
+		return INSTANCE;
+	}
+
+	private static class Entry {
+
+		final BufferedImage image;
+		final long bytes;
+
+		Entry(BufferedImage image) {
+			this.image = image;
+			this.bytes = (long) image.getWidth() * image.getHeight() * 4;
+		}
+	}
+
+	private long maxBytes = 128L * 1024 * 1024;
+	//挿入順が古い順
+	private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>();
+	//アクセス順が古い順
+	private final LinkedHashMap<String, Entry> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+	private long probationBytes;
+	private long protectedBytes;
+	private final Map<String, CompletableFuture<BufferedImage>> loading = new HashMap<>();
+	//ピン留め
+	private final Map<Object, Set<String>> pinsByOwner = new HashMap<>();
+	private final Map<String, Integer> pinCount = new HashMap<>();
+	private final ThreadLocal<Object> pinOwner = new ThreadLocal<>();
+	//計測値
+	private long hit, miss, collapsed, evicted;
+	private final TimeHistogram loadTime = new TimeHistogram(1_000_000, 1000);
+
+	private ImageCache() {
+	}
+
+	/**
+	 * 画像を取得します。キャッシュにない場合はロードします。
+	 *
+	 * @param filePath ファイルパス。
+	 * @return 画像。同じファイルパスに対しては、破棄されるまで同じインスタンスを返します。
+	 * @throws FileNotFoundException ファイルが存在しない場合に投げられます。
+	 * @throws ContentsIOException ファイルがロードできない場合に投げられます。
+	 */
+	public BufferedImage get(String filePath) throws FileNotFoundException, ContentsIOException {
+		CompletableFuture<BufferedImage> f;
+		boolean loader = false;
+		synchronized (this) {
+			Entry e = lookup(filePath);
+			if (e != null) {
+				hit++;
+				pinByScope(filePath);
+				if (GameSystem.isDebugMode()) {
+					GameLog.print("ImageCache hit filePath=[" + filePath + "]");
+				}
+				return e.image;
+			}
+			f = loading.get(filePath);
+			if (f == null) {
+				f = new CompletableFuture<>();
+				loading.put(filePath, f);
+				loader = true;
+				miss++;
+			} else {
+				collapsed++;
+			}
+		}
+		if (!loader) {
+			//他のスレッドのロードを待つ
+			BufferedImage image;
+			try {
+				image = f.join();
+			} catch (CompletionException ex) {
+				if (ex.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) ex.getCause();
+				}
+				if (ex.getCause() instanceof Error) {
+					throw (Error) ex.getCause();
+				}
+				throw new ContentsIOException(ex.getCause());
+			}
+			synchronized (this) {
+				pinByScope(filePath);
+			}
+			return image;
+		}
+		long start = System.nanoTime();
+		BufferedImage image = null;
+		Throwable error = null;
+		try {
+			image = ImageUtil.read(filePath);
+			synchronized (this) {
+				loadTime.record(System.nanoTime() - start);
+				pinByScope(filePath);
+				Entry e = new Entry(image);
+				probation.put(filePath, e);
+				probationBytes += e.bytes;
+				evict();
+			}
+			return image;
+		} catch (Throwable ex) {
+			//OutOfMemoryErrorなども待っているスレッドに伝えないと、joinが永久に返らない
+			error = ex;
+			throw ex;
+		} finally {
+			synchronized (this) {
+				loading.remove(filePath);
+			}
+			if (error == null) {
+				f.complete(image);
+			} else {
+				f.completeExceptionally(error);
+			}
+		}
+	}
+
+	//呼び出し元はロックを保持すること
+	private Entry lookup(String filePath) {
+		Entry e = protectedEntries.get(filePath);
+		if (e != null) {
+			return e;
+		}
+		e = probation.remove(filePath);
+		if (e == null) {
+			return null;
+		}
+		//2回目の要求で保護領域に移動する
+		probationBytes -= e.bytes;
+		protectedEntries.put(filePath, e);
+		protectedBytes += e.bytes;
+		long protectedMax = (long) (maxBytes * PROTECTED_RATIO);
+		for (Iterator<Map.Entry<String, Entry>> i = protectedEntries.entrySet().iterator(); protectedBytes > protectedMax && i.hasNext();) {
+			Map.Entry<String, Entry> old = i.next();
+			if (old.getValue() == e) {
+				continue;
+			}
+			i.remove();
+			protectedBytes -= old.getValue().bytes;
+			probation.put(old.getKey(), old.getValue());
+			probationBytes += old.getValue().bytes;
+		}
+		return e;
+	}
+
+	//呼び出し元はロックを保持すること
+	private void evict() {
+		evict(probation, true);
+		evict(protectedEntries, false);
+	}
+
+	private void evict(LinkedHashMap<String, Entry> segment, boolean isProbation) {
+		for (Iterator<Map.Entry<String, Entry>> i = segment.entrySet().iterator(); probationBytes + protectedBytes > maxBytes && i.hasNext();) {
+			Map.Entry<String, Entry> e = i.next();
+			if (pinCount.containsKey(e.getKey())) {
+				continue;
+			}
+			i.remove();
+			if (isProbation) {
+				probationBytes -= e.getValue().bytes;
+			} else {
+				protectedBytes -= e.getValue().bytes;
+			}
+			evicted++;
+		}
+	}
+
+	/**
+	 * これ以降に呼び出し元のスレッドでロードされる画像を、ownerにピン留めします。
+	 *
+	 * @param owner 所有者。
+	 */
+	public void beginPin(Object owner) {
+		pinOwner.set(owner);
+	}
+
+	/**
+	 * beginPinによる自動的なピン留めを終了します。ピン留めされた画像はそのままです。
+	 */
+	public void endPin() {
+		pinOwner.remove();
+	}
+
+	/**
+	 * 画像をピン留めします。ピン留めされた画像は、キャッシュの上限を超えても破棄されません。
+	 *
+	 * @param owner 所有者。
+	 * @param filePath ファイルパス。
+	 */
+	public synchronized void pin(Object owner, String filePath) {
+		if (pinsByOwner.computeIfAbsent(owner, k -> new HashSet<>()).add(filePath)) {
+			pinCount.merge(filePath, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * 所有者によるすべてのピン留めを解除します。
+	 *
+	 * @param owner 所有者。
+	 */
+	public synchronized void unpinAll(Object owner) {
+		Set<String> paths = pinsByOwner.remove(owner);
+		if (paths == null) {
+			return;
+		}
+		for (String p : paths) {
+			pinCount.computeIfPresent(p, (k, v) -> v == 1 ? null : v - 1);
+		}
+		evict();
+	}
+
+	//呼び出し元はロックを保持すること
+	private void pinByScope(String filePath) {
+		Object owner = pinOwner.get();
+		if (owner != null) {
+			pin(owner, filePath);
+		}
+	}
+
+	public synchronized boolean isPinned(String filePath) {
+		return pinCount.containsKey(filePath);
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * キャッシュの上限を設定します。上限を超えている場合は直ちに破棄されます。
+	 *
+	 * @param maxBytes ピクセルのバイト数。
+	 * @throws IllegalArgumentException 負数の場合に投げられます。
+	 */
+	public synchronized void setMaxBytes(long maxBytes) throws IllegalArgumentException {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("ImageCache : maxBytes is minus : " + maxBytes);
+		}
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	public synchronized long getBytes() {
+		return probationBytes + protectedBytes;
+	}
+
+	public synchronized int size() {
+		return probation.size() + protectedEntries.size();
+	}
+
+	public synchronized boolean contains(String filePath) {
+		return probation.containsKey(filePath) || protectedEntries.containsKey(filePath);
+	}
+
+	/**
+	 * 画像をキャッシュから削除します。ピン留めは解除されません。
+	 *
+	 * @param filePath ファイルパス。
+	 */
+	public synchronized void remove(String filePath) {
+		Entry e = probation.remove(filePath);
+		if (e != null) {
+			probationBytes -= e.bytes;
+		}
+		e = protectedEntries.remove(filePath);
+		if (e != null) {
+			protectedBytes -= e.bytes;
+		}
+	}
+
+	/**
+	 * すべての画像をキャッシュから削除します。ピン留めは解除されません。
+	 */
+	public synchronized void clear() {
+		probation.clear();
+		protectedEntries.clear();
+		probationBytes = protectedBytes = 0;
+	}
+
+	public synchronized long getHitCount() {
+		return hit;
+	}
+
+	public synchronized long getMissCount() {
+		return miss;
+	}
+
+	/**
+	 * 他のスレッドのロードの完了を待った回数を返します。
+	 *
+	 * @return 回数。
+	 */
+	public synchronized long getCollapsedCount() {
+		return collapsed;
+	}
+
+	public synchronized long getEvictedCount() {
+		return evicted;
+	}
+
+	/**
+	 * ヒット率を返します。他のスレッドのロードを待った要求はヒットとして数えます。
+	 *
+	 * @return 0から1のヒット率。要求がない場合は0。
+	 */
+	public synchronized float getHitRatio() {
+		long n = hit + collapsed + miss;
+		return n == 0 ? 0 : (float) (hit + collapsed) / n;
+	}
+
+	/**
+	 * ロード時間の平均を返します。
+	 *
+	 * @return 時間（ナノ秒）。
+	 */
+	public synchronized long getMeanLoadNanos() {
+		return loadTime.getMean();
+	}
+
+	/**
+	 * ロード時間のパーセンタイルを返します。値は1ミリ秒単位です。
+	 *
+	 * @param p 割合。0から1で指定します。
+	 * @return 時間（ナノ秒）。
+	 */
+	public synchronized long getLoadNanosPercentile(double p) {
+		return loadTime.getPercentile(p);
+	}
+
+	public synchronized void resetStatistics() {
+		hit = miss = collapsed = evicted = 0;
+		loadTime.reset();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ImageCache{" + "size=" + size() + ", bytes=" + getBytes() + ", maxBytes=" + maxBytes
+				+ ", hitRatio=" + getHitRatio() + ", miss=" + miss + ", collapsed=" + collapsed + ", evicted=" + evicted
+				+ ", load=" + loadTime + '}';
+	}
+
+}
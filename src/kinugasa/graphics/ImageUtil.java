@@ -31,7 +31,6 @@ import java.awt.image.RasterFormatException;
 import java.io.File;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -65,12 +64,6 @@ public final class ImageUtil {
 	private static final GraphicsConfiguration gc
 			= GraphicsEnvironment.getLocalGraphicsEnvironment().
 					getDefaultScreenDevice().getDefaultConfiguration();
-	/**
-	 * ロードした画像をキャッシュするためのマップです.
-	 */
-	private static final HashMap<String, WeakReference<BufferedImage>> IMAGE_CACHE
-			= new HashMap<>(32);
-
 	/**
 	 * メインスクリーンのデバイス設定を取得します。<br>
 	 *
@@ -131,8 +124,9 @@ public final class ImageUtil {
 
 	/**
 	 * BufferedImageをファイルから作成します.
-	 * このメソッドはすでに一度要求された画像を再度要求した場合、同じインスタンスを返します。<br>
+	 * このメソッドはすでに一度要求された画像を再度要求した場合、ImageCacheから破棄されるまで同じインスタンスを返します。<br>
 	 * 確実に別のインスタンスを取得する場合はこのメソッドの戻り値に対してこのクラスのcopyメソッドを使用してください。<br>
+	 * このメソッドは、マップの先読みのためにゲームスレッド以外から呼び出されることがあります。<br>
 	 *
 	 * @param filePath 読み込むファイルパス。<br>
 	 *
@@ -140,18 +134,22 @@ public final class ImageUtil {
 	 *
 	 * @throws ContentsFileNotFoundException ファイルが存在しない場合に投げられる。<br>
 	 * @throws ContentsIOException ファイルがロードできない場合に投げられます。<br>
+	 * @see ImageCache
 	 */
 	public static BufferedImage load(String filePath) throws FileNotFoundException, ContentsIOException {
+		return ImageCache.getInstance().get(filePath);
+	}
+
+	/**
+	 * キャッシュを使用せずに、ファイルから互換画像を作成します.
+	 *
+	 * @param filePath 読み込むファイルパス。<br>
+	 * @return 読み込まれた画像。<br>
+	 * @throws ContentsFileNotFoundException ファイルが存在しない場合に投げられる。<br>
+	 * @throws ContentsIOException ファイルがロードできない場合に投げられます。<br>
+	 */
+	static BufferedImage read(String filePath) throws FileNotFoundException, ContentsIOException {
 		StopWatch watch = new StopWatch().start();
-		WeakReference<BufferedImage> cacheRef = IMAGE_CACHE.get(filePath);
-		//キャッシュあり&GC未実行
-		if (cacheRef != null && cacheRef.get() != null) {
-			if (GameSystem.isDebugMode()) {
-				GameLog.print("ImageUtil cached filePath=[" + filePath + "]");
-			}
-			return cacheRef.get();
-		}
-		//GCが実行されているかキャッシュがなければ新しくロードしてキャッシュに追加する
 		File file = new File(filePath);
 		if (!file.exists()) {
 			watch.stop();
@@ -179,7 +177,6 @@ public final class ImageUtil {
 		Graphics2D g2 = createGraphics2D(newImage, RenderingQuality.QUALITY);
 		g2.drawImage(dst, 0, 0, null);
 		g2.dispose();
-		IMAGE_CACHE.put(filePath, new WeakReference<>(newImage));
 		watch.stop();
 		if (GameSystem.isDebugMode()) {
 			GameLog.print("ImageUtil loaded filePath=[" + filePath + "](" + watch.getTime() + " ms)");
@@ -289,14 +286,14 @@ public final class ImageUtil {
 	 * @param w 切り出す幅。<br>
 	 * @param h 切り出す高さ。<br>
 	 *
-	 * @return srcを横方向にwの幅で切り出した複数枚の画像。<br>
+	 * @return srcを横方向にwの幅で切り出した複数枚の画像。srcとピクセルを共有するAtlasImageです。<br>
 	 *
 	 * @throws RasterFormatException 座標またはサイズが不正な場合に投げられる。<br>
 	 */
 	public static BufferedImage[] rows(BufferedImage src, int y, int w, int h) throws RasterFormatException {
 		BufferedImage[] dst = new BufferedImage[src.getWidth() / w];
 		for (int i = 0, x = 0; i < dst.length; i++, x += w) {
-			dst[i] = src.getSubimage(x, y, w, h);
+			dst[i] = AtlasImage.of(src, x, y, w, h);
 		}
 		return dst;
 	}
@@ -309,14 +306,14 @@ public final class ImageUtil {
 	 * @param w 切り出す幅。<br>
 	 * @param h 切り出す高さ。<br>
 	 *
-	 * @return srcを縦方向にhの高さで切り出した複数枚の画像。<br>
+	 * @return srcを縦方向にhの高さで切り出した複数枚の画像。srcとピクセルを共有するAtlasImageです。<br>
 	 *
 	 * @throws RasterFormatException 座標またはサイズが不正な場合に投げられる。<br>
 	 */
 	public static BufferedImage[] columns(BufferedImage src, int x, int w, int h) throws RasterFormatException {
 		BufferedImage[] dst = new BufferedImage[src.getHeight() / h];
 		for (int i = 0, y = 0; i < dst.length; i++, y += h) {
-			dst[i] = src.getSubimage(x, y, w, h);
+			dst[i] = AtlasImage.of(src, x, y, w, h);
 		}
 		return dst;
 	}
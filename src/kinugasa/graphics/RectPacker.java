@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.graphics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 矩形をページに詰め込むシェルフ方式のパッカーです.
+ * <br>
+ * 矩形は高さの降順に並べられ、左から右へ棚（シェルフ）に置かれます。
+ * 棚の幅を超える場合は次の棚に、ページの高さを超える場合は次のページに置かれます。
+ * ページより大きい矩形は、その矩形だけのページに置かれます。<br>
+ * ページの幅と高さは、実際に使用された範囲に切り詰められます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_20:00:00<br>
+ * @author Shinacho<br>
+ */
+final class RectPacker {
+
+	private final int maxPageSize;
+	private final int padding;
+	//結果
+	private int[] page, x, y;
+	private final List<int[]> pageSizes = new ArrayList<>();
+
+	/**
+	 * パッカーを作成します。
+	 *
+	 * @param maxPageSize ページの最大の幅と高さ。
+	 * @param padding 矩形の間の隙間。
+	 */
+	RectPacker(int maxPageSize, int padding) {
+		this.maxPageSize = maxPageSize;
+		this.padding = padding;
+	}
+
+	/**
+	 * 矩形を配置します。
+	 *
+	 * @param w 矩形の幅。
+	 * @param h 矩形の高さ。
+	 */
+	void pack(int[] w, int[] h) {
+		int n = w.length;
+		page = new int[n];
+		x = new int[n];
+		y = new int[n];
+		pageSizes.clear();
+		if (n == 0) {
+			return;
+		}
+		//ページの幅は、面積の合計の平方根以上の2の累乗を最大サイズまでとする
+		long area = 0;
+		int maxW = 0;
+		for (int i = 0; i < n; i++) {
+			area += (long) (w[i] + padding) * (h[i] + padding);
+			maxW = Math.max(maxW, w[i] + padding);
+		}
+		int pageW = Integer.highestOneBit((int) Math.ceil(Math.sqrt(area)) - 1) << 1;
+		pageW = Math.min(maxPageSize, Math.max(pageW, Math.min(maxW, maxPageSize)));
+
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> h[a] != h[b] ? h[b] - h[a] : w[b] - w[a]);
+
+		int current = -1;
+		int cursorX = 0, shelfY = 0, shelfH = 0, usedW = 0;
+		for (int i : order) {
+			int rw = w[i] + padding;
+			int rh = h[i] + padding;
+			if (w[i] > pageW || h[i] > maxPageSize) {
+				//大きい矩形は専用のページに置く
+				page[i] = pageSizes.size();
+				pageSizes.add(new int[]{w[i], h[i]});
+				continue;
+			}
+			if (current >= 0 && cursorX + rw > pageW + padding) {
+				shelfY += shelfH;
+				cursorX = 0;
+				shelfH = 0;
+			}
+			if (current < 0 || shelfY + rh > maxPageSize + padding) {
+				current = pageSizes.size();
+				pageSizes.add(new int[]{0, 0});
+				cursorX = shelfY = shelfH = usedW = 0;
+			}
+			page[i] = current;
+			x[i] = cursorX;
+			y[i] = shelfY;
+			cursorX += rw;
+			shelfH = Math.max(shelfH, rh);
+			usedW = Math.max(usedW, cursorX - padding);
+			int[] size = pageSizes.get(current);
+			size[0] = usedW;
+			size[1] = Math.max(size[1], shelfY + h[i]);
+		}
+	}
+
+	int getPage(int i) {
+		return page[i];
+	}
+
+	int getX(int i) {
+		return x[i];
+	}
+
+	int getY(int i) {
+		return y[i];
+	}
+
+	int getPageCount() {
+		return pageSizes.size();
+	}
+
+	int getPageWidth(int p) {
+		return pageSizes.get(p)[0];
+	}
+
+	int getPageHeight(int p) {
+		return pageSizes.get(p)[1];
+	}
+
+}
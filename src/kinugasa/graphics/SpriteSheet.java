@@ -28,6 +28,7 @@ import java.util.Map;
  * 1つの画像リソースを切り出して、複数の画像インスタンスを構築するためのビルダです.
  * <br>
  * 同一のアルゴリズムで複数のスプライトシートを構築する場合はSpriteSheetCutterを使用してください。<br>
+ * 切り出した画像はベース画像とピクセルを共有するAtlasImageで、描画時はベース画像の領域として描画されます。<br>
  * <br>
  *
  * @version 1.0.0 - 2013/01/13_13:00:09<br>
@@ -86,7 +87,7 @@ public class SpriteSheet {
 	 * @throws RasterFormatException 画像の範囲外にアクセスしたときに投げられる.<br>
 	 */
 	public SpriteSheet cut(int x, int y, int width, int height) throws RasterFormatException {
-		subImages.add(baseImage.getSubimage(x, y, width, height));
+		subImages.add(AtlasImage.of(baseImage, x, y, width, height));
 		return this;
 	}
 
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.imageio.ImageIO;
+import kinugasa.game.GameLog;
+import kinugasa.game.system.GameSystem;
+import kinugasa.resource.ContentsIOException;
+
+/**
+ * 多数の小さな画像を少数の大きな画像（ページ）に詰め込んだテクスチャアトラスです.
+ * <br>
+ * packで作成すると、画像はRectPackerで配置されてページにコピーされます。
+ * 各画像はgetでページの領域を表すAtlasImageとして取得でき、描画時はページの領域として描画されます。<br>
+ * <br>
+ * アトラスはキャッシュディレクトリにページのPNGと配置のインデックスとして保存できます。
+ * 元のファイルの更新日時とサイズから計算したスタンプが一致する場合、次回の起動ではloadで読み込まれ、元画像のロードと分割が不要になります。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_20:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class TextureAtlas {
+
+	private static final int MAGIC = 0x4B41544C;//KATL
+	private static final int VERSION = 1;
+	private static File cacheDirectory = new File("cache");
+	private static int maxPageSize = 2048;
+
+	/**
+	 * アトラスを保存するディレクトリを設定します。
+	 *
+	 * @param dir ディレクトリ。nullの場合はキャッシュを使用しません。
+	 */
+	public static void setCacheDirectory(File dir) {
+		cacheDirectory = dir;
+	}
+
+	public static File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 * ページの最大の幅と高さを設定します。
+	 *
+	 * @param size ピクセル数。
+	 * @throws IllegalArgumentException 1未満の場合に投げられます。
+	 */
+	public static void setMaxPageSize(int size) throws IllegalArgumentException {
+		if (size < 1) {
+			throw new IllegalArgumentException("TextureAtlas : maxPageSize is " + size);
+		}
+		maxPageSize = size;
+	}
+
+	public static int getMaxPageSize() {
+		return maxPageSize;
+	}
+
+	private final List<BufferedImage> pages;
+	private final Map<String, AtlasImage> regions;
+
+	private TextureAtlas(List<BufferedImage> pages, Map<String, AtlasImage> regions) {
+		this.pages = Collections.unmodifiableList(pages);
+		this.regions = Collections.unmodifiableMap(regions);
+	}
+
+	/**
+	 * 画像をページに詰め込んでアトラスを作成します。
+	 *
+	 * @param images 名前と画像のマップ。
+	 * @return アトラス。
+	 */
+	public static TextureAtlas pack(Map<String, BufferedImage> images) {
+		List<String> names = new ArrayList<>(images.keySet());
+		int[] w = new int[names.size()];
+		int[] h = new int[names.size()];
+		for (int i = 0; i < w.length; i++) {
+			w[i] = images.get(names.get(i)).getWidth();
+			h[i] = images.get(names.get(i)).getHeight();
+		}
+		RectPacker packer = new RectPacker(maxPageSize, 1);
+		packer.pack(w, h);
+		List<BufferedImage> pages = new ArrayList<>();
+		List<Graphics2D> g = new ArrayList<>();
+		for (int p = 0; p < packer.getPageCount(); p++) {
+			BufferedImage page = ImageUtil.newImage(packer.getPageWidth(p), packer.getPageHeight(p));
+			pages.add(page);
+			Graphics2D g2 = page.createGraphics();
+			g2.setComposite(AlphaComposite.Src);
+			g.add(g2);
+		}
+		for (int i = 0; i < w.length; i++) {
+			g.get(packer.getPage(i)).drawImage(images.get(names.get(i)), packer.getX(i), packer.getY(i), null);
+		}
+		g.forEach(v -> v.dispose());
+		Map<String, AtlasImage> regions = new LinkedHashMap<>();
+		for (int i = 0; i < w.length; i++) {
+			regions.put(names.get(i), AtlasImage.of(pages.get(packer.getPage(i)), packer.getX(i), packer.getY(i), w[i], h[i]));
+		}
+		return new TextureAtlas(pages, regions);
+	}
+
+	/**
+	 * キャッシュからアトラスを読み込み、ない場合は作成してキャッシュに保存します。
+	 * 保存に失敗した場合はログに記録され、作成したアトラスが返されます。
+	 *
+	 * @param key キャッシュのキー。
+	 * @param stamp 元のデータのスタンプ。
+	 * @param images アトラスを作成する場合に画像を提供する関数。
+	 * @return アトラス。
+	 */
+	public static TextureAtlas loadOrPack(String key, long stamp, Supplier<Map<String, BufferedImage>> images) {
+		TextureAtlas atlas = load(key, stamp);
+		if (atlas != null) {
+			return atlas;
+		}
+		atlas = pack(images.get());
+		if (cacheDirectory != null) {
+			try {
+				atlas.save(key, stamp);
+			} catch (ContentsIOException ex) {
+				GameLog.print("TextureAtlas : cant save " + key + " : " + ex);
+			}
+		}
+		return atlas;
+	}
+
+	/**
+	 * ファイルの更新日時とサイズからスタンプを計算します。
+	 *
+	 * @param files ファイル。
+	 * @return スタンプ。
+	 */
+	public static long stampOf(File... files) {
+		long stamp = 17;
+		for (File f : files) {
+			stamp = stamp * 31 + f.getPath().hashCode();
+			stamp = stamp * 31 + f.lastModified();
+			stamp = stamp * 31 + f.length();
+		}
+		return stamp;
+	}
+
+	private static File indexFile(String key) {
+		return new File(cacheDirectory, fileName(key) + ".atlas");
+	}
+
+	private static File pageFile(String key, int page) {
+		return new File(cacheDirectory, fileName(key) + "." + page + ".png");
+	}
+
+	private static String fileName(String key) {
+		return key.replaceAll("[^A-Za-z0-9._-]", "_");
+	}
+
+	/**
+	 * アトラスをキャッシュディレクトリに保存します。
+	 *
+	 * @param key キャッシュのキー。
+	 * @param stamp 元のデータのスタンプ。
+	 * @throws ContentsIOException 保存に失敗した場合に投げられます。
+	 * @throws IllegalStateException キャッシュディレクトリが設定されていない場合に投げられます。
+	 */
+	public void save(String key, long stamp) throws ContentsIOException, IllegalStateException {
+		if (cacheDirectory == null) {
+			throw new IllegalStateException("TextureAtlas : cacheDirectory is null");
+		}
+		if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+			throw new ContentsIOException("cant create " + cacheDirectory);
+		}
+		try {
+			for (int p = 0; p < pages.size(); p++) {
+				ImageIO.write(pages.get(p), "png", pageFile(key, p));
+			}
+			//インデックスは最後に書き込む。ページの書き込み中に失敗した場合は古いスタンプで無効になる
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile(key))))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(stamp);
+				out.writeInt(pages.size());
+				out.writeInt(regions.size());
+				for (Map.Entry<String, AtlasImage> e : regions.entrySet()) {
+					AtlasImage a = e.getValue();
+					out.writeUTF(e.getKey());
+					out.writeInt(pages.indexOf(a.getPage()));
+					out.writeInt(a.getRegionX());
+					out.writeInt(a.getRegionY());
+					out.writeInt(a.getWidth());
+					out.writeInt(a.getHeight());
+				}
+			}
+		} catch (IOException ex) {
+			throw new ContentsIOException(ex);
+		}
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("TextureAtlas saved : " + key + " " + this);
+		}
+	}
+
+	/**
+	 * キャッシュディレクトリからアトラスを読み込みます。
+	 *
+	 * @param key キャッシュのキー。
+	 * @param stamp 元のデータのスタンプ。
+	 * @return アトラス。キャッシュがない場合、スタンプが異なる場合、読み込めない場合はnull。
+	 */
+	public static TextureAtlas load(String key, long stamp) {
+		if (cacheDirectory == null || !indexFile(key).exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile(key))))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != stamp) {
+				return null;
+			}
+			int pageNum = in.readInt();
+			int regionNum = in.readInt();
+			List<BufferedImage> pages = new ArrayList<>(pageNum);
+			for (int p = 0; p < pageNum; p++) {
+				pages.add(ImageUtil.read(pageFile(key, p).getPath()));
+			}
+			Map<String, AtlasImage> regions = new LinkedHashMap<>();
+			for (int i = 0; i < regionNum; i++) {
+				String name = in.readUTF();
+				BufferedImage page = pages.get(in.readInt());
+				int x = in.readInt();
+				int y = in.readInt();
+				int w = in.readInt();
+				int h = in.readInt();
+				regions.put(name, AtlasImage.of(page, x, y, w, h));
+			}
+			TextureAtlas atlas = new TextureAtlas(pages, regions);
+			if (GameSystem.isDebugMode()) {
+				GameLog.print("TextureAtlas loaded : " + key + " " + atlas);
+			}
+			return atlas;
+		} catch (IOException | RuntimeException ex) {
+			GameLog.print("TextureAtlas : cant load " + key + " : " + ex);
+			return null;
+		}
+	}
+
+	/**
+	 * 画像を取得します。
+	 *
+	 * @param name 名前。
+	 * @return ページの領域の画像。存在しない場合はnull。
+	 */
+	public AtlasImage get(String name) {
+		return regions.get(name);
+	}
+
+	public boolean contains(String name) {
+		return regions.containsKey(name);
+	}
+
+	public Set<String> getNames() {
+		return regions.keySet();
+	}
+
+	public List<BufferedImage> getPages() {
+		return pages;
+	}
+
+	public int size() {
+		return regions.size();
+	}
+
+	/**
+	 * ページのピクセルのバイト数を返します。
+	 *
+	 * @return バイト数。
+	 */
+	public long getBytes() {
+		long n = 0;
+		for (BufferedImage p : pages) {
+			n += (long) p.getWidth() * p.getHeight() * 4;
+		}
+		return n;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (BufferedImage p : pages) {
+			sb.append(sb.length() == 0 ? "" : ",").append(p.getWidth()).append('x').append(p.getHeight());
+		}
+		return "TextureAtlas{" + "regions=" + regions.size() + ", pages=[" + sb + "]}";
+	}
+
+}
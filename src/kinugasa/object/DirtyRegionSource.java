@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.object;
+
+import java.awt.Rectangle;
+import kinugasa.game.LoopCall;
+import kinugasa.game.Nullable;
+
+/**
+ * 描画内容が変わった領域を報告できるオブジェクトです.
+ * <br>
+ * RenderPipelineに登録すると、フレームごとにpollDirtyRegionが呼ばれ、返された領域だけが再描画されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_15:10:00<br>
+ * @author Shinacho<br>
+ */
+public interface DirtyRegionSource {
+
+	/**
+	 * 前回の呼び出し以降に描画内容が変わった領域を返し、変更の記録をクリアします。
+	 * 領域は画面（描画倍率適用前）の座標です。前回の位置と今回の位置の両方を含める必要があります。
+	 *
+	 * @return 変わった領域。変化がない場合はnull。
+	 */
+	@Nullable
+	@LoopCall
+	public Rectangle pollDirtyRegion();
+
+}
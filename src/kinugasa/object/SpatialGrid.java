@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.object;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * スプライトの領域を一様な格子に登録して、範囲の検索を行う空間分割です.
+ * <br>
+ * 要素は追加したときの領域と中心で、領域が重なるすべてのセルに登録されます。
+ * 検索は範囲と重なるセルの要素だけを調べるため、要素の数に比例せずに答えることができます。
+ * 格子の範囲外の座標は、端のセルに登録されます。<br>
+ * 中心からの距離はPoint2D.distanceと同じ精度で計算されます。<br>
+ * 検索の結果は内部のバッファに、追加した順番（インデックスの昇順）で格納されます。
+ * バッファは次の検索で上書きされます。追加と検索ではメモリを確保しません（配列の拡張を除く）。<br>
+ * 要素が移動した場合、このクラスは自動的に更新されません。clearして追加し直してください。<br>
+ * このクラスは同期化されません。<br>
+ *
+ * @param <T> 要素の型。
+ * @vesion 1.0.0 - 2026/10/18_23:30:00<br>
+ * @author Shinacho<br>
+ */
+public class SpatialGrid<T> {
+
+	private final float x0, y0, cellSize;
+	private final int cols, rows;
+	private final int[][] cells;
+	private final int[] cellCount;
+	private Object[] items = new Object[16];
+	private float[] bx = new float[16], by = new float[16], bw = new float[16], bh = new float[16];
+	private float[] cx = new float[16], cy = new float[16];
+	private int[] mark = new int[16];
+	private int stamp;
+	private int size;
+	private int[] result = new int[16];
+	private int resultSize;
+
+	/**
+	 * 格子を作成します。
+	 *
+	 * @param area 格子の範囲。
+	 * @param cellSize セルの幅と高さ。
+	 * @throws IllegalArgumentException cellSizeが0以下の場合に投げられます。
+	 */
+	public SpatialGrid(Rectangle2D area, float cellSize) throws IllegalArgumentException {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("SpatialGrid : cellSize is " + cellSize);
+		}
+		this.x0 = (float) area.getX();
+		this.y0 = (float) area.getY();
+		this.cellSize = cellSize;
+		this.cols = Math.max(1, (int) Math.ceil(area.getWidth() / cellSize));
+		this.rows = Math.max(1, (int) Math.ceil(area.getHeight() / cellSize));
+		this.cells = new int[cols * rows][];
+		this.cellCount = new int[cols * rows];
+	}
+
+	private int col(double x) {
+		int c = (int) Math.floor((x - x0) / cellSize);
+		return c < 0 ? 0 : c >= cols ? cols - 1 : c;
+	}
+
+	private int row(double y) {
+		int r = (int) Math.floor((y - y0) / cellSize);
+		return r < 0 ? 0 : r >= rows ? rows - 1 : r;
+	}
+
+	/**
+	 * すべての要素を削除します。
+	 */
+	public void clear() {
+		Arrays.fill(cellCount, 0);
+		Arrays.fill(items, 0, size, null);
+		size = 0;
+		resultSize = 0;
+	}
+
+	/**
+	 * スプライトの現在の領域と中心で要素を追加します。
+	 *
+	 * @param item 要素。
+	 * @param s 領域と中心を取得するスプライト。
+	 * @return 要素のインデックス。
+	 */
+	public int add(T item, Sprite s) {
+		return add(item, s.getX(), s.getY(), s.getWidth(), s.getHeight(), s.getCenterX(), s.getCenterY());
+	}
+
+	/**
+	 * 要素を追加します。中心は領域の中心になります。
+	 *
+	 * @param item 要素。
+	 * @param x 領域の左上のX座標。
+	 * @param y 領域の左上のY座標。
+	 * @param w 幅。
+	 * @param h 高さ。
+	 * @return 要素のインデックス。
+	 */
+	public int add(T item, float x, float y, float w, float h) {
+		return add(item, x, y, w, h, x + w / 2, y + h / 2);
+	}
+
+	private int add(T item, float x, float y, float w, float h, float centerX, float centerY) {
+		if (size == items.length) {
+			int n = size * 2;
+			items = Arrays.copyOf(items, n);
+			bx = Arrays.copyOf(bx, n);
+			by = Arrays.copyOf(by, n);
+			bw = Arrays.copyOf(bw, n);
+			bh = Arrays.copyOf(bh, n);
+			cx = Arrays.copyOf(cx, n);
+			cy = Arrays.copyOf(cy, n);
+			mark = Arrays.copyOf(mark, n);
+		}
+		int i = size++;
+		items[i] = item;
+		bx[i] = x;
+		by[i] = y;
+		bw[i] = w;
+		bh[i] = h;
+		cx[i] = centerX;
+		cy[i] = centerY;
+		mark[i] = 0;
+		//中心が領域の外にある場合も検索できるよう、中心を含む範囲に登録する
+		int c0 = col(Math.min(x, centerX)), c1 = col(Math.max(x + w, centerX));
+		int r0 = row(Math.min(y, centerY)), r1 = row(Math.max(y + h, centerY));
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int k = r * cols + c;
+				int[] cell = cells[k];
+				if (cell == null) {
+					cell = cells[k] = new int[8];
+				} else if (cellCount[k] == cell.length) {
+					cell = cells[k] = Arrays.copyOf(cell, cell.length * 2);
+				}
+				cell[cellCount[k]++] = i;
+			}
+		}
+		return i;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		return (T) items[i];
+	}
+
+	private void nextStamp() {
+		if (++stamp == 0) {
+			Arrays.fill(mark, 0);
+			stamp = 1;
+		}
+	}
+
+	private void addResult(int i) {
+		if (resultSize == result.length) {
+			result = Arrays.copyOf(result, resultSize * 2);
+		}
+		result[resultSize++] = i;
+	}
+
+	//Rectangle2D.intersectsと同じ判定
+	private boolean intersects(int i, double x, double y, double w, double h) {
+		if (bw[i] <= 0 || bh[i] <= 0 || w <= 0 || h <= 0) {
+			return false;
+		}
+		return x + w > bx[i] && y + h > by[i] && x < (double) bx[i] + bw[i] && y < (double) by[i] + bh[i];
+	}
+
+	//Rectangle2D.containsと同じ判定
+	private boolean contains(int i, double x, double y) {
+		return x >= bx[i] && y >= by[i] && x < (double) bx[i] + bw[i] && y < (double) by[i] + bh[i];
+	}
+
+	/**
+	 * 領域が矩形と重なる要素を検索します。
+	 *
+	 * @param x 矩形の左上のX座標。
+	 * @param y 矩形の左上のY座標。
+	 * @param w 幅。
+	 * @param h 高さ。
+	 * @return 見つかった要素の数。要素はgetResultで取得します。
+	 */
+	public int queryRect(float x, float y, float w, float h) {
+		resultSize = 0;
+		nextStamp();
+		int c0 = col(x), c1 = col((double) x + w), r0 = row(y), r1 = row((double) y + h);
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int k = r * cols + c;
+				int[] cell = cells[k];
+				for (int j = 0, n = cellCount[k]; j < n; j++) {
+					int i = cell[j];
+					if (mark[i] != stamp) {
+						mark[i] = stamp;
+						if (intersects(i, x, y, w, h)) {
+							addResult(i);
+						}
+					}
+				}
+			}
+		}
+		Arrays.sort(result, 0, resultSize);
+		return resultSize;
+	}
+
+	/**
+	 * 中心が点から指定した距離以内にある要素を検索します。
+	 *
+	 * @param px 点のX座標。
+	 * @param py 点のY座標。
+	 * @param r 距離。
+	 * @return 見つかった要素の数。要素はgetResultで取得します。
+	 */
+	public int queryRadius(float px, float py, float r) {
+		resultSize = 0;
+		if (r < 0) {
+			return 0;
+		}
+		nextStamp();
+		int c0 = col((double) px - r), c1 = col((double) px + r), r0 = row((double) py - r), r1 = row((double) py + r);
+		for (int row = r0; row <= r1; row++) {
+			for (int c = c0; c <= c1; c++) {
+				int k = row * cols + c;
+				int[] cell = cells[k];
+				for (int j = 0, n = cellCount[k]; j < n; j++) {
+					int i = cell[j];
+					if (mark[i] != stamp) {
+						mark[i] = stamp;
+						double dx = (double) cx[i] - px;
+						double dy = (double) cy[i] - py;
+						if (Math.sqrt(dx * dx + dy * dy) <= r) {
+							addResult(i);
+						}
+					}
+				}
+			}
+		}
+		Arrays.sort(result, 0, resultSize);
+		return resultSize;
+	}
+
+	/**
+	 * 領域が矩形と重なる要素があるかを返します。
+	 *
+	 * @param x 矩形の左上のX座標。
+	 * @param y 矩形の左上のY座標。
+	 * @param w 幅。
+	 * @param h 高さ。
+	 * @return 重なる要素がある場合はtrue。
+	 */
+	public boolean hitAny(float x, float y, float w, float h) {
+		int c0 = col(x), c1 = col((double) x + w), r0 = row(y), r1 = row((double) y + h);
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int k = r * cols + c;
+				int[] cell = cells[k];
+				for (int j = 0, n = cellCount[k]; j < n; j++) {
+					if (intersects(cell[j], x, y, w, h)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 領域が点を含む要素があるかを返します。
+	 *
+	 * @param px 点のX座標。
+	 * @param py 点のY座標。
+	 * @return 点を含む要素がある場合はtrue。
+	 */
+	public boolean containsAny(float px, float py) {
+		int k = row(py) * cols + col(px);
+		int[] cell = cells[k];
+		for (int j = 0, n = cellCount[k]; j < n; j++) {
+			if (contains(cell[j], px, py)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 直前の検索で見つかった要素を返します。
+	 *
+	 * @param i 0から見つかった数-1までの番号。
+	 * @return 要素。
+	 */
+	public T getResult(int i) {
+		return get(result[i]);
+	}
+
+	/**
+	 * 直前の検索で見つかった要素のインデックスを返します。
+	 *
+	 * @param i 0から見つかった数-1までの番号。
+	 * @return 要素のインデックス。
+	 */
+	public int getResultIndex(int i) {
+		return result[i];
+	}
+
+	public int getResultSize() {
+		return resultSize;
+	}
+
+	@Override
+	public String toString() {
+		return "SpatialGrid{" + "cols=" + cols + ", rows=" + rows + ", cellSize=" + cellSize + ", size=" + size + '}';
+	}
+
+}
@@ -311,6 +311,27 @@ public abstract class Sprite
 		return (Point2D.Float) center.clone();
 	}
 
+	/**
+	 * このスプライトと指定したスプライトの中心の間の距離を返します. このメソッドはインスタンスを作成しません.<br>
+	 *
+	 * @param s スプライト.<br>
+	 * @return 中心の間の距離.getCenter().distance(s.getCenter())と同じ値です。<br>
+	 */
+	public double getCenterDistance(Sprite s) {
+		return Point2D.distance(center.x, center.y, s.center.x, s.center.y);
+	}
+
+	/**
+	 * このスプライトの中心と指定した座標の間の距離を返します. このメソッドはインスタンスを作成しません.<br>
+	 *
+	 * @param x X座標.<br>
+	 * @param y Y座標.<br>
+	 * @return 中心からの距離.<br>
+	 */
+	public double getCenterDistance(float x, float y) {
+		return Point2D.distance(center.x, center.y, x, y);
+	}
+
 	/**
 	 * スプライトの中心のX座標を取得します.
 	 *
@@ -51,7 +51,7 @@ public enum SpriteSortMode implements Comparator<Sprite> {
 	RANDOM {
 		@Override
 		public int compare(Sprite s1, Sprite s2) {
-			return Random.randomAbsInt() % 3 - 1;
+			return Random.effect().randomAbsInt() % 3 - 1;
 		}
 	};
 
@@ -24,11 +24,13 @@ import kinugasa.util.Random;
  * このクラスを使用して、ランダムシードと入力状態を発行／復元することが出来ます.
  * <br>
  * リプレイのデータ量は入力の多さに比例して多くなります。<br>
+ * 入力が変化したフレームだけを記録し、ファイルへの書き込みやシークができるkinugasa.game.input.InputReplayを使用してください。<br>
  * <br>
  *
  * @version 1.0.0 - 2013/01/20_18:24:22<br>
  * @author Shinacho<br>
  */
+@Deprecated
 public final class ReplayData extends Storage<ReplayInputState> implements Serializable {
 
 	private static final long serialVersionUID = -7860006069807950463L;
@@ -56,7 +58,7 @@ public final class ReplayData extends Storage<ReplayInputState> implements Seria
 	/**
 	 * シードを初期化し、リプレイの保存を開始します.
 	 *
-	 * @param seed シードを指定します。kinugasa Randomクラスのシードが初期化されます。<br>
+	 * @param seed シードを指定します。kinugasa Randomクラスのシードとすべての系列が初期化されます。<br>
 	 *
 	 * @return thisインスタンスを返します。<br>
 	 */
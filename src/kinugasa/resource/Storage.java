@@ -219,6 +219,15 @@ public class Storage<T extends Nameable> implements Iterable<T> {
 		return map;
 	}
 
+	/**
+	 * メモリ上のマップを変更できないビューとして返します。サブクラスが仮想メソッドを経由せずに格納済みのオブジェクトを参照するために使用します。
+	 *
+	 * @return メモリ上のマップのビュー。
+	 */
+	protected final Map<String, T> memMap() {
+		return Collections.unmodifiableMap(map);
+	}
+
 	/**
 	 * 新しいオブジェクトをマップに追加します.
 	 *
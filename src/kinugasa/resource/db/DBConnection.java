@@ -21,12 +21,21 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import kinugasa.game.GameLog;
 import kinugasa.game.NewInstance;
 import kinugasa.resource.text.TextFile;
 import kinugasa.util.StopWatch;
 import kinugasa.game.NotNull;
+import kinugasa.game.Nullable;
 import kinugasa.game.system.GameSystem;
 
 /**
@@ -44,6 +53,39 @@ public class DBConnection {
 
 	private Connection connection;
 	private Statement statement;
+	//SQLごとのPreparedStatement。接続に紐づくため、接続を閉じたときに破棄する
+	private final LinkedHashMap<String, PreparedStatement> preparedStatements = new LinkedHashMap<>(64, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+			if (size() > PREPARED_STATEMENT_CACHE_SIZE) {
+				//処理中のものは閉じずにキャッシュから外し、releaseで閉じる
+				if (!busy.contains(eldest.getValue())) {
+					closeQuietly(eldest.getValue());
+				}
+				return true;
+			}
+			return false;
+		}
+	};
+	private static final int PREPARED_STATEMENT_CACHE_SIZE = 256;
+	//結果セットを処理中のPreparedStatement
+	private final Set<PreparedStatement> busy = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private static void closeQuietly(Statement s) {
+		try {
+			s.close();
+		} catch (SQLException ex) {
+			GameLog.print(ex);
+		}
+	}
+
+	private void clearPreparedStatements() {
+		for (PreparedStatement ps : preparedStatements.values()) {
+			closeQuietly(ps);
+		}
+		preparedStatements.clear();
+		busy.clear();
+	}
 
 	public static DBConnection getInstance() {
 		return INSTANCE;
@@ -54,13 +96,14 @@ public class DBConnection {
 	}
 	private String dataFileName, user, password;
 
-	public void open(String dataFileName, String user, String password) throws KSQLException {
+	public synchronized void open(String dataFileName, String user, String password) throws KSQLException {
 		this.dataFileName = dataFileName;
 		this.user = user;
 		this.password = password;
 		try {
 			StopWatch sw = new StopWatch().start();
 			connection = DriverManager.getConnection(URL + dataFileName, user, password);
+			DBWriteBehind.getInstance().reopen();
 			sw.stop();
 			if (GameSystem.isDebugMode()) {
 				GameLog.print("DBC open " + URL + dataFileName + "(" + sw.getTime() + "ms)-----------------------------------------");
@@ -100,73 +143,55 @@ public class DBConnection {
 		return result;
 	}
 
+	//接続が閉じられていれば開きなおす
+	synchronized Connection getConnection() throws SQLException {
+		if (connection.isClosed()) {
+			clearPreparedStatements();
+			StopWatch s = new StopWatch().start();
+			connection = DriverManager.getConnection(URL + dataFileName, user, password);
+			s.stop();
+			if (GameSystem.isDebugMode()) {
+				GameLog.print("DBC REopen " + URL + dataFileName + "(" + s.getTime() + "ms)-----------------------------------------");
+			}
+		}
+		return connection;
+	}
+
+	//名前のないインメモリDBは接続ごとに別のDBになる
+	synchronized boolean isPrivateMemory() {
+		return dataFileName != null && dataFileName.trim().equalsIgnoreCase("mem:");
+	}
+
+	/**
+	 * 同じDBへの新しい接続を開きます。この接続はDBConnectionでは管理されないため、呼び出し元で閉じる必要があります。
+	 *
+	 * @return 新しい接続。
+	 * @throws SQLException 接続に失敗した場合に投げられます。
+	 */
+	Connection newConnection() throws SQLException {
+		String url, u, p;
+		synchronized (this) {
+			url = URL + dataFileName;
+			u = user;
+			p = password;
+		}
+		return DriverManager.getConnection(url, u, p);
+	}
+
 	@NewInstance
 	@NotNull
-	public KResultSet execDirect(String sql) throws KSQLException {
+	public synchronized KResultSet execDirect(String sql) throws KSQLException {
 		StopWatch sw = new StopWatch().start();
 		try {
-			if (connection.isClosed()) {
-				StopWatch s = new StopWatch().start();
-				connection = DriverManager.getConnection(URL + dataFileName, user, password);
-				s.stop();
-				if (GameSystem.isDebugMode()) {
-					GameLog.print("DBC REopen " + URL + dataFileName + "(" + sw.getTime() + "ms)-----------------------------------------");
-				}
-			}
-			statement = connection.createStatement();
-			if (sql.trim().toLowerCase().startsWith("insert")) {
-				statement.execute(sql);
-				sw.stop();
-				if (GameSystem.isDebugMode()) {
-					GameLog.print("DBC execDirect : " + sql + "(" + sw.getTime() + "ms)");
-				}
-				return new KResultSet(null);
-			}
-			if (sql.trim().toLowerCase().startsWith("call")) {
-				statement.execute(sql);
-				sw.stop();
-				if (GameSystem.isDebugMode()) {
-					GameLog.print("DBC execDirect : " + sql + "(" + sw.getTime() + "ms)");
-				}
-				return new KResultSet(null);
-			}
-			if (sql.trim().toLowerCase().startsWith("create")) {
-				statement.execute(sql);
-				sw.stop();
-				if (GameSystem.isDebugMode()) {
-					GameLog.print("DBC execDirect : " + sql + "(" + sw.getTime() + "ms)");
-				}
-				return new KResultSet(null);
-			}
-			if (sql.trim().toLowerCase().startsWith("drop")) {
-				statement.execute(sql);
-				sw.stop();
-				if (GameSystem.isDebugMode()) {
-					GameLog.print("DBC execDirect : " + sql + "(" + sw.getTime() + "ms)");
-				}
-				return new KResultSet(null);
-			}
-			if (sql.trim().toLowerCase().startsWith("truncate")) {
-				statement.execute(sql);
-				sw.stop();
-				if (GameSystem.isDebugMode()) {
-					GameLog.print("DBC execDirect : " + sql + "(" + sw.getTime() + "ms)");
-				}
-				return new KResultSet(null);
-			}
-			if (sql.trim().toLowerCase().startsWith("update")) {
-				statement.execute(sql);
-				sw.stop();
-				if (GameSystem.isDebugMode()) {
-					GameLog.print("DBC execDirect : " + sql + "(" + sw.getTime() + "ms)");
-				}
-				return new KResultSet(null);
-			}
+			statement = getConnection().createStatement();
+			//結果セットを返すSQLかどうかはドライバが判定する
+			boolean hasResult = statement.execute(sql);
+			KResultSet r = new KResultSet(hasResult ? statement.getResultSet() : null);
 			sw.stop();
 			if (GameSystem.isDebugMode()) {
 				GameLog.print("DBC execDirect : " + sql + "(" + sw.getTime() + "ms)");
 			}
-			return new KResultSet(statement.executeQuery(sql));
+			return r;
 		} catch (SQLException ex) {
 			sw.stop();
 			if (GameSystem.isDebugMode()) {
@@ -182,13 +207,204 @@ public class DBConnection {
 		}
 	}
 
+	/**
+	 * SQLに対応するPreparedStatementを取得します。PreparedStatementはSQLごとにキャッシュされ、接続を閉じるまで再利用されます。
+	 *
+	 * @param sql プレースホルダを含むSQL。
+	 * @return パラメータとバッチがクリアされたPreparedStatement。
+	 * @throws SQLException 作成に失敗した場合に投げられます。
+	 */
+	synchronized PreparedStatement prepare(String sql) throws SQLException {
+		Connection c = getConnection();
+		PreparedStatement ps = preparedStatements.get(sql);
+		if (ps != null && !ps.isClosed()) {
+			ps.clearParameters();
+			ps.clearBatch();
+			return ps;
+		}
+		ps = c.prepareStatement(sql);
+		preparedStatements.put(sql, ps);
+		return ps;
+	}
+
+	//forEachRowの処理中に同じSQLが実行された場合は、結果セットを閉じないようにキャッシュしないPreparedStatementを使う
+	private PreparedStatement acquire(String sql) throws SQLException {
+		PreparedStatement ps = prepare(sql);
+		if (busy.contains(ps)) {
+			return getConnection().prepareStatement(sql);
+		}
+		busy.add(ps);
+		return ps;
+	}
+
+	//キャッシュされていないもの、処理中にキャッシュから外されたものはここで閉じる
+	private void release(String sql, PreparedStatement ps) {
+		busy.remove(ps);
+		if (preparedStatements.get(sql) != ps) {
+			closeQuietly(ps);
+		}
+	}
+
+	private static void bind(PreparedStatement ps, Object... params) throws SQLException {
+		for (int i = 0; i < params.length; i++) {
+			if (params[i] instanceof Enum<?>) {
+				ps.setString(i + 1, params[i].toString());
+			} else {
+				ps.setObject(i + 1, params[i]);
+			}
+		}
+	}
+
+	private void printDebug(String method, String sql, Object[] params, StopWatch sw) {
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("DBC " + method + " : " + sql + " " + Arrays.toString(params) + "(" + sw.getTime() + "ms)");
+		}
+	}
+
+	/**
+	 * パラメータを指定して検索を実行し、結果をすべて取得します。
+	 *
+	 * @param sql プレースホルダを含むSQL。
+	 * @param params プレースホルダに設定する値。
+	 * @return 検索結果。
+	 * @throws KSQLException SQLの実行に失敗した場合に投げられます。
+	 */
+	@NewInstance
+	@NotNull
+	public synchronized KResultSet execQuery(String sql, Object... params) throws KSQLException {
+		return query("execQuery", sql, params, rs -> new KResultSet(rs));
+	}
+
+	/**
+	 * パラメータを指定して更新を実行します。
+	 *
+	 * @param sql プレースホルダを含むSQL。
+	 * @param params プレースホルダに設定する値。
+	 * @return 更新された行数。
+	 * @throws KSQLException SQLの実行に失敗した場合に投げられます。
+	 */
+	public synchronized int execUpdate(String sql, Object... params) throws KSQLException {
+		StopWatch sw = new StopWatch().start();
+		try {
+			PreparedStatement ps = acquire(sql);
+			try {
+				bind(ps, params);
+				int r = ps.executeUpdate();
+				sw.stop();
+				printDebug("execUpdate", sql, params, sw);
+				return r;
+			} finally {
+				release(sql, ps);
+			}
+		} catch (SQLException ex) {
+			sw.stop();
+			printDebug("[ERROR] execUpdate", sql, params, sw);
+			throw new KSQLException(ex);
+		}
+	}
+
+	/**
+	 * パラメータを指定して検索を実行し、結果をコピーせずに1行ずつ処理します。
+	 * KRowは行ごとに使いまわされるため、consumerの外に持ち出さないでください。
+	 *
+	 * @param sql プレースホルダを含むSQL。
+	 * @param c 各行の処理。
+	 * @param params プレースホルダに設定する値。
+	 * @return 処理した行数。
+	 * @throws KSQLException SQLの実行に失敗した場合に投げられます。
+	 */
+	public synchronized int forEachRow(String sql, Consumer<? super KRow> c, Object... params) throws KSQLException {
+		return query("forEachRow", sql, params, rs -> {
+			KRow row = new KRow();
+			row.set(rs);
+			int n = 0;
+			while (rs.next()) {
+				c.accept(row);
+				n++;
+			}
+			row.set(null);
+			return n;
+		});
+	}
+
+	/**
+	 * パラメータを指定して検索を実行し、最初の行を変換して返します。
+	 *
+	 * @param <R> 変換後の型。
+	 * @param sql プレースホルダを含むSQL。
+	 * @param f 行の変換処理。
+	 * @param params プレースホルダに設定する値。
+	 * @return 変換結果。行がない場合はnull。
+	 * @throws KSQLException SQLの実行に失敗した場合に投げられます。
+	 */
+	@Nullable
+	public synchronized <R> R selectFirst(String sql, Function<? super KRow, ? extends R> f, Object... params) throws KSQLException {
+		return query("selectFirst", sql, params, rs -> {
+			if (!rs.next()) {
+				return null;
+			}
+			KRow row = new KRow();
+			row.set(rs);
+			R r = f.apply(row);
+			row.set(null);
+			return r;
+		});
+	}
+
+	private interface ResultSetHandler<R> {
+
+		R handle(ResultSet rs) throws SQLException;
+	}
+
+	private <R> R query(String method, String sql, Object[] params, ResultSetHandler<R> h) throws KSQLException {
+		StopWatch sw = new StopWatch().start();
+		try {
+			PreparedStatement ps = acquire(sql);
+			try {
+				bind(ps, params);
+				R r;
+				try (ResultSet rs = ps.executeQuery()) {
+					r = h.handle(rs);
+				}
+				sw.stop();
+				printDebug(method, sql, params, sw);
+				return r;
+			} finally {
+				release(sql, ps);
+			}
+		} catch (SQLException ex) {
+			sw.stop();
+			printDebug("[ERROR] " + method, sql, params, sw);
+			throw new KSQLException(ex);
+		}
+	}
+
+	public synchronized int getPreparedStatementCount() {
+		return preparedStatements.size();
+	}
+
+	/**
+	 * 遅延書き込みキューの内容を書き込んでから接続を閉じます。
+	 *
+	 * @throws KSQLException 書き込みまたは切断に失敗した場合に投げられます。
+	 */
 	public void close() throws KSQLException {
+		if (isUsing()) {
+			DBWriteBehind.getInstance().shutdown();
+		}
+		synchronized (this) {
+			closeConnection();
+		}
+	}
+
+	private void closeConnection() throws KSQLException {
 		StopWatch sw = new StopWatch().start();
 		try {
 			if (statement != null) {
 				statement.close();
 				statement = null;
 			}
+			clearPreparedStatements();
 			if (connection != null) {
 				connection.close();
 				connection = null;
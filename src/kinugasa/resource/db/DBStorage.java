@@ -17,12 +17,14 @@
 package kinugasa.resource.db;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +45,10 @@ import kinugasa.game.NotNull;
 /**
  * メモリ上になければDBを読みに行くStorageの拡張です。 DB呼び出し部分はサブクラスで定義する必要がありますが、それ以外の処理は自動で行われます。
  * DBに接続されていないときや、テーブルがない時は例外を出しません。 DB上のデータを操作する機能は持ちません。
+ * <br>
+ * setCacheSizeで読み込みキャッシュを有効にすると、DBから読み込んだオブジェクトは指定した件数までLRUで保持され、
+ * IDの一覧も初回に1度だけ読み込まれます。DBの内容を変更した場合はinvalidateCacheを呼び出してください。
+ * キャッシュしたオブジェクトはcopyOfで複製してから返されます。キャッシュは複数のスレッドから使用できます。<br>
  *
  * @vesion 1.0.0 - May 28, 2023_9:58:53 AM<br>
  * @author Shinacho<br>
@@ -74,6 +80,23 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 	}
 
 	private boolean allLoaded = false;
+	//読み込みキャッシュ。cacheSizeが0の場合は使用しない。
+	//アクセス順のLinkedHashMapはgetでも構造が変わるため、キャッシュと統計はすべてcacheをロックして操作する。
+	//DBの読み込み自体はロックの外で行う。
+	private int cacheSize = 0;
+	private final LinkedHashMap<String, T> cache = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+			return size() > cacheSize;
+		}
+	};
+	//キャッシュしたIDの一覧。未読み込みの場合はnull
+	private Set<String> ids;
+	private long cacheHit;
+	private long cacheMiss;
+	private long loadTime;
+	//この件数を超えてキャッシュにない場合は、1件ずつではなくselectAllで読み込む
+	private static final int BULK_LOAD_THRESHOLD = 8;
 
 	//DBに変化があった場合、リロードすることは可能
 	public final void loadAll() {
@@ -92,6 +115,219 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 		this.allLoaded = allLoaded;
 	}
 
+	/**
+	 * 読み込みキャッシュの件数を設定します。0の場合はキャッシュを使用せず、毎回DBを読み込みます。
+	 *
+	 * @param cacheSize キャッシュするオブジェクトの最大数。
+	 * @throws IllegalArgumentException 負数の場合に投げられます。
+	 */
+	public final void setCacheSize(int cacheSize) throws IllegalArgumentException {
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException("DBStorage : cacheSize < 0 : " + cacheSize);
+		}
+		synchronized (cache) {
+			this.cacheSize = cacheSize;
+			if (cacheSize == 0) {
+				invalidateCache();
+			} else {
+				Iterator<String> i = cache.keySet().iterator();
+				while (cache.size() > cacheSize) {
+					i.next();
+					i.remove();
+				}
+			}
+		}
+	}
+
+	public final int getCacheSize() {
+		synchronized (cache) {
+			return cacheSize;
+		}
+	}
+
+	public final boolean isCacheEnabled() {
+		synchronized (cache) {
+			return cacheSize > 0;
+		}
+	}
+
+	/**
+	 * キャッシュしたオブジェクトとIDの一覧を破棄します。次の要求でDBから読み込まれます。
+	 */
+	public final void invalidateCache() {
+		synchronized (cache) {
+			cache.clear();
+			ids = null;
+		}
+	}
+
+	public final int getCachedCount() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	public final long getCacheHitCount() {
+		synchronized (cache) {
+			return cacheHit;
+		}
+	}
+
+	public final long getCacheMissCount() {
+		synchronized (cache) {
+			return cacheMiss;
+		}
+	}
+
+	/**
+	 * キャッシュにないオブジェクトとIDの一覧の読み込みにかかった時間の合計を返します。
+	 *
+	 * @return 読み込み時間（ナノ秒）。
+	 */
+	public final long getCacheLoadTime() {
+		synchronized (cache) {
+			return loadTime;
+		}
+	}
+
+	public final void resetCacheStats() {
+		synchronized (cache) {
+			cacheHit = 0;
+			cacheMiss = 0;
+			loadTime = 0;
+		}
+	}
+
+	/**
+	 * DB上のすべてのIDを取得します。デフォルトの実装はselectAllを使用するため、
+	 * キャッシュを使用するサブクラスはID列だけを読むようにオーバーライドしてください。
+	 *
+	 * @return DB上のID。
+	 * @throws KSQLException DBの読み込みに失敗した場合に投げられます。
+	 */
+	@NotNull
+	protected List<String> selectIds() throws KSQLException {
+		return selectAll().stream().map(p -> p.getName()).collect(Collectors.toList());
+	}
+
+	/**
+	 * キャッシュしたオブジェクトを呼び出し元に返す前に複製します。
+	 * デフォルトの実装は同じインスタンスを返します。呼び出し元がオブジェクトを変更する場合はオーバーライドしてください。
+	 *
+	 * @param t キャッシュしたオブジェクト。
+	 * @return 呼び出し元に返すオブジェクト。
+	 */
+	protected T copyOf(T t) {
+		return t;
+	}
+
+	/**
+	 * サブクラスが一括で読み込んだオブジェクトをキャッシュに格納します。
+	 * allはDB上のすべてのオブジェクトである必要があります。キャッシュを使用しない場合は何もしません。
+	 *
+	 * @param all DB上のすべてのオブジェクト。
+	 */
+	protected final void fillCache(List<T> all) {
+		Set<String> s = new LinkedHashSet<>();
+		synchronized (cache) {
+			if (cacheSize == 0) {
+				return;
+			}
+			for (T obj : all) {
+				s.add(obj.getName());
+				cache.put(obj.getName(), obj);
+			}
+			ids = s;
+		}
+	}
+
+	//IDの一覧は公開後に変更しないため、ロックの外で参照してよい
+	private Set<String> ids() {
+		synchronized (cache) {
+			if (ids != null) {
+				return ids;
+			}
+		}
+		long t = System.nanoTime();
+		Set<String> s = new LinkedHashSet<>(selectIds());
+		t = System.nanoTime() - t;
+		synchronized (cache) {
+			loadTime += t;
+			if (ids == null) {
+				ids = s;
+			}
+			return ids;
+		}
+	}
+
+	@Nullable
+	private T load(String key) {
+		synchronized (cache) {
+			T obj = cache.get(key);
+			if (obj != null) {
+				cacheHit++;
+				return obj;
+			}
+			if (ids != null && !ids.contains(key)) {
+				return null;
+			}
+			cacheMiss++;
+		}
+		long t = System.nanoTime();
+		T obj = select(key);
+		t = System.nanoTime() - t;
+		synchronized (cache) {
+			loadTime += t;
+			if (obj == null) {
+				return null;
+			}
+			//同じIDを別のスレッドが先に読み込んだ場合は、そちらに揃える
+			T prev = cache.get(key);
+			if (prev != null) {
+				return prev;
+			}
+			cache.put(key, obj);
+			return obj;
+		}
+	}
+
+	private List<T> loadAllCached() {
+		Set<String> all = ids();
+		int missing = 0;
+		synchronized (cache) {
+			for (String id : all) {
+				if (!cache.containsKey(id)) {
+					missing++;
+				}
+			}
+		}
+		if (missing > BULK_LOAD_THRESHOLD) {
+			long t = System.nanoTime();
+			List<T> loaded = selectAll();
+			t = System.nanoTime() - t;
+			List<T> res = new ArrayList<>(loaded.size());
+			synchronized (cache) {
+				cacheHit += all.size() - missing;
+				cacheMiss += missing;
+				loadTime += t;
+				//キャッシュ済みのインスタンスは置き換えず、loadと同じく先に格納されたものに揃える
+				for (T obj : loaded) {
+					T prev = cache.putIfAbsent(obj.getName(), obj);
+					res.add(prev != null ? prev : obj);
+				}
+			}
+			return res;
+		}
+		List<T> res = new ArrayList<>(all.size());
+		for (String id : all) {
+			T obj = load(id);
+			if (obj != null) {
+				res.add(obj);
+			}
+		}
+		return res;
+	}
+
 	@Nullable
 	protected abstract T select(String id) throws KSQLException;
 
@@ -111,14 +347,22 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 	@Override
 	public final List<T> asList() {
 		LinkedHashMap<String, T> l = new LinkedHashMap<>();
-		for (Map.Entry<String, T> e : getDirect().entrySet()) {
+		for (Map.Entry<String, T> e : memMap().entrySet()) {
 			l.put(e.getKey(), e.getValue());
 		}
 		if (DBConnection.getInstance().isUsing() && !allLoaded) {
 			try {
-				for (var t : selectAll()) {
-					if (!l.containsKey(t.getName())) {
-						l.put(t.getName(), t);
+				if (isCacheEnabled()) {
+					for (var t : loadAllCached()) {
+						if (!l.containsKey(t.getName())) {
+							l.put(t.getName(), copyOf(t));
+						}
+					}
+				} else {
+					for (var t : selectAll()) {
+						if (!l.containsKey(t.getName())) {
+							l.put(t.getName(), t);
+						}
 					}
 				}
 			} catch (KSQLException e) {
@@ -157,10 +401,14 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 
 	@Override
 	public final Set<String> keySet() {
-		Set<String> set = super.keySet();
+		Set<String> set = new LinkedHashSet<>(super.keySet());
 		if (DBConnection.getInstance().isUsing() && !allLoaded) {
 			try {
-				set.addAll(selectAll().stream().map(p -> p.getName()).collect(Collectors.toSet()));
+				if (isCacheEnabled()) {
+					set.addAll(ids());
+				} else {
+					set.addAll(selectAll().stream().map(p -> p.getName()).collect(Collectors.toSet()));
+				}
 			} catch (KSQLException e) {
 				GameLog.print(e);
 			}
@@ -175,8 +423,13 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 		if (DBConnection.getInstance().isUsing() && !allLoaded) {
 			try {
 				for (String v : names) {
-					T obj = select(v);
-					res.put(obj.getName(), obj);
+					if (res.containsKey(v)) {
+						continue;
+					}
+					T obj = isCacheEnabled() ? load(v) : select(v);
+					if (obj != null) {
+						res.put(obj.getName(), isCacheEnabled() ? copyOf(obj) : obj);
+					}
 				}
 			} catch (KSQLException e) {
 				GameLog.print(e);
@@ -194,7 +447,7 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 		GameLog.print("> DBStorage : class=[" + getClass() + "]----------------");
 		stream.println("--MEM");
 		GameLog.print("--MEM");
-		for (T obj : getDirect().values()) {
+		for (T obj : memMap().values()) {
 			stream.print("  " + obj.getName() + (valueOut ? obj : ""));
 			GameLog.print("  " + obj.getName() + (valueOut ? obj : ""));
 			stream.println();
@@ -225,6 +478,9 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 	public final boolean isEmpty() {
 		if (DBConnection.getInstance().isUsing()) {
 			try {
+				if (isCacheEnabled() && !allLoaded) {
+					return super.isEmpty() && ids().isEmpty();
+				}
 				return super.isEmpty() && count() == 0;
 			} catch (KSQLException e) {
 				GameLog.print(e);
@@ -246,6 +502,16 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 	public final int size() {
 		if (DBConnection.getInstance().isUsing() && !allLoaded) {
 			try {
+				if (isCacheEnabled()) {
+					int n = super.size();
+					Map<String, T> mem = memMap();
+					for (String id : ids()) {
+						if (!mem.containsKey(id)) {
+							n++;
+						}
+					}
+					return n;
+				}
 				return super.size() + count();
 			} catch (KSQLException e) {
 				GameLog.print(e);
@@ -282,6 +548,17 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 	public final boolean contains(String key) {
 		if (DBConnection.getInstance().isUsing() && !allLoaded) {
 			try {
+				if (isCacheEnabled()) {
+					if (super.contains(key)) {
+						return true;
+					}
+					synchronized (cache) {
+						if (cache.containsKey(key)) {
+							return true;
+						}
+					}
+					return ids().contains(key);
+				}
 				return super.contains(key) || select(key) != null;
 			} catch (KSQLException e) {
 				GameLog.print(e);
@@ -320,16 +597,17 @@ public abstract class DBStorage<T extends Nameable> extends Storage<T> implement
 
 	@Override
 	public final T get(String key) throws NameNotFoundException {
-		if (getDirect().containsKey(key)) {
-			return getDirect().get(key);
+		T mem = memMap().get(key);
+		if (mem != null) {
+			return mem;
 		}
 		if (DBConnection.getInstance().isUsing() && !allLoaded) {
 			try {
-				T obj = select(key);
+				T obj = isCacheEnabled() ? load(key) : select(key);
 				if (obj == null) {
 					throw new NameNotFoundException("DBStorage : " + key + " is no found");
 				}
-				return obj;
+				return isCacheEnabled() ? copyOf(obj) : obj;
 			} catch (KSQLException e) {
 				GameLog.print(e);
 			}
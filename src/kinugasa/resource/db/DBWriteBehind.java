@@ -0,0 +1,558 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.resource.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import kinugasa.game.GameLog;
+import kinugasa.game.system.GameSystem;
+
+/**
+ * カウンタの加算をメモリ上でまとめ、バックグラウンドスレッドでDBに書き込む遅延書き込みキューです.
+ * <br>
+ * 同じ行への加算は1つにまとめられ、一定間隔でPreparedStatementのバッチとして1トランザクションで書き込まれます。
+ * 対象のテーブルは文字列のid列と整数のnum列を持つ必要があります。<br>
+ * 書き込みはDBConnectionとは別の専用の接続で行うため、書き込み中もゲームスレッドからの読み込みは待たされません。
+ * ただし名前のないインメモリDB（mem:）は接続ごとに別のDBになるため、DBConnectionの接続をロックして書き込みます。<br>
+ * 書き込みが完了していない値（書き込み中の値を含む）はgetPendingで取得できます。DBの値と合わせて読む場合は、
+ * getReadLockで同期して読んでください。ゲーム終了時はflushを呼び出して同期的に書き込んでください。
+ * セーブ時などゲームスレッドから書き込みを要求する場合は、バックグラウンドスレッドで書き込むflushAsyncを使用してください。
+ * DBConnectionのcloseは自動的にshutdownを行います。shutdown後のaddは、DBConnectionを開きなおすまで例外になります。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_13:40:00<br>
+ * @author Shinacho<br>
+ */
+public final class DBWriteBehind {
+
+	private static final DBWriteBehind INSTANCE = new DBWriteBehind();
+
+	public static DBWriteBehind getInstance() {
+		return INSTANCE;
+	}
+
+	private DBWriteBehind() {
+	}
+
+	private static final class Key {
+
+		final String table;
+		final String id;
+
+		Key(String table, String id) {
+			this.table = table;
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * table.hashCode() + id.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) obj;
+			return table.equals(k.table) && id.equals(k.id);
+		}
+
+	}
+	//未書き込みの加算値と書き込み中の加算値。lockで保護する
+	private final Object lock = new Object();
+	private LinkedHashMap<Key, long[]> pending = new LinkedHashMap<>();
+	private LinkedHashMap<Key, long[]> inFlight;
+	//flushAsyncの完了を待っているもの
+	private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+	private Thread thread;
+	private boolean running = false;
+	private boolean shutdown = false;
+	private long flushInterval = 2000;
+	//コミットと書き込み中の値の破棄をまとめて行うためのロック。読み込み側はこれで同期してDBの値と未書き込みの値を読む
+	private final Object readLock = new Object();
+	//書き込みを1スレッドずつ行うためのロック。専用の接続とそのPreparedStatementもこれで保護する
+	private final Object flushLock = new Object();
+	private Connection connection;
+	private final Map<String, PreparedStatement> statements = new HashMap<>();
+	//メトリクス
+	private volatile long flushCount;
+	private volatile long flushedRows;
+	private volatile long lastFlushTime;
+	private volatile long maxFlushTime;
+	private volatile int maxQueueDepth;
+
+	/**
+	 * バックグラウンドでの書き込み間隔を設定します。
+	 *
+	 * @param flushInterval 書き込み間隔（ミリ秒）。
+	 */
+	public void setFlushInterval(long flushInterval) {
+		if (flushInterval <= 0) {
+			throw new IllegalArgumentException("DBWriteBehind : flushInterval must be positive : " + flushInterval);
+		}
+		this.flushInterval = flushInterval;
+	}
+
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * 行の値に加算します。加算はすぐには書き込まれません。
+	 *
+	 * @param table テーブル名。
+	 * @param id 行のID。
+	 * @param delta 加算する値。
+	 * @throws IllegalStateException shutdownの後に呼び出された場合に投げられます。
+	 */
+	public void add(String table, String id, long delta) throws IllegalStateException {
+		Objects.requireNonNull(table);
+		Objects.requireNonNull(id);
+		synchronized (lock) {
+			if (shutdown) {
+				throw new IllegalStateException("DBWriteBehind : already shutdown : " + table + " / " + id);
+			}
+			Key key = new Key(table, id);
+			long[] v = pending.get(key);
+			if (v == null) {
+				pending.put(key, v = new long[1]);
+				maxQueueDepth = Math.max(maxQueueDepth, pending.size());
+			}
+			v[0] += delta;
+			if (!running) {
+				start();
+			}
+		}
+	}
+
+	/**
+	 * DBの値とgetPendingを矛盾なく読むためのロックを返します。
+	 * このロックで同期している間は、書き込みがコミットされて書き込み中の値が破棄されることはありません。
+	 * ロックしている間にflushを呼び出さないでください。
+	 *
+	 * @return 読み込み用のロック。
+	 */
+	public Object getReadLock() {
+		return readLock;
+	}
+
+	/**
+	 * まだコミットされていない加算値を返します。
+	 *
+	 * @param table テーブル名。
+	 * @param id 行のID。
+	 * @return 未書き込みの加算値。ない場合は0。
+	 */
+	public long getPending(String table, String id) {
+		Key k = new Key(table, id);
+		synchronized (lock) {
+			long[] v = pending.get(k);
+			long[] f = inFlight == null ? null : inFlight.get(k);
+			return (v == null ? 0 : v[0]) + (f == null ? 0 : f[0]);
+		}
+	}
+
+	public boolean hasPending(String table, String id) {
+		Key k = new Key(table, id);
+		synchronized (lock) {
+			return pending.containsKey(k) || (inFlight != null && inFlight.containsKey(k));
+		}
+	}
+
+	/**
+	 * 指定したテーブルのまだコミットされていない行のIDを返します。
+	 *
+	 * @param table テーブル名。
+	 * @return 未書き込みのID。
+	 */
+	public List<String> getPendingIds(String table) {
+		Set<String> r = new LinkedHashSet<>();
+		synchronized (lock) {
+			if (inFlight != null) {
+				for (Key k : inFlight.keySet()) {
+					if (k.table.equals(table)) {
+						r.add(k.id);
+					}
+				}
+			}
+			for (Key k : pending.keySet()) {
+				if (k.table.equals(table)) {
+					r.add(k.id);
+				}
+			}
+		}
+		return new ArrayList<>(r);
+	}
+
+	/**
+	 * 未書き込みの行数を返します。
+	 *
+	 * @return キューの長さ。
+	 */
+	public int getQueueDepth() {
+		synchronized (lock) {
+			return pending.size();
+		}
+	}
+
+	private void start() {
+		running = true;
+		thread = new Thread("kgf db write behind") {
+			@Override
+			public void run() {
+				while (true) {
+					List<CompletableFuture<Void>> w;
+					synchronized (lock) {
+						if (!running) {
+							break;
+						}
+						if (waiters.isEmpty()) {
+							try {
+								lock.wait(flushInterval);
+							} catch (InterruptedException ex) {
+								break;
+							}
+						}
+						if (!running) {
+							break;
+						}
+						w = takeWaiters();
+					}
+					//失敗した値はキューに戻されるため、次の間隔で再度書き込む
+					RuntimeException error = null;
+					try {
+						flush();
+					} catch (RuntimeException ex) {
+						GameLog.print(ex);
+						error = ex;
+					}
+					complete(w, error);
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * 未書き込みの値をすべてバックグラウンドスレッドで書き込むように要求します。呼び出し元のスレッドは待たされません。
+	 * 書き込みに失敗した場合、結果は例外で完了し、値はキューに戻されて次の間隔で再度書き込まれます。
+	 *
+	 * @return 要求した時点の未書き込みの値が書き込まれると完了する結果。未書き込みの値がない場合は完了しています。
+	 */
+	public CompletableFuture<Void> flushAsync() {
+		synchronized (lock) {
+			if (pending.isEmpty() && inFlight == null) {
+				return CompletableFuture.completedFuture(null);
+			}
+			if (shutdown) {
+				return CompletableFuture.failedFuture(new IllegalStateException("DBWriteBehind : already shutdown"));
+			}
+			CompletableFuture<Void> f = new CompletableFuture<>();
+			waiters.add(f);
+			if (!running) {
+				start();
+			}
+			lock.notifyAll();
+			return f;
+		}
+	}
+
+	//lockで同期して呼ぶこと
+	private List<CompletableFuture<Void>> takeWaiters() {
+		if (waiters.isEmpty()) {
+			return List.of();
+		}
+		List<CompletableFuture<Void>> r = new ArrayList<>(waiters);
+		waiters.clear();
+		return r;
+	}
+
+	private static void complete(List<CompletableFuture<Void>> w, RuntimeException error) {
+		for (CompletableFuture<Void> f : w) {
+			if (error == null) {
+				f.complete(null);
+			} else {
+				f.completeExceptionally(error);
+			}
+		}
+	}
+
+	/**
+	 * 未書き込みの値をすべて呼び出し元のスレッドで書き込みます。DBが使用されていない場合は何もしません。
+	 * 例外の種類によらず、書き込みに失敗した値はキューに戻されます。
+	 *
+	 * @throws KSQLException 書き込みに失敗した場合に投げられます。
+	 */
+	public void flush() throws KSQLException {
+		synchronized (flushLock) {
+			DBConnection dbc = DBConnection.getInstance();
+			if (!dbc.isUsing()) {
+				return;
+			}
+			LinkedHashMap<Key, long[]> data;
+			synchronized (lock) {
+				if (pending.isEmpty()) {
+					return;
+				}
+				data = pending;
+				inFlight = data;
+				pending = new LinkedHashMap<>();
+			}
+			long start = System.nanoTime();
+			boolean committed = false;
+			try {
+				if (dbc.isPrivateMemory()) {
+					//専用の接続からは同じDBを参照できないため、共有の接続をロックして書き込む
+					synchronized (dbc) {
+						Connection c = dbc.getConnection();
+						write(c, data, false);
+						committed = true;
+					}
+				} else {
+					write(connection(dbc), data, true);
+					committed = true;
+				}
+			} catch (SQLException ex) {
+				closeConnection();
+				throw new KSQLException(ex);
+			} finally {
+				if (!committed) {
+					restore(data);
+				}
+			}
+			long time = (System.nanoTime() - start) / 1_000_000;
+			flushCount++;
+			flushedRows += data.size();
+			lastFlushTime = time;
+			maxFlushTime = Math.max(maxFlushTime, time);
+			if (GameSystem.isDebugMode()) {
+				GameLog.print("DBWriteBehind flush : " + data.size() + " rows(" + time + "ms)");
+			}
+		}
+	}
+
+	//書き込み中の値をキューに戻す
+	private void restore(LinkedHashMap<Key, long[]> data) {
+		synchronized (lock) {
+			inFlight = null;
+			for (Map.Entry<Key, long[]> e : data.entrySet()) {
+				long[] v = pending.get(e.getKey());
+				if (v == null) {
+					pending.put(e.getKey(), e.getValue());
+				} else {
+					v[0] += e.getValue()[0];
+				}
+			}
+		}
+	}
+
+	private Connection connection(DBConnection dbc) throws SQLException {
+		if (connection == null || connection.isClosed()) {
+			statements.clear();
+			connection = dbc.newConnection();
+		}
+		return connection;
+	}
+
+	private PreparedStatement prepare(Connection c, String sql, boolean cache) throws SQLException {
+		if (!cache) {
+			return c.prepareStatement(sql);
+		}
+		PreparedStatement ps = statements.get(sql);
+		if (ps == null || ps.isClosed()) {
+			ps = c.prepareStatement(sql);
+			statements.put(sql, ps);
+		} else {
+			ps.clearParameters();
+			ps.clearBatch();
+		}
+		return ps;
+	}
+
+	private void write(Connection c, LinkedHashMap<Key, long[]> data, boolean cache) throws SQLException {
+		//テーブルごとにUPDATEをバッチ実行し、行がなかったものだけINSERTする
+		Map<String, List<Map.Entry<Key, long[]>>> byTable = new LinkedHashMap<>();
+		for (Map.Entry<Key, long[]> e : data.entrySet()) {
+			byTable.computeIfAbsent(e.getKey().table, k -> new ArrayList<>()).add(e);
+		}
+		boolean autoCommit = c.getAutoCommit();
+		c.setAutoCommit(false);
+		List<PreparedStatement> opened = new ArrayList<>();
+		boolean committed = false;
+		try {
+			for (Map.Entry<String, List<Map.Entry<Key, long[]>>> t : byTable.entrySet()) {
+				List<Map.Entry<Key, long[]>> rows = t.getValue();
+				PreparedStatement ps = prepare(c, "update " + t.getKey() + " set num = num + ? where id = ?", cache);
+				if (!cache) {
+					opened.add(ps);
+				}
+				for (Map.Entry<Key, long[]> e : rows) {
+					ps.setLong(1, e.getValue()[0]);
+					ps.setString(2, e.getKey().id);
+					ps.addBatch();
+				}
+				int[] updated = ps.executeBatch();
+				ps = prepare(c, "insert into " + t.getKey() + "(id, num) values(?, ?)", cache);
+				if (!cache) {
+					opened.add(ps);
+				}
+				boolean insert = false;
+				for (int i = 0; i < rows.size(); i++) {
+					if (updated[i] == 0) {
+						ps.setString(1, rows.get(i).getKey().id);
+						ps.setLong(2, rows.get(i).getValue()[0]);
+						ps.addBatch();
+						insert = true;
+					}
+				}
+				if (insert) {
+					ps.executeBatch();
+				}
+			}
+			//コミットと書き込み中の値の破棄の間に読み込まれないようにする
+			synchronized (readLock) {
+				c.commit();
+				committed = true;
+				synchronized (lock) {
+					inFlight = null;
+				}
+			}
+		} finally {
+			if (!committed) {
+				try {
+					c.rollback();
+				} catch (SQLException ex) {
+					GameLog.print(ex);
+				}
+			}
+			//コミット後に失敗しても書き込み済みの値が戻されないように、後始末の例外は投げない
+			try {
+				for (PreparedStatement ps : opened) {
+					ps.close();
+				}
+				c.setAutoCommit(autoCommit);
+			} catch (SQLException ex) {
+				GameLog.print(ex);
+			}
+		}
+	}
+
+	private void closeConnection() {
+		statements.clear();
+		if (connection != null) {
+			try {
+				connection.close();
+			} catch (SQLException ex) {
+				GameLog.print(ex);
+			}
+			connection = null;
+		}
+	}
+
+	/**
+	 * バックグラウンドスレッドを停止し、未書き込みの値を書き込んでから専用の接続を閉じます。
+	 * この後のaddは、DBConnectionを開きなおすまで例外になります。
+	 *
+	 * @throws KSQLException 書き込みに失敗した場合に投げられます。
+	 */
+	public void shutdown() throws KSQLException {
+		Thread t;
+		synchronized (lock) {
+			shutdown = true;
+			running = false;
+			lock.notifyAll();
+			t = thread;
+			thread = null;
+		}
+		if (t != null && t != Thread.currentThread()) {
+			try {
+				t.join(flushInterval);
+			} catch (InterruptedException ex) {
+			}
+		}
+		List<CompletableFuture<Void>> w;
+		synchronized (lock) {
+			w = takeWaiters();
+		}
+		RuntimeException error = null;
+		try {
+			flush();
+		} catch (RuntimeException ex) {
+			error = ex;
+			throw ex;
+		} finally {
+			complete(w, error);
+			synchronized (flushLock) {
+				closeConnection();
+			}
+		}
+	}
+
+	//DBConnectionが開かれたときに呼ばれ、shutdown後の加算を再び受け付ける
+	void reopen() {
+		synchronized (flushLock) {
+			closeConnection();
+		}
+		synchronized (lock) {
+			shutdown = false;
+		}
+	}
+
+	public long getFlushCount() {
+		return flushCount;
+	}
+
+	public long getFlushedRows() {
+		return flushedRows;
+	}
+
+	/**
+	 * 最後の書き込みにかかった時間を返します。
+	 *
+	 * @return 時間（ミリ秒）。
+	 */
+	public long getLastFlushTime() {
+		return lastFlushTime;
+	}
+
+	public long getMaxFlushTime() {
+		return maxFlushTime;
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	@Override
+	public String toString() {
+		return "DBWriteBehind{" + "queueDepth=" + getQueueDepth() + ", maxQueueDepth=" + maxQueueDepth
+				+ ", flushCount=" + flushCount + ", flushedRows=" + flushedRows
+				+ ", lastFlushTime=" + lastFlushTime + "ms, maxFlushTime=" + maxFlushTime + "ms}";
+	}
+
+}
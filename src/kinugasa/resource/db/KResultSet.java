@@ -39,11 +39,17 @@ public class KResultSet implements Iterable<List<DBValue>> {
 			return;
 		}
 		try {
+			//列情報は行ごとに変わらないので先に取得する
+			ResultSetMetaData md = rs.getMetaData();
+			int columnCount = md.getColumnCount();
+			String[] columnNames = new String[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				columnNames[i] = md.getColumnName(i + 1);
+			}
 			while (rs.next()) {
-				List<DBValue> list = new ArrayList<>();
-				for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
-					list.add(new DBValue(rs.getMetaData().getColumnName(i),
-							rs.getString(i)));
+				List<DBValue> list = new ArrayList<>(columnCount);
+				for (int i = 0; i < columnCount; i++) {
+					list.add(new DBValue(columnNames[i], rs.getString(i + 1)));
 				}
 				data.add(list);
 			}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.resource.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import kinugasa.game.Nullable;
+
+/**
+ * 検索結果の現在行を参照するカーソルです.
+ * <br>
+ * KResultSetと異なり結果をコピーしません。このインスタンスは行ごとに使いまわされるため、
+ * DBConnectionのforEachRowやselectFirstの処理の外に持ち出すことはできません。<br>
+ * 列番号はKResultSetと同じく0から始まります。値の変換規則はDBValueと同じです。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_14:20:00<br>
+ * @author Shinacho<br>
+ */
+public final class KRow {
+
+	private ResultSet rs;
+
+	KRow() {
+	}
+
+	void set(ResultSet rs) {
+		this.rs = rs;
+	}
+
+	private String raw(int i) {
+		try {
+			return rs.getString(i + 1);
+		} catch (SQLException ex) {
+			throw new KSQLException(ex);
+		}
+	}
+
+	@Nullable
+	public String getString(int i) {
+		String v = raw(i);
+		if (v == null || v.isEmpty()) {
+			return null;
+		}
+		return v;
+	}
+
+	public int getInt(int i) {
+		String v = raw(i);
+		if (v == null || v.isEmpty()) {
+			return 0;
+		}
+		return Integer.parseInt(v);
+	}
+
+	public long getLong(int i) {
+		String v = raw(i);
+		if (v == null || v.isEmpty()) {
+			return 0L;
+		}
+		return Long.parseLong(v);
+	}
+
+	public float getFloat(int i) {
+		String v = raw(i);
+		if (v == null || v.trim().isEmpty()) {
+			return 0;
+		}
+		return Float.parseFloat(v);
+	}
+
+	public boolean getBoolean(int i) {
+		String v = raw(i);
+		if (v == null || v.trim().isEmpty()) {
+			return false;
+		}
+		return Boolean.parseBoolean(v);
+	}
+
+	/**
+	 * 列の値をDBValueとして取得します。CSV列や列挙型への変換に使用します。
+	 *
+	 * @param i 列番号。
+	 * @return 新しいDBValue。
+	 */
+	public DBValue get(int i) {
+		return new DBValue(raw(i));
+	}
+
+	public int getColumnCount() {
+		try {
+			return rs.getMetaData().getColumnCount();
+		} catch (SQLException ex) {
+			throw new KSQLException(ex);
+		}
+	}
+
+}
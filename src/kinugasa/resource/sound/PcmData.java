@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.resource.sound;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * SoundMixerの形式にデコードされたPCMデータです.
+ * <br>
+ * データは16ビットのステレオで、SoundMixer.SAMPLE_RATEに変換されています。
+ * 同じファイルのデータはacquireで共有され、releaseで参照がなくなると破棄されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_20:00:00<br>
+ * @author Shinacho<br>
+ */
+final class PcmData {
+
+	private static final Map<File, PcmData> CACHE = new HashMap<>();
+	private final File file;
+	//インターリーブされたL,Rのサンプル
+	final short[] samples;
+	final int frames;
+	private final float sourceRate;
+	private int refs;
+
+	private PcmData(File file, short[] samples, float sourceRate) {
+		this.file = file;
+		this.samples = samples;
+		this.frames = samples.length / SoundMixer.CHANNELS;
+		this.sourceRate = sourceRate;
+	}
+
+	/**
+	 * ファイルのデータを取得します。デコードされていない場合はデコードします。
+	 *
+	 * @param file ファイル。
+	 * @return データ。
+	 * @throws SoundStreamException デコードできない場合に投げられます。
+	 */
+	static PcmData acquire(File file) throws SoundStreamException {
+		synchronized (CACHE) {
+			PcmData d = CACHE.get(file);
+			if (d == null) {
+				d = decode(file);
+				CACHE.put(file, d);
+			}
+			d.refs++;
+			return d;
+		}
+	}
+
+	static void release(PcmData d) {
+		synchronized (CACHE) {
+			if (--d.refs <= 0) {
+				CACHE.remove(d.file);
+			}
+		}
+	}
+
+	/**
+	 * 共有されているデータの合計サイズを返します。
+	 *
+	 * @return バイト数。
+	 */
+	static long getCacheSize() {
+		synchronized (CACHE) {
+			long n = 0;
+			for (PcmData d : CACHE.values()) {
+				n += d.samples.length * 2L;
+			}
+			return n;
+		}
+	}
+
+	/**
+	 * 元のファイルのフレームを、このデータのフレームに変換します。
+	 *
+	 * @param frame 元のファイルのフレーム。
+	 * @return このデータのフレーム。
+	 */
+	int toFrame(long frame) {
+		return (int) Math.min(frames, frame * (double) SoundMixer.SAMPLE_RATE / sourceRate);
+	}
+
+	/**
+	 * ファイルを16ビットの符号付きリトルエンディアンPCMとして開きます。チャンネル数とサンプルレートは変換されません。
+	 *
+	 * @param file ファイル。
+	 * @return ストリーム。
+	 * @throws UnsupportedAudioFileException 形式が不明な場合に投げられます。
+	 * @throws IOException 読み込めない場合に投げられます。
+	 */
+	static AudioInputStream open(File file) throws UnsupportedAudioFileException, IOException {
+		AudioInputStream src = AudioSystem.getAudioInputStream(file);
+		AudioFormat f = src.getFormat();
+		AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, f.getSampleRate(), 16,
+				f.getChannels(), f.getChannels() * 2, f.getSampleRate(), false);
+		if (f.matches(pcm)) {
+			return src;
+		}
+		return AudioSystem.getAudioInputStream(pcm, src);
+	}
+
+	private static PcmData decode(File file) throws SoundStreamException {
+		byte[] b;
+		AudioFormat f;
+		try (AudioInputStream in = open(file)) {
+			f = in.getFormat();
+			b = in.readAllBytes();
+		} catch (UnsupportedAudioFileException | IOException | IllegalArgumentException ex) {
+			throw new SoundStreamException(ex);
+		}
+		int ch = f.getChannels();
+		int srcFrames = b.length / (2 * ch);
+		double step = f.getSampleRate() / SoundMixer.SAMPLE_RATE;
+		int frames = (int) (srcFrames / step);
+		short[] out = new short[frames * SoundMixer.CHANNELS];
+		for (int i = 0; i < frames; i++) {
+			//線形補間でサンプルレートを変換する
+			double p = i * step;
+			int i0 = (int) p;
+			int i1 = Math.min(i0 + 1, srcFrames - 1);
+			float t = (float) (p - i0);
+			for (int c = 0; c < SoundMixer.CHANNELS; c++) {
+				int sc = Math.min(c, ch - 1);
+				int s0 = sample(b, i0 * ch + sc);
+				int s1 = sample(b, i1 * ch + sc);
+				out[i * SoundMixer.CHANNELS + c] = (short) (s0 + (s1 - s0) * t);
+			}
+		}
+		return new PcmData(file, out, f.getSampleRate());
+	}
+
+	private static int sample(byte[] b, int i) {
+		return (short) ((b[i * 2] & 0xFF) | (b[i * 2 + 1] << 8));
+	}
+
+	@Override
+	public String toString() {
+		return "PcmData{" + "file=" + file + ", frames=" + frames + ", refs=" + refs + '}';
+	}
+
+}
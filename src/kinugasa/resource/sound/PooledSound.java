@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.resource.sound;
+
+import java.io.File;
+import kinugasa.game.GameLog;
+import kinugasa.game.system.GameSystem;
+import kinugasa.resource.InputStatus;
+import kinugasa.resource.NotYetLoadedException;
+
+/**
+ * SoundMixerのボイスで再生される効果音です.
+ * <br>
+ * ロード時にPCMデータにデコードされ、同じファイルのサウンドとデータを共有します。
+ * このサウンドはオーディオラインを持たず、再生のたびにSoundMixerのボイスが割り当てられます。<br>
+ * stopAndPlayは前の再生を止めずに重ねて再生します。1つのサウンドが同時に使用するボイスは4つまでで、
+ * それを超える場合は最も古い再生が止まります。<br>
+ * pauseは再生位置を保存しません。stopと同じ動作になります。<br>
+ * パン、サンプルレート、リバーブには対応していません。これらを設定したSoundBuilderのbuildeはCachedSoundを作成します。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_20:00:00<br>
+ * @author Shinacho<br>
+ */
+public class PooledSound implements Sound {
+
+	private static final int MAX_VOICES = 4;
+	private final SoundBuilder builder;
+	private PcmData pcm;
+	private float gain;
+
+	PooledSound(SoundBuilder builder) {
+		this.builder = builder;
+		this.gain = builder.getMasterGain() * builder.getVolume();
+	}
+
+	@Override
+	public void play() throws NotYetLoadedException {
+		if (pcm == null) {
+			return;
+		}
+		SoundMixer.getInstance().play(pcm, gain, this, MAX_VOICES, builder.getLoopPoint());
+	}
+
+	@Override
+	public void nonLoopPlay() {
+		if (pcm == null) {
+			throw new NotYetLoadedException("sound " + this + " is not yet loaded.");
+		}
+		SoundMixer.getInstance().play(pcm, gain, this, MAX_VOICES, null);
+	}
+
+	@Override
+	public void stopAndPlay() {
+		play();
+	}
+
+	@Override
+	public long getFramePosition() {
+		return pcm == null ? -1 : SoundMixer.getInstance().getFramePosition(this);
+	}
+
+	@Override
+	public long getFrameLength() {
+		return pcm == null ? -1 : pcm.frames;
+	}
+
+	@Override
+	public void stop() {
+		SoundMixer.getInstance().stop(this);
+	}
+
+	@Override
+	public void pause() {
+		stop();
+	}
+
+	@Override
+	public boolean isPlaying() {
+		return SoundMixer.getInstance().isPlaying(this);
+	}
+
+	/**
+	 * 音量を設定します。SoundBuilderのマスターゲインが掛けられ、次の再生から反映されます。
+	 *
+	 * @param vol 音量。1でマスターゲインの音量です。
+	 */
+	@Override
+	public void setVolume(float vol) {
+		this.gain = builder.getMasterGain() * vol;
+	}
+
+	@Override
+	public InputStatus getStatus() {
+		return pcm == null ? InputStatus.NOT_LOADED : InputStatus.LOADED;
+	}
+
+	@Override
+	public PooledSound load() throws SoundStreamException {
+		if (pcm != null) {
+			return this;
+		}
+		long start = System.currentTimeMillis();
+		pcm = PcmData.acquire(builder.getFile());
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("PooledSound is loaded name=[" + getName() + "](" + (System.currentTimeMillis() - start) + " ms)");
+		}
+		return this;
+	}
+
+	@Override
+	public synchronized void dispose() {
+		if (pcm == null) {
+			return;
+		}
+		stop();
+		PcmData.release(pcm);
+		pcm = null;
+	}
+
+	public SoundBuilder getBuilder() {
+		return builder;
+	}
+
+	@Override
+	public String getName() {
+		return builder.getName();
+	}
+
+	@Override
+	public File getFile() {
+		return builder.getFile();
+	}
+
+	@Override
+	public String getDesc() {
+		return builder.getDesc();
+	}
+
+	@Override
+	public String getFileName() {
+		return getFile().getName();
+	}
+
+	@Override
+	public SoundType getType() {
+		return builder.getType();
+	}
+
+	@Override
+	public String toString() {
+		return "PooledSound{" + "name=" + getName() + ", run=" + getStatus() + '}';
+	}
+
+}
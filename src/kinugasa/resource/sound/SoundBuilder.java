@@ -256,12 +256,31 @@ public final class SoundBuilder implements Serializable, Nameable {
 		return volume;
 	}
 
+	/**
+	 * 現在の設定で新しいサウンドを作成します.
+	 * BGMはファイルから読みながら再生するStreamingSound、効果音はSoundMixerで再生するPooledSoundになります。
+	 * PooledSoundはパン、サンプルレート、リバーブに対応していないため、これらを設定した効果音はCachedSoundになります。<br>
+	 *
+	 * @return AudioDataの実装を返す.<br>
+	 */
+	public Sound builde() {
+		if (type == SoundType.BGM) {
+			return new StreamingSound(this);
+		}
+		if (Float.compare(pan, 0f) != 0 || Float.compare(sampleRate, 0f) != 0
+				|| (reverbModel != null && !reverbModel.equals(ReverbModel.NO_USE))) {
+			return CachedSound.create(this);
+		}
+		return new PooledSound(this);
+	}
+
 	/**
 	 * 現在の設定で新しいCachedSoundを作成します.
+	 * サウンド全体をClipに読み込み、サウンドごとにラインを使用します。<br>
 	 *
 	 * @return AudioDataの実装を返す.<br>
 	 */
-	public CachedSound builde() {
+	public CachedSound buildeCached() {
 		return CachedSound.create(this);
 	}
 
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.resource.sound;
+
+import java.util.Arrays;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import kinugasa.game.GameLog;
+
+/**
+ * 効果音をソフトウェアでミックスして1つのラインで再生するミキサーです.
+ * <br>
+ * 固定数のボイスを持ち、PooledSoundの再生はいずれかのボイスに割り当てられます。
+ * 同じサウンドを連続して再生しても前の再生は止まらず、重ねて再生されます。
+ * 空いているボイスがない場合は、最も古いボイスが停止されて再利用されます。<br>
+ * ミックスは専用のスレッドで行われ、再生するボイスがない間は待機します。<br>
+ * 効果音の再生中は、StreamingSoundの音量をダッキングの割合まで下げます。<br>
+ * オーディオデバイスが使用できない場合、再生は無視されます。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_20:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class SoundMixer {
+
+	/**
+	 * ミックスのサンプルレートです.
+	 */
+	public static final float SAMPLE_RATE = 44100f;
+	static final int CHANNELS = 2;
+	private static final int VOICES = 16;
+	//1回にミックスするフレーム数。約12ミリ秒
+	private static final int PERIOD = 512;
+	private static final SoundMixer INSTANCE = new SoundMixer();
+
+	public static SoundMixer getInstance() {
+		return INSTANCE;
+	}
+
+	static final class Voice {
+
+		private PcmData pcm;
+		private Object owner;
+		private int pos;
+		private float gain;
+		private int loopFrom = -1;
+		private int loopTo;
+		private long serial;
+
+		boolean isActive() {
+			return pcm != null;
+		}
+	}
+	private final Voice[] voices = new Voice[VOICES];
+	private final int[] acc = new int[PERIOD * CHANNELS];
+	private long serial;
+	private int active;
+	private long stolen;
+	private long played;
+	private float gain = 1f;
+	private float duckTarget = 0.6f;
+	private volatile float duckLevel = 1f;
+	//状態
+	private SourceDataLine line;
+	private Thread thread;
+	private boolean unavailable;
+
+	private SoundMixer() {
+		for (int i = 0; i < VOICES; i++) {
+			voices[i] = new Voice();
+		}
+	}
+
+	/**
+	 * データをボイスに割り当てて再生します。
+	 *
+	 * @param pcm データ。
+	 * @param gain 音量。1で元の音量です。
+	 * @param owner 再生したサウンド。stopやisPlayingで使用されます。
+	 * @param maxPerOwner ownerが同時に使用できるボイスの数。超える場合はownerの最も古いボイスが再利用されます。
+	 * @param loop ループ位置。ループしない場合はnull。
+	 */
+	synchronized void play(PcmData pcm, float gain, Object owner, int maxPerOwner, LoopPoint loop) {
+		if (!start()) {
+			return;
+		}
+		Voice free = null;
+		Voice oldest = null;
+		Voice oldestOwned = null;
+		int owned = 0;
+		for (Voice v : voices) {
+			if (!v.isActive()) {
+				if (free == null) {
+					free = v;
+				}
+				continue;
+			}
+			if (oldest == null || v.serial < oldest.serial) {
+				oldest = v;
+			}
+			if (v.owner == owner) {
+				owned++;
+				if (oldestOwned == null || v.serial < oldestOwned.serial) {
+					oldestOwned = v;
+				}
+			}
+		}
+		Voice v;
+		if (owned >= maxPerOwner) {
+			v = oldestOwned;
+			stolen++;
+		} else if (free != null) {
+			v = free;
+			active++;
+		} else {
+			v = oldest;
+			stolen++;
+		}
+		v.pcm = pcm;
+		v.owner = owner;
+		v.pos = 0;
+		v.gain = gain;
+		v.serial = serial++;
+		if (loop != null) {
+			v.loopFrom = loop.getFrom() == LoopPoint.EOF ? pcm.frames : pcm.toFrame(loop.getFrom());
+			v.loopTo = pcm.toFrame(loop.getTo());
+		} else {
+			v.loopFrom = -1;
+		}
+		played++;
+		notifyAll();
+	}
+
+	/**
+	 * ownerが再生しているボイスを停止します。
+	 *
+	 * @param owner サウンド。
+	 */
+	synchronized void stop(Object owner) {
+		for (Voice v : voices) {
+			if (v.isActive() && v.owner == owner) {
+				release(v);
+			}
+		}
+	}
+
+	synchronized boolean isPlaying(Object owner) {
+		for (Voice v : voices) {
+			if (v.isActive() && v.owner == owner) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * ownerの最も新しいボイスの再生位置を返します。
+	 *
+	 * @param owner サウンド。
+	 * @return データのフレーム。再生していない場合は-1。
+	 */
+	synchronized long getFramePosition(Object owner) {
+		Voice latest = null;
+		for (Voice v : voices) {
+			if (v.isActive() && v.owner == owner && (latest == null || v.serial > latest.serial)) {
+				latest = v;
+			}
+		}
+		return latest == null ? -1 : latest.pos;
+	}
+
+	private void release(Voice v) {
+		v.pcm = null;
+		v.owner = null;
+		active--;
+	}
+
+	/**
+	 * すべてのボイスをミックスします。ミックスしたフレームに応じてボイスとダッキングが進みます。
+	 *
+	 * @param out 出力先。インターリーブされたステレオのサンプルです。
+	 * @param frames ミックスするフレーム数。PERIOD以下。
+	 */
+	synchronized void mix(short[] out, int frames) {
+		int n = frames * CHANNELS;
+		Arrays.fill(acc, 0, n, 0);
+		for (Voice v : voices) {
+			if (!v.isActive()) {
+				continue;
+			}
+			short[] s = v.pcm.samples;
+			int g = (int) (v.gain * gain * 256);
+			int end = v.loopFrom >= 0 ? v.loopFrom : v.pcm.frames;
+			int i = 0;
+			while (i < n) {
+				int len = Math.min((end - v.pos) * CHANNELS, n - i);
+				int p = v.pos * CHANNELS;
+				for (int j = 0; j < len; j++) {
+					acc[i + j] += (s[p + j] * g) >> 8;
+				}
+				i += len;
+				v.pos += len / CHANNELS;
+				if (v.pos >= end) {
+					if (v.loopFrom >= 0 && v.loopTo < end) {
+						v.pos = v.loopTo;
+					} else {
+						release(v);
+						break;
+					}
+				}
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			int a = acc[i];
+			out[i] = (short) (a > Short.MAX_VALUE ? Short.MAX_VALUE : a < Short.MIN_VALUE ? Short.MIN_VALUE : a);
+		}
+		//効果音の再生中はBGMを下げ、止まったらゆっくり戻す
+		float target = active > 0 ? duckTarget : 1f;
+		float d = duckLevel;
+		duckLevel = target < d ? Math.max(target, d - 0.25f) : Math.min(target, d + 0.02f);
+	}
+
+	//ミキサーのスレッドを開始する。使用できない場合はfalse
+	private boolean start() {
+		if (thread != null) {
+			return true;
+		}
+		if (unavailable) {
+			return false;
+		}
+		AudioFormat f = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+		try {
+			line = AudioSystem.getSourceDataLine(f);
+			line.open(f, PERIOD * CHANNELS * 2 * 4);
+			line.start();
+		} catch (LineUnavailableException | IllegalArgumentException | SecurityException ex) {
+			GameLog.print("! > SoundMixer : audio line is not available : " + ex);
+			unavailable = true;
+			return false;
+		}
+		thread = new Thread(this::run, "kgf sound mixer");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MAX_PRIORITY);
+		thread.start();
+		return true;
+	}
+
+	private void run() {
+		short[] out = new short[PERIOD * CHANNELS];
+		byte[] b = new byte[out.length * 2];
+		while (true) {
+			synchronized (this) {
+				while (active == 0 && duckLevel >= 1f) {
+					try {
+						wait();
+					} catch (InterruptedException ex) {
+						return;
+					}
+				}
+			}
+			try {
+				mix(out, PERIOD);
+				for (int i = 0; i < out.length; i++) {
+					b[i * 2] = (byte) out[i];
+					b[i * 2 + 1] = (byte) (out[i] >> 8);
+				}
+				//ラインのバッファが空くまでブロックされるため、これがミックスの間隔になる
+				line.write(b, 0, b.length);
+			} catch (RuntimeException ex) {
+				//スレッドを終了させると以降の効果音がすべて鳴らなくなるため、発音中のボイスを止めて続行する
+				GameLog.print("! > SoundMixer : " + ex);
+				stopAll();
+			}
+		}
+	}
+
+	/**
+	 * すべての効果音の音量を設定します。
+	 *
+	 * @param gain 音量。1で元の音量です。
+	 */
+	public synchronized void setGain(float gain) {
+		this.gain = gain;
+	}
+
+	/**
+	 * 効果音の再生中にBGMの音量を下げる割合を設定します。デフォルトは0.6です。
+	 *
+	 * @param duck BGMの音量に掛ける値。1の場合はダッキングしません。
+	 */
+	public synchronized void setDucking(float duck) {
+		this.duckTarget = duck;
+	}
+
+	/**
+	 * 現在のダッキングによるBGMの音量の割合を返します。
+	 *
+	 * @return 0から1の値。
+	 */
+	public float getDuckLevel() {
+		return duckLevel;
+	}
+
+	/**
+	 * すべてのボイスを停止します。
+	 */
+	public synchronized void stopAll() {
+		for (Voice v : voices) {
+			if (v.isActive()) {
+				release(v);
+			}
+		}
+	}
+
+	public synchronized int getActiveVoices() {
+		return active;
+	}
+
+	/**
+	 * 空きがなかったために停止されたボイスの数を返します。
+	 *
+	 * @return 数。
+	 */
+	public synchronized long getStolenVoices() {
+		return stolen;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SoundMixer{" + "voices=" + VOICES + ", active=" + active + ", played=" + played + ", stolen=" + stolen
+				+ ", pcmCache=" + PcmData.getCacheSize() / 1024 + "KB, line=" + (line != null) + '}';
+	}
+
+}
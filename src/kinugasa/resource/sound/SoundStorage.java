@@ -73,7 +73,7 @@ public final class SoundStorage extends DBStorage<Sound> {
 	@Override
 	protected Sound select(String id) throws KSQLException {
 		if (DBConnection.getInstance().isUsing()) {
-			KResultSet kr = DBConnection.getInstance().execDirect("select SoundID, desc, fileName, loopFrom, loopTo, mg, type  from sound where soundid='" + id + "';");
+			KResultSet kr = DBConnection.getInstance().execQuery("select SoundID, desc, fileName, loopFrom, loopTo, mg, type  from sound where soundid = ?", id);
 			if (kr.isEmpty()) {
 				return null;
 			}
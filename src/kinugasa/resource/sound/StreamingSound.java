@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.resource.sound;
+
+import java.io.File;
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.BooleanControl;
+import javax.sound.sampled.Control;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import kinugasa.game.GameLog;
+import kinugasa.game.system.Counts;
+import kinugasa.game.system.GameSystem;
+import kinugasa.game.system.GameSystemI18NKeys;
+import kinugasa.resource.InputStatus;
+import kinugasa.resource.NotYetLoadedException;
+import kinugasa.resource.db.DBConnection;
+
+/**
+ * ファイルから読みながら再生するBGMです.
+ * <br>
+ * ファイル全体をメモリに読み込まず、再生中だけ専用のスレッドとSourceDataLineを使用します。
+ * ロードではファイルの形式を確認するだけで、停止している間はラインを持ちません。<br>
+ * ループ位置が設定されている場合、LoopPointのfromのフレーム(EOFの場合はファイルの終端)に達すると、
+ * toのフレームから再生を続けます。<br>
+ * 音量はソフトウェアで適用され、SoundMixerのダッキングが反映されます。
+ * パン、サンプルレート、リバーブはCachedSoundと同じようにラインのコントロールで設定され、ラインが対応していない場合はログに記録して無視します。<br>
+ * 停止はラインを止めて書き込みを中断させるだけで、呼び出し元のスレッドは再生スレッドの終了を待ちません。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_20:00:00<br>
+ * @author Shinacho<br>
+ */
+public class StreamingSound implements Sound {
+
+	//1回に読み込むフレーム数
+	private static final int CHUNK_FRAMES = 4096;
+	private final SoundBuilder builder;
+	private volatile float gain;
+	private AudioFormat format;
+	private long frameLength = -1;
+	private volatile long framePos;
+	//再生中のスレッド。停止するとnullになり、古いスレッドは自分が現在のスレッドでなくなったことで終了する
+	private volatile Thread thread;
+	//再生中のライン。thisで保護される
+	private SourceDataLine line;
+
+	StreamingSound(SoundBuilder builder) {
+		this.builder = builder;
+		this.gain = builder.getMasterGain() * builder.getVolume();
+	}
+
+	@Override
+	public void play() throws NotYetLoadedException {
+		start(true);
+	}
+
+	@Override
+	public void nonLoopPlay() {
+		if (format == null) {
+			throw new NotYetLoadedException("sound " + this + " is not yet loaded.");
+		}
+		start(false);
+	}
+
+	private synchronized void start(boolean loop) {
+		if (format == null || thread != null) {
+			return;
+		}
+		if (getType() == SoundType.BGM && DBConnection.getInstance().isUsing()) {
+			Counts.getInstance().add1count(GameSystemI18NKeys.CountKey.BGM再生回数);
+		}
+		final long start = framePos;
+		Thread t = new Thread(() -> stream(start, loop), "kgf sound stream " + getName());
+		t.setDaemon(true);
+		thread = t;
+		t.start();
+	}
+
+	private void stream(long start, boolean loop) {
+		final Thread me = Thread.currentThread();
+		AudioInputStream in = null;
+		SourceDataLine line = null;
+		boolean ended = false;
+		try {
+			in = PcmData.open(getFile());
+			long pos = skip(in, start);
+			int fs = format.getFrameSize();
+			line = AudioSystem.getSourceDataLine(format);
+			line.open(format, CHUNK_FRAMES * fs * 2);
+			applyControls(line);
+			synchronized (this) {
+				//開いている間に停止された場合は再生しない
+				if (thread != me) {
+					return;
+				}
+				this.line = line;
+			}
+			line.start();
+			byte[] b = new byte[CHUNK_FRAMES * fs];
+			LoopPoint lp = loop ? builder.getLoopPoint() : null;
+			long end = lp == null || lp.getFrom() == LoopPoint.EOF ? Long.MAX_VALUE : lp.getFrom();
+			boolean empty = true;
+			while (thread == me) {
+				int n = read(in, b, (int) Math.min(CHUNK_FRAMES, end - pos) * fs);
+				if (n <= 0) {
+					//ループ位置から1フレームも読めない場合は終了する
+					if (lp == null || empty) {
+						ended = true;
+						break;
+					}
+					in.close();
+					in = PcmData.open(getFile());
+					pos = skip(in, lp.getTo());
+					empty = true;
+					continue;
+				}
+				empty = false;
+				applyGain(b, n, gain * SoundMixer.getInstance().getDuckLevel());
+				line.write(b, 0, n);
+				pos += n / fs;
+				//停止された後は、次の再生の位置を上書きしない
+				if (thread != me) {
+					break;
+				}
+				framePos = pos;
+			}
+			if (ended) {
+				line.drain();
+			}
+		} catch (UnsupportedAudioFileException | IOException | LineUnavailableException | IllegalArgumentException ex) {
+			GameLog.print("! > StreamingSound : [" + getName() + "] : " + ex);
+			ended = true;
+		} finally {
+			synchronized (this) {
+				if (this.line == line) {
+					this.line = null;
+				}
+			}
+			if (line != null) {
+				line.stop();
+				line.flush();
+				line.close();
+			}
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException ex) {
+					GameLog.print(ex);
+				}
+			}
+			synchronized (this) {
+				if (thread == me) {
+					if (ended) {
+						framePos = 0;
+					}
+					thread = null;
+				}
+			}
+		}
+	}
+
+	private static long skip(AudioInputStream in, long frames) throws IOException {
+		long bytes = frames * in.getFormat().getFrameSize();
+		long n = 0;
+		while (n < bytes) {
+			long s = in.skip(bytes - n);
+			if (s <= 0) {
+				break;
+			}
+			n += s;
+		}
+		return n / in.getFormat().getFrameSize();
+	}
+
+	private static int read(AudioInputStream in, byte[] b, int len) throws IOException {
+		int n = 0;
+		while (n < len) {
+			int r = in.read(b, n, len - n);
+			if (r < 0) {
+				break;
+			}
+			n += r;
+		}
+		return n;
+	}
+
+	private static void applyGain(byte[] b, int len, float gain) {
+		if (Float.compare(gain, 1f) == 0) {
+			return;
+		}
+		int g = (int) (gain * 256);
+		for (int i = 0; i + 1 < len; i += 2) {
+			int s = ((short) ((b[i] & 0xFF) | (b[i + 1] << 8)) * g) >> 8;
+			s = s > Short.MAX_VALUE ? Short.MAX_VALUE : s < Short.MIN_VALUE ? Short.MIN_VALUE : s;
+			b[i] = (byte) s;
+			b[i + 1] = (byte) (s >> 8);
+		}
+	}
+
+	//再生中のスレッドを止める。ラインを止めてバッファを捨てることで、ブロックしている書き込みを戻らせる。
+	//終了は待たない。古いスレッドは現在のスレッドでないため、次の再生の状態を変更せずにラインを閉じて終了する
+	private synchronized void halt() {
+		thread = null;
+		if (line != null) {
+			line.stop();
+			line.flush();
+			line = null;
+		}
+	}
+
+	private void applyControls(SourceDataLine line) {
+		if (Float.compare(builder.getPan(), 0f) != 0) {
+			setControl(line, FloatControl.Type.PAN, builder.getPan());
+		}
+		if (Float.compare(builder.getSampleRate(), 0f) != 0) {
+			setControl(line, FloatControl.Type.SAMPLE_RATE, builder.getSampleRate());
+		}
+		ReverbModel rm = builder.getReverbModel();
+		if (rm != null && !rm.equals(ReverbModel.NO_USE)) {
+			setControl(line, FloatControl.Type.REVERB_RETURN, rm.getRet());
+			setControl(line, FloatControl.Type.REVERB_SEND, rm.getSend());
+			setControl(line, BooleanControl.Type.APPLY_REVERB, rm.isUse() ? 1f : 0f);
+		}
+	}
+
+	private void setControl(SourceDataLine line, Control.Type t, float val) {
+		try {
+			Control c = line.getControl(t);
+			if (c instanceof BooleanControl) {
+				((BooleanControl) c).setValue(val != 0f);
+			} else {
+				((FloatControl) c).setValue(val);
+			}
+		} catch (IllegalArgumentException ex) {
+			GameLog.print("! > StreamingSound : [" + getName() + "] : UN SUPPORTED CONTROL : Type=[" + t + "]");
+		}
+	}
+
+	@Override
+	public void stopAndPlay() {
+		stop();
+		play();
+	}
+
+	@Override
+	public long getFramePosition() {
+		return format == null ? -1 : framePos;
+	}
+
+	@Override
+	public long getFrameLength() {
+		return frameLength;
+	}
+
+	@Override
+	public void stop() {
+		halt();
+		framePos = 0;
+	}
+
+	@Override
+	public void pause() {
+		halt();
+	}
+
+	@Override
+	public boolean isPlaying() {
+		return thread != null;
+	}
+
+	/**
+	 * 音量を設定します。SoundBuilderのマスターゲインが掛けられます。
+	 *
+	 * @param vol 音量。1でマスターゲインの音量です。
+	 */
+	@Override
+	public void setVolume(float vol) {
+		this.gain = builder.getMasterGain() * vol;
+	}
+
+	@Override
+	public InputStatus getStatus() {
+		return format == null ? InputStatus.NOT_LOADED : InputStatus.LOADED;
+	}
+
+	@Override
+	public StreamingSound load() throws SoundStreamException {
+		if (format != null) {
+			return this;
+		}
+		try (AudioInputStream in = PcmData.open(getFile())) {
+			frameLength = in.getFrameLength();
+			format = in.getFormat();
+		} catch (UnsupportedAudioFileException | IOException | IllegalArgumentException ex) {
+			throw new SoundStreamException(ex);
+		}
+		if (GameSystem.isDebugMode()) {
+			GameLog.print("StreamingSound is loaded name=[" + getName() + "] format=[" + format + "]");
+		}
+		return this;
+	}
+
+	@Override
+	public void dispose() {
+		if (format == null) {
+			return;
+		}
+		stop();
+		format = null;
+	}
+
+	public SoundBuilder getBuilder() {
+		return builder;
+	}
+
+	@Override
+	public String getName() {
+		return builder.getName();
+	}
+
+	@Override
+	public File getFile() {
+		return builder.getFile();
+	}
+
+	@Override
+	public String getDesc() {
+		return builder.getDesc();
+	}
+
+	@Override
+	public String getFileName() {
+		return getFile().getName();
+	}
+
+	@Override
+	public SoundType getType() {
+		return builder.getType();
+	}
+
+	@Override
+	public String toString() {
+		return "StreamingSound{" + "name=" + getName() + ", lp=" + builder.getLoopPoint() + ", run=" + getStatus() + '}';
+	}
+
+}
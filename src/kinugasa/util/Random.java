@@ -20,6 +20,7 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import kinugasa.object.KVector;
@@ -36,6 +37,14 @@ import kinugasa.resource.Storage;
  * 2つめの方法は、シードを指定しないで乱数生成機能を使用することです。<br>
  * この場合には、最初に乱数生成機能(シードの取得(getSeed)を含む)を使用した時点で、適当なシードが適用されます。<br>
  * <br>
+ * 乱数は名前の付いた系列(RandomStream)から取得されます。各系列はシードと名前から作成されるため、
+ * ある系列から余分に乱数を取得しても、他の系列の結果は変わりません。
+ * 戦闘、AI、フィールド、視覚効果にはそれぞれbattle、ai、field、effectの系列を使用してください。
+ * このクラスのstaticな乱数生成機能は、default系列を使用します。<br>
+ * setLocalSeedを使用すると、呼び出したスレッドだけで別のシードの系列を使用できます。
+ * 戦闘のシミュレーションなど、複数のスレッドで並列に処理する場合に使用します。<br>
+ * すべての系列の状態はsnapshotで保存し、restoreで復元できます。<br>
+ * <br>
  *
  * @version 1.0.0 - 2013/01/11_17:26:09<br>
  * @author Shinacho<br>
@@ -50,13 +59,66 @@ public final class Random implements Serializable {
 	private Random() {
 	}
 	/**
-	 * 現在使用中のシードです.
+	 * 系列の名前です.
 	 */
-	private static long seed;
+	public static final String DEFAULT = "default";
+	public static final String BATTLE = "battle";
+	public static final String AI = "ai";
+	public static final String FIELD = "field";
+	public static final String EFFECT = "effect";
+
 	/**
-	 * 乱数ジェネレータです.
+	 * 1つのシードから作成された系列の集合です.
 	 */
-	private static java.util.Random random;
+	private static final class Streams {
+
+		private final long seed;
+		private final RandomStream def;
+		private final RandomStream battle;
+		private final RandomStream ai;
+		private final RandomStream field;
+		private final RandomStream effect;
+		private final Map<String, RandomStream> streams = new LinkedHashMap<>();
+
+		Streams(long seed) {
+			this.seed = seed;
+			def = get(DEFAULT);
+			battle = get(BATTLE);
+			ai = get(AI);
+			field = get(FIELD);
+			effect = get(EFFECT);
+		}
+
+		RandomStream get(String name) {
+			RandomStream s = streams.get(name);
+			if (s == null) {
+				streams.put(name, s = RandomStream.of(seed, name));
+			}
+			return s;
+		}
+	}
+	/**
+	 * 現在使用中の系列です.
+	 */
+	private static Streams global;
+	/**
+	 * スレッドごとの系列です.
+	 */
+	private static final ThreadLocal<Streams> local = new ThreadLocal<>();
+	private static volatile int localCount = 0;
+
+	private static Streams current() {
+		if (localCount > 0) {
+			Streams s = local.get();
+			if (s != null) {
+				return s;
+			}
+		}
+		if (global == null) {
+			initSeed();
+		}
+		return global;
+	}
 
 	/**
 	 * シードを適当な数値で初期化します.
@@ -69,13 +131,14 @@ public final class Random implements Serializable {
 
 	/**
 	 * 指定されたシードを使用してジェネレータを初期化します.
+	 * すべての系列がシードから作成し直されます。<br>
 	 *
 	 * @param seed 設定するシードを指定します。<br>
 	 *
 	 * @return 適用されたシードを返します。<br>
 	 */
 	public static long initSeed(long seed) {
-		random = new java.util.Random(Random.seed = seed);
+		global = new Streams(seed);
 		return seed;
 	}
 
@@ -87,10 +150,152 @@ public final class Random implements Serializable {
 	 * @return 使用中のシードを返します。<br>
 	 */
 	public static long getSeed() {
-		if (random == null) {
-			initSeed();
+		return current().seed;
+	}
+
+	/**
+	 * 呼び出したスレッドでのみ、指定したシードから作成した系列を使用します.
+	 * clearLocalSeedを呼び出すまで、このスレッドのすべての乱数生成機能は他のスレッドと独立します。<br>
+	 *
+	 * @param seed このスレッドで使用するシード。<br>
+	 */
+	public static synchronized void setLocalSeed(long seed) {
+		if (local.get() == null) {
+			localCount++;
+		}
+		local.set(new Streams(seed));
+	}
+
+	/**
+	 * setLocalSeedで設定した系列を破棄し、共有の系列に戻します.
+	 */
+	public static synchronized void clearLocalSeed() {
+		if (local.get() != null) {
+			localCount--;
+			local.remove();
+		}
+	}
+
+	/**
+	 * 名前を指定して系列を取得します。存在しない場合は現在のシードと名前から作成されます。
+	 *
+	 * @param name 系列の名前。
+	 * @return 系列。
+	 */
+	public static RandomStream stream(String name) {
+		return current().get(name);
+	}
+
+	/**
+	 * ダメージ計算や状態異常の判定など、戦闘の結果に影響する系列を返します。
+	 *
+	 * @return battle系列。
+	 */
+	public static RandomStream battle() {
+		return current().battle;
+	}
+
+	/**
+	 * 敵の行動の選択に使用する系列を返します。
+	 *
+	 * @return ai系列。
+	 */
+	public static RandomStream ai() {
+		return current().ai;
+	}
+
+	/**
+	 * 敵の配置やエンカウント、NPCの移動など、フィールドで使用する系列を返します。
+	 *
+	 * @return field系列。
+	 */
+	public static RandomStream field() {
+		return current().field;
+	}
+
+	/**
+	 * 画面効果など、ゲームの結果に影響しない表示に使用する系列を返します。
+	 *
+	 * @return effect系列。
+	 */
+	public static RandomStream effect() {
+		return current().effect;
+	}
+
+	/**
+	 * シードとすべての系列の状態です.
+	 */
+	public static final class Snapshot implements Serializable {
+
+		private static final long serialVersionUID = -2384127730951736042L;
+		private final long seed;
+		private final String[] names;
+		private final long[] states;
+
+		public Snapshot(long seed, String[] names, long[] states) {
+			if (names.length != states.length) {
+				throw new IllegalArgumentException("Random.Snapshot : names and states size is missmatch");
+			}
+			this.seed = seed;
+			this.names = names.clone();
+			this.states = states.clone();
+		}
+
+		public long getSeed() {
+			return seed;
+		}
+
+		public int size() {
+			return names.length;
+		}
+
+		public String getName(int i) {
+			return names[i];
+		}
+
+		public long getState(int i) {
+			return states[i];
+		}
+
+		@Override
+		public String toString() {
+			return "Random.Snapshot{" + "seed=" + seed + ", streams=" + names.length + '}';
+		}
+	}
+
+	/**
+	 * 現在のシードとすべての系列の状態を保存します.
+	 *
+	 * @return 状態。<br>
+	 */
+	public static Snapshot snapshot() {
+		Streams s = current();
+		String[] names = new String[s.streams.size()];
+		long[] states = new long[names.length];
+		int i = 0;
+		for (RandomStream r : s.streams.values()) {
+			names[i] = r.getName();
+			states[i++] = r.getState();
+		}
+		return new Snapshot(s.seed, names, states);
+	}
+
+	/**
+	 * snapshotで保存した状態を復元します.
+	 * setLocalSeedを使用している場合は、このスレッドの系列が復元されます。<br>
+	 *
+	 * @param snapshot 状態。<br>
+	 */
+	public static void restore(Snapshot snapshot) {
+		Streams s = new Streams(snapshot.getSeed());
+		for (int i = 0; i < snapshot.size(); i++) {
+			s.get(snapshot.getName(i)).setState(snapshot.getState(i));
+		}
+		if (localCount > 0 && local.get() != null) {
+			local.set(s);
+		} else {
+			global = s;
 		}
-		return seed;
 	}
 
 	/**
@@ -101,10 +306,7 @@ public final class Random implements Serializable {
 	 * @return 0から1までのランダムなfloatを返します。<br>
 	 */
 	public static float randomFloat() {
-		if (random == null) {
-			initSeed();
-		}
-		return random.nextFloat();
+		return current().def.randomFloat();
 	}
 
 	/**
@@ -117,9 +319,6 @@ public final class Random implements Serializable {
 	 * @return 0からmaxValueまでのランダムなfloatを返します。<br>
 	 */
 	public static float randomFloat(float maxValue) {
-		if (random == null) {
-			initSeed();
-		}
 		return randomFloat() * maxValue;
 	}
 
@@ -129,10 +328,7 @@ public final class Random implements Serializable {
 	 * @return Intの全ての範囲のランダムな値を返します。<br>
 	 */
 	public static int randomInt() {
-		if (random == null) {
-			initSeed();
-		}
-		return random.nextInt();
+		return current().def.randomInt();
 	}
 
 	/**
@@ -145,10 +341,7 @@ public final class Random implements Serializable {
 	 * @return 0からmaxValueまでのランダムなintを返します。<br>
 	 */
 	public static int randomAbsInt(int maxValue) {
-		if (random == null) {
-			initSeed();
-		}
-		return random.nextInt(maxValue < 0 ? 0 : maxValue);
+		return current().def.randomAbsInt(maxValue);
 	}
 
 	/**
@@ -157,7 +350,7 @@ public final class Random implements Serializable {
 	 * @return 整数のIntのランダムな値を返します。0を含みます。<br>
 	 */
 	public static int randomAbsInt() {
-		return Math.abs(randomInt());
+		return current().def.randomAbsInt();
 	}
 
 	/**
@@ -177,10 +370,7 @@ public final class Random implements Serializable {
 	 * @return true又はfalseを返します。<br>
 	 */
 	public static boolean randomBool() {
-		if (random == null) {
-			initSeed();
-		}
-		return random.nextBoolean();
+		return current().def.randomBool();
 	}
 
 	/**
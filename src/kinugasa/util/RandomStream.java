@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.util;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import kinugasa.object.KVector;
+import kinugasa.object.Sprite;
+import kinugasa.resource.Nameable;
+import kinugasa.resource.Storage;
+
+/**
+ * 独立した乱数の系列です.
+ * <br>
+ * SplittableRandomと同じSplitMix64のアルゴリズムを使用します。状態は1つのlong値で、
+ * getStateとsetStateによって保存と復元ができます。<br>
+ * splitで作成した系列や、同じシードから異なる名前で作成した系列は、互いに独立した乱数を返します。
+ * そのため、ある系列から余分に乱数を取得しても、他の系列の結果は変わりません。<br>
+ * 乱数の生成はメモリを確保しません。<br>
+ * このクラスは同期化されません。1つの系列は1つのスレッドから使用してください。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_19:00:00<br>
+ * @author Shinacho<br>
+ */
+public final class RandomStream {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final float FLOAT_UNIT = 0x1.0p-24f;
+	private final String name;
+	private final long gamma;
+	private long state;
+
+	/**
+	 * シードを指定して系列を作成します。
+	 *
+	 * @param seed シード。
+	 */
+	public RandomStream(long seed) {
+		this("", seed, GOLDEN_GAMMA);
+	}
+
+	private RandomStream(String name, long state, long gamma) {
+		this.name = name;
+		this.state = state;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * シードと名前から系列を作成します。同じシードと名前からは同じ系列が作成されます。
+	 *
+	 * @param seed 元になるシード。
+	 * @param name 系列の名前。
+	 * @return 新しい系列。
+	 */
+	public static RandomStream of(long seed, String name) {
+		long h = seed;
+		for (int i = 0; i < name.length(); i++) {
+			h = mix64(h + GOLDEN_GAMMA * (name.charAt(i) + 1));
+		}
+		return new RandomStream(name, mix64(h), mixGamma(h + GOLDEN_GAMMA));
+	}
+
+	/**
+	 * この系列から独立した新しい系列を作成します。この系列の状態は1回分進みます。
+	 *
+	 * @return 新しい系列。
+	 */
+	public RandomStream split() {
+		return new RandomStream(name, nextLong(), mixGamma(nextSeed()));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 現在の状態を返します。setStateに渡すと、この時点から同じ乱数が返されます。
+	 *
+	 * @return 状態。
+	 */
+	public long getState() {
+		return state;
+	}
+
+	public void setState(long state) {
+		this.state = state;
+	}
+
+	private long nextSeed() {
+		return state += gamma;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	/**
+	 * ランダムなint値を返します。
+	 *
+	 * @return Intの全ての範囲のランダムな値を返します。<br>
+	 */
+	public int randomInt() {
+		return mix32(nextSeed());
+	}
+
+	/**
+	 * 0から1までのランダムなfloat値を返します.
+	 *
+	 * 結果には、0は含まれますが、1は含まれません。<br>
+	 *
+	 * @return 0から1までのランダムなfloatを返します。<br>
+	 */
+	public float randomFloat() {
+		return (mix32(nextSeed()) >>> 8) * FLOAT_UNIT;
+	}
+
+	/**
+	 * 0からmaxValueまでのランダムなfloat値を返します.
+	 *
+	 * @param maxValue 乱数の最大値を指定します。<br>
+	 *
+	 * @return 0からmaxValueまでのランダムなfloatを返します。maxValueは含まれません。<br>
+	 */
+	public float randomFloat(float maxValue) {
+		return randomFloat() * maxValue;
+	}
+
+	/**
+	 * 0からmaxValueまでのランダムなint値を返します.
+	 *
+	 * @param maxValue 乱数の最大値を指定します。0以下の場合には0を返します。<br>
+	 *
+	 * @return 0からmaxValueまでのランダムなintを返します。maxValueは含まれません。<br>
+	 */
+	public int randomAbsInt(int maxValue) {
+		if (maxValue <= 1) {
+			return 0;
+		}
+		//棄却法で偏りをなくす
+		int m = maxValue - 1;
+		int r = mix32(nextSeed());
+		if ((maxValue & m) == 0) {
+			return r & m;
+		}
+		for (int u = r >>> 1; u + m - (r = u % maxValue) < 0; u = mix32(nextSeed()) >>> 1) {
+		}
+		return r;
+	}
+
+	/**
+	 * ランダムな整数のint値を返します.
+	 *
+	 * @return 0以上のランダムな値を返します。<br>
+	 */
+	public int randomAbsInt() {
+		return randomInt() >>> 1;
+	}
+
+	/**
+	 * FROMからTOまでのランダムなintを返します.
+	 *
+	 * @param from 開始数値.
+	 * @param to 終了数値.
+	 * @return FROMからTOまでのランダムな値。TOは含まない。
+	 */
+	public int randomAbsInt(int from, int to) {
+		return from + randomAbsInt(to - from);
+	}
+
+	/**
+	 * ランダムなbooleanを返します.
+	 *
+	 * @return true又はfalseを返します。<br>
+	 */
+	public boolean randomBool() {
+		return mix32(nextSeed()) < 0;
+	}
+
+	/**
+	 * 確率pを判定します.
+	 *
+	 * @param p 発生する確率を0から1のfloatとして指定します。<br>
+	 *
+	 * @return p*100(%)の確率でtrueを返します。 ただしpが0以下の場合はfalse、pが1以上の場合はtrueを返します。
+	 * この場合、系列の状態は進みません。<br>
+	 */
+	public boolean percent(float p) {
+		if (p <= 0f) {
+			return false;
+		}
+		if (p >= 1f) {
+			return true;
+		}
+		return randomFloat() < p;
+	}
+
+	// spread%上下した値を返します。
+	public float spread(float num, float spread) {
+		if (spread >= 1) {
+			return num * spread;
+		}
+		if (spread <= 0) {
+			return 0;
+		}
+		float from = num * (1 - randomFloat(spread));
+		float to = num * (1 + randomFloat(spread));
+		if (randomBool()) {
+			return from;
+		}
+		return to;
+	}
+
+	public <V extends Nameable> V randomChoice(Storage<V> v) {
+		return randomChoice(v.asList());
+	}
+
+	public <K, V> V randomChoice(Map<K, V> map) {
+		return randomChoice(new ArrayList<>(map.values()));
+	}
+
+	public <T> T randomChoice(List<T> t) {
+		return t.get(randomAbsInt(t.size()));
+	}
+
+	@SafeVarargs
+	public final <T> T randomChoice(T... t) {
+		return t[randomAbsInt(t.length)];
+	}
+
+	public <T extends Enum<T>> T randomChoice(Class<T> t) {
+		return randomChoice(t.getEnumConstants());
+	}
+
+	public Point2D.Float randomLocation(Rectangle2D r) {
+		return randomLocation(r, 1, 1);
+	}
+
+	public Point2D.Float randomLocation(Rectangle2D r, float w, float h) {
+		float x = (float) (r.getX() + randomAbsInt((int) (r.getWidth() - w)));
+		float y = (float) (r.getY() + randomAbsInt((int) (r.getHeight() - h)));
+		return new Point2D.Float(x, y);
+	}
+
+	public Point2D.Float randomLocation(Point2D.Float center, float r) {
+		Point2D.Float p = (Point2D.Float) center.clone();
+		KVector v = new KVector(randomFloat(360), randomFloat(r));
+		p.x += v.getLocation().x;
+		p.y += v.getLocation().y;
+		return p;
+	}
+
+	public Point2D.Float randomLocation(Sprite s, float r) {
+		return randomLocation(s.getCenter(), r);
+	}
+
+	/**
+	 * レガシーなダイスロールをエミュレートするメソッドです.
+	 *
+	 * @param num ダイスを振る回数を指定します。この引数が0の場合、0を返します。<br>
+	 * @param sided ダイスの面数を指定します。<br>
+	 *
+	 * @return [num D sided] を返します。<br>
+	 */
+	public int dice(int num, int sided) {
+		return randomAbsInt(sided * num - num + 1) + (num);
+	}
+
+	@Override
+	public String toString() {
+		return "RandomStream{" + "name=" + name + ", state=" + state + '}';
+	}
+
+}
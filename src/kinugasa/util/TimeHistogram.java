@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2023 Shinacho
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kinugasa.util;
+
+import java.util.Arrays;
+
+/**
+ * 処理時間の分布を記録するヒストグラムです.
+ * <br>
+ * 時間は一定幅の区間ごとに数えられ、最後の区間を超える値は最後の区間に含まれます。
+ * 記録の際にメモリを確保しないため、ゲームループから毎フレーム呼び出すことができます。<br>
+ * このクラスは同期化されません。記録するスレッド以外から読み取った値は、最新でないことがあります。<br>
+ *
+ * @vesion 1.0.0 - 2026/10/18_17:00:00<br>
+ * @author Shinacho<br>
+ */
+public class TimeHistogram {
+
+	private final long bucketNanos;
+	private final long[] buckets;
+	private long count;
+	private long total;
+	private long min = Long.MAX_VALUE;
+	private long max;
+
+	/**
+	 * 0.1ミリ秒単位で100ミリ秒までを記録するヒストグラムを作成します。
+	 */
+	public TimeHistogram() {
+		this(100_000, 1000);
+	}
+
+	/**
+	 * ヒストグラムを作成します。
+	 *
+	 * @param bucketNanos 区間の幅（ナノ秒）。
+	 * @param bucketNum 区間の数。
+	 * @throws IllegalArgumentException 幅または数が1未満の場合に投げられます。
+	 */
+	public TimeHistogram(long bucketNanos, int bucketNum) throws IllegalArgumentException {
+		if (bucketNanos < 1 || bucketNum < 1) {
+			throw new IllegalArgumentException("TimeHistogram : bucketNanos=" + bucketNanos + ", bucketNum=" + bucketNum);
+		}
+		this.bucketNanos = bucketNanos;
+		this.buckets = new long[bucketNum];
+	}
+
+	/**
+	 * 時間を記録します。
+	 *
+	 * @param nanos 時間（ナノ秒）。負数は0として扱われます。
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		long i = nanos / bucketNanos;
+		buckets[i >= buckets.length ? buckets.length - 1 : (int) i]++;
+		count++;
+		total += nanos;
+		if (nanos < min) {
+			min = nanos;
+		}
+		if (nanos > max) {
+			max = nanos;
+		}
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * 記録された最小の時間を返します。
+	 *
+	 * @return 最小の時間（ナノ秒）。記録がない場合は0。
+	 */
+	public long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * 平均の時間を返します。
+	 *
+	 * @return 平均の時間（ナノ秒）。記録がない場合は0。
+	 */
+	public long getMean() {
+		return count == 0 ? 0 : total / count;
+	}
+
+	/**
+	 * 指定した割合の記録が収まる時間を返します。値は区間の上限で、記録された最大値を超えません。
+	 *
+	 * @param p 割合。0から1で指定します。0.99の場合は99パーセンタイルです。
+	 * @return 時間（ナノ秒）。記録がない場合は0。
+	 * @throws IllegalArgumentException pが0から1の範囲外の場合に投げられます。
+	 */
+	public long getPercentile(double p) throws IllegalArgumentException {
+		if (p < 0 || p > 1) {
+			throw new IllegalArgumentException("TimeHistogram : p is out of range : " + p);
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long target = (long) Math.ceil(count * p);
+		long n = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			n += buckets[i];
+			if (n >= target && n > 0) {
+				return Math.min((i + 1) * bucketNanos, max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * 区間ごとの記録数を返します。
+	 *
+	 * @return 記録数のコピー。i番目の要素はi * 区間の幅から(i + 1) * 区間の幅までの記録数です。
+	 */
+	public long[] getBuckets() {
+		return buckets.clone();
+	}
+
+	public long getBucketNanos() {
+		return bucketNanos;
+	}
+
+	public void reset() {
+		Arrays.fill(buckets, 0);
+		count = 0;
+		total = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "TimeHistogram{" + "count=" + count
+				+ ", mean=" + getMean() / 1000 + "us"
+				+ ", p50=" + getPercentile(0.5) / 1000 + "us"
+				+ ", p99=" + getPercentile(0.99) / 1000 + "us"
+				+ ", max=" + max / 1000 + "us}";
+	}
+
+}